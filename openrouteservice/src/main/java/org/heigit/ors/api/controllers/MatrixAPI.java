@@ -24,6 +24,7 @@ import org.heigit.ors.api.errors.CommonResponseEntityExceptionHandler;
 import org.heigit.ors.api.requests.common.APIEnums;
 import org.heigit.ors.api.requests.matrix.MatrixRequest;
 import org.heigit.ors.api.requests.matrix.MatrixRequestHandler;
+import org.heigit.ors.api.responses.matrix.binary.BinaryMatrixResponse;
 import org.heigit.ors.api.responses.matrix.json.JSONMatrixResponse;
 import org.heigit.ors.exceptions.*;
 import org.heigit.ors.matrix.MatrixErrorCodes;
@@ -35,6 +36,8 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 
 @RestController
 @Api(value = "Matrix Service", description = "Obtain one-to-many, many-to-one and many-to-many matrices for time and distance", tags = "Matrix")
@@ -100,6 +103,33 @@ public class MatrixAPI {
         return new JSONMatrixResponse(matrixResult, originalRequest);
     }
 
+    @PostMapping(value = "/{profile}/binary", produces = {BinaryMatrixResponse.CONTENT_TYPE})
+    @ApiOperation(value = "Get a matrix calculation from the specified profile as binary tables", httpMethod = "POST", consumes = "application/json", produces = BinaryMatrixResponse.CONTENT_TYPE,
+            notes = "Returns the raw little-endian float32 tables of the requested metrics together with the resolved locations, " +
+                    "so that large matrices can be memory mapped by the client instead of being parsed. The layout is: a 24 byte header " +
+                    "(`ORSM`, int32 format version, number of sources, number of destinations, bit mask of the metrics with 1 duration, " +
+                    "2 distance, 4 weight, reserved), 24 bytes per destination and then per source (float64 longitude, latitude and snapped distance, " +
+                    "NaN if not resolved) and one sources x destinations row-major table per metric in the order of the bit mask, -1 if no route was found. " +
+                    "Each table is padded with zero bytes to a multiple of 8 bytes, so that every section starts 8 byte aligned.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Standard response for successfully processed requests. Returns the binary matrix.")
+    })
+    public void getBinaryMime(
+            @ApiParam(value = "Specifies the matrix profile.", required = true, example = "driving-car") @PathVariable APIEnums.Profile profile,
+            @ApiParam(value = "The request payload", required = true) @RequestBody MatrixRequest originalRequest,
+            HttpServletResponse response) throws StatusCodeException, IOException {
+        originalRequest.setProfile(profile);
+        originalRequest.setResponseType(APIEnums.MatrixResponseType.BINARY);
+        MatrixResult matrixResult = MatrixRequestHandler.generateMatrixFromRequest(originalRequest);
+
+        BinaryMatrixResponse binaryResponse = new BinaryMatrixResponse(matrixResult, originalRequest);
+        response.setContentType(BinaryMatrixResponse.CONTENT_TYPE);
+        response.setContentLengthLong(binaryResponse.getLength());
+        try (OutputStream out = response.getOutputStream()) {
+            binaryResponse.write(out);
+        }
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<Object> handleMissingParams(final MissingServletRequestParameterException e) {
         return errorHandler.handleStatusCodeException(new MissingParameterException(MatrixErrorCodes.MISSING_PARAMETER, e.getParameterName()));
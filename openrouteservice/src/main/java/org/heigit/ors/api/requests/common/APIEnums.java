@@ -119,7 +119,8 @@ public class APIEnums {
 
     @ApiModel
     public enum MatrixResponseType {
-        JSON("json");
+        JSON("json"),
+        BINARY("binary");
 
         private final String value;
 
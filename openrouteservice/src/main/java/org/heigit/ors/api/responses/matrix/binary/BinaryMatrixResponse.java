@@ -0,0 +1,155 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package org.heigit.ors.api.responses.matrix.binary;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.api.requests.matrix.MatrixRequest;
+import org.heigit.ors.api.responses.matrix.MatrixResponse;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary representation of a matrix response which can be memory mapped by the client. All values are little-endian
+ * and every section starts at a multiple of 8 bytes:
+ * <ul>
+ *     <li>header of 24 bytes: the magic bytes {@code ORSM}, then the int32 values format version, number of sources,
+ *     number of destinations, bit mask of the contained metrics (1 duration, 2 distance, 4 weight) and a reserved 0</li>
+ *     <li>the destinations followed by the sources, 24 bytes each: float64 longitude, float64 latitude and float64
+ *     snapped distance of the resolved location, all NaN if the location could not be resolved</li>
+ *     <li>one table per metric in the order of the bit mask: sources x destinations float32 values in row-major order,
+ *     -1 if no route has been found, padded with zero bytes to a multiple of 8 bytes</li>
+ * </ul>
+ * Durations and distances are not rounded, distances are in the units of the request.
+ */
+public class BinaryMatrixResponse extends MatrixResponse {
+    public static final String CONTENT_TYPE = "application/octet-stream";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = {'O', 'R', 'S', 'M'};
+    private static final int HEADER_BYTES = 24;
+    private static final int LOCATION_BYTES = 24;
+    private static final int ALIGNMENT = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int[] METRICS = {MatrixMetricsType.DURATION, MatrixMetricsType.DISTANCE, MatrixMetricsType.WEIGHT};
+
+    private final int metrics;
+
+    public BinaryMatrixResponse(MatrixResult result, MatrixRequest request) {
+        super(result, request);
+
+        int contained = 0;
+        for (int metric : METRICS) {
+            if (result.getTable(metric) != null)
+                contained |= metric;
+        }
+        metrics = contained;
+    }
+
+    public int getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the number of bytes written by {@link #write(OutputStream)}
+     */
+    public long getLength() {
+        long sources = matrixResult.getSources().length;
+        long destinations = matrixResult.getDestinations().length;
+
+        return HEADER_BYTES + (sources + destinations) * LOCATION_BYTES + Integer.bitCount(metrics) * getTableLength(sources * destinations);
+    }
+
+    /**
+     * @return the number of bytes of a table with the given number of values including its padding
+     */
+    static long getTableLength(long values) {
+        return (values * Float.BYTES + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ResolvedLocation[] sources = matrixResult.getSources();
+        ResolvedLocation[] destinations = matrixResult.getDestinations();
+
+        buffer.put(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(sources.length);
+        buffer.putInt(destinations.length);
+        buffer.putInt(metrics);
+        buffer.putInt(0);
+
+        writeLocations(out, buffer, destinations);
+        writeLocations(out, buffer, sources);
+
+        for (int metric : METRICS) {
+            if (MatrixMetricsType.isSet(metrics, metric))
+                writeTable(out, buffer, matrixResult.getTable(metric));
+        }
+
+        flush(out, buffer);
+        out.flush();
+    }
+
+    private static void writeTable(OutputStream out, ByteBuffer buffer, float[] table) throws IOException {
+        int offset = 0;
+        while (offset < table.length) {
+            ensureRemaining(out, buffer, Float.BYTES);
+            int count = Math.min(buffer.remaining() / Float.BYTES, table.length - offset);
+            // the view inherits the little-endian order of the buffer
+            buffer.asFloatBuffer().put(table, offset, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+            offset += count;
+        }
+
+        int padding = (int) (getTableLength(table.length) - (long) table.length * Float.BYTES);
+        ensureRemaining(out, buffer, padding);
+        for (int i = 0; i < padding; i++)
+            buffer.put((byte) 0);
+    }
+
+    private static void writeLocations(OutputStream out, ByteBuffer buffer, ResolvedLocation[] locations) throws IOException {
+        for (ResolvedLocation location : locations) {
+            ensureRemaining(out, buffer, LOCATION_BYTES);
+            if (location == null) {
+                buffer.putDouble(Double.NaN);
+                buffer.putDouble(Double.NaN);
+                buffer.putDouble(Double.NaN);
+            } else {
+                Coordinate c = location.getCoordinate();
+                buffer.putDouble(c.x);
+                buffer.putDouble(c.y);
+                buffer.putDouble(location.getSnappedDistance());
+            }
+        }
+    }
+
+    private static void ensureRemaining(OutputStream out, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            flush(out, buffer);
+    }
+
+    private static void flush(OutputStream out, ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+}
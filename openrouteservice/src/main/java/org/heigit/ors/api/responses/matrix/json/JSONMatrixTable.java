@@ -0,0 +1,81 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package org.heigit.ors.api.responses.matrix.json;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.heigit.ors.api.converters.MatrixTableSerializer;
+import org.heigit.ors.util.FormatUtility;
+
+/**
+ * A table of a matrix response backed by the flat {@code float[]} of the {@link org.heigit.ors.matrix.MatrixResult}.
+ * It is written to the response by {@link MatrixTableSerializer} without converting it to nested arrays first.
+ */
+@JsonSerialize(using = MatrixTableSerializer.class)
+public class JSONMatrixTable {
+    private static final float NO_VALUE = -1;
+
+    private final float[] values;
+    private final int rows;
+    private final int columns;
+
+    public JSONMatrixTable(float[] values, int rows, int columns) {
+        this.values = values;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    public JSONMatrixTable(Double[][] table) {
+        rows = table.length;
+        columns = rows > 0 ? table[0].length : 0;
+        values = new float[rows * columns];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                Double value = table[i][j];
+                values[(i * columns) + j] = value == null ? NO_VALUE : value.floatValue();
+            }
+        }
+    }
+
+    public float[] getValues() {
+        return values;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public Double[][] toArray() {
+        Double[][] table = new Double[rows][columns];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                double value = values[(i * columns) + j];
+                if (value == NO_VALUE)
+                    table[i][j] = null;
+                else
+                    table[i][j] = FormatUtility.roundToDecimals(value, 2);
+            }
+        }
+
+        return table;
+    }
+}
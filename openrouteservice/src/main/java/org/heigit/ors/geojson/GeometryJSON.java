@@ -31,6 +31,9 @@ import com.vividsolutions.jts.geom.Polygon;
 
 import org.heigit.ors.util.FormatUtility;
 
+import java.io.IOException;
+import java.io.Writer;
+
 public class GeometryJSON {
 
 	private static final int COORDINATE_PRECISION = 6;
@@ -127,6 +130,29 @@ public class GeometryJSON {
 		return arrCoords;
 	}
 
+	/**
+	 * Writes the coordinates as {@link #toJSON(Coordinate[], boolean)} would serialize them, without creating the
+	 * intermediate arrays.
+	 */
+	public static void write(Coordinate[] coords, boolean includeElevation, Writer out) throws IOException {
+		out.write('[');
+		for (int i = 0; i < coords.length; i++) {
+			Coordinate c = coords[i];
+			if (i > 0)
+				out.write(',');
+			out.write('[');
+			out.write(JSONObject.numberToString(FormatUtility.roundToDecimals(c.x, COORDINATE_PRECISION)));
+			out.write(',');
+			out.write(JSONObject.numberToString(FormatUtility.roundToDecimals(c.y, COORDINATE_PRECISION)));
+			if (includeElevation) {
+				out.write(',');
+				out.write(JSONObject.numberToString(FormatUtility.roundToDecimals(c.z, 1)));
+			}
+			out.write(']');
+		}
+		out.write(']');
+	}
+
 	public static JSONArray toJSON(double minX, double minY, double maxX, double maxY) {
 		JSONArray bbox = new JSONArray(4);
 
@@ -26,12 +26,9 @@
 package org.heigit.ors.globalresponseprocessor.geojson;
 
 import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.geom.GeometryFactory;
-import com.vividsolutions.jts.geom.LineString;
 import org.geotools.feature.DefaultFeatureCollection;
-import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.geojson.feature.FeatureJSON;
-import org.geotools.geojson.geom.GeometryJSON;
+import org.heigit.ors.geojson.GeometryJSON;
 import org.heigit.ors.isochrones.IsochroneRequest;
 import org.heigit.ors.routing.RouteResult;
 import org.heigit.ors.routing.RoutingRequest;
@@ -39,12 +36,12 @@ import org.heigit.ors.services.routing.requestprocessors.json.JsonRoutingRespons
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.opengis.feature.simple.SimpleFeature;
-import org.opengis.feature.simple.SimpleFeatureType;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import static org.heigit.ors.util.JsonUtility.objectToJSONArray;
@@ -63,59 +60,93 @@ public class GeoJsonResponseWriter {
     public static final String KEY_ROUTES = "routes";
     public static final String KEY_FEATURES = "features";
     public static final String KEY_PROPERTIES = "properties";
-    // Create static feature JSON with 6 decimals precision (never less than 6)
-    private static FeatureJSON fjson = new FeatureJSON(new GeometryJSON(6));
+    private static final String KEY_SUMMARY = "summary";
+    // Feature JSON writes with 6 decimals precision (never less than 6)
+    private static final int FEATURE_JSON_DECIMALS = 6;
 
     /**
-     * The function transforms {@link RouteResult}'s in a ready-to-be-shipped {@link DefaultFeatureCollection} enriched with ORS specific information
+     * The function transforms {@link RouteResult}'s in a ready-to-be-shipped FeatureCollection enriched with ORS specific information
      * The return value is a {@link JSONObject}.
      * The function is ready to process RouteResults[] Arrays with multiple Routes.
-     * Results will always be {@link DefaultFeatureCollection} nevertheless the input consists of one ore more Routes.
+     * Results will always be a FeatureCollection nevertheless the input consists of one ore more Routes.
      *
      * @param rreq        A {@link RoutingRequest} holding the initial Request.
      * @param routeResult A {@link RouteResult}.
-     * @return It will always return a {@link DefaultFeatureCollection} in a {@link JSONObject} representation.
+     * @return It will always return a FeatureCollection in a {@link JSONObject} representation.
      * @throws Exception Throws an error if the JsonRoute could not be calculated
      */
     public static JSONObject toGeoJson(RoutingRequest rreq, RouteResult[] routeResult) throws Exception {
-        Map<String, Map<String, Object>> featurePropertiesMap = new HashMap<>();
-        HashMap<String, Object> defaultFeatureCollectionProperties = new HashMap<>();
-        SimpleFeatureType routingFeatureType = new SimpleFeatureTypes(SimpleFeatureTypes.RouteFeatureType.ROUTE_FEATURE).create();
-        DefaultFeatureCollection defaultFeatureCollection = new DefaultFeatureCollection("routing", routingFeatureType);
-
-        GeometryFactory geometryFactory = new GeometryFactory();
-        JSONObject jsonRoutes = JsonRoutingResponseWriter.toJson(rreq, routeResult);
-        for (int i = 0; i < jsonRoutes.getJSONArray(KEY_ROUTES).length(); i++) {
-            JSONObject route = jsonRoutes.getJSONArray(KEY_ROUTES).getJSONObject(i);
-            SimpleFeatureBuilder routingFeatureBuilder = new SimpleFeatureBuilder(routingFeatureType);
-            SimpleFeature routingFeature = null;
-            HashMap<String, Object> routingFeatureProperties = new HashMap<>();
-            Coordinate[] coordinateArray = routeResult[i].getGeometry();
-            LineString lineString = geometryFactory.createLineString(coordinateArray);
-
-            routingFeatureBuilder.set("geometry", lineString);
-            JSONArray routeKeys = route.names();
-            for (int j = 0; j < routeKeys.length(); j++) {
-                String key = routeKeys.getString(j);
-                if (!key.equals("geometry_format") && !key.equals("geometry")) {
-                    routingFeatureProperties.put(key, route.get(key));
-                }
-            }
+        StringWriter stringWriter = new StringWriter();
+        write(rreq, routeResult, stringWriter);
+        return new JSONObject(stringWriter.toString());
+    }
+
+    /**
+     * Writes the {@link RouteResult}'s as a FeatureCollection with one LineString feature per route directly to the given writer.
+     * The route geometries are written from the {@link RouteResult}'s, the properties of the features and of the collection
+     * are the objects and arrays of the JSON response of the routes.
+     *
+     * @param rreq        A {@link RoutingRequest} holding the initial Request.
+     * @param routeResult A {@link RouteResult}.
+     * @param out         The writer the FeatureCollection is written to, it is not closed.
+     * @throws Exception Throws an error if the JsonRoute could not be calculated
+     */
+    public static void write(RoutingRequest rreq, RouteResult[] routeResult, Writer out) throws Exception {
+        JSONObject jsonRoutes = JsonRoutingResponseWriter.toJson(rreq, routeResult, false);
+        JSONArray routes = jsonRoutes.getJSONArray(KEY_ROUTES);
 
-            routingFeature = routingFeatureBuilder.buildFeature(null);
-            defaultFeatureCollection.add(routingFeature);
-            featurePropertiesMap.put(routingFeature.getID(), routingFeatureProperties);
+        out.write("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < routes.length(); i++) {
+            if (i > 0)
+                out.write(',');
+            Coordinate[] coordinates = routeResult[i].getGeometry();
+            out.write("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":");
+            GeometryJSON.write(coordinates != null ? coordinates : new Coordinate[0], rreq.getIncludeElevation(), out);
+            out.write("},\"properties\":{");
+            writeProperties(routes.getJSONObject(i), out, true);
+            out.write("}}");
+        }
+        out.write(']');
+        writeProperties(jsonRoutes, out, false);
+        out.write('}');
+        out.flush();
+    }
 
-            JSONArray jsonRouteKeys = jsonRoutes.names();
-            for (int j = 0; j < jsonRouteKeys.length(); j++) {
-                String key = jsonRouteKeys.getString(j);
-                if (!key.equals(KEY_ROUTES)) {
-                    defaultFeatureCollectionProperties.put(key, jsonRoutes.get(key));
-                }
+    /**
+     * Writes the object and array members of the JSON object, other values are not exported.
+     */
+    private static void writeProperties(JSONObject json, Writer out, boolean first) throws IOException {
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = json.get(key);
+            if (key.equals(KEY_ROUTES) || !(value instanceof JSONObject || value instanceof JSONArray))
+                continue;
+
+            if (!first)
+                out.write(',');
+            first = false;
+            JSONObject.quote(key, out);
+            out.write(':');
+
+            // To preserve backwards compatibility, we need to pass the summary object as an array of summary objects
+            if (key.equals(KEY_SUMMARY) && value instanceof JSONObject) {
+                out.write('[');
+                ((JSONObject) value).write(out);
+                out.write(']');
+            } else if (value instanceof JSONObject) {
+                ((JSONObject) value).write(out);
+            } else {
+                ((JSONArray) value).write(out);
             }
         }
-        return addProperties(defaultFeatureCollection, featurePropertiesMap, defaultFeatureCollectionProperties);
+    }
 
+    /**
+     * Feature JSON instances keep state while writing, so they must not be shared between requests.
+     */
+    private static FeatureJSON createFeatureJSON() {
+        return new FeatureJSON(new org.geotools.geojson.geom.GeometryJSON(FEATURE_JSON_DECIMALS));
     }
 
     /**
@@ -139,7 +170,7 @@ public class GeoJsonResponseWriter {
      */
     public static JSONObject addProperties(SimpleFeature simpleFeature, Map<String, Map<String, Object>> featurePropertiesMap) throws IOException {
         StringWriter stringWriter = new StringWriter();
-        fjson.writeFeature(simpleFeature, stringWriter);
+        createFeatureJSON().writeFeature(simpleFeature, stringWriter);
         JSONObject featureAsJSON = new JSONObject(stringWriter.toString());
         stringWriter.close();
         return featureProperties(featureAsJSON, featurePropertiesMap);
@@ -157,7 +188,7 @@ public class GeoJsonResponseWriter {
      */
     public static JSONObject addProperties(DefaultFeatureCollection defaultFeatureCollection, Map<String, Map<String, Object>> featurePropertiesMap, Map<String, Object> defaultFeatureCollectionProperties) throws IOException {
         Writer stringWriter = new StringWriter();
-        fjson.writeFeatureCollection(defaultFeatureCollection, stringWriter);
+        createFeatureJSON().writeFeatureCollection(defaultFeatureCollection, stringWriter);
         JSONObject featureCollectionAsJSON = new JSONObject(stringWriter.toString());
         stringWriter.close();
         JSONObject addFeatureProperties = featureProperties(featureCollectionAsJSON, featurePropertiesMap);
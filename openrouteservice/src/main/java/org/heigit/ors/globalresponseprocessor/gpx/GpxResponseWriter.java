@@ -27,6 +27,7 @@ package org.heigit.ors.globalresponseprocessor.gpx;
 
 
 import com.graphhopper.util.shapes.BBox;
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.Point;
 import org.heigit.ors.api.util.SystemMessage;
@@ -40,7 +41,16 @@ import org.heigit.ors.util.GeomUtility;
 
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
@@ -48,6 +58,7 @@ import java.util.List;
 
 /**
  * {@link GpxResponseWriter} converts OpenRouteService {@link RouteResult} to GPX in a well formatted xml string representation.
+ * The document is streamed with StAX, the JAXB beans of {@link Gpx} are only kept to describe the format.
  *
  * @author Julian Psotta, julian@openrouteservice.org
  */
@@ -59,6 +70,14 @@ public class GpxResponseWriter {
     private static final String PARAM_NAME_CONTENT_LICENCE = "content_licence";
     private static final String PARAM_NAME_ROUTING_DESCRIPTION = "routing_description";
 
+    private static final String GPX_NAMESPACE = "https://raw.githubusercontent.com/GIScience/openrouteservice-schema/master/gpx/v2/ors-gpx.xsd";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String INDENT = "    ";
+    // xs:gYear and xs:dateTime as printed by JAXB for the XMLGregorianCalendar of the current time
+    private static final DateTimeFormatter YEAR_FORMAT = DateTimeFormatter.ofPattern("yyyyXXX");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
     private GpxResponseWriter () {}
 
     /**
@@ -71,6 +90,300 @@ public class GpxResponseWriter {
      * @throws Exception The class throws Exception cases
      */
     public static String toGPX(RoutingRequest rreq, RouteResult[] routeResults) throws Exception {
+        StringWriter writer = new StringWriter();
+        write(rreq, routeResults, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Writes the GPX of the {@link RouteResult}s to the given writer without building the document in memory first.
+     * The output is identical to the formatted JAXB representation of the {@link Gpx} beans created by
+     * {@link #createGpx(RoutingRequest, RouteResult[], Date)}.
+     *
+     * @param rreq         The {@link RoutingRequest} object holds route specific information like language...
+     * @param routeResults The function needs a {@link RouteResult} as input.
+     * @param out          The writer the GPX is written to, it is flushed but not closed.
+     * @throws Exception The class throws Exception cases
+     */
+    public static void write(RoutingRequest rreq, RouteResult[] routeResults, Writer out) throws Exception {
+        write(rreq, routeResults, out, new Date());
+    }
+
+    static void write(RoutingRequest rreq, RouteResult[] routeResults, Writer out, Date date) throws Exception {
+        boolean includeElevation = rreq.getIncludeElevation();
+        BBox bbox = routeResults[0].getSummary().getBBox();
+        ZonedDateTime time = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+
+        out.write(XML_DECLARATION);
+        GpxStreamWriter writer = new GpxStreamWriter(XML_OUTPUT_FACTORY.createXMLStreamWriter(out));
+
+        writer.startElement("gpx");
+        writer.attribute("version", "1.0");
+        writer.attribute("creator", getInfoParameter(PARAM_NAME_AUTHOR_TAG));
+        writer.defaultNamespace(GPX_NAMESPACE);
+
+        writer.startElement("metadata");
+        writer.textElement("name", RoutingServiceSettings.getRoutingName());
+        writer.textElement("desc", getRoutingParameter(PARAM_NAME_ROUTING_DESCRIPTION));
+        writeAuthor(writer);
+        writer.startElement("copyright");
+        writer.attribute("author", getAttribution());
+        writer.textElement("year", time.format(YEAR_FORMAT));
+        writer.textElement("license", getInfoParameter(PARAM_NAME_CONTENT_LICENCE));
+        writer.endElement();
+        writer.textElement("time", time.format(TIME_FORMAT));
+        writeBounds(writer, bbox);
+        String systemMessage = SystemMessage.getSystemMessage(rreq);
+        if (systemMessage != null) {
+            writer.startElement("extensions");
+            writer.textElement("system-message", systemMessage);
+            writer.endElement();
+        } else {
+            writer.emptyElement("extensions");
+        }
+        writer.endElement();
+
+        for (RouteResult route : routeResults) {
+            if (route.getSummary() != null)
+                writeRoute(writer, rreq, route, includeElevation);
+        }
+
+        writer.startElement("extensions");
+        writer.textElement("attribution", RoutingServiceSettings.getAttribution());
+        writer.textElement("engine", AppInfo.VERSION);
+        writer.textElement("build_date", AppInfo.BUILD_DATE);
+        writer.textElement("profile", WeightingMethod.getName(rreq.getSearchParameters().getProfileType()));
+        writer.textElement("preference", RoutingProfileType.getName(rreq.getSearchParameters().getWeightingMethod()));
+        writer.textElement("language", rreq.getLanguage());
+        writer.textElement("distance-units", rreq.getUnits().name());
+        writer.textElement("instructions", String.valueOf(rreq.getIncludeInstructions()));
+        writer.textElement("elevation", String.valueOf(includeElevation));
+        writer.endElement();
+
+        writer.endElement();
+        writer.flush();
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void writeRoute(GpxStreamWriter writer, RoutingRequest rreq, RouteResult route, boolean includeElevation) throws XMLStreamException {
+        writer.startElement("rte");
+
+        Coordinate[] geometry = route.getGeometry();
+        if (geometry != null) {
+            RouteStep[] pointSteps = new RouteStep[geometry.length];
+            if (rreq.getIncludeInstructions() && !route.getSegments().isEmpty()) {
+                // later steps take precedence where the point ranges of two steps overlap
+                for (RouteStep routeStep : route.getSegments().get(0).getSteps()) {
+                    int[] wayPointNumber = routeStep.getWayPoints();
+                    int startPoint = wayPointNumber[0];
+                    // the start and end points always cross with the points from the routesteps before and after
+                    // to avoid duplicity the startpoint is raised by one if not zero or just one point ine the routestep
+                    if (startPoint != 0 || wayPointNumber.length == 1)
+                        startPoint += 1;
+                    int endPoint = Math.min(wayPointNumber[1], geometry.length - 1);
+                    if (startPoint <= endPoint)
+                        Arrays.fill(pointSteps, startPoint, endPoint + 1, routeStep);
+                }
+            }
+
+            for (int i = 0; i < geometry.length; i++) {
+                Coordinate c = geometry[i];
+                RouteStep routeStep = pointSteps[i];
+                if (!includeElevation && routeStep == null) {
+                    writer.emptyElement("rtept");
+                    writeCoordinate(writer, c);
+                    continue;
+                }
+
+                writer.startElement("rtept");
+                writeCoordinate(writer, c);
+                if (includeElevation)
+                    writer.textElement("ele", formatDecimal(c.z));
+                if (routeStep != null) {
+                    writer.textElement("name", routeStep.getName());
+                    writer.textElement("desc", routeStep.getInstruction());
+                    writer.startElement("extensions");
+                    writer.textElement("distance", String.valueOf(routeStep.getDistance()));
+                    writer.textElement("duration", String.valueOf(routeStep.getDuration()));
+                    writer.textElement("type", String.valueOf(routeStep.getType()));
+                    writer.textElement("step", String.valueOf(i));
+                    writer.endElement();
+                }
+                writer.endElement();
+            }
+        }
+
+        RouteSummary routeSummary = route.getSummary();
+        writer.startElement("extensions");
+        writer.textElement("distance", String.valueOf(routeSummary.getDistance()));
+        writer.textElement("duration", String.valueOf(routeSummary.getDuration()));
+        writer.textElement("distanceActual", String.valueOf(0.0));
+        writer.textElement("ascent", String.valueOf(routeSummary.getAscent()));
+        writer.textElement("descent", String.valueOf(routeSummary.getDescent()));
+        writer.textElement("avgspeed", String.valueOf(routeSummary.getAverageSpeed()));
+        writeBounds(writer, routeSummary.getBBox());
+        writer.endElement();
+
+        writer.endElement();
+    }
+
+    private static void writeCoordinate(GpxStreamWriter writer, Coordinate c) throws XMLStreamException {
+        writer.attribute("lat", formatDecimal(c.y));
+        writer.attribute("lon", formatDecimal(c.x));
+    }
+
+    private static void writeBounds(GpxStreamWriter writer, BBox bbox) throws XMLStreamException {
+        writer.emptyElement("bounds");
+        writer.attribute("minLat", formatDecimal(bbox != null ? bbox.minLat : 0));
+        writer.attribute("minLon", formatDecimal(bbox != null ? bbox.minLon : 0));
+        writer.attribute("maxLat", formatDecimal(bbox != null ? bbox.maxLat : 0));
+        writer.attribute("maxLon", formatDecimal(bbox != null ? bbox.maxLon : 0));
+    }
+
+    private static void writeAuthor(GpxStreamWriter writer) throws XMLStreamException {
+        writer.startElement("author");
+        writer.textElement("name", getInfoParameter(PARAM_NAME_AUTHOR_TAG));
+
+        String id = "";
+        String domain = "";
+        String supportMail = AppConfig.getGlobal().getParameter("info", PARAM_NAME_SUPPORT_MAIL);
+        if (supportMail != null) {
+            String[] mail = supportMail.split("@");
+            if (mail.length > 1) {
+                id = mail[0];
+                domain = "@" + mail[1];
+            } else {
+                ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, PARAM_NAME_SUPPORT_MAIL, "The parameter seems to be malformed");
+            }
+        } else {
+            ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, PARAM_NAME_SUPPORT_MAIL);
+        }
+        writer.emptyElement("email");
+        writer.attribute("id", id);
+        writer.attribute("domain", domain);
+
+        String baseUrl = getInfoParameter(PARAM_NAME_BASE_URL);
+        writer.startElement("link");
+        writer.attribute("href", baseUrl);
+        writer.textElement("text", baseUrl);
+        writer.textElement("type", "text/html");
+        writer.endElement();
+
+        writer.endElement();
+    }
+
+    private static String getInfoParameter(String name) {
+        String value = AppConfig.getGlobal().getParameter("info", name);
+        if (value == null) {
+            ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, name);
+            return "";
+        }
+        return value;
+    }
+
+    private static String getRoutingParameter(String name) {
+        String value = RoutingServiceSettings.getParameter(name);
+        if (value == null) {
+            ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, name);
+            return "";
+        }
+        return value;
+    }
+
+    private static String getAttribution() {
+        String value = RoutingServiceSettings.getAttribution();
+        if (value == null) {
+            ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, "attribution");
+            return "";
+        }
+        return value;
+    }
+
+    /**
+     * Formats the value like JAXB prints {@code BigDecimal.valueOf(value)}, without creating the BigDecimal unless
+     * the value is in scientific notation.
+     */
+    static String formatDecimal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            throw new NumberFormatException("Infinite or NaN");
+        if (value == 0)
+            return "0.0";
+        String str = Double.toString(value);
+        return str.indexOf('E') < 0 ? str : new BigDecimal(str).toPlainString();
+    }
+
+    /**
+     * Writes elements on separate lines indented by four spaces per level, as the formatted output of JAXB does.
+     */
+    private static final class GpxStreamWriter {
+        private final XMLStreamWriter writer;
+        private int depth;
+        private boolean hasChildren;
+
+        GpxStreamWriter(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        void startElement(String name) throws XMLStreamException {
+            writeIndent();
+            writer.writeStartElement(name);
+            depth++;
+            hasChildren = false;
+        }
+
+        void emptyElement(String name) throws XMLStreamException {
+            writeIndent();
+            writer.writeEmptyElement(name);
+            hasChildren = true;
+        }
+
+        void textElement(String name, String text) throws XMLStreamException {
+            if (text == null)
+                return;
+            writeIndent();
+            writer.writeStartElement(name);
+            writer.writeCharacters(text);
+            writer.writeEndElement();
+            hasChildren = true;
+        }
+
+        void attribute(String name, String value) throws XMLStreamException {
+            if (value != null)
+                writer.writeAttribute(name, value);
+        }
+
+        void defaultNamespace(String namespace) throws XMLStreamException {
+            writer.writeDefaultNamespace(namespace);
+        }
+
+        void endElement() throws XMLStreamException {
+            depth--;
+            if (hasChildren)
+                writeIndent();
+            writer.writeEndElement();
+            hasChildren = true;
+        }
+
+        void flush() throws XMLStreamException {
+            writer.flush();
+        }
+
+        private void writeIndent() throws XMLStreamException {
+            if (depth == 0)
+                return;
+            StringBuilder sb = new StringBuilder(1 + depth * INDENT.length()).append('\n');
+            for (int i = 0; i < depth; i++)
+                sb.append(INDENT);
+            writer.writeCharacters(sb.toString());
+        }
+    }
+
+    /**
+     * Creates the GPX of the {@link RouteResult}s as JAXB beans, which {@link #write(RoutingRequest, RouteResult[], Writer)}
+     * writes directly.
+     */
+    static Gpx createGpx(RoutingRequest rreq, RouteResult[] routeResults, Date date) throws Exception {
         boolean includeElevation = rreq.getIncludeElevation();
         Gpx gpx = new Gpx();
         // In case of multiple routes there is no general BBox. So the first route will always deliver the general BBox.
@@ -245,7 +558,6 @@ public class GpxResponseWriter {
             ErrorLoggingUtility.logMissingConfigParameter(GpxResponseWriter.class, PARAM_NAME_CONTENT_LICENCE);
         }
         // create and set current date as XMLGregorianCalendar element
-        Date date = new Date();
         GregorianCalendar c = new GregorianCalendar();
         c.setTime(date);
         XMLGregorianCalendar cal = DatatypeFactory.newInstance().newXMLGregorianCalendar(c);
@@ -288,6 +600,6 @@ public class GpxResponseWriter {
         gpxExtensions.setProfile(WeightingMethod.getName(rreq.getSearchParameters().getProfileType()));
         gpxExtensions.setDistanceUnits(rreq.getUnits().name());
         gpx.setExtensions(gpxExtensions);
-        return gpx.build();
+        return gpx;
     }
 }
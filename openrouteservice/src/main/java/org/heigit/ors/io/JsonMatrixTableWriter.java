@@ -0,0 +1,74 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.heigit.ors.util.FormatUtility;
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes the flat {@code float[]} tables of a {@link org.heigit.ors.matrix.MatrixResult} as nested JSON arrays
+ * directly to a stream, one row per source, without building an intermediate tree of boxed values. Unreachable
+ * entries (-1) are written as {@code null}, all other values are rounded to two decimals.
+ */
+public class JsonMatrixTableWriter {
+	private static final float NO_VALUE = -1;
+
+	private JsonMatrixTableWriter() {}
+
+	public static void write(JsonGenerator generator, float[] values, int rows, int columns) throws IOException {
+		generator.writeStartArray();
+
+		for (int i = 0; i < rows; ++i) {
+			int rowOffset = i * columns;
+			generator.writeStartArray();
+
+			for (int j = 0; j < columns; ++j) {
+				float value = values[rowOffset + j];
+				if (value == NO_VALUE)
+					generator.writeNull();
+				else
+					generator.writeNumber(FormatUtility.roundToDecimals(value, 2));
+			}
+
+			generator.writeEndArray();
+		}
+
+		generator.writeEndArray();
+	}
+
+	public static void write(JSONWriter writer, float[] values, int rows, int columns) {
+		writer.array();
+
+		for (int i = 0; i < rows; ++i) {
+			int rowOffset = i * columns;
+			writer.array();
+
+			for (int j = 0; j < columns; ++j) {
+				float value = values[rowOffset + j];
+				if (value == NO_VALUE)
+					writer.value(JSONObject.NULL);
+				else
+					writer.value(FormatUtility.roundToDecimals(value, 2));
+			}
+
+			writer.endArray();
+		}
+
+		writer.endArray();
+	}
+}
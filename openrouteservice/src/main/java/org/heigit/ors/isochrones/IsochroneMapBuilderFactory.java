@@ -17,7 +17,9 @@ import com.graphhopper.util.Helper;
 import org.heigit.ors.isochrones.builders.IsochroneMapBuilder;
 import org.heigit.ors.isochrones.builders.concaveballs.ConcaveBallsIsochroneMapBuilder;
 import org.heigit.ors.isochrones.builders.grid.GridBasedIsochroneMapBuilder;
+import org.heigit.ors.isochrones.builders.raster.RasterIsochroneMapBuilder;
 import org.heigit.ors.routing.RouteSearchContext;
+import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 
 public class IsochroneMapBuilderFactory {
 	private RouteSearchContext searchContext;
@@ -29,11 +31,15 @@ public class IsochroneMapBuilderFactory {
 	public IsochroneMap buildMap(IsochroneSearchParameters parameters) throws Exception {
 		IsochroneMapBuilder isochroneBuilder ;
 		String method = parameters.getCalcMethod();
-		if (Helper.isEmpty(method) || "Default".equalsIgnoreCase(method) || "ConcaveBalls".equalsIgnoreCase(method)) {
+		if (Helper.isEmpty(method) || "Default".equalsIgnoreCase(method))
+			method = IsochronesServiceSettings.getCalcMethod(parameters.getRouteParameters().getProfileType());
+		if ("ConcaveBalls".equalsIgnoreCase(method)) {
 			isochroneBuilder = new ConcaveBallsIsochroneMapBuilder();
 		} else if ("grid".equalsIgnoreCase(method)) {
         	isochroneBuilder= new GridBasedIsochroneMapBuilder();
-        } else {
+        } else if ("raster".equalsIgnoreCase(method)) {
+			isochroneBuilder = new RasterIsochroneMapBuilder();
+		} else {
 			throw new Exception("Unknown method.");
 		}
 		isochroneBuilder.initialize(searchContext);
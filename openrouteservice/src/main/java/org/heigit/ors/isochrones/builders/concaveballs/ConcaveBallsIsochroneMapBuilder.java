@@ -34,6 +34,7 @@ import org.heigit.ors.routing.RouteSearchContext;
 import org.heigit.ors.routing.graphhopper.extensions.AccessibilityMap;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.*;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FootFlagEncoder;
+import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 import org.heigit.ors.util.GeomUtility;
 import org.apache.log4j.Logger;
 import org.opensphere.geometry.algorithm.ConcaveHull;
@@ -54,6 +55,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 	private List<Coordinate> prevIsoPoints = null;
     private TreeSet<Coordinate> treeSet;
 	private RouteSearchContext searchContext;
+	private boolean incremental = IsochronesServiceSettings.getIncrementalConcaveHull();
 
 	private static final boolean BUFFERED_OUTPUT = true;
 
@@ -62,21 +64,46 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		this.searchContext = searchContext;
 	}
 
+	void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	public IsochroneMap compute(IsochroneSearchParameters parameters) throws Exception {
+		StopWatch sw = null;
+		if (LOGGER.isDebugEnabled())
+		{
+			sw = new StopWatch();
+			sw.start();
+		}
+
+		// 1. Find all graph edges for a given cost.
+		AccessibilityMap edgeMap = GraphEdgeMapFinder.findEdgeMap(searchContext, parameters);
+
+		if (LOGGER.isDebugEnabled())
+		{
+			sw.stop();
+
+			LOGGER.debug("Find edges: " + sw.getSeconds());
+		}
+
+		return compute(parameters, edgeMap);
+	}
+
+	/**
+	 * Builds the isochrones of the given ranges from the edges reached by a search.
+	 */
+	IsochroneMap compute(IsochroneSearchParameters parameters, AccessibilityMap edgeMap) {
 		StopWatch swTotal = null;
 		StopWatch sw = null;
 		if (LOGGER.isDebugEnabled())
 		{
 			swTotal = new StopWatch();
 			swTotal.start();
-			sw = new StopWatch();
-			sw.start();
 		}
 
 		GraphHopperStorage graph = searchContext.getGraphHopper().getGraphHopperStorage();
 		String graphdate = graph.getProperties().get("datareader.import.date");
 
-		// 1. Find all graph edges for a given cost.
 		double maxSpeed = searchContext.getEncoder().getMaxSpeed();
 
 		if (searchContext.getEncoder() instanceof FootFlagEncoder || searchContext.getEncoder() instanceof HikeFlagEncoder) {
@@ -93,8 +120,6 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
             meanSpeed = ((ORSAbstractFlagEncoder) searchContext.getEncoder()).getMeanSpeed();
         }
 
-		AccessibilityMap edgeMap = GraphEdgeMapFinder.findEdgeMap(searchContext, parameters);
-
         GHPoint3D point = edgeMap.getSnappedPosition();
 
         Coordinate loc = (point == null) ? parameters.getLocation() : new Coordinate(point.lon, point.lat);
@@ -103,13 +128,6 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 
 		isochroneMap.setGraphDate(graphdate);
 
-		if (LOGGER.isDebugEnabled())
-		{
-			sw.stop();
-
-			LOGGER.debug("Find edges: " + sw.getSeconds());
-		}
-
 		if (edgeMap.isEmpty())
 			return isochroneMap;
 
@@ -137,6 +155,15 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		// only needed for reachfactor property
 		double meanMetersPerSecond = meanSpeed / 3.6;
 
+		if (incremental) {
+			addIsochronesIncremental(isochroneMap, edgeMap, parameters, metersPerSecond, meanMetersPerSecond);
+
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("Total time: " + swTotal.stop().getSeconds());
+
+			return isochroneMap;
+		}
+
 		double prevCost = 0;
 		for (int i = 0; i < nRanges; i++) {
 			double isoValue = parameters.getRanges()[i];
@@ -238,6 +265,131 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		isochroneMap.addIsochrone(new Isochrone(poly, isoValue, meanRadius));
 	}
 
+	/**
+	 * Builds the isochrones of all ranges from a single triangulation. Every point carries the cost at which it is
+	 * reached, and the points where edges cross a range are added explicitly, so that the hull of each range can be
+	 * taken from the triangles within that range. The hull of a range keeps the triangles of the previous one, which
+	 * replaces adding the points of the previous hull in {@link #copyConvexHullPoints(Polygon)}.
+	 */
+	private void addIsochronesIncremental(IsochroneMap isochroneMap, AccessibilityMap edgeMap, IsochroneSearchParameters parameters,
+			double metersPerSecond, double meanMetersPerSecond) {
+		StopWatch sw = null;
+		if (LOGGER.isDebugEnabled())
+			sw = new StopWatch().start();
+
+		double[] ranges = parameters.getRanges();
+		double maxRange = ranges[ranges.length - 1];
+		boolean isDistance = parameters.getRangeType() == TravelRangeType.DISTANCE;
+
+		double minDifference = ranges[0];
+		for (int i = 1; i < ranges.length; i++)
+			minDifference = Math.min(minDifference, ranges[i] - ranges[i - 1]);
+		if (!isDistance)
+			minDifference *= metersPerSecond;
+
+		IntObjectMap<SPTEntry> map = edgeMap.getMap();
+		boolean useHighDetail = map.size() < 1000 || minDifference < 1000;
+		double bufferSize = useHighDetail ? 0.00018 : 0.0018;
+
+		IncrementalConcaveHull hull = new IncrementalConcaveHull(geometryFactory, bufferSize / 2);
+
+		GraphHopperStorage graph = searchContext.getGraphHopper().getGraphHopperStorage();
+		NodeAccess nodeAccess = graph.getNodeAccess();
+		int maxNodeId = graph.getNodes();
+		DistanceCalc dcFast = new DistancePlaneProjection();
+
+		for (IntObjectCursor<SPTEntry> entry : map) {
+			SPTEntry goalEdge = entry.value;
+			int edgeId = goalEdge.originalEdge;
+			int nodeId = goalEdge.adjNode;
+
+			if (edgeId == -1 || nodeId == -1 || nodeId > maxNodeId)
+				continue;
+
+			double maxCost = goalEdge.weight;
+			double minCost = goalEdge.parent.weight;
+
+			if (minCost >= maxRange || (goalEdge.edge == -2 && maxCost <= maxRange && !useHighDetail))
+				continue;
+
+			EdgeIteratorState iter = graph.getEdgeIteratorState(edgeId, nodeId);
+			PointList pl = iter.fetchWayGeometry(3);
+			double edgeDist = iter.getDistance();
+
+			if (pl.getSize() < 2 || edgeDist <= 0) {
+				if (maxCost <= maxRange)
+					hull.addPoint(nodeAccess.getLon(nodeId), nodeAccess.getLat(nodeId), maxCost);
+				continue;
+			}
+
+			double costPerMeter = (maxCost - minCost) / edgeDist;
+			double lat0 = pl.getLat(0);
+			double lon0 = pl.getLon(0);
+			double cost0 = minCost;
+
+			for (int i = 1; i < pl.getSize() && cost0 <= maxRange; ++i) {
+				double lat1 = pl.getLat(i);
+				double lon1 = pl.getLon(i);
+				double cost1 = cost0 + dcFast.calcDist(lat0, lon0, lat1, lon1) * costPerMeter;
+
+				addBufferedPoint(hull, lon0, lat0, lon1, lat1, 0, cost0, bufferSize);
+
+				// add the points where the segment crosses a range, which become the boundaries of the isochrones
+				for (double range : ranges) {
+					if (range > cost0 && range < cost1)
+						addBufferedPoint(hull, lon0, lat0, lon1, lat1, (range - cost0) / (cost1 - cost0), range, bufferSize);
+				}
+
+				if (i == pl.getSize() - 1 && cost1 <= maxRange)
+					addBufferedPoint(hull, lon0, lat0, lon1, lat1, 1, cost1, bufferSize);
+
+				lat0 = lat1;
+				lon0 = lon1;
+				cost0 = cost1;
+			}
+		}
+
+		hull.triangulate();
+
+		if (LOGGER.isDebugEnabled()) {
+			sw.stop();
+			LOGGER.debug("Triangulate " + hull.getPointsCount() + " points: " + sw.getSeconds());
+		}
+
+		double[] thresholds = new double[ranges.length];
+		for (int i = 0; i < ranges.length; i++) {
+			double maxRadius = isDistance ? ranges[i] : metersPerSecond * ranges[i];
+			thresholds[i] = convertSmoothingFactorToDistance(parameters.getSmoothingFactor(), maxRadius);
+		}
+
+		Polygon[] polys = hull.getHulls(ranges, thresholds);
+		for (int i = 0; i < ranges.length; i++) {
+			double meanRadius = isDistance ? ranges[i] : meanMetersPerSecond * ranges[i];
+			if (polys[i] != null)
+				isochroneMap.addIsochrone(new Isochrone(polys[i], ranges[i], meanRadius));
+		}
+	}
+
+	/**
+	 * Adds the point at the given fraction of the segment together with two points offset perpendicular to the segment.
+	 */
+	private void addBufferedPoint(IncrementalConcaveHull hull, double lon0, double lat0, double lon1, double lat1,
+			double fraction, double cost, double bufferSize) {
+		double lon = lon0 + fraction * (lon1 - lon0);
+		double lat = lat0 + fraction * (lat1 - lat0);
+		hull.addPoint(lon, lat, cost);
+
+		double dx = lon0 - lon1;
+		double dy = lat0 - lat1;
+		double normLength = Math.sqrt((dx * dx) + (dy * dy));
+		if (normLength == 0)
+			return;
+
+		double scale = bufferSize / normLength;
+		hull.addPoint(lon - dy * scale, lat + dx * scale, cost);
+		hull.addPoint(lon + dy * scale, lat - dx * scale, cost);
+	}
+
 	private void markDeadEndEdges(AccessibilityMap edgeMap) {
 		IntObjectMap<SPTEntry> map = edgeMap.getMap();
 		IntObjectMap<Integer> result = new GHIntObjectHashMap<>(map.size()/20);
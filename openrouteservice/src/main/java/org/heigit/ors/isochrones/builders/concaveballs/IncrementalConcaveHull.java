@@ -0,0 +1,280 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.operation.polygonize.Polygonizer;
+import com.vividsolutions.jts.triangulate.DelaunayTriangulationBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Concave hulls of several ranges over one set of points with costs. The points of all ranges are triangulated once
+ * by {@link #triangulate()}; the hull of a range is then derived by {@link #getHull(double, double)} from the
+ * triangles whose vertices are all within the range. As in {@link org.opensphere.geometry.algorithm.ConcaveHull},
+ * triangles are only removed from the boundary inwards while their boundary edge is longer than the given threshold
+ * and the removal does not make the hull irregular.
+ * <p>
+ * Points are thinned on a grid of the given cell size, keeping the cheapest point of every cell.
+ */
+public class IncrementalConcaveHull {
+	private final GeometryFactory geometryFactory;
+	private final double cellSize;
+	private final LongIntHashMap cells = new LongIntHashMap();
+
+	private Coordinate[] coordinates = new Coordinate[256];
+	private double[] costs = new double[256];
+	private int size;
+
+	private int[] triangles;
+	private int[] neighbours;
+	private double[] triangleCosts;
+	private int trianglesCount;
+
+	public IncrementalConcaveHull(GeometryFactory geometryFactory, double cellSize) {
+		this.geometryFactory = geometryFactory;
+		this.cellSize = cellSize;
+	}
+
+	public int getPointsCount() {
+		return size;
+	}
+
+	public int getTrianglesCount() {
+		return trianglesCount;
+	}
+
+	public void addPoint(double lon, double lat, double cost) {
+		long cell = ((long) Math.floor(lon / cellSize) << 32) | ((long) Math.floor(lat / cellSize) & 0xFFFFFFFFL);
+		int index = cells.getOrDefault(cell, -1);
+
+		if (index >= 0) {
+			if (cost < costs[index]) {
+				coordinates[index] = new Coordinate(lon, lat);
+				costs[index] = cost;
+			}
+			return;
+		}
+
+		if (size == coordinates.length) {
+			coordinates = Arrays.copyOf(coordinates, size * 2);
+			costs = Arrays.copyOf(costs, size * 2);
+		}
+
+		coordinates[size] = new Coordinate(lon, lat);
+		costs[size] = cost;
+		cells.put(cell, size);
+		size++;
+	}
+
+	/**
+	 * Computes the Delaunay triangulation of all points added so far.
+	 */
+	public void triangulate() {
+		trianglesCount = 0;
+		if (size < 3)
+			return;
+
+		Map<Coordinate, Integer> indices = new HashMap<>(size);
+		List<Coordinate> sites = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			indices.put(coordinates[i], i);
+			sites.add(coordinates[i]);
+		}
+
+		DelaunayTriangulationBuilder builder = new DelaunayTriangulationBuilder();
+		builder.setSites(sites);
+		List<?> triangleCoordinates = builder.getSubdivision().getTriangleCoordinates(false);
+
+		triangles = new int[triangleCoordinates.size() * 3];
+		triangleCosts = new double[triangleCoordinates.size()];
+
+		for (Object obj : triangleCoordinates) {
+			Coordinate[] tri = (Coordinate[]) obj;
+			Integer a = indices.get(tri[0]);
+			Integer b = indices.get(tri[1]);
+			Integer c = indices.get(tri[2]);
+			if (a == null || b == null || c == null)
+				continue;
+
+			int t = trianglesCount++;
+			triangles[3 * t] = a;
+			triangles[3 * t + 1] = b;
+			triangles[3 * t + 2] = c;
+			triangleCosts[t] = Math.max(costs[a], Math.max(costs[b], costs[c]));
+		}
+
+		// the edge of the neighbouring triangle which is shared with edge i (from vertex i to the next one), or -1
+		neighbours = new int[trianglesCount * 3];
+		Arrays.fill(neighbours, -1);
+		LongIntHashMap edgeTriangles = new LongIntHashMap(trianglesCount * 2);
+		for (int i = 0; i < trianglesCount * 3; i++) {
+			long key = createEdgeKey(triangles[i], triangles[nextIndex(i)]);
+			int other = edgeTriangles.getOrDefault(key, -1);
+			if (other < 0) {
+				edgeTriangles.put(key, i);
+			} else {
+				neighbours[i] = other;
+				neighbours[other] = i;
+			}
+		}
+	}
+
+	/**
+	 * Returns the hull of all points with a cost not greater than {@code maxCost}, or null if there is none. If the
+	 * triangles within the range form several polygons, the largest one is returned; holes are dropped.
+	 *
+	 * @param threshold the maximum length of a boundary edge, in the units of the coordinates
+	 */
+	public Polygon getHull(double maxCost, double threshold) {
+		return getHulls(new double[] { maxCost }, new double[] { threshold })[0];
+	}
+
+	/**
+	 * Returns the hulls of several ascending ranges, see {@link #getHull(double, double)}. The triangles of the hull
+	 * of a range are kept in the hulls of all larger ranges, so that the hulls are nested like those built by
+	 * {@link org.opensphere.geometry.algorithm.ConcaveHull} with the points of the previous hull.
+	 */
+	public Polygon[] getHulls(double[] maxCosts, double[] thresholds) {
+		Polygon[] result = new Polygon[maxCosts.length];
+		boolean[] kept = new boolean[trianglesCount];
+		boolean[] previous = new boolean[trianglesCount];
+
+		for (int r = 0; r < maxCosts.length; r++) {
+			for (int t = 0; t < trianglesCount; t++)
+				kept[t] = triangleCosts[t] <= maxCosts[r];
+
+			erode(kept, previous, thresholds[r]);
+			result[r] = createHull(kept);
+
+			boolean[] tmp = previous;
+			previous = kept;
+			kept = tmp;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes triangles from the boundary of the kept ones, longest boundary edge first. A triangle is only removed
+	 * if its vertex opposite to the boundary edge is not yet on the boundary, which keeps the hull a single ring, and
+	 * if it is not part of the hull of the previous range.
+	 */
+	private void erode(boolean[] kept, boolean[] previous, double threshold) {
+		boolean[] border = new boolean[size];
+		PriorityQueue<BoundaryEdge> queue = new PriorityQueue<>();
+
+		for (int i = 0; i < trianglesCount * 3; i++) {
+			if (isBoundary(kept, i)) {
+				border[triangles[i]] = true;
+				border[triangles[nextIndex(i)]] = true;
+			}
+		}
+		for (int i = 0; i < trianglesCount * 3; i++)
+			offerBoundaryEdge(queue, kept, previous, i, threshold);
+
+		while (!queue.isEmpty()) {
+			int i = queue.poll().index;
+			int t = i / 3;
+			if (!kept[t])
+				continue;
+
+			int opposite = triangles[nextIndex(nextIndex(i))];
+			if (border[opposite])
+				continue;
+
+			kept[t] = false;
+			border[opposite] = true;
+
+			// the two other edges of the removed triangle become boundary edges of its neighbours
+			for (int j = 3 * t; j < 3 * t + 3; j++) {
+				if (j != i)
+					offerBoundaryEdge(queue, kept, previous, neighbours[j], threshold);
+			}
+		}
+	}
+
+	private void offerBoundaryEdge(PriorityQueue<BoundaryEdge> queue, boolean[] kept, boolean[] previous, int i, double threshold) {
+		if (i < 0 || previous[i / 3] || !isBoundary(kept, i))
+			return;
+
+		double length = coordinates[triangles[i]].distance(coordinates[triangles[nextIndex(i)]]);
+		if (length > threshold)
+			queue.add(new BoundaryEdge(i, length));
+	}
+
+	private boolean isBoundary(boolean[] kept, int i) {
+		if (!kept[i / 3])
+			return false;
+		int neighbour = neighbours[i];
+		return neighbour < 0 || !kept[neighbour / 3];
+	}
+
+	private Polygon createHull(boolean[] kept) {
+		Collection<Geometry> boundary = new ArrayList<>();
+		for (int i = 0; i < trianglesCount * 3; i++) {
+			if (isBoundary(kept, i))
+				boundary.add(geometryFactory.createLineString(new Coordinate[] { coordinates[triangles[i]], coordinates[triangles[nextIndex(i)]] }));
+		}
+
+		if (boundary.isEmpty())
+			return null;
+
+		Polygonizer polygonizer = new Polygonizer();
+		polygonizer.add(boundary);
+
+		Polygon result = null;
+		double maxArea = 0;
+		for (Object obj : polygonizer.getPolygons()) {
+			Polygon shell = geometryFactory.createPolygon(geometryFactory.createLinearRing(((Polygon) obj).getExteriorRing().getCoordinates()), null);
+			double area = shell.getArea();
+			if (result == null || area > maxArea) {
+				result = shell;
+				maxArea = area;
+			}
+		}
+
+		return result;
+	}
+
+	private static int nextIndex(int i) {
+		return i % 3 == 2 ? i - 2 : i + 1;
+	}
+
+	private static long createEdgeKey(int a, int b) {
+		return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+	}
+
+	private static class BoundaryEdge implements Comparable<BoundaryEdge> {
+		private final int index;
+		private final double length;
+
+		BoundaryEdge(int index, double length) {
+			this.index = index;
+			this.length = length;
+		}
+
+		@Override
+		public int compareTo(BoundaryEdge other) {
+			return Double.compare(other.length, length);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.raster;
+
+import java.util.Arrays;
+
+/**
+ * Regular lon/lat grid holding the minimum cost at which each cell is reached. Cells which are not reached hold
+ * {@link Float#POSITIVE_INFINITY}.
+ */
+public class CostRaster {
+	private final double minLon;
+	private final double minLat;
+	private final double cellLon;
+	private final double cellLat;
+	private final int width;
+	private final int height;
+	private float[] costs;
+
+	public CostRaster(double minLon, double minLat, double cellLon, double cellLat, int width, int height) {
+		this.minLon = minLon;
+		this.minLat = minLat;
+		this.cellLon = cellLon;
+		this.cellLat = cellLat;
+		this.width = width;
+		this.height = height;
+		costs = new float[width * height];
+		Arrays.fill(costs, Float.POSITIVE_INFINITY);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the longitude of the center of the cells in column x.
+	 */
+	public double getLon(int x) {
+		return minLon + (x + 0.5) * cellLon;
+	}
+
+	/**
+	 * Returns the latitude of the center of the cells in row y.
+	 */
+	public double getLat(int y) {
+		return minLat + (y + 0.5) * cellLat;
+	}
+
+	/**
+	 * Returns the cost of the cell, or infinity if the cell is outside of the raster or has not been reached.
+	 */
+	public float getCost(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height)
+			return Float.POSITIVE_INFINITY;
+		return costs[y * width + x];
+	}
+
+	/**
+	 * Lowers the cost of the cell containing the location to the given cost. Locations outside are ignored.
+	 */
+	public void setMinCost(double lon, double lat, double cost) {
+		int x = (int) Math.floor((lon - minLon) / cellLon);
+		int y = (int) Math.floor((lat - minLat) / cellLat);
+		if (x < 0 || y < 0 || x >= width || y >= height)
+			return;
+
+		int index = y * width + x;
+		if (cost < costs[index])
+			costs[index] = (float) cost;
+	}
+
+	/**
+	 * Assigns every cell the minimum cost within a square of {@code 2 * radius + 1} cells around it, which widens the
+	 * rasterized roads into areas. The filter is applied separately to rows and columns.
+	 */
+	public void dilate(int radius) {
+		if (radius <= 0)
+			return;
+
+		float[] rows = new float[costs.length];
+		for (int y = 0; y < height; y++) {
+			int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				float min = Float.POSITIVE_INFINITY;
+				for (int i = Math.max(0, x - radius); i <= Math.min(width - 1, x + radius); i++)
+					min = Math.min(min, costs[offset + i]);
+				rows[offset + x] = min;
+			}
+		}
+
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				float min = Float.POSITIVE_INFINITY;
+				for (int i = Math.max(0, y - radius); i <= Math.min(height - 1, y + radius); i++)
+					min = Math.min(min, rows[i * width + x]);
+				costs[y * width + x] = min;
+			}
+		}
+	}
+}
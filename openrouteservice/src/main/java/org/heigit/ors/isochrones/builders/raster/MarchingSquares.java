@@ -0,0 +1,157 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.raster;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.operation.polygonize.Polygonizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts the contours of a {@link CostRaster} for several levels in a single pass over its cells. The cell centers
+ * are the sample points; the raster is surrounded by unreached cells, so that all contours are closed.
+ */
+public class MarchingSquares {
+	private static final int BOTTOM = 0;
+	private static final int RIGHT = 1;
+	private static final int TOP = 2;
+	private static final int LEFT = 3;
+
+	private final CostRaster raster;
+	private final GeometryFactory geometryFactory;
+
+	public MarchingSquares(CostRaster raster, GeometryFactory geometryFactory) {
+		this.raster = raster;
+		this.geometryFactory = geometryFactory;
+	}
+
+	/**
+	 * Returns for every level the largest polygon enclosing all samples with a cost not greater than the level, or
+	 * null if there is none. Holes are dropped.
+	 */
+	public Polygon[] computeContours(double[] levels) {
+		List<List<Geometry>> segments = new ArrayList<>(levels.length);
+		for (int i = 0; i < levels.length; i++)
+			segments.add(new ArrayList<>());
+
+		Coordinate[] crossings = new Coordinate[4];
+
+		for (int y = -1; y < raster.getHeight(); y++) {
+			for (int x = -1; x < raster.getWidth(); x++) {
+				float bl = raster.getCost(x, y);
+				float br = raster.getCost(x + 1, y);
+				float tr = raster.getCost(x + 1, y + 1);
+				float tl = raster.getCost(x, y + 1);
+
+				for (int l = 0; l < levels.length; l++) {
+					double level = levels[l];
+					int cell = (bl <= level ? 1 : 0) | (br <= level ? 2 : 0) | (tr <= level ? 4 : 0) | (tl <= level ? 8 : 0);
+					if (cell == 0 || cell == 15)
+						continue;
+
+					List<Geometry> levelSegments = segments.get(l);
+					crossings[BOTTOM] = (cell & 1) != (cell & 2) >> 1 ? interpolate(x, y, x + 1, y, bl, br, level) : null;
+					crossings[RIGHT] = (cell & 2) >> 1 != (cell & 4) >> 2 ? interpolate(x + 1, y, x + 1, y + 1, br, tr, level) : null;
+					crossings[TOP] = (cell & 8) >> 3 != (cell & 4) >> 2 ? interpolate(x, y + 1, x + 1, y + 1, tl, tr, level) : null;
+					crossings[LEFT] = (cell & 1) != (cell & 8) >> 3 ? interpolate(x, y, x, y + 1, bl, tl, level) : null;
+
+					if (cell == 5 || cell == 10) {
+						// saddle, resolved by the mean of the finite corner values
+						boolean centerInside = getCenterCost(bl, br, tr, tl) <= level;
+						if (centerInside == (cell == 5)) {
+							addSegment(levelSegments, crossings[BOTTOM], crossings[RIGHT]);
+							addSegment(levelSegments, crossings[LEFT], crossings[TOP]);
+						} else {
+							addSegment(levelSegments, crossings[LEFT], crossings[BOTTOM]);
+							addSegment(levelSegments, crossings[TOP], crossings[RIGHT]);
+						}
+					} else {
+						Coordinate first = null;
+						for (Coordinate c : crossings) {
+							if (c == null)
+								continue;
+							if (first == null)
+								first = c;
+							else
+								addSegment(levelSegments, first, c);
+						}
+					}
+				}
+			}
+		}
+
+		Polygon[] result = new Polygon[levels.length];
+		for (int l = 0; l < levels.length; l++)
+			result[l] = polygonize(segments.get(l));
+
+		return result;
+	}
+
+	/**
+	 * Returns the point on the line between two samples where the cost equals the level. The samples must be passed
+	 * in the same order by both cells sharing the line, so that both obtain the same point. If one of the samples has
+	 * not been reached, the point lies halfway.
+	 */
+	private Coordinate interpolate(int x0, int y0, int x1, int y1, float cost0, float cost1, double level) {
+		double t = 0.5;
+		if (!Float.isInfinite(cost0) && !Float.isInfinite(cost1))
+			t = (level - cost0) / (cost1 - cost0);
+
+		double lon0 = raster.getLon(x0);
+		double lat0 = raster.getLat(y0);
+		return new Coordinate(lon0 + t * (raster.getLon(x1) - lon0), lat0 + t * (raster.getLat(y1) - lat0));
+	}
+
+	private static double getCenterCost(float bl, float br, float tr, float tl) {
+		double sum = 0;
+		int count = 0;
+		for (float cost : new float[] { bl, br, tr, tl }) {
+			if (!Float.isInfinite(cost)) {
+				sum += cost;
+				count++;
+			}
+		}
+		return sum / count;
+	}
+
+	private void addSegment(List<Geometry> segments, Coordinate from, Coordinate to) {
+		if (!from.equals2D(to))
+			segments.add(geometryFactory.createLineString(new Coordinate[] { from, to }));
+	}
+
+	private Polygon polygonize(List<Geometry> segments) {
+		if (segments.isEmpty())
+			return null;
+
+		Polygonizer polygonizer = new Polygonizer();
+		polygonizer.add(segments);
+
+		Polygon result = null;
+		double maxArea = 0;
+		for (Object obj : polygonizer.getPolygons()) {
+			Polygon shell = geometryFactory.createPolygon(geometryFactory.createLinearRing(((Polygon) obj).getExteriorRing().getCoordinates()), null);
+			double area = shell.getArea();
+			if (result == null || area > maxArea) {
+				result = shell;
+				maxArea = area;
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,217 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.raster;
+
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.SPTEntry;
+import com.graphhopper.util.*;
+import com.graphhopper.util.shapes.GHPoint3D;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import org.apache.log4j.Logger;
+import org.heigit.ors.common.TravelRangeType;
+import org.heigit.ors.isochrones.GraphEdgeMapFinder;
+import org.heigit.ors.isochrones.Isochrone;
+import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.heigit.ors.isochrones.builders.IsochroneMapBuilder;
+import org.heigit.ors.routing.RouteSearchContext;
+import org.heigit.ors.routing.graphhopper.extensions.AccessibilityMap;
+import org.heigit.ors.routing.graphhopper.extensions.flagencoders.ORSAbstractFlagEncoder;
+import org.heigit.ors.util.GeomUtility;
+
+/**
+ * Builds isochrones by rasterizing the edges of the shortest path tree onto a cost grid and extracting the contours
+ * of all ranges with {@link MarchingSquares}. The grid has at most {@link #MAX_GRID_SIZE} cells per side, so the
+ * time needed is bounded independently of the number of reached edges, at the price of less detailed shapes than
+ * those of the concave balls builder.
+ */
+public class RasterIsochroneMapBuilder implements IsochroneMapBuilder {
+	private static final Logger LOGGER = Logger.getLogger(RasterIsochroneMapBuilder.class.getName());
+
+	private static final int MAX_GRID_SIZE = 1000;
+	private static final double MIN_CELL_SIZE = 10; // in meters
+	private static final int DEFAULT_BUFFER_CELLS = 2;
+
+	private GeometryFactory geometryFactory;
+	private RouteSearchContext searchContext;
+
+	@Override
+	public void initialize(RouteSearchContext searchContext) {
+		geometryFactory = new GeometryFactory();
+		this.searchContext = searchContext;
+	}
+
+	@Override
+	public IsochroneMap compute(IsochroneSearchParameters parameters) throws Exception {
+		StopWatch swTotal = null;
+		StopWatch sw = null;
+		if (LOGGER.isDebugEnabled()) {
+			swTotal = new StopWatch().start();
+			sw = new StopWatch().start();
+		}
+
+		GraphHopperStorage graph = searchContext.getGraphHopper().getGraphHopperStorage();
+		String graphdate = graph.getProperties().get("datareader.import.date");
+
+		AccessibilityMap edgeMap = GraphEdgeMapFinder.findEdgeMap(searchContext, parameters);
+
+		GHPoint3D point = edgeMap.getSnappedPosition();
+		Coordinate loc = (point == null) ? parameters.getLocation() : new Coordinate(point.lon, point.lat);
+
+		IsochroneMap isochroneMap = new IsochroneMap(parameters.getTravellerId(), loc);
+		isochroneMap.setGraphDate(graphdate);
+
+		if (LOGGER.isDebugEnabled()) {
+			sw.stop();
+			LOGGER.debug("Find edges: " + sw.getSeconds());
+			sw = new StopWatch().start();
+		}
+
+		if (edgeMap.isEmpty())
+			return isochroneMap;
+
+		double[] ranges = parameters.getRanges();
+		CostRaster raster = rasterize(graph, edgeMap, ranges[ranges.length - 1], getBufferCells(parameters.getSmoothingFactor()));
+		if (raster == null)
+			return isochroneMap;
+
+		if (LOGGER.isDebugEnabled()) {
+			sw.stop();
+			LOGGER.debug("Rasterize " + raster.getWidth() + "x" + raster.getHeight() + " cells: " + sw.getSeconds());
+			sw = new StopWatch().start();
+		}
+
+		Polygon[] contours = new MarchingSquares(raster, geometryFactory).computeContours(ranges);
+		double meanMetersPerSecond = getMeanSpeed() / 3.6;
+
+		for (int i = 0; i < ranges.length; i++) {
+			if (contours[i] == null)
+				continue;
+
+			double isoValue = ranges[i];
+			double meanRadius = parameters.getRangeType() == TravelRangeType.DISTANCE ? isoValue : meanMetersPerSecond * isoValue;
+			isochroneMap.addIsochrone(new Isochrone(contours[i], isoValue, meanRadius));
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Marching squares: " + sw.stop().getSeconds());
+			LOGGER.debug("Total time: " + swTotal.stop().getSeconds());
+		}
+
+		return isochroneMap;
+	}
+
+	/**
+	 * Converts the smoothing factor into the number of cells by which the rasterized edges are widened.
+	 */
+	private static int getBufferCells(float smoothingFactor) {
+		if (smoothingFactor == -1)
+			return DEFAULT_BUFFER_CELLS;
+		return 1 + Math.round(smoothingFactor / 25);
+	}
+
+	private double getMeanSpeed() {
+		FlagEncoder encoder = searchContext.getEncoder();
+
+		if (encoder instanceof ORSAbstractFlagEncoder)
+			return ((ORSAbstractFlagEncoder) encoder).getMeanSpeed();
+		return encoder.getMaxSpeed();
+	}
+
+	/**
+	 * Rasterizes all edges reached below {@code maxCost}, or returns null if there is none, e.g. if the map only holds
+	 * the start of the search.
+	 */
+	static CostRaster rasterize(Graph graph, AccessibilityMap edgeMap, double maxCost, int bufferCells) {
+		NodeAccess nodeAccess = graph.getNodeAccess();
+		IntObjectMap<SPTEntry> map = edgeMap.getMap();
+
+		Envelope env = new Envelope();
+		for (IntObjectCursor<SPTEntry> entry : map) {
+			SPTEntry goalEdge = entry.value;
+			if (goalEdge.originalEdge == -1 || goalEdge.adjNode == -1 || goalEdge.parent.weight >= maxCost)
+				continue;
+			env.expandToInclude(nodeAccess.getLon(goalEdge.adjNode), nodeAccess.getLat(goalEdge.adjNode));
+			env.expandToInclude(nodeAccess.getLon(goalEdge.parent.adjNode), nodeAccess.getLat(goalEdge.parent.adjNode));
+		}
+
+		if (env.isNull())
+			return null;
+
+		double cosLat = Math.cos(Math.toRadians(env.centre().y));
+		double extent = Math.max(env.getHeight(), env.getWidth() * cosLat) / GeomUtility.metresToDegrees(1);
+		double cellSize = Math.max(MIN_CELL_SIZE, extent / MAX_GRID_SIZE);
+		double cellLat = GeomUtility.metresToDegrees(cellSize);
+		double cellLon = cellLat / cosLat;
+
+		int padding = bufferCells + 1;
+		env.expandBy(padding * cellLon, padding * cellLat);
+		CostRaster raster = new CostRaster(env.getMinX(), env.getMinY(), cellLon, cellLat,
+				(int) Math.ceil(env.getWidth() / cellLon), (int) Math.ceil(env.getHeight() / cellLat));
+
+		DistanceCalc dcFast = new DistancePlaneProjection();
+		double sampleDistance = cellSize / 2;
+
+		for (IntObjectCursor<SPTEntry> entry : map) {
+			SPTEntry goalEdge = entry.value;
+			if (goalEdge.originalEdge == -1 || goalEdge.adjNode == -1)
+				continue;
+
+			double minCost = goalEdge.parent.weight;
+			if (minCost >= maxCost)
+				continue;
+
+			EdgeIteratorState iter = graph.getEdgeIteratorState(goalEdge.originalEdge, goalEdge.adjNode);
+			PointList pl = iter.fetchWayGeometry(3);
+			double edgeDist = iter.getDistance();
+			double costPerMeter = edgeDist > 0 ? (goalEdge.weight - minCost) / edgeDist : 0;
+
+			double lat0 = pl.getLat(0);
+			double lon0 = pl.getLon(0);
+			double cost0 = minCost;
+			raster.setMinCost(lon0, lat0, cost0);
+
+			for (int i = 1; i < pl.getSize() && cost0 <= maxCost; ++i) {
+				double lat1 = pl.getLat(i);
+				double lon1 = pl.getLon(i);
+				double segDist = dcFast.calcDist(lat0, lon0, lat1, lon1);
+				int samples = Math.max(1, (int) Math.ceil(segDist / sampleDistance));
+
+				for (int k = 1; k <= samples; k++) {
+					double f = (double) k / samples;
+					double cost = cost0 + f * segDist * costPerMeter;
+					if (cost > maxCost)
+						break;
+					raster.setMinCost(lon0 + f * (lon1 - lon0), lat0 + f * (lat1 - lat0), cost);
+				}
+
+				lat0 = lat1;
+				lon0 = lon1;
+				cost0 += segDist * costPerMeter;
+			}
+		}
+
+		raster.dilate(bufferCells);
+
+		return raster;
+	}
+}
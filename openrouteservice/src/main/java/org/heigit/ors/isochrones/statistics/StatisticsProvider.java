@@ -20,6 +20,7 @@
  */
 package org.heigit.ors.isochrones.statistics;
 
+import java.util.List;
 import java.util.Map;
 
 import org.heigit.ors.isochrones.Isochrone;
@@ -30,4 +31,17 @@ public interface StatisticsProvider {
 	public String getName();
 	
     public double[] getStatistics(Isochrone isochrone, String[] properties) throws Exception;
+
+    /**
+     * Computes the statistics of several isochrones at once. Providers backed by a remote data source should
+     * override this method to retrieve all values in a single round trip.
+     *
+     * @return the values of the properties for each isochrone, in the order of the isochrones
+     */
+    public default double[][] getStatistics(List<Isochrone> isochrones, String[] properties) throws Exception {
+        double[][] res = new double[isochrones.size()][];
+        for (int i = 0; i < isochrones.size(); i++)
+            res[i] = getStatistics(isochrones.get(i), properties);
+        return res;
+    }
 }
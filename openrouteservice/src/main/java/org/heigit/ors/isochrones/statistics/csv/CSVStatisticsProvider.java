@@ -0,0 +1,247 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.statistics.csv;
+
+import com.graphhopper.util.Helper;
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Location;
+import org.apache.log4j.Logger;
+import org.heigit.ors.exceptions.InternalServerException;
+import org.heigit.ors.isochrones.Isochrone;
+import org.heigit.ors.isochrones.IsochronesErrorCodes;
+import org.heigit.ors.isochrones.statistics.StatisticsProvider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics provider which serves the statistics from memory, so that no database is needed. The data is read from a
+ * CSV file with a header row, holding one row per raster cell with the coordinate of the cell center and one column
+ * per property, e.g. {@code lon,lat,total_pop}. The statistics of an isochrone are the sums of the values of all
+ * cells whose center lies within the isochrone.
+ */
+public class CSVStatisticsProvider implements StatisticsProvider {
+	private static final Logger LOGGER = Logger.getLogger(CSVStatisticsProvider.class.getName());
+
+	private static final int POINTS_PER_INDEX_CELL = 16;
+
+	private String[] columns;
+	private double[] lons;
+	private double[] lats;
+	private float[][] values;
+
+	private double minLon;
+	private double minLat;
+	private double indexCellSize;
+	private int indexWidth;
+	private int indexHeight;
+	private int[] indexCellStarts;
+
+	@Override
+	public void init(Map<String, Object> parameters) throws Exception {
+		String file = (String) parameters.get("file");
+		if (Helper.isEmpty(file))
+			throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "'file' parameter can not be null or empty.");
+
+		String lonColumn = parameters.containsKey("lon_column") ? (String) parameters.get("lon_column") : "lon";
+		String latColumn = parameters.containsKey("lat_column") ? (String) parameters.get("lat_column") : "lat";
+		String separator = parameters.containsKey("separator") ? (String) parameters.get("separator") : ",";
+
+		readFile(file, lonColumn, latColumn, separator);
+		buildIndex();
+
+		if (LOGGER.isInfoEnabled())
+			LOGGER.info(String.format("Loaded %d statistics cells with properties %s from '%s'.", lons.length, Arrays.toString(columns), file));
+	}
+
+	private void readFile(String file, String lonColumn, String latColumn, String separator) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if (line == null)
+				throw new IOException("The file '" + file + "' is empty.");
+
+			String[] header = line.split(separator);
+			int lonIndex = -1;
+			int latIndex = -1;
+			List<Integer> valueIndices = new ArrayList<>();
+			List<String> valueColumns = new ArrayList<>();
+			for (int i = 0; i < header.length; i++) {
+				String name = header[i].trim();
+				if (name.equals(lonColumn)) {
+					lonIndex = i;
+				} else if (name.equals(latColumn)) {
+					latIndex = i;
+				} else {
+					valueIndices.add(i);
+					valueColumns.add(name);
+				}
+			}
+
+			if (lonIndex == -1 || latIndex == -1)
+				throw new IOException("The file '" + file + "' has no '" + lonColumn + "' or '" + latColumn + "' column.");
+
+			columns = valueColumns.toArray(new String[0]);
+			int capacity = 1024;
+			lons = new double[capacity];
+			lats = new double[capacity];
+			values = new float[columns.length][capacity];
+			int size = 0;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+
+				String[] fields = line.split(separator);
+				if (size == capacity) {
+					capacity *= 2;
+					lons = Arrays.copyOf(lons, capacity);
+					lats = Arrays.copyOf(lats, capacity);
+					for (int c = 0; c < columns.length; c++)
+						values[c] = Arrays.copyOf(values[c], capacity);
+				}
+
+				lons[size] = Double.parseDouble(fields[lonIndex]);
+				lats[size] = Double.parseDouble(fields[latIndex]);
+				for (int c = 0; c < columns.length; c++) {
+					int index = valueIndices.get(c);
+					values[c][size] = index < fields.length && !fields[index].isEmpty() ? Float.parseFloat(fields[index]) : 0;
+				}
+				size++;
+			}
+
+			lons = Arrays.copyOf(lons, size);
+			lats = Arrays.copyOf(lats, size);
+			for (int c = 0; c < columns.length; c++)
+				values[c] = Arrays.copyOf(values[c], size);
+		}
+	}
+
+	/**
+	 * Sorts the cells into a regular grid holding about {@link #POINTS_PER_INDEX_CELL} cells each, so that only the
+	 * cells near an isochrone need to be tested.
+	 */
+	private void buildIndex() {
+		int size = lons.length;
+		Envelope env = new Envelope();
+		for (int i = 0; i < size; i++)
+			env.expandToInclude(lons[i], lats[i]);
+
+		minLon = env.getMinX();
+		minLat = env.getMinY();
+		double area = Math.max(env.getWidth() * env.getHeight(), 1e-12);
+		indexCellSize = Math.max(Math.sqrt(area * POINTS_PER_INDEX_CELL / Math.max(size, 1)), 1e-6);
+		indexWidth = (int) (env.getWidth() / indexCellSize) + 1;
+		indexHeight = (int) (env.getHeight() / indexCellSize) + 1;
+
+		int[] cells = new int[size];
+		indexCellStarts = new int[indexWidth * indexHeight + 1];
+		for (int i = 0; i < size; i++) {
+			cells[i] = getIndexCell(lons[i], lats[i]);
+			indexCellStarts[cells[i] + 1]++;
+		}
+		for (int i = 1; i < indexCellStarts.length; i++)
+			indexCellStarts[i] += indexCellStarts[i - 1];
+
+		int[] order = new int[size];
+		int[] next = Arrays.copyOf(indexCellStarts, indexCellStarts.length - 1);
+		for (int i = 0; i < size; i++)
+			order[next[cells[i]]++] = i;
+
+		double[] sortedLons = new double[size];
+		double[] sortedLats = new double[size];
+		for (int i = 0; i < size; i++) {
+			sortedLons[i] = lons[order[i]];
+			sortedLats[i] = lats[order[i]];
+		}
+		lons = sortedLons;
+		lats = sortedLats;
+
+		for (int c = 0; c < columns.length; c++) {
+			float[] sorted = new float[size];
+			for (int i = 0; i < size; i++)
+				sorted[i] = values[c][order[i]];
+			values[c] = sorted;
+		}
+	}
+
+	private int getIndexCell(double lon, double lat) {
+		int x = Math.min(indexWidth - 1, Math.max(0, (int) ((lon - minLon) / indexCellSize)));
+		int y = Math.min(indexHeight - 1, Math.max(0, (int) ((lat - minLat) / indexCellSize)));
+		return y * indexWidth + x;
+	}
+
+	@Override
+	public void close() {
+		lons = null;
+		lats = null;
+		values = null;
+		indexCellStarts = null;
+	}
+
+	@Override
+	public double[] getStatistics(Isochrone isochrone, String[] properties) throws Exception {
+		int[] columnIndices = new int[properties.length];
+		for (int i = 0; i < properties.length; i++)
+			columnIndices[i] = Arrays.asList(columns).indexOf(properties[i]);
+
+		double[] res = new double[properties.length];
+		Geometry geom = isochrone.getGeometry();
+		Envelope env = geom.getEnvelopeInternal();
+		IndexedPointInAreaLocator locator = new IndexedPointInAreaLocator(geom);
+		Coordinate c = new Coordinate();
+
+		int minCell = getIndexCell(env.getMinX(), env.getMinY());
+		int maxCell = getIndexCell(env.getMaxX(), env.getMaxY());
+
+		for (int y = minCell / indexWidth; y <= maxCell / indexWidth; y++) {
+			for (int x = minCell % indexWidth; x <= maxCell % indexWidth; x++) {
+				int cell = y * indexWidth + x;
+				for (int i = indexCellStarts[cell]; i < indexCellStarts[cell + 1]; i++) {
+					if (!env.contains(lons[i], lats[i]))
+						continue;
+
+					c.x = lons[i];
+					c.y = lats[i];
+					if (locator.locate(c) == Location.EXTERIOR)
+						continue;
+
+					for (int p = 0; p < properties.length; p++) {
+						if (columnIndices[p] >= 0)
+							res[p] += values[columnIndices[p]][i];
+					}
+				}
+			}
+		}
+
+		for (int p = 0; p < properties.length; p++)
+			res[p] = Math.round(res[p]);
+
+		return res;
+	}
+
+	@Override
+	public String getName() {
+		return "csv";
+	}
+}
@@ -15,6 +15,7 @@ package org.heigit.ors.isochrones.statistics.postgresql;
 
 import com.graphhopper.util.Helper;
 import com.zaxxer.hikari.HikariConfig;
+import com.vividsolutions.jts.io.WKBWriter;
 import com.zaxxer.hikari.HikariDataSource;
 import org.heigit.ors.exceptions.InternalServerException;
 import org.heigit.ors.isochrones.Isochrone;
@@ -26,6 +27,10 @@ import org.postgresql.ds.PGSimpleDataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -116,55 +121,60 @@ public class PostgresSQLStatisticsProvider implements StatisticsProvider {
      */
     @Override
     public double[] getStatistics(Isochrone isochrone, String[] properties) throws Exception {
-        int nProperties = properties.length;
-        double[] res = new double[nProperties];
-        Connection connection = null;
-        PreparedStatement preparedStatement = null;
-        try {
-            String sql = null;
-            for (String property : properties) {
-                String polyGeom = isochrone.getGeometry().toText();
-                if ("total_pop".equals(property)) {
-                    sql = "SELECT ROUND(SUM((ST_SummaryStats(ST_Clip(" + geomColumn + ", poly))).sum)) AS total_pop FROM " + tableName + ", ST_Transform(ST_GeomFromText('" + polyGeom + "', 4326), 954009) AS poly WHERE ST_Intersects(poly, " + geomColumn + ") GROUP BY poly;";
-                }
-            }
-            connection = dataSource.getConnection();
+        return getStatistics(Collections.singletonList(isochrone), properties)[0];
+    }
+
+    /**
+     * Queries the statistics of all isochrones with a single prepared statement. The polygons are passed as an array of
+     * hex encoded WKB, which is expanded on the server with unnest, and the results are matched by their ordinality.
+     *
+     * @param isochrones {@link List} of the {@link Isochrone}s.
+     * @param properties {@link String}[] as input holding the attributes parameters.
+     * @return Returns a double[][] holding the desired values for each isochrone in the order that was asked for in the attributes.
+     * @throws Exception If the sql is corrupt, an {@link Exception} will be thrown.
+     */
+    @Override
+    public double[][] getStatistics(List<Isochrone> isochrones, String[] properties) throws Exception {
+        double[][] res = new double[isochrones.size()][properties.length];
+        if (isochrones.isEmpty() || !Arrays.asList(properties).contains("total_pop"))
+            return res;
+
+        WKBWriter wkbWriter = new WKBWriter();
+        String[] polygons = new String[isochrones.size()];
+        for (int i = 0; i < polygons.length; i++)
+            polygons[i] = WKBWriter.toHex(wkbWriter.write(isochrones.get(i).getGeometry()));
+
+        String sql = "SELECT p.idx, ROUND(SUM((ST_SummaryStats(ST_Clip(" + geomColumn + ", p.poly))).sum)) AS total_pop"
+                + " FROM (SELECT idx, ST_Transform(ST_GeomFromWKB(decode(wkb, 'hex'), 4326), 954009) AS poly"
+                + " FROM unnest(?::text[]) WITH ORDINALITY AS t(wkb, idx)) AS p, " + tableName
+                + " WHERE ST_Intersects(p.poly, " + geomColumn + ") GROUP BY p.idx;";
+
+        try (Connection connection = dataSource.getConnection()) {
             connection.setAutoCommit(false);
-            preparedStatement = connection.prepareStatement(sql);
-
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                // check if the resultSet contains values
-                if (resultSet.next()) {
-                    // check for each property if the result contains a value
-                    int propertyCounter = 0;
-                    for (String property : properties) {
-                        int i = 0;
-                        // check each value
-                        while (i < nProperties) {
-                            // Get the column name
-                            String columnName = resultSet.getMetaData().getColumnName(i + 1);
-                            // If a value fits the current property it is set in the correct place in the result[]
-                            if (columnName.equals(property))
-                                res[propertyCounter] = resultSet.getDouble(i + 1);
-                            i++;
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                preparedStatement.setArray(1, connection.createArrayOf("text", polygons));
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    while (resultSet.next()) {
+                        int index = resultSet.getInt(1) - 1;
+                        // If a column fits a property it is set in the correct place in the result[]
+                        for (int i = 0; i < properties.length; i++) {
+                            for (int column = 2; column <= metaData.getColumnCount(); column++) {
+                                if (metaData.getColumnName(column).equals(properties[i]))
+                                    res[index][i] = resultSet.getDouble(column);
+                            }
                         }
-                        propertyCounter++;
                     }
                 }
             }
         } catch (Exception ex) {
             LOGGER.error(ex);
             throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Unable to retrieve data from the data source.");
-        } finally {
-            if (preparedStatement != null) {
-                preparedStatement.close();
-            }
-            if (connection != null) {
-                connection.close();
-            }
         }
-        return res;
 
+        return res;
     }
 
     /**
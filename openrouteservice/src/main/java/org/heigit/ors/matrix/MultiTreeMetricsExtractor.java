@@ -27,6 +27,8 @@ import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.common.DistanceUnit;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntryItem;
+import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPStore;
+import org.heigit.ors.routing.graphhopper.extensions.storages.ShortcutMetricsStorage;
 import org.heigit.ors.util.DistanceUnitUtil;
 
 public class MultiTreeMetricsExtractor {
@@ -72,10 +74,26 @@ public class MultiTreeMetricsExtractor {
 	private boolean reverseOrder = true;
 	private GHLongObjectHashMap<MetricsItem> edgeMetrics;
 	private long maxEdgeId;
+	private ShortcutMetricsCache shortcutCache;
+	private ShortcutMetricsStorage shortcutStorage;
+	private int unpackMetrics;
 
 	public MultiTreeMetricsExtractor(int metrics, Graph graph, FlagEncoder encoder, Weighting weighting,
 			DistanceUnit units) {
+		this(metrics, graph, encoder, weighting, units, null);
+	}
+
+	/**
+	 * @param shortcutCache
+	 *            cache of unpacked shortcut metrics shared with other requests of the same CH profile, may be null
+	 */
+	public MultiTreeMetricsExtractor(int metrics, Graph graph, FlagEncoder encoder, Weighting weighting,
+			DistanceUnit units, ShortcutMetricsCache shortcutCache) {
 		this.metrics = metrics;
+		this.shortcutCache = shortcutCache;
+		// entries of the shared cache have to be usable by requests with different metrics
+		unpackMetrics = shortcutCache == null ? metrics
+				: MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
 		this.graph = graph;
 		this.weighting = weighting;
 		timeWeighting = new FastestWeighting(encoder);
@@ -95,6 +113,14 @@ public class MultiTreeMetricsExtractor {
 		maxEdgeId = chGraph.getAllEdges().length();
 	}
 
+	/**
+	 * Sets the precomputed shortcut metrics of the CH graph. They are used instead of unpacking shortcuts as long
+	 * as no weights are requested.
+	 */
+	public void setShortcutMetricsStorage(ShortcutMetricsStorage shortcutStorage) {
+		this.shortcutStorage = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT) ? null : shortcutStorage;
+	}
+
 	public void setEmptyValues(int sourceIndex, MatrixLocations dstData, float[] times, float[] distances, float[] weights) {
 		int i = sourceIndex * dstData.size();
 		int[] targetNodes = dstData.getNodeIds();
@@ -119,7 +145,6 @@ public class MultiTreeMetricsExtractor {
 		double pathTime;
 		double pathDistance;
 		double pathWeight;
-		long entryHash = 0;
 		boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
 		boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
 		boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
@@ -147,79 +172,11 @@ public class MultiTreeMetricsExtractor {
 
 						if (sptItem.getParent() != null) {
 							while (EdgeIterator.Edge.isValid(sptItem.getEdge())) {
-								edgeMetricsItem = null;
-								if (edgeMetrics != null) {
-									entryHash = getMultiTreeSPEntryHash(targetEntry, srcNode);
-									edgeMetricsItem = edgeMetrics.get(entryHash);
-								}
-
-								if (edgeMetricsItem == null) {
-									if (chGraph != null) {
-										CHEdgeIteratorState iterState = (CHEdgeIteratorState) graph
-												.getEdgeIteratorState(sptItem.getEdge(), targetEntry.getAdjNode());
-
-										boolean unpackDistance = true;
-										if (calcWeight || calcTime || unpackDistance) {
-											if (iterState.isShortcut()) {
-												if (chGraph.getLevel(iterState.getBaseNode()) > chGraph
-														.getLevel(iterState.getAdjNode())) {
-													reverseOrder = true;
-													extractEdgeValues(iterState, false);
-												} else {
-													reverseOrder = false;
-													extractEdgeValues(iterState, true);
-												}
-											} else {
-												extractEdgeValues(iterState, false);
-											}
-
-											if (unpackDistance)
-												edgeDistance = (distUnits == DistanceUnit.METERS) ? edgeDistance
-														: DistanceUnitUtil.convert(edgeDistance, DistanceUnit.METERS,
-														distUnits);
-										}
-
-										if (!unpackDistance && calcDistance)
-											edgeDistance = (distUnits == DistanceUnit.METERS)
-													? iterState.getDistance()
-													: DistanceUnitUtil.convert(iterState.getDistance(),
-															DistanceUnit.METERS, distUnits);
-									} else {
-										EdgeIteratorState iter = graph.getEdgeIteratorState(sptItem.getEdge(),
-												targetEntry.getAdjNode());
-
-										if (calcDistance)
-											edgeDistance = (distUnits == DistanceUnit.METERS) ? iter.getDistance()
-													: DistanceUnitUtil.convert(iter.getDistance(), DistanceUnit.METERS,
-													distUnits);
-
-										if (calcTime)
-											edgeTime = timeWeighting.calcMillis(iter, false, EdgeIterator.NO_EDGE)
-													/ 1000.0;
-
-										if (calcWeight)
-											edgeWeight = weighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
-									}
-
-									if (edgeMetrics != null) {
-										edgeMetricsItem = new MetricsItem();
-										edgeMetricsItem.distance = edgeDistance;
-										edgeMetricsItem.time = edgeTime;
-										edgeMetricsItem.weight = edgeWeight;
-										edgeMetrics.put(entryHash, edgeMetricsItem);
-									}
-
-									pathDistance += edgeDistance;
-									pathTime += edgeTime;
-									pathWeight += edgeWeight;
-								} else {
-									if (calcDistance)
-										pathDistance += edgeMetricsItem.distance;
-									if (calcTime)
-										pathTime += edgeMetricsItem.time;
-									if (calcWeight)
-										pathWeight += edgeMetricsItem.weight;
-								}
+								edgeMetricsItem = getEdgeMetrics(sptItem.getEdge(), targetEntry.getAdjNode());
+
+								pathDistance += edgeMetricsItem.distance;
+								pathTime += edgeMetricsItem.time;
+								pathWeight += edgeMetricsItem.weight;
 
 								targetEntry = sptItem.getParent();
 
@@ -245,8 +202,166 @@ public class MultiTreeMetricsExtractor {
 		}
 	}
 
-	private long getMultiTreeSPEntryHash(MultiTreeSPEntry entry, int sptEntry) {
-		return entry.getAdjNode() * maxEdgeId + entry.getItem(sptEntry).getEdge();
+	/**
+	 * Same as {@link #calcValues(MultiTreeSPEntry[], MatrixLocations, MatrixLocations, float[], float[], float[])}
+	 * for trees stored in a {@link MultiTreeSPStore}. {@code targetNodes} holds the graph nodes of all destinations
+	 * with a valid node id.
+	 */
+	public void calcValues(MultiTreeSPStore store, int[] targetNodes, MatrixLocations srcData, MatrixLocations dstData,
+			float[] times, float[] distances, float[] weights) throws Exception {
+		calcValues(store, targetNodes, srcData, dstData, 0, srcData.size(), times, distances, weights);
+	}
+
+	/**
+	 * Fills the table rows of the sources {@code srcStart} (inclusive) to {@code srcEnd} (exclusive), whose trees
+	 * are stored in the given order, i.e. the first valid source of the range corresponds to tree 0.
+	 */
+	public void calcValues(MultiTreeSPStore store, int[] targetNodes, MatrixLocations srcData, MatrixLocations dstData,
+			int srcStart, int srcEnd, float[] times, float[] distances, float[] weights) throws Exception {
+		if (store == null || targetNodes == null)
+			throw new IllegalStateException("Target destinations not set");
+
+		int index;
+		double pathTime;
+		double pathDistance;
+		double pathWeight;
+		boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
+		boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
+		boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
+		MetricsItem edgeMetricsItem;
+
+		int targetIndex = 0;
+		for (int i = 0; i < dstData.size(); ++i) {
+			int targetSlot = MultiTreeSPStore.NO_SLOT;
+			if (dstData.getNodeId(i) != -1)
+				targetSlot = store.getSlot(targetNodes[targetIndex++]);
+
+			int srcNode = 0;
+			for (int j = srcStart; j < srcEnd; ++j) {
+				pathTime = -1;
+				pathDistance = -1;
+				pathWeight = -1;
+
+				index = j * dstData.size() + i;
+
+				if (srcData.getNodeId(j) != -1) {
+					if (targetSlot != MultiTreeSPStore.NO_SLOT) {
+						pathTime = 0.0;
+						pathDistance = 0.0;
+						pathWeight = 0.0;
+
+						int slot = targetSlot;
+
+						if (store.getParent(slot, srcNode) != MultiTreeSPStore.NO_SLOT) {
+							int edge = store.getEdge(slot, srcNode);
+
+							while (EdgeIterator.Edge.isValid(edge)) {
+								edgeMetricsItem = getEdgeMetrics(edge, store.getAdjNode(slot));
+
+								pathDistance += edgeMetricsItem.distance;
+								pathTime += edgeMetricsItem.time;
+								pathWeight += edgeMetricsItem.weight;
+
+								slot = store.getParent(slot, srcNode);
+
+								if (slot == MultiTreeSPStore.NO_SLOT)
+									break;
+
+								edge = store.getEdge(slot, srcNode);
+							}
+						}
+					}
+					srcNode++;
+				}
+
+				if (calcTime)
+					times[index] = (float) pathTime;
+
+				if (calcDistance)
+					distances[index] = (float) pathDistance;
+
+				if (calcWeight)
+					weights[index] = (float) pathWeight;
+			}
+		}
+	}
+
+	private MetricsItem getEdgeMetrics(int edgeId, int adjNode) {
+		long entryHash = getEdgeHash(edgeId, adjNode);
+		MetricsItem edgeMetricsItem = edgeMetrics.get(entryHash);
+
+		if (edgeMetricsItem != null)
+			return edgeMetricsItem;
+
+		if (chGraph != null) {
+			CHEdgeIteratorState iterState = (CHEdgeIteratorState) graph.getEdgeIteratorState(edgeId, adjNode);
+
+			if (iterState.isShortcut()) {
+				reverseOrder = chGraph.getLevel(iterState.getBaseNode()) > chGraph.getLevel(iterState.getAdjNode());
+
+				if (shortcutStorage != null && shortcutStorage.contains(edgeId)) {
+					edgeDistance = shortcutStorage.getDistance(edgeId);
+					edgeTime = shortcutStorage.getTime(edgeId, reverseOrder);
+				} else if (shortcutCache != null)
+					extractShortcutValues(iterState, edgeId);
+				else
+					extractEdgeValues(iterState, !reverseOrder);
+			} else {
+				extractEdgeValues(iterState, false);
+			}
+
+			edgeDistance = (distUnits == DistanceUnit.METERS) ? edgeDistance
+					: DistanceUnitUtil.convert(edgeDistance, DistanceUnit.METERS, distUnits);
+		} else {
+			EdgeIteratorState iter = graph.getEdgeIteratorState(edgeId, adjNode);
+
+			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+				edgeDistance = (distUnits == DistanceUnit.METERS) ? iter.getDistance()
+						: DistanceUnitUtil.convert(iter.getDistance(), DistanceUnit.METERS, distUnits);
+
+			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+				edgeTime = timeWeighting.calcMillis(iter, false, EdgeIterator.NO_EDGE) / 1000.0;
+
+			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+				edgeWeight = weighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
+		}
+
+		edgeMetricsItem = new MetricsItem();
+		edgeMetricsItem.distance = edgeDistance;
+		edgeMetricsItem.time = edgeTime;
+		edgeMetricsItem.weight = edgeWeight;
+		edgeMetrics.put(entryHash, edgeMetricsItem);
+
+		return edgeMetricsItem;
+	}
+
+	private long getEdgeHash(int edgeId, int adjNode) {
+		return adjNode * maxEdgeId + edgeId;
+	}
+
+	/**
+	 * Unpacks the shortcut in the orientation given by its base and adjacent node in the same way as during the
+	 * extraction of path metrics and returns its distance in meters and its duration in seconds.
+	 */
+	public void calcShortcutMetrics(CHEdgeIteratorState shortcut, double[] result) {
+		reverseOrder = chGraph.getLevel(shortcut.getBaseNode()) > chGraph.getLevel(shortcut.getAdjNode());
+		extractEdgeValues(shortcut, !reverseOrder);
+		result[0] = edgeDistance;
+		result[1] = edgeTime;
+	}
+
+	private void extractShortcutValues(CHEdgeIteratorState iterState, int edgeId) {
+		long key = ShortcutMetricsCache.createKey(edgeId, reverseOrder);
+		ShortcutMetricsCache.Entry entry = shortcutCache.get(key);
+
+		if (entry == null) {
+			extractEdgeValues(iterState, !reverseOrder);
+			shortcutCache.put(key, new ShortcutMetricsCache.Entry(edgeDistance, edgeTime, edgeWeight));
+		} else {
+			edgeDistance = entry.getDistance();
+			edgeTime = entry.getTime();
+			edgeWeight = entry.getWeight();
+		}
 	}
 
 	private void extractEdgeValues(CHEdgeIteratorState iterState, boolean reverse) {
@@ -271,11 +386,11 @@ public class MultiTreeMetricsExtractor {
 
 	private void expandEdge(CHEdgeIteratorState iterState, boolean reverse) {
 		if (!iterState.isShortcut()) {
-			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+			if (MatrixMetricsType.isSet(unpackMetrics, MatrixMetricsType.DISTANCE))
 				edgeDistance += iterState.getDistance();
-			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+			if (MatrixMetricsType.isSet(unpackMetrics, MatrixMetricsType.DURATION))
 				edgeTime += weighting.calcMillis(iterState, reverse, EdgeIterator.NO_EDGE) / 1000.0;
-			if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+			if (MatrixMetricsType.isSet(unpackMetrics, MatrixMetricsType.WEIGHT))
 				edgeWeight += weighting.calcWeight(iterState, reverse, EdgeIterator.NO_EDGE);
 			return;
 		}
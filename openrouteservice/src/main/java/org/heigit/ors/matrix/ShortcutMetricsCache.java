@@ -0,0 +1,134 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.matrix;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of fully unpacked CH shortcut metrics which is shared by all matrix requests of one
+ * CH profile. Entries are keyed by shortcut edge id and unpacking direction. Distances are stored in meters and
+ * all metrics are stored regardless of the ones requested, so that entries can be reused by any request.
+ * <p>
+ * Once the capacity is reached, no further entries are added until the cache is cleared. The hit and miss counts
+ * are logged at most once per {@link #LOG_INTERVAL} milliseconds while the cache is in use.
+ */
+public class ShortcutMetricsCache {
+	private static final Logger LOGGER = Logger.getLogger(ShortcutMetricsCache.class.getName());
+	private static final long LOG_INTERVAL = 10 * 60 * 1000L;
+
+	public static class Entry {
+		private final double distance;
+		private final double time;
+		private final double weight;
+
+		public Entry(double distance, double time, double weight) {
+			this.distance = distance;
+			this.time = time;
+			this.weight = weight;
+		}
+
+		public double getDistance() {
+			return distance;
+		}
+
+		public double getTime() {
+			return time;
+		}
+
+		public double getWeight() {
+			return weight;
+		}
+	}
+
+	private final ConcurrentHashMap<Long, Entry> entries;
+	private final String name;
+	private final int capacity;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final AtomicLong lastLogTime = new AtomicLong(System.currentTimeMillis());
+
+	public ShortcutMetricsCache(String name, int capacity) {
+		this.name = name;
+		this.capacity = capacity;
+		entries = new ConcurrentHashMap<>(Math.min(capacity, 1 << 16));
+	}
+
+	public static long createKey(int edgeId, boolean reverse) {
+		return ((long) edgeId << 1) | (reverse ? 1 : 0);
+	}
+
+	public Entry get(long key) {
+		Entry entry = entries.get(key);
+		if (entry == null)
+			misses.increment();
+		else
+			hits.increment();
+
+		long time = System.currentTimeMillis();
+		long lastTime = lastLogTime.get();
+		if (time - lastTime >= LOG_INTERVAL && lastLogTime.compareAndSet(lastTime, time))
+			LOGGER.info("Shortcut metrics cache of " + name + " (" + this + ")");
+
+		return entry;
+	}
+
+	public void put(long key, Entry entry) {
+		if (entries.size() < capacity)
+			entries.putIfAbsent(key, entry);
+	}
+
+	public void clear() {
+		entries.clear();
+		hits.reset();
+		misses.reset();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the share of lookups since the last clear that were answered from the cache, 0 if there were none
+	 */
+	public double getHitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "size: " + size() + "/" + capacity + ", hits: " + getHits() + ", misses: " + getMisses();
+	}
+}
@@ -14,10 +14,16 @@
 package org.heigit.ors.matrix.algorithms;
 
 import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.QueryGraph;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
 import com.graphhopper.storage.Graph;
 import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.ShortcutMetricsCache;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.heigit.ors.routing.graphhopper.extensions.storages.ShortcutMetricsStorage;
+import org.heigit.ors.services.matrix.MatrixServiceSettings;
 
 public abstract class AbstractMatrixAlgorithm implements MatrixAlgorithm {
   protected GraphHopper graphHopper;
@@ -32,4 +38,29 @@ public abstract class AbstractMatrixAlgorithm implements MatrixAlgorithm {
 	  this.encoder = encoder;
 	  this.weighting = weighting;
   }
+
+  /**
+   * Returns the shortcut metrics cache shared by all requests using the same weighting, or null if caching is disabled.
+   */
+  protected ShortcutMetricsCache getShortcutMetricsCache()
+  {
+	  int cacheSize = MatrixServiceSettings.getShortcutCacheSize();
+	  if (cacheSize <= 0 || !(graphHopper instanceof ORSGraphHopper))
+		  return null;
+	  return ((ORSGraphHopper) graphHopper).getShortcutMetricsCache(weighting.toString(), cacheSize);
+  }
+
+  /**
+   * Returns the precomputed shortcut metrics of the CH graph used by this algorithm, or null if they have not been prepared.
+   */
+  protected ShortcutMetricsStorage getShortcutMetricsStorage()
+  {
+	  if (!(graphHopper instanceof ORSGraphHopper))
+		  return null;
+
+	  Graph mainGraph = graph instanceof QueryGraph ? ((QueryGraph) graph).getMainGraph() : graph;
+	  if (!(mainGraph instanceof CHGraph))
+		  return null;
+	  return ((ORSGraphHopper) graphHopper).getShortcutMetricsStorage((CHGraph) mainGraph);
+  }
 }
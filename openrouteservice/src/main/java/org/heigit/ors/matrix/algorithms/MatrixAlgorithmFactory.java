@@ -16,15 +16,19 @@ package org.heigit.ors.matrix.algorithms;
 import com.graphhopper.GraphHopper;
 import org.heigit.ors.matrix.MatrixRequest;
 import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.rphast.RPHASTIndexedMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
+import org.heigit.ors.services.matrix.MatrixServiceSettings;
 
 public class MatrixAlgorithmFactory {
 	private MatrixAlgorithmFactory() {}
 
 	public static MatrixAlgorithm createAlgorithm(MatrixRequest req, GraphHopper gh) {
-		if (!req.getFlexibleMode() && gh.isCHEnabled())
-			return new RPHASTMatrixAlgorithm();
-		else
+		if (!req.getFlexibleMode() && gh.isCHEnabled()) {
+			if (MatrixServiceSettings.RPHAST_ENGINE_LEGACY.equalsIgnoreCase(MatrixServiceSettings.getRPHASTEngine()))
+				return new RPHASTMatrixAlgorithm();
+			return new RPHASTIndexedMatrixAlgorithm();
+		} else
 			return new DijkstraMatrixAlgorithm();
 	}
 }
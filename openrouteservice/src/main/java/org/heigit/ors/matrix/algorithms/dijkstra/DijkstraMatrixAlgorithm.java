@@ -13,6 +13,14 @@
  */
 package org.heigit.ors.matrix.algorithms.dijkstra;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.graphhopper.GraphHopper;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.util.TraversalMode;
@@ -20,6 +28,7 @@ import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.SPTEntry;
 
+import org.heigit.ors.common.DistanceUnit;
 import org.heigit.ors.matrix.MatrixMetricsType;
 import org.heigit.ors.matrix.MatrixRequest;
 import org.heigit.ors.matrix.MatrixResult;
@@ -29,14 +38,34 @@ import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
 import org.heigit.ors.routing.algorithms.DijkstraOneToManyAlgorithm;
 import org.heigit.ors.services.matrix.MatrixServiceSettings;
 
+/**
+ * Computes matrices with one Dijkstra search per source. If more than one thread is configured via
+ * {@link MatrixServiceSettings#getDijkstraThreads()}, the sources are distributed over several workers, each with
+ * its own {@link DijkstraOneToManyAlgorithm} and {@link PathMetricsExtractor}. The limit of
+ * {@link MatrixServiceSettings#getMaximumVisitedNodes()} applies to the sum of all searches of a request.
+ */
 public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
+	private static ForkJoinPool executor;
+
 	private PathMetricsExtractor pathMetricsExtractor;
+	private int requestMetrics;
+	private DistanceUnit units;
+	private int threads = MatrixServiceSettings.getDijkstraThreads();
 
 	@Override
 	public void init(MatrixRequest req, GraphHopper gh, Graph graph, FlagEncoder encoder, Weighting weighting) {
 		super.init(req, gh, graph, encoder, weighting);
 
-		pathMetricsExtractor = new PathMetricsExtractor(req.getMetrics(), this.graph, this.encoder, this.weighting, req.getUnits());
+		requestMetrics = req.getMetrics();
+		units = req.getUnits();
+		pathMetricsExtractor = createMetricsExtractor();
+	}
+
+	/**
+	 * Overrides the number of workers of {@link MatrixServiceSettings#getDijkstraThreads()} for this instance.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
 	}
 
 	@Override
@@ -59,26 +88,34 @@ public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
 			for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) 
 				pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
 		} else {
-			DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
-			algorithm.prepare(srcData.getNodeIds(),  dstData.getNodeIds());
-			algorithm.setMaxVisitedNodes(MatrixServiceSettings.getMaximumVisitedNodes());
-			
-			int sourceId = -1;
-
-			for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) {
-				sourceId = srcData.getNodeId(srcIndex);
-
-				if (sourceId == -1) {
-					pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
-				} else {
-					algorithm.reset();
-					SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
-
-					if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
-						throw new Exception("Search exceeds the limit of visited nodes.");
-
-					if (targets != null) {
-						pathMetricsExtractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
+			AtomicInteger visitedNodes = new AtomicInteger();
+			int threads = Math.min(this.threads, srcData.size());
+
+			if (threads <= 1) {
+				computeSources(pathMetricsExtractor, 0, 1, visitedNodes, srcData, dstData, times, distances, weights);
+			} else {
+				List<Callable<Void>> tasks = new ArrayList<>(threads);
+
+				for (int t = 0; t < threads; t++) {
+					int firstSource = t;
+					int step = threads;
+					float[] workerTimes = times;
+					float[] workerDistances = distances;
+					float[] workerWeights = weights;
+
+					tasks.add(() -> {
+						computeSources(createMetricsExtractor(), firstSource, step, visitedNodes, srcData, dstData, workerTimes, workerDistances, workerWeights);
+						return null;
+					});
+				}
+
+				for (Future<Void> future : getExecutor(threads).invokeAll(tasks)) {
+					try {
+						future.get();
+					} catch (ExecutionException ex) {
+						if (ex.getCause() instanceof Exception)
+							throw (Exception) ex.getCause();
+						throw ex;
 					}
 				}
 			}
@@ -93,4 +130,53 @@ public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
 
 		return mtxResult;
 	}
+
+	/**
+	 * Computes the rows of the sources {@code firstSource}, {@code firstSource + step}, ... The number of visited
+	 * nodes is added to the request-wide counter after each search, so that the limit of visited nodes is shared
+	 * by all workers.
+	 */
+	private void computeSources(PathMetricsExtractor metricsExtractor, int firstSource, int step, AtomicInteger visitedNodes,
+			MatrixLocations srcData, MatrixLocations dstData, float[] times, float[] distances, float[] weights) throws Exception {
+		DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
+		algorithm.prepare(srcData.getNodeIds(),  dstData.getNodeIds());
+
+		int maxVisitedNodes = MatrixServiceSettings.getMaximumVisitedNodes();
+		int sourceId = -1;
+
+		for (int srcIndex = firstSource; srcIndex < srcData.size(); srcIndex += step) {
+			sourceId = srcData.getNodeId(srcIndex);
+
+			if (sourceId == -1) {
+				metricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
+			} else {
+				int algorithmVisitedNodes = algorithm.getVisitedNodes();
+				algorithm.setMaxVisitedNodes(algorithmVisitedNodes + maxVisitedNodes - visitedNodes.get());
+				algorithm.reset();
+				SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
+				visitedNodes.addAndGet(algorithm.getVisitedNodes() - algorithmVisitedNodes);
+
+				if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
+					throw new Exception("Search exceeds the limit of visited nodes.");
+
+				if (targets != null) {
+					metricsExtractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
+				}
+			}
+		}
+	}
+
+	private PathMetricsExtractor createMetricsExtractor() {
+		return new PathMetricsExtractor(requestMetrics, graph, encoder, weighting, units);
+	}
+
+	private static synchronized ForkJoinPool getExecutor(int threads) {
+		if (executor == null || executor.getParallelism() < threads) {
+			// tasks already submitted to a replaced pool are still completed by it
+			if (executor != null)
+				executor.shutdown();
+			executor = new ForkJoinPool(Math.max(threads, MatrixServiceSettings.getDijkstraThreads()));
+		}
+		return executor;
+	}
 }
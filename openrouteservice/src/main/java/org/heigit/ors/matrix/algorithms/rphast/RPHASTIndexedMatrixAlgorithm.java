@@ -0,0 +1,216 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.matrix.algorithms.rphast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.MultiTreeMetricsExtractor;
+import org.heigit.ors.matrix.ShortcutMetricsCache;
+import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.routing.algorithms.RPHASTIndexedAlgorithm;
+import org.heigit.ors.routing.algorithms.SubGraph;
+import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPStore;
+import org.heigit.ors.routing.graphhopper.extensions.storages.ShortcutMetricsStorage;
+import org.heigit.ors.services.matrix.MatrixServiceSettings;
+
+/**
+ * Computes matrices with {@link RPHASTIndexedAlgorithm}, i.e. the same search as {@link RPHASTMatrixAlgorithm}
+ * but on primitive shortest path tree storage and a priority queue with decrease-key.
+ * <p>
+ * If more than one thread is configured via {@link MatrixServiceSettings#getRPHASTThreads()}, the sources are
+ * split into blocks of {@link MatrixServiceSettings#getRPHASTBlockSize()} which are searched concurrently on the
+ * target graph built once in the preparation phase. Each block writes to its own rows of the result tables.
+ */
+public class RPHASTIndexedMatrixAlgorithm extends AbstractMatrixAlgorithm {
+	private static ForkJoinPool executor;
+
+	private PrepareContractionHierarchies prepareCH;
+	private MultiTreeMetricsExtractor pathMetricsExtractor;
+	private int requestMetrics;
+	private DistanceUnit units;
+	private ShortcutMetricsCache shortcutCache;
+	private ShortcutMetricsStorage shortcutStorage;
+	private int threads = MatrixServiceSettings.getRPHASTThreads();
+	private int blockSize = MatrixServiceSettings.getRPHASTBlockSize();
+
+	@Override
+	public void init(MatrixRequest req, GraphHopper gh, Graph graph, FlagEncoder encoder, Weighting weighting) {
+		super.init(req, gh, graph, encoder, weighting);
+
+		prepareCH = graphHopper.getCHFactoryDecorator().getPreparations().get(0);
+		requestMetrics = req.getMetrics();
+		units = req.getUnits();
+		shortcutCache = getShortcutMetricsCache();
+		shortcutStorage = getShortcutMetricsStorage();
+		pathMetricsExtractor = createMetricsExtractor();
+	}
+
+	/**
+	 * Overrides the number of workers of {@link MatrixServiceSettings#getRPHASTThreads()} for this instance.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Overrides the number of sources per search of {@link MatrixServiceSettings#getRPHASTBlockSize()} for this instance.
+	 */
+	public void setBlockSize(int blockSize) {
+		this.blockSize = Math.max(1, blockSize);
+	}
+
+	@Override
+	public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
+		MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
+
+		float[] times = null;
+		float[] distances = null;
+		float[] weights = null;
+
+		int tableSize = srcData.size() * dstData.size();
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+			times = new float[tableSize];
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+			distances = new float[tableSize];
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+			weights = new float[tableSize];
+
+		if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
+			for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) 
+				pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
+		} else {
+			RPHASTIndexedAlgorithm algorithm = createAlgorithm();
+			
+			int[] srcIds = getValidNodeIds(srcData.getNodeIds());
+			int[] destIds = getValidNodeIds(dstData.getNodeIds());
+
+			mtxResult.setGraphDate(graphHopper.getGraphHopperStorage().getProperties().get("datareader.import.date"));
+			
+			algorithm.prepare(srcIds, destIds);
+
+			int blockSize = threads > 1 ? this.blockSize : srcData.size();
+			int numBlocks = (srcData.size() + blockSize - 1) / blockSize;
+
+			if (numBlocks <= 1) {
+				computeBlock(algorithm, pathMetricsExtractor, 0, srcData.size(), srcData, dstData, destIds, times, distances, weights);
+			} else {
+				computeBlocks(algorithm.getTargetGraph(), blockSize, numBlocks, srcData, dstData, destIds, times, distances, weights);
+			}
+		}
+
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+			mtxResult.setTable(MatrixMetricsType.DURATION, times);
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+			mtxResult.setTable(MatrixMetricsType.DISTANCE, distances);
+		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+			mtxResult.setTable(MatrixMetricsType.WEIGHT, weights);
+
+		return mtxResult;
+	}
+	
+	private void computeBlocks(SubGraph targetGraph, int blockSize, int numBlocks, MatrixLocations srcData, MatrixLocations dstData,
+			int[] destIds, float[] times, float[] distances, float[] weights) throws Exception {
+		List<Callable<Void>> tasks = new ArrayList<>(numBlocks);
+
+		for (int b = 0; b < numBlocks; b++) {
+			int srcStart = b * blockSize;
+			int srcEnd = Math.min(srcStart + blockSize, srcData.size());
+
+			tasks.add(() -> {
+				RPHASTIndexedAlgorithm algorithm = createAlgorithm();
+				algorithm.setTargetGraph(targetGraph);
+				computeBlock(algorithm, createMetricsExtractor(), srcStart, srcEnd, srcData, dstData, destIds, times, distances, weights);
+				return null;
+			});
+		}
+
+		for (Future<Void> future : getExecutor(threads).invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof Exception)
+					throw (Exception) ex.getCause();
+				throw ex;
+			}
+		}
+	}
+
+	private void computeBlock(RPHASTIndexedAlgorithm algorithm, MultiTreeMetricsExtractor metricsExtractor, int srcStart, int srcEnd,
+			MatrixLocations srcData, MatrixLocations dstData, int[] destIds, float[] times, float[] distances, float[] weights) throws Exception {
+		int[] srcIds = getValidNodeIds(Arrays.copyOfRange(srcData.getNodeIds(), srcStart, srcEnd));
+
+		if (srcIds.length == 0) {
+			for (int srcIndex = srcStart; srcIndex < srcEnd; srcIndex++)
+				metricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
+			return;
+		}
+
+		MultiTreeSPStore trees = algorithm.calcPaths(srcIds, destIds);
+
+		metricsExtractor.calcValues(trees, destIds, srcData, dstData, srcStart, srcEnd, times, distances, weights);
+	}
+
+	private RPHASTIndexedAlgorithm createAlgorithm() {
+		return new RPHASTIndexedAlgorithm(graph, prepareCH.getPrepareWeighting(), TraversalMode.NODE_BASED);
+	}
+
+	private MultiTreeMetricsExtractor createMetricsExtractor() {
+		MultiTreeMetricsExtractor extractor = new MultiTreeMetricsExtractor(requestMetrics, graph, encoder, weighting, units, shortcutCache);
+		extractor.setShortcutMetricsStorage(shortcutStorage);
+		return extractor;
+	}
+
+	private static synchronized ForkJoinPool getExecutor(int threads) {
+		if (executor == null || executor.getParallelism() < threads) {
+			// tasks already submitted to a replaced pool are still completed by it
+			if (executor != null)
+				executor.shutdown();
+			executor = new ForkJoinPool(Math.max(threads, MatrixServiceSettings.getRPHASTThreads()));
+		}
+		return executor;
+	}
+
+	private int[] getValidNodeIds(int[] nodeIds) {
+		List<Integer> nodeList = new ArrayList<>();
+		for (int dst : nodeIds) {
+			if (dst != -1)
+				nodeList.add(dst);
+
+		}
+		
+		int[] res = new int[nodeList.size()];
+		for (int i = 0; i < nodeList.size(); i++) 
+			res[i] = nodeList.get(i);
+		
+		return res;
+	}
+}
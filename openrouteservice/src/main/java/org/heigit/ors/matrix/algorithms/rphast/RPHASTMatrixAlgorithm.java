@@ -42,7 +42,8 @@ public class RPHASTMatrixAlgorithm extends AbstractMatrixAlgorithm {
 
 		prepareCH = graphHopper.getCHFactoryDecorator().getPreparations().get(0);
 		pathMetricsExtractor = new MultiTreeMetricsExtractor(req.getMetrics(), graph, this.encoder, weighting,
-				req.getUnits());
+				req.getUnits(), getShortcutMetricsCache());
+		pathMetricsExtractor.setShortcutMetricsStorage(getShortcutMetricsStorage());
 	}
 
 	@Override
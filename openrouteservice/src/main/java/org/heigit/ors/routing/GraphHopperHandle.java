@@ -0,0 +1,73 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+
+/**
+ * Reference counted graph of a {@link RoutingProfile}. The profile holds one reference as long as the graph is the
+ * current one and every request holds one between {@link #tryAcquire()} and {@link #release()}. The graph is closed
+ * when the last reference is released, i.e. when the last request on a graph that has been replaced has finished.
+ */
+final class GraphHopperHandle {
+    private final ORSGraphHopper graphHopper;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    GraphHopperHandle(ORSGraphHopper graphHopper) {
+        this.graphHopper = graphHopper;
+    }
+
+    ORSGraphHopper getGraphHopper() {
+        return graphHopper;
+    }
+
+    /**
+     * Adds a reference unless the graph has already been released by all holders, in which case it must not be used
+     * anymore and false is returned.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int count = references.get();
+            if (count == 0)
+                return false;
+            if (references.compareAndSet(count, count + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Removes a reference and closes the graph if it was the last one. Releasing more references than have been
+     * acquired is a bug of the caller and would otherwise hide the graph from all holders.
+     */
+    void release() {
+        while (true) {
+            int count = references.get();
+            if (count == 0)
+                throw new IllegalStateException("The graph has already been released by all holders");
+            if (references.compareAndSet(count, count - 1)) {
+                if (count == 1) {
+                    graphHopper.clearShortcutMetricsCaches();
+                    graphHopper.close();
+                }
+                return;
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return references.get() == 0;
+    }
+}
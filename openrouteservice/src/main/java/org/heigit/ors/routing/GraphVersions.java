@@ -0,0 +1,124 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * Versioned layout of the graph directory of a routing profile. Every build of a graph is written to a new
+ * subdirectory {@code v<n>} of the configured graph path, so that an updated graph can be loaded while the previous
+ * one is still in service. A version is complete once the stamp file, which is written after the graph has been
+ * imported and loaded, exists.
+ * <p>
+ * Graphs built before the versioned layout have been introduced reside directly in the configured graph path and
+ * are used as long as there is no complete version.
+ */
+public final class GraphVersions {
+	private static final Logger LOGGER = Logger.getLogger(GraphVersions.class.getName());
+
+	private static final String VERSION_PREFIX = "v";
+	static final String STAMP_FILE = "stamp.txt";
+
+	private GraphVersions() {}
+
+	/**
+	 * Returns the location of the newest complete graph, or the location of a new version if there is none.
+	 */
+	public static String resolve(String graphPath) {
+		File latest = null;
+		int latestVersion = 0;
+
+		for (File dir : listVersions(graphPath)) {
+			int version = getVersion(dir);
+			if (version > latestVersion && isComplete(dir)) {
+				latest = dir;
+				latestVersion = version;
+			}
+		}
+
+		if (latest != null)
+			return latest.getPath();
+
+		if (isComplete(new File(graphPath)))
+			return graphPath;
+
+		return createNext(graphPath);
+	}
+
+	/**
+	 * Returns the location of a version newer than all existing ones, which is not created yet.
+	 */
+	public static String createNext(String graphPath) {
+		int maxVersion = 0;
+		for (File dir : listVersions(graphPath))
+			maxVersion = Math.max(maxVersion, getVersion(dir));
+
+		return new File(graphPath, VERSION_PREFIX + (maxVersion + 1)).getPath();
+	}
+
+	/**
+	 * Deletes all versions except the given one, as well as the files of a graph in the old layout. Graphs are held
+	 * in memory, so the files of a graph may be deleted while it still serves requests.
+	 */
+	public static void removeObsolete(String graphPath, String location) {
+		File current = new File(location);
+
+		for (File dir : listVersions(graphPath)) {
+			if (!dir.equals(current))
+				delete(dir);
+		}
+
+		File root = new File(graphPath);
+		if (!root.equals(current)) {
+			File[] files = root.listFiles(File::isFile);
+			if (files != null) {
+				for (File file : files)
+					delete(file);
+			}
+		}
+	}
+
+	public static boolean isComplete(File dir) {
+		return new File(dir, STAMP_FILE).exists();
+	}
+
+	private static File[] listVersions(String graphPath) {
+		File[] dirs = new File(graphPath).listFiles(f -> f.isDirectory() && getVersion(f) > 0);
+		return dirs == null ? new File[0] : dirs;
+	}
+
+	private static int getVersion(File dir) {
+		String name = dir.getName();
+		if (!name.startsWith(VERSION_PREFIX))
+			return 0;
+
+		try {
+			return Integer.parseInt(name.substring(VERSION_PREFIX.length()));
+		} catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+	private static void delete(File file) {
+		try {
+			FileUtils.forceDelete(file);
+		} catch (IOException ex) {
+			LOGGER.warn("Unable to delete obsolete graph files " + file + ": " + ex.getMessage());
+		}
+	}
+}
@@ -30,7 +30,6 @@ import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.GHPoint;
 import com.typesafe.config.Config;
 import com.vividsolutions.jts.geom.Coordinate;
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.heigit.ors.exceptions.InternalServerException;
 import org.heigit.ors.exceptions.StatusCodeException;
@@ -67,6 +66,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class generates {@link RoutingProfile} classes and is used by mostly all service classes e.g.
@@ -105,11 +105,10 @@ public class RoutingProfile {
     private static int profileIdentifier = 0;
     private static final Object lockObj = new Object();
 
-    private ORSGraphHopper mGraphHopper;
+    private final AtomicReference<GraphHopperHandle> mGraphHandle;
     private Integer[] mRoutePrefs;
-    private Integer mUseCounter;
-    private boolean mUpdateRun;
     private MapMatcher mMapMatcher;
+    private GraphHopper mMapMatcherGraph;
 
     private RouteProfileConfiguration config;
     private String astarApproximation;
@@ -117,9 +116,13 @@ public class RoutingProfile {
 
     public RoutingProfile(String osmFile, RouteProfileConfiguration rpc, RoutingProfileLoadContext loadCntx) throws Exception {
         mRoutePrefs = rpc.getProfilesTypes();
-        mUseCounter = 0;
 
-        mGraphHopper = initGraphHopper(osmFile, rpc, loadCntx);
+        RouteProfileConfiguration rpcVersion = new RouteProfileConfiguration(rpc);
+        rpcVersion.setGraphPath(GraphVersions.resolve(rpc.getGraphPath()));
+        ORSGraphHopper gh = initGraphHopper(osmFile, rpcVersion, loadCntx);
+        GraphVersions.removeObsolete(rpc.getGraphPath(), rpcVersion.getGraphPath());
+
+        mGraphHandle = new AtomicReference<>(new GraphHopperHandle(gh));
 
         config = rpc;
 
@@ -203,7 +206,8 @@ public class RoutingProfile {
 
         // Make a stamp which help tracking any changes in the size of OSM file.
         File file = new File(osmFile);
-        Path pathTimestamp = Paths.get(config.getGraphPath(), "stamp.txt");
+        // the stamp marks the graph as complete, see GraphVersions
+        Path pathTimestamp = Paths.get(config.getGraphPath(), GraphVersions.STAMP_FILE);
         File file2 = pathTimestamp.toFile();
         if (!file2.exists())
             Files.write(pathTimestamp, Long.toString(file.length()).getBytes());
@@ -212,7 +216,7 @@ public class RoutingProfile {
     }
 
     public long getCapacity() {
-        GraphHopperStorage graph = mGraphHopper.getGraphHopperStorage();
+        GraphHopperStorage graph = getGraphhopper().getGraphHopperStorage();
         return graph.getCapacity() + GraphStorageUtils.getCapacity(graph.getExtension());
     }
 
@@ -263,6 +267,8 @@ public class RoutingProfile {
                             args.put("prepare.ch.threads", chOpts.getInt(KEY_THREADS));
                         if (chOpts.hasPath(KEY_WEIGHTINGS))
                             args.put(KEY_PREPARE_CH_WEIGHTINGS, StringUtility.trimQuotes(chOpts.getString(KEY_WEIGHTINGS)));
+                        if (chOpts.hasPath("shortcut_metrics"))
+                            args.put("prepare.ch.shortcut_metrics", chOpts.getBoolean("shortcut_metrics"));
                     }
                 }
 
@@ -306,6 +312,10 @@ public class RoutingProfile {
                             args.put("prepare.corelm.lmsets", StringUtility.trimQuotes(coreOpts.getString("lmsets")));
                         if (coreOpts.hasPath(KEY_LANDMARKS))
                             args.put("prepare.corelm.landmarks", coreOpts.getInt(KEY_LANDMARKS));
+                        if (coreOpts.hasPath("contraction_threads"))
+                            args.put("prepare.core.contraction_threads", coreOpts.getInt("contraction_threads"));
+                        if (coreOpts.hasPath("landmark_threads"))
+                            args.put("prepare.corelm.landmark_threads", coreOpts.getInt("landmark_threads"));
                     }
                 }
             }
@@ -364,20 +374,24 @@ public class RoutingProfile {
         return args;
     }
 
+    /**
+     * Returns the current graph of the profile. The graph may be replaced and closed by {@link #updateGH(ORSGraphHopper)}
+     * at any time, long running computations should use {@link #acquireGH()} instead.
+     */
     public ORSGraphHopper getGraphhopper() {
-        return mGraphHopper;
+        return mGraphHandle.get().getGraphHopper();
     }
 
     public BBox getBounds() {
-        return mGraphHopper.getGraphHopperStorage().getBounds();
+        return getGraphhopper().getGraphHopperStorage().getBounds();
     }
 
     public StorableProperties getGraphProperties() {
-        return mGraphHopper.getGraphHopperStorage().getProperties();
+        return getGraphhopper().getGraphHopperStorage().getProperties();
     }
 
     public String getGraphLocation() {
-        return mGraphHopper == null ? null : mGraphHopper.getGraphHopperStorage().getDirectory().toString();
+        return getGraphhopper().getGraphHopperStorage().getDirectory().toString();
     }
 
     public RouteProfileConfiguration getConfiguration() {
@@ -399,82 +413,42 @@ public class RoutingProfile {
 
 
     public boolean isCHEnabled() {
-        return mGraphHopper != null && mGraphHopper.isCHEnabled();
+        return getGraphhopper().isCHEnabled();
     }
 
     public void close() {
-        mGraphHopper.close();
-    }
-
-    private synchronized boolean isGHUsed() {
-        return mUseCounter > 0;
+        mGraphHandle.get().release();
     }
 
-    private synchronized void beginUseGH() {
-        mUseCounter++;
-    }
-
-    private synchronized void endUseGH() {
-        mUseCounter--;
+    /**
+     * Returns the current graph with an additional reference, which must be released once the graph is not used
+     * anymore. Never blocks: if the graph is replaced concurrently, the replacement is acquired instead.
+     */
+    private GraphHopperHandle acquireGH() {
+        GraphHopperHandle handle = mGraphHandle.get();
+        while (!handle.tryAcquire()) {
+            GraphHopperHandle current = mGraphHandle.get();
+            if (current == handle)
+                throw new IllegalStateException("The routing profile has been closed.");
+            handle = current;
+        }
+        return handle;
     }
 
-    public void updateGH(GraphHopper gh) throws Exception {
+    /**
+     * Replaces the graph by the given one, which has been built into a new version of the graph directory by
+     * {@link RoutingProfilesUpdater}. Requests running on the old graph keep using it until they have finished, the
+     * old graph is closed when the last of them releases it. Afterwards, the files of all other versions are deleted.
+     */
+    public void updateGH(ORSGraphHopper gh) throws Exception {
         if (gh == null)
             throw new Exception("GraphHopper instance is null.");
 
-        try {
-            mUpdateRun = true;
-            while (true) {
-                if (!isGHUsed()) {
-                    GraphHopper ghOld = mGraphHopper;
-
-                    ghOld.close();
-                    ghOld.clean();
-
-                    gh.close();
-                    // gh.clean(); // do not remove on-disk files, we need to
-                    // copy them as follows
-
-                    RuntimeUtility.clearMemory(LOGGER);
-
-                    // Change the content of the graph folder
-                    String oldLocation = ghOld.getGraphHopperLocation();
-                    File dstDir = new File(oldLocation);
-                    File srcDir = new File(gh.getGraphHopperLocation());
-                    FileUtils.copyDirectory(srcDir, dstDir, true);
-                    FileUtils.deleteDirectory(srcDir);
-
-                    RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
-
-                    mGraphHopper = initGraphHopper(ghOld.getDataReaderFile(), config, loadCntx);
-
-                    loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
+        mGraphHandle.getAndSet(new GraphHopperHandle(gh)).release();
 
-                    break;
-                }
-
-                Thread.sleep(2000);
-            }
-        } catch (Exception ex) {
-            LOGGER.error(ex.getMessage());
-        }
-
-        mUpdateRun = false;
-    }
-
-    private void waitForUpdateCompletion() throws Exception {
-        if (mUpdateRun) {
-            long startTime = System.currentTimeMillis();
-
-            while (mUpdateRun) {
-                long curTime = System.currentTimeMillis();
-                if (curTime - startTime > 600000) {
-                    throw new Exception("The route profile is currently being updated.");
-                }
+        GraphVersions.removeObsolete(config.getGraphPath(), gh.getGraphHopperLocation());
 
-                Thread.sleep(1000);
-            }
-        }
+        RuntimeUtility.clearMemory(LOGGER);
     }
 
     private static boolean supportWeightingMethod(int profileType) {
@@ -518,23 +492,19 @@ public class RoutingProfile {
 
 
         IsochroneMap result = null;
-        waitForUpdateCompletion();
-
-        beginUseGH();
+        GraphHopperHandle handle = acquireGH();
 
         try {
-            RouteSearchContext searchCntx = createSearchContext(parameters.getRouteParameters());
+            RouteSearchContext searchCntx = createSearchContext(handle.getGraphHopper(), parameters.getRouteParameters());
 
             IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx);
             result = isochroneMapBuilderFactory.buildMap(parameters);
-
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
-
             LOGGER.error(ex);
 
             throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Unable to build an isochrone map.");
+        } finally {
+            handle.release();
         }
 
         if (tempAttributes != null && result.getIsochronesCount() > 0) {
@@ -560,10 +530,13 @@ public class RoutingProfile {
                     StatisticsProvider provider = StatisticsProviderFactory.getProvider(provConfig.getName(), provConfig.getParameters());
                     String[] provAttrs = provConfig.getMappedProperties(entry.getValue());
 
-                    for (Isochrone isochrone : result.getIsochrones()) {
-                        double[] attrValues = provider.getStatistics(isochrone, provAttrs);
-                        isochrone.setAttributes(entry.getValue(), attrValues, provConfig.getAttribution());
-                    }
+                    List<Isochrone> isochrones = new ArrayList<>(result.getIsochronesCount());
+                    for (Isochrone isochrone : result.getIsochrones())
+                        isochrones.add(isochrone);
+
+                    double[][] attrValues = provider.getStatistics(isochrones, provAttrs);
+                    for (int i = 0; i < isochrones.size(); i++)
+                        isochrones.get(i).setAttributes(entry.getValue(), attrValues[i], provConfig.getAttribution());
                 }
 
             } catch (Exception ex) {
@@ -579,16 +552,18 @@ public class RoutingProfile {
     public MatrixResult computeMatrix(MatrixRequest req) throws Exception {
         MatrixResult mtxResult = null;
 
-        GraphHopper gh = getGraphhopper();
-        String encoderName = RoutingProfileType.getEncoderName(req.getProfileType());
-        FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
+        GraphHopperHandle handle = acquireGH();
+        GraphHopper gh = handle.getGraphHopper();
 
-        MatrixAlgorithm alg = MatrixAlgorithmFactory.createAlgorithm(req, gh);
+        try {
+            String encoderName = RoutingProfileType.getEncoderName(req.getProfileType());
+            FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
 
-        if (alg == null)
-            throw new Exception("Unable to create an algorithm to for computing distance/duration matrix.");
+            MatrixAlgorithm alg = MatrixAlgorithmFactory.createAlgorithm(req, gh);
+
+            if (alg == null)
+                throw new Exception("Unable to create an algorithm to for computing distance/duration matrix.");
 
-        try {
             String weightingStr = Helper.isEmpty(req.getWeightingMethod()) ? VAL_FASTEST : req.getWeightingMethod();
             Graph graph = null;
             if (!req.getFlexibleMode() && gh.getCHFactoryDecorator().isEnabled() && gh.getCHFactoryDecorator().getCHProfileStrings().contains(weightingStr)) {
@@ -615,12 +590,14 @@ public class RoutingProfile {
         } catch (Exception ex) {
             LOGGER.error(ex);
             throw new InternalServerException(MatrixErrorCodes.UNKNOWN, "Unable to compute a distance/duration matrix.");
+        } finally {
+            handle.release();
         }
 
         return mtxResult;
     }
 
-    private RouteSearchContext createSearchContext(RouteSearchParameters searchParams) throws Exception {
+    private RouteSearchContext createSearchContext(ORSGraphHopper gh, RouteSearchParameters searchParams) throws Exception {
         ORSPMap props = new ORSPMap();
 
         int profileType = searchParams.getProfileType();
@@ -629,12 +606,12 @@ public class RoutingProfile {
         if ("UNKNOWN".equals(encoderName))
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "unknown vehicle profile.");
 
-        if (!mGraphHopper.getEncodingManager().hasEncoder(encoderName)) {
+        if (!gh.getEncodingManager().hasEncoder(encoderName)) {
             throw new IllegalArgumentException("Vehicle " + encoderName + " unsupported. " + "Supported are: "
-                    + mGraphHopper.getEncodingManager());
+                    + gh.getEncodingManager());
         }
 
-        FlagEncoder flagEncoder = mGraphHopper.getEncodingManager().getEncoder(encoderName);
+        FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
         ProfileParameters profileParams = searchParams.getProfileParameters();
 
         /*
@@ -700,7 +677,7 @@ public class RoutingProfile {
             }
         }
 
-        RouteSearchContext searchCntx = new RouteSearchContext(mGraphHopper, flagEncoder);
+        RouteSearchContext searchCntx = new RouteSearchContext(gh, flagEncoder);
         searchCntx.setProperties(props);
 
         return searchCntx;
@@ -708,30 +685,22 @@ public class RoutingProfile {
 
     public RouteSegmentInfo[] getMatchedSegments(Coordinate[] locations, double searchRadius, boolean bothDirections)
             throws Exception {
-        RouteSegmentInfo[] rsi = null;
-
-        waitForUpdateCompletion();
-
-        beginUseGH();
+        GraphHopperHandle handle = acquireGH();
 
         try {
-            rsi = getMatchedSegmentsInternal(locations, searchRadius, null, bothDirections);
-
-            endUseGH();
-        } catch (Exception ex) {
-            endUseGH();
-
-            throw ex;
+            return getMatchedSegmentsInternal(handle.getGraphHopper(), locations, searchRadius, null, bothDirections);
+        } finally {
+            handle.release();
         }
-
-        return rsi;
     }
 
-    private RouteSegmentInfo[] getMatchedSegmentsInternal(Coordinate[] locations,
+    private RouteSegmentInfo[] getMatchedSegmentsInternal(GraphHopper gh, Coordinate[] locations,
                                                           double searchRadius, EdgeFilter edgeFilter, boolean bothDirections) {
-        if (mMapMatcher == null) {
+        if (mMapMatcher == null)
             mMapMatcher = new HiddenMarkovMapMatcher();
-            mMapMatcher.setGraphHopper(mGraphHopper);
+        if (mMapMatcherGraph != gh) {
+            mMapMatcher.setGraphHopper(gh);
+            mMapMatcherGraph = gh;
         }
 
         mMapMatcher.setSearchRadius(searchRadius);
@@ -743,14 +712,13 @@ public class RoutingProfile {
     public GHResponse computeRoundTripRoute(double lat0, double lon0, WayPointBearing bearing, RouteSearchParameters searchParams, Boolean geometrySimplify) throws Exception {
         GHResponse resp;
 
-        waitForUpdateCompletion();
-
-        beginUseGH();
+        GraphHopperHandle handle = acquireGH();
 
         try {
+            ORSGraphHopper gh = handle.getGraphHopper();
             int profileType = searchParams.getProfileType();
             int weightingMethod = searchParams.getWeightingMethod();
-            RouteSearchContext searchCntx = createSearchContext(searchParams);
+            RouteSearchContext searchCntx = createSearchContext(gh, searchParams);
 
             boolean flexibleMode = searchParams.getFlexibleMode();
             List<GHPoint> points = new ArrayList<>();
@@ -805,15 +773,15 @@ public class RoutingProfile {
             }
 
             if (searchParams.requiresDynamicWeights() || flexibleMode) {
-                if (mGraphHopper.isCHEnabled())
+                if (gh.isCHEnabled())
                     req.getHints().put(KEY_CH_DISABLE, true);
-                if (mGraphHopper.getLMFactoryDecorator().isEnabled()) {
+                if (gh.getLMFactoryDecorator().isEnabled()) {
                     req.getHints().put(KEY_LM_DISABLE, false);
                     req.getHints().put(KEY_CORE_DISABLE, true);
                     req.getHints().put(KEY_CH_DISABLE, true);
                 }
             } else {
-                if (mGraphHopper.isCHEnabled()) {
+                if (gh.isCHEnabled()) {
                     req.getHints().put(KEY_LM_DISABLE, true);
                     req.getHints().put(KEY_CORE_DISABLE, true);
                 }
@@ -840,17 +808,14 @@ public class RoutingProfile {
             if (astarApproximation != null)
                 req.getHints().put("astarbi.approximation", astarApproximation);
 
-            mGraphHopper.setSimplifyResponse(geometrySimplify);
-            resp = mGraphHopper.route(req);
-
-            endUseGH();
-
+            gh.setSimplifyResponse(geometrySimplify);
+            resp = gh.route(req);
         } catch (Exception ex) {
-            endUseGH();
-
             LOGGER.error(ex);
 
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Unable to compute a route");
+        } finally {
+            handle.release();
         }
 
         return resp;
@@ -861,14 +826,13 @@ public class RoutingProfile {
 
         GHResponse resp = null;
 
-        waitForUpdateCompletion();
-
-        beginUseGH();
+        GraphHopperHandle handle = acquireGH();
 
         try {
+            ORSGraphHopper gh = handle.getGraphHopper();
             int profileType = searchParams.getProfileType();
             int weightingMethod = searchParams.getWeightingMethod();
-            RouteSearchContext searchCntx = createSearchContext(searchParams);
+            RouteSearchContext searchCntx = createSearchContext(gh, searchParams);
 
             boolean flexibleMode = searchParams.getFlexibleMode();
             boolean optimized = searchParams.getOptimized();
@@ -931,29 +895,29 @@ public class RoutingProfile {
             }
 
             if (searchParams.requiresDynamicWeights() || flexibleMode) {
-                if (mGraphHopper.isCHEnabled())
+                if (gh.isCHEnabled())
                     req.getHints().put(KEY_CH_DISABLE, true);
-                if (mGraphHopper.isCoreEnabled())
+                if (gh.isCoreEnabled())
                    req.getHints().put(KEY_CORE_DISABLE, true);
-                if (mGraphHopper.getLMFactoryDecorator().isEnabled()) {
+                if (gh.getLMFactoryDecorator().isEnabled()) {
                     req.setAlgorithm(KEY_ASTARBI);
                     req.getHints().put(KEY_LM_DISABLE, false);
                     req.getHints().put(KEY_CORE_DISABLE, true);
                     req.getHints().put(KEY_CH_DISABLE, true);
                 }
-                if (mGraphHopper.isCoreEnabled() && optimized) {
+                if (gh.isCoreEnabled() && optimized) {
                     req.getHints().put(KEY_CORE_DISABLE, false);
                     req.getHints().put(KEY_LM_DISABLE, true);
                     req.getHints().put(KEY_CH_DISABLE, true);
                     req.setAlgorithm(KEY_ASTARBI);
                 }
             } else {
-                if (mGraphHopper.isCHEnabled()) {
+                if (gh.isCHEnabled()) {
                     req.getHints().put(KEY_LM_DISABLE, true);
                     req.getHints().put(KEY_CORE_DISABLE, true);
                 }
                 else {
-                    if (mGraphHopper.isCoreEnabled() && optimized) {
+                    if (gh.isCoreEnabled() && optimized) {
                         req.getHints().put(KEY_CORE_DISABLE, false);
                         req.getHints().put(KEY_LM_DISABLE, true);
                         req.getHints().put(KEY_CH_DISABLE, true);
@@ -1005,10 +969,10 @@ public class RoutingProfile {
             }
 
             if (directedSegment) {
-                resp = mGraphHopper.constructFreeHandRoute(req);
+                resp = gh.constructFreeHandRoute(req);
             } else {
-                mGraphHopper.setSimplifyResponse(geometrySimplify);
-                resp = mGraphHopper.route(req);
+                gh.setSimplifyResponse(geometrySimplify);
+                resp = gh.route(req);
             }
             if (DebugUtility.isDebug() && !directedSegment) {
                 LOGGER.info("visited_nodes.average - " + resp.getHints().get("visited_nodes.average", ""));
@@ -1016,13 +980,12 @@ public class RoutingProfile {
             if (DebugUtility.isDebug() && directedSegment) {
                 LOGGER.info("skipped segment - " + resp.getHints().get("skipped_segment", ""));
             }
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
-
             LOGGER.error(ex);
 
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Unable to compute a route");
+        } finally {
+            handle.release();
         }
 
         return resp;
@@ -1038,47 +1001,19 @@ public class RoutingProfile {
      */
     public IsochroneMap buildIsochrone(IsochroneSearchParameters parameters) throws Exception {
         IsochroneMap result = null;
-        waitForUpdateCompletion();
-        beginUseGH();
+        GraphHopperHandle handle = acquireGH();
         try {
-            RouteSearchContext searchCntx = createSearchContext(parameters.getRouteParameters());
+            RouteSearchContext searchCntx = createSearchContext(handle.getGraphHopper(), parameters.getRouteParameters());
             IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx);
             result = isochroneMapBuilderFactory.buildMap(parameters);
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
             LOGGER.error(ex);
             throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Unable to build an isochrone map.");
+        } finally {
+            handle.release();
         }
 
         if (result.getIsochronesCount() > 0) {
-            if (parameters.hasAttribute(KEY_TOTAL_POP)) {
-                try {
-                    Map<StatisticsProviderConfiguration, List<String>> mapProviderToAttrs = new HashMap<>();
-                    StatisticsProviderConfiguration provConfig = IsochronesServiceSettings.getStatsProviders().get(KEY_TOTAL_POP);
-                    if (provConfig != null) {
-                        List<String> attrList = new ArrayList<>();
-                        attrList.add(KEY_TOTAL_POP);
-                        mapProviderToAttrs.put(provConfig, attrList);
-                    }
-                    for (Map.Entry<StatisticsProviderConfiguration, List<String>> entry : mapProviderToAttrs.entrySet()) {
-                        provConfig = entry.getKey();
-                        StatisticsProvider provider = StatisticsProviderFactory.getProvider(provConfig.getName(), provConfig.getParameters());
-                        String[] provAttrs = provConfig.getMappedProperties(entry.getValue());
-
-                        for (Isochrone isochrone : result.getIsochrones()) {
-
-                            double[] attrValues = provider.getStatistics(isochrone, provAttrs);
-                            isochrone.setAttributes(entry.getValue(), attrValues, provConfig.getAttribution());
-
-                        }
-                    }
-                } catch (Exception ex) {
-                    LOGGER.error(ex);
-
-                    throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Unable to compute isochrone total_pop attribute.");
-                }
-            }
             if (parameters.hasAttribute("reachfactor") || parameters.hasAttribute("area")) {
                 for (Isochrone isochrone : result.getIsochrones()) {
                     String units = parameters.getUnits();
@@ -1100,11 +1035,50 @@ public class RoutingProfile {
         return result;
     }
 
+    /**
+     * Computes the total_pop attribute of all isochrones of the given maps, if it has been requested. The polygons
+     * of all maps are passed to the statistics provider at once.
+     *
+     * @param isochroneMaps The {@link IsochroneMap}s of one request
+     * @param parameters The {@link IsochroneSearchParameters} holding the requested attributes
+     * @throws Exception
+     */
+    public static void computeIsochroneStatistics(Iterable<IsochroneMap> isochroneMaps, IsochroneSearchParameters parameters) throws Exception {
+        if (!parameters.hasAttribute(KEY_TOTAL_POP))
+            return;
+
+        StatisticsProviderConfiguration provConfig = IsochronesServiceSettings.getStatsProviders().get(KEY_TOTAL_POP);
+        if (provConfig == null)
+            return;
+
+        List<Isochrone> isochrones = new ArrayList<>();
+        for (IsochroneMap isochroneMap : isochroneMaps) {
+            for (Isochrone isochrone : isochroneMap.getIsochrones())
+                isochrones.add(isochrone);
+        }
+
+        if (isochrones.isEmpty())
+            return;
+
+        try {
+            List<String> attrList = Collections.singletonList(KEY_TOTAL_POP);
+            StatisticsProvider provider = StatisticsProviderFactory.getProvider(provConfig.getName(), provConfig.getParameters());
+            double[][] attrValues = provider.getStatistics(isochrones, provConfig.getMappedProperties(attrList));
+
+            for (int i = 0; i < isochrones.size(); i++)
+                isochrones.get(i).setAttributes(attrList, attrValues[i], provConfig.getAttribution());
+        } catch (Exception ex) {
+            LOGGER.error(ex);
+
+            throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Unable to compute isochrone total_pop attribute.");
+        }
+    }
+
     public boolean equals(Object o) {
         return o != null && o.getClass().equals(RoutingProfile.class) && this.hashCode() == o.hashCode();
     }
 
     public int hashCode() {
-        return mGraphHopper.getGraphHopperStorage().getDirectory().getLocation().hashCode();
+        return config.getGraphPath().hashCode();
     }
 }
@@ -25,6 +25,7 @@ import org.heigit.ors.exceptions.PointNotFoundException;
 import org.heigit.ors.exceptions.RouteNotFoundException;
 import org.heigit.ors.exceptions.ServerLimitExceededException;
 import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneMapCollection;
 import org.heigit.ors.isochrones.IsochroneSearchParameters;
 import org.heigit.ors.mapmatching.MapMatchingRequest;
 import org.heigit.ors.matrix.MatrixErrorCodes;
@@ -33,6 +34,7 @@ import org.heigit.ors.matrix.MatrixResult;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.configuration.RoutingManagerConfiguration;
 import org.heigit.ors.routing.pathprocessors.ExtraInfoProcessor;
+import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 import org.heigit.ors.services.routing.RoutingServiceSettings;
 import org.heigit.ors.util.FormatUtility;
 import org.heigit.ors.util.RuntimeUtility;
@@ -40,9 +42,11 @@ import org.heigit.ors.util.TimeUtility;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RoutingProfileManager {
     private static final Logger LOGGER = Logger.getLogger(RoutingProfileManager.class.getName());
@@ -50,6 +54,7 @@ public class RoutingProfileManager {
     private RoutingProfilesCollection routeProfiles;
     private RoutingProfilesUpdater profileUpdater;
     private static RoutingProfileManager mInstance;
+    private static ExecutorService isochronesExecutor;
 
     public static synchronized RoutingProfileManager getInstance() throws IOException {
         if (mInstance == null) {
@@ -198,6 +203,13 @@ public class RoutingProfileManager {
             profileUpdater.destroy();
 
         routeProfiles.destroy();
+
+        synchronized (RoutingProfileManager.class) {
+            if (isochronesExecutor != null) {
+                isochronesExecutor.shutdownNow();
+                isochronesExecutor = null;
+            }
+        }
     }
 
     public RoutingProfilesCollection getProfiles() {
@@ -574,13 +586,78 @@ public class RoutingProfileManager {
      * @throws Exception
      */
     public IsochroneMap buildIsochrone(IsochroneSearchParameters parameters) throws Exception {
+        IsochroneMap isochroneMap = buildIsochroneMap(parameters);
+        RoutingProfile.computeIsochroneStatistics(Collections.singletonList(isochroneMap), parameters);
 
+        return isochroneMap;
+    }
+
+    private IsochroneMap buildIsochroneMap(IsochroneSearchParameters parameters) throws Exception {
         int profileType = parameters.getRouteParameters().getProfileType();
         RoutingProfile rp = routeProfiles.getRouteProfile(profileType, false);
 
         return rp.buildIsochrone(parameters);
     }
 
+    /**
+     * Builds the isochrone maps of several locations. The maps are computed on an executor shared by all requests,
+     * using at most {@link IsochronesServiceSettings#getMaximumThreadsPerRequest()} of its threads for one request.
+     * Statistics attributes of all maps are computed afterwards with one call to the statistics provider.
+     *
+     * @param parameters The {@link IsochroneSearchParameters} of every location
+     * @return Return is a {@link IsochroneMapCollection} holding the maps in the order of the parameters.
+     * @throws Exception
+     */
+    public IsochroneMapCollection buildIsochrones(List<IsochroneSearchParameters> parameters) throws Exception {
+        IsochroneMapCollection isoMaps = new IsochroneMapCollection();
+        if (parameters.isEmpty())
+            return isoMaps;
+
+        int nThreads = Math.min(parameters.size(), Math.min(IsochronesServiceSettings.getThreads(), IsochronesServiceSettings.getMaximumThreadsPerRequest()));
+
+        if (nThreads <= 1) {
+            for (IsochroneSearchParameters searchParams : parameters)
+                isoMaps.add(buildIsochroneMap(searchParams));
+            RoutingProfile.computeIsochroneStatistics(isoMaps.getIsochroneMaps(), parameters.get(0));
+            return isoMaps;
+        }
+
+        IsochroneMap[] maps = new IsochroneMap[parameters.size()];
+        AtomicInteger nextIndex = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>(nThreads);
+
+        for (int t = 0; t < nThreads; t++) {
+            tasks.add(() -> {
+                for (int i = nextIndex.getAndIncrement(); i < maps.length; i = nextIndex.getAndIncrement())
+                    maps[i] = buildIsochroneMap(parameters.get(i));
+                return null;
+            });
+        }
+
+        for (Future<Void> future : getIsochronesExecutor().invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof Exception)
+                    throw (Exception) ex.getCause();
+                throw ex;
+            }
+        }
+
+        for (IsochroneMap map : maps)
+            isoMaps.add(map);
+
+        RoutingProfile.computeIsochroneStatistics(isoMaps.getIsochroneMaps(), parameters.get(0));
+
+        return isoMaps;
+    }
+
+    private static synchronized ExecutorService getIsochronesExecutor() {
+        if (isochronesExecutor == null)
+            isochronesExecutor = Executors.newFixedThreadPool(IsochronesServiceSettings.getThreads());
+        return isochronesExecutor;
+    }
+
     public MatrixResult computeMatrix(MatrixRequest req) throws Exception {
         RoutingProfile rp = routeProfiles.getRouteProfile(req.getProfileType(), !req.getFlexibleMode());
 
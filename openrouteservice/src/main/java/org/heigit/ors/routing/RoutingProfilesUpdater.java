@@ -13,12 +13,12 @@
  */
 package org.heigit.ors.routing;
 
-import com.graphhopper.GraphHopper;
 import com.graphhopper.storage.StorableProperties;
 import com.graphhopper.util.Helper;
 import org.apache.commons.io.FileUtils;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.configuration.RouteUpdateConfiguration;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
 import org.heigit.ors.util.DebugUtility;
 import org.heigit.ors.util.FileUtility;
 import org.heigit.ors.util.StackTraceUtility;
@@ -226,26 +226,13 @@ public class RoutingProfilesUpdater {
 				File file = new File(osmFile);
 				String newFileStamp = Long.toString(file.length());
 
-				String tempGraphLocation = Paths.get(config.getWorkingDirectory(), "graph").toString();
-
-				try {
-					// Clear directory from a previous build
-					File fileGraph = new File(tempGraphLocation);
-					if (fileGraph.exists())
-						FileUtils.deleteDirectory(fileGraph);	
-				} catch(Exception ex) {
-					// do nothing
-				}
-
-				FileUtility.makeDirectory(tempGraphLocation);
-
 				RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
 				int nUpdatedProfiles = 0;
 
 				for (RoutingProfile profile : routingProfilesCollection.getUniqueProfiles()) {
 					RouteProfileConfiguration rpc = profile.getConfiguration();
 
-					Path pathTimestamp = Paths.get(rpc.getGraphPath(), "stamp.txt");
+					Path pathTimestamp = Paths.get(profile.getGraphhopper().getGraphHopperLocation(), GraphVersions.STAMP_FILE);
 					File file2 = pathTimestamp.toFile();
 					if (file2.exists()) {
 						String oldFileStamp = FileUtils.readFileToString(file2);
@@ -266,15 +253,18 @@ public class RoutingProfilesUpdater {
 						}
 					}
 
+					// the new graph is built into its own version and loaded while the current one stays in service
+					String graphLocation = GraphVersions.createNext(rpc.getGraphPath());
 					try {
 						updateStatus = "preparing profile '" + rpc.getProfiles() +"'";
 						RouteProfileConfiguration rpcNew = new RouteProfileConfiguration(rpc);
-						rpcNew.setGraphPath(tempGraphLocation);
-						GraphHopper gh = RoutingProfile.initGraphHopper(osmFile, rpcNew, loadCntx);
+						rpcNew.setGraphPath(graphLocation);
+						ORSGraphHopper gh = RoutingProfile.initGraphHopper(osmFile, rpcNew, loadCntx);
 						profile.updateGH(gh);
 						nUpdatedProfiles++;
 					} catch (Exception ex) {
 						LOGGER.severe("Failed to update graph profile. Message:" + ex.getMessage() + "; StackTrace: " +	StackTraceUtility.getStackTrace(ex));
+						FileUtils.deleteQuietly(new File(graphLocation));
 					}
 
 					updateStatus = null;
@@ -0,0 +1,171 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over integer elements (e.g. node slots) with double keys. The position of every element
+ * in the heap is tracked, so that {@link #update(int, double)} changes the key of an already queued element
+ * in O(log n) instead of the linear remove/add required by {@link java.util.PriorityQueue}.
+ * <p>
+ * Elements must be non-negative; the position index grows on demand.
+ */
+public class IndexedMinHeap {
+	private static final int NOT_IN_HEAP = -1;
+
+	private int[] elements;
+	private double[] keys;
+	private int[] positions;
+	private int size;
+
+	public IndexedMinHeap(int capacity) {
+		capacity = Math.max(capacity, 16);
+		elements = new int[capacity];
+		keys = new double[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, NOT_IN_HEAP);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(int element) {
+		return element < positions.length && positions[element] != NOT_IN_HEAP;
+	}
+
+	public double peekKey() {
+		if (size == 0)
+			throw new IllegalStateException("Heap is empty");
+		return keys[0];
+	}
+
+	/**
+	 * Inserts the element with the given key, or changes its key if it is already queued.
+	 */
+	public void update(int element, double key) {
+		ensurePositionCapacity(element);
+
+		int pos = positions[element];
+		if (pos == NOT_IN_HEAP) {
+			ensureHeapCapacity(size + 1);
+			pos = size++;
+			elements[pos] = element;
+			keys[pos] = key;
+			positions[element] = pos;
+			siftUp(pos);
+		} else {
+			double oldKey = keys[pos];
+			keys[pos] = key;
+			if (key < oldKey)
+				siftUp(pos);
+			else if (key > oldKey)
+				siftDown(pos);
+		}
+	}
+
+	/**
+	 * Removes the element with the smallest key and returns it.
+	 */
+	public int poll() {
+		if (size == 0)
+			throw new IllegalStateException("Heap is empty");
+
+		int result = elements[0];
+		positions[result] = NOT_IN_HEAP;
+		size--;
+
+		if (size > 0) {
+			elements[0] = elements[size];
+			keys[0] = keys[size];
+			positions[elements[0]] = 0;
+			siftDown(0);
+		}
+
+		return result;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			positions[elements[i]] = NOT_IN_HEAP;
+		size = 0;
+	}
+
+	private void siftUp(int pos) {
+		int element = elements[pos];
+		double key = keys[pos];
+
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (keys[parent] <= key)
+				break;
+			move(parent, pos);
+			pos = parent;
+		}
+
+		place(element, key, pos);
+	}
+
+	private void siftDown(int pos) {
+		int element = elements[pos];
+		double key = keys[pos];
+		int half = size >>> 1;
+
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			int right = child + 1;
+			if (right < size && keys[right] < keys[child])
+				child = right;
+			if (key <= keys[child])
+				break;
+			move(child, pos);
+			pos = child;
+		}
+
+		place(element, key, pos);
+	}
+
+	private void move(int from, int to) {
+		elements[to] = elements[from];
+		keys[to] = keys[from];
+		positions[elements[to]] = to;
+	}
+
+	private void place(int element, double key, int pos) {
+		elements[pos] = element;
+		keys[pos] = key;
+		positions[element] = pos;
+	}
+
+	private void ensureHeapCapacity(int capacity) {
+		if (capacity > elements.length) {
+			int newCapacity = Math.max(capacity, elements.length * 2);
+			elements = Arrays.copyOf(elements, newCapacity);
+			keys = Arrays.copyOf(keys, newCapacity);
+		}
+	}
+
+	private void ensurePositionCapacity(int element) {
+		if (element >= positions.length) {
+			int oldLength = positions.length;
+			positions = Arrays.copyOf(positions, Math.max(element + 1, oldLength * 2));
+			Arrays.fill(positions, oldLength, positions.length, NOT_IN_HEAP);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import java.util.PriorityQueue;
+
+import com.graphhopper.routing.QueryGraph;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.DownwardSearchEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.UpwardSearchEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPStore;
+
+/**
+ * Variant of {@link RPHASTAlgorithm} which keeps the shortest path trees in a {@link MultiTreeSPStore} and uses
+ * an {@link IndexedMinHeap} with decrease-key as priority queue. The search itself is identical: an upward pass
+ * from all sources followed by a downward pass restricted to the target graph built in {@link #prepare(int[], int[])}.
+ */
+public class RPHASTIndexedAlgorithm {
+	private final Graph graph;
+	private final Weighting weighting;
+	private final TraversalMode traversalMode;
+	private final int initialCapacity;
+	private MultiTreeSPStore store;
+	private IndexedMinHeap prioQueue;
+	private UpwardSearchEdgeFilter upwardEdgeFilter;
+	private DownwardSearchEdgeFilter downwardEdgeFilter;
+	private SubGraph targetGraph;
+	private int maxVisitedNodes = Integer.MAX_VALUE;
+	private int visitedCountFrom;
+	private int visitedCountTo;
+
+	public RPHASTIndexedAlgorithm(Graph graph, Weighting weighting, TraversalMode traversalMode) {
+		this.graph = graph;
+		this.weighting = weighting;
+		this.traversalMode = traversalMode;
+
+		initialCapacity = Math.min(Math.max(200, graph.getNodes() / 10), 2000);
+		prioQueue = new IndexedMinHeap(initialCapacity);
+
+		CHGraph chGraph = null;
+		if (graph instanceof CHGraph)
+			chGraph = (CHGraph) graph;
+		else if (graph instanceof QueryGraph) {
+			QueryGraph qGraph = (QueryGraph) graph;
+			chGraph = (CHGraph) qGraph.getMainGraph();
+		}
+
+		FlagEncoder encoder = weighting.getFlagEncoder();
+
+		upwardEdgeFilter = new UpwardSearchEdgeFilter(chGraph, encoder);
+		downwardEdgeFilter = new DownwardSearchEdgeFilter(chGraph, encoder);
+	}
+
+	public void setMaxVisitedNodes(int numberOfNodes) {
+		maxVisitedNodes = numberOfNodes;
+	}
+
+	public int getVisitedNodes() {
+		return visitedCountFrom + visitedCountTo;
+	}
+
+	public void reset() {
+		prioQueue.clear();
+		store = null;
+		visitedCountFrom = 0;
+		visitedCountTo = 0;
+	}
+
+	public void prepare(int[] sources, int[] targets) {
+		PriorityQueue<Integer> localPrioQueue = new PriorityQueue<>(100);
+		EdgeExplorer explorer = graph.createEdgeExplorer();
+
+		// Phase I: build shortest path tree from all target nodes to the
+		// highest node
+		targetGraph = new SubGraph(graph);
+
+		for (int nodeId : targets) {
+			if (nodeId >= 0) {
+				targetGraph.addEdge(nodeId, null, true);
+				localPrioQueue.add(nodeId);
+			}
+		}
+
+		while (!localPrioQueue.isEmpty()) {
+			int adjNode = localPrioQueue.poll();
+			EdgeIterator iter = explorer.setBaseNode(adjNode);
+			downwardEdgeFilter.setBaseNode(adjNode);
+
+			while (iter.next()) {
+				if (!downwardEdgeFilter.accept(iter))
+					continue;
+
+				if (targetGraph.addEdge(adjNode, iter, true))
+					localPrioQueue.add(iter.getAdjNode());
+			}
+		}
+	}
+
+	public SubGraph getTargetGraph() {
+		return targetGraph;
+	}
+
+	/**
+	 * Uses a target graph built by {@link #prepare(int[], int[])} of another instance. The target graph is only
+	 * read during {@link #calcPaths(int[], int[])}, so it can be shared by concurrently running searches.
+	 */
+	public void setTargetGraph(SubGraph targetGraph) {
+		this.targetGraph = targetGraph;
+	}
+
+	/**
+	 * Computes the shortest path trees of all sources. The tree of {@code from[i]} is stored at index {@code i},
+	 * targets can be looked up via {@link MultiTreeSPStore#getSlot(int)}.
+	 */
+	public MultiTreeSPStore calcPaths(int[] from, int[] to) {
+		if (traversalMode.isEdgeBased())
+			throw new IllegalStateException("Edge-based behavior not supported");
+
+		store = new MultiTreeSPStore(from.length, initialCapacity);
+
+		for (int i = 0; i < from.length; i++) {
+			if (from[i] == -1)
+				continue;
+
+			//If two queried points are on the same node, this case can occur
+			int slot = store.getSlot(from[i]);
+			if (slot == MultiTreeSPStore.NO_SLOT) {
+				slot = store.createSlot(from[i]);
+				store.resetUpdate(slot, true);
+				store.setVisited(slot, true);
+			}
+
+			store.setWeight(slot, i, 0.0);
+			prioQueue.update(slot, store.updateTotalWeight(slot));
+		}
+
+		EdgeExplorer explorer = graph.createEdgeExplorer();
+
+		while (maxVisitedNodes >= getVisitedNodes() && !prioQueue.isEmpty()) {
+			fillEdgesUpward(prioQueue.poll(), explorer);
+			visitedCountFrom++;
+		}
+
+		prioQueue.clear();
+
+		int highestSlot = store.getSlot(upwardEdgeFilter.getHighestNode());
+		if (highestSlot != MultiTreeSPStore.NO_SLOT) {
+			store.setVisited(highestSlot, true);
+			store.resetUpdate(highestSlot, true);
+			prioQueue.update(highestSlot, store.getTotalWeight(highestSlot));
+		}
+
+		for (int i = 0; i < from.length; i++) {
+			int slot = store.getSlot(from[i]);
+			if (slot == MultiTreeSPStore.NO_SLOT)
+				continue;
+
+			store.setUpdate(slot, i, true);
+			prioQueue.update(slot, store.getTotalWeight(slot));
+		}
+
+		explorer = targetGraph.createExplorer();
+
+		while (!prioQueue.isEmpty()) {
+			fillEdgesDownward(prioQueue.poll(), explorer);
+			visitedCountTo++;
+		}
+
+		return store;
+	}
+
+	private void fillEdgesUpward(int currSlot, EdgeExplorer explorer) {
+		int currNode = store.getAdjNode(currSlot);
+		EdgeIterator iter = explorer.setBaseNode(currNode);
+
+		if (iter == null) // we reach one of the target nodes
+			return;
+
+		upwardEdgeFilter.setBaseNode(currNode);
+		int numTrees = store.getNumTrees();
+
+		while (iter.next()) {
+			if (!upwardEdgeFilter.accept(iter))
+				continue;
+
+			upwardEdgeFilter.updateHighestNode(iter);
+
+			double edgeWeight = weighting.calcWeight(iter, false, 0);
+			if (Double.isInfinite(edgeWeight))
+				continue;
+
+			int adjNode = iter.getAdjNode();
+			int slot = store.getSlot(adjNode);
+
+			if (slot == MultiTreeSPStore.NO_SLOT) {
+				slot = store.createSlot(adjNode, iter.getEdge(), edgeWeight, true, currSlot);
+				prioQueue.update(slot, store.getTotalWeight(slot));
+			} else {
+				boolean addToQueue = false;
+
+				for (int i = 0; i < numTrees; ++i) {
+					double entryWeight = store.getWeight(currSlot, i);
+
+					if (entryWeight == Double.POSITIVE_INFINITY || !store.isUpdate(currSlot, i))
+						continue;
+
+					double tmpWeight = edgeWeight + entryWeight;
+
+					if (store.getWeight(slot, i) > tmpWeight) {
+						store.set(slot, i, tmpWeight, iter.getEdge(), currSlot);
+						addToQueue = true;
+					}
+				}
+
+				if (addToQueue)
+					prioQueue.update(slot, store.updateTotalWeight(slot));
+			}
+		}
+
+		if (!targetGraph.containsNode(currNode))
+			store.resetUpdate(currSlot, false);
+	}
+
+	private void fillEdgesDownward(int currSlot, EdgeExplorer explorer) {
+		EdgeIterator iter = explorer.setBaseNode(store.getAdjNode(currSlot));
+
+		if (iter == null)
+			return;
+
+		int numTrees = store.getNumTrees();
+
+		while (iter.next()) {
+			double edgeWeight = weighting.calcWeight(iter, false, 0);
+			if (Double.isInfinite(edgeWeight))
+				continue;
+
+			int adjNode = iter.getAdjNode();
+			int slot = store.getSlot(adjNode);
+
+			if (slot == MultiTreeSPStore.NO_SLOT) {
+				slot = store.createSlot(adjNode, iter.getEdge(), edgeWeight, true, currSlot);
+				store.setVisited(slot, true);
+				prioQueue.update(slot, store.getTotalWeight(slot));
+			} else {
+				boolean addToQueue = false;
+
+				for (int i = 0; i < numTrees; ++i) {
+					double entryWeight = store.getWeight(currSlot, i);
+
+					if (entryWeight == Double.POSITIVE_INFINITY)
+						continue;
+
+					double tmpWeight = edgeWeight + entryWeight;
+
+					if (store.getWeight(slot, i) > tmpWeight) {
+						store.set(slot, i, tmpWeight, iter.getEdge(), currSlot);
+						addToQueue = true;
+					}
+				}
+
+				double totalWeight = store.updateTotalWeight(slot);
+
+				// Nodes which have only been reached in the upward pass still need to be
+				// expanded in order to access the lower level nodes of the target graph
+				if (!store.isVisited(slot) || addToQueue) {
+					store.setVisited(slot, true);
+					prioQueue.update(slot, totalWeight);
+				}
+			}
+		}
+	}
+}
@@ -40,6 +40,7 @@ public class RouteProfileConfiguration {
 	
 	private int encoderFlagsSize = 4;
 	private String encoderOptions = null;
+	private int wayProcessingThreads = 0;
 	
 	private Config preparationOpts;
 	private Config executionOpts;
@@ -73,6 +74,7 @@ public class RouteProfileConfiguration {
 
 		encoderFlagsSize = rpc.encoderFlagsSize;
 		encoderOptions = rpc.encoderOptions;
+		wayProcessingThreads = rpc.wayProcessingThreads;
 		preparationOpts = rpc.preparationOpts;
 		executionOpts = rpc.executionOpts;
 
@@ -241,6 +243,16 @@ public class RouteProfileConfiguration {
 		return encoderFlagsSize;
 	}
 	
+	public void setWayProcessingThreads(int value)
+	{
+		wayProcessingThreads = value;
+	}
+
+	public int getWayProcessingThreads()
+	{
+		return wayProcessingThreads;
+	}
+	
 	public void setEncoderOptions(String value)
 	{
 		encoderOptions = value;
@@ -106,6 +106,9 @@ public class RoutingManagerConfiguration  {
 					case "encoder_flags_size":
 						profile.setEncoderFlagsSize(Integer.parseInt(paramItem.getValue().toString()));
 						break;
+					case "way_processing_threads":
+						profile.setWayProcessingThreads(Integer.parseInt(paramItem.getValue().toString()));
+						break;
 					case "instructions":
 						profile.setInstructions(Boolean.parseBoolean(paramItem.getValue().toString()));
 						break;
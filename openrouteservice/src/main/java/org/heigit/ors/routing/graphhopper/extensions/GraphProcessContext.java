@@ -24,7 +24,9 @@ import org.heigit.ors.plugins.PluginManager;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.graphhopper.extensions.graphbuilders.GraphBuilder;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.GraphStorageBuilder;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.ParallelGraphStorageBuilder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.logging.Logger;
@@ -37,6 +39,9 @@ public class GraphProcessContext {
 	private GraphBuilder[] arrGraphBuilders;
 	private List<GraphStorageBuilder> storageBuilders;
 	private GraphStorageBuilder[] arrStorageBuilders;
+	private GraphStorageBuilder[] arrInlineStorageBuilders;
+	private ParallelGraphStorageBuilder<?>[] arrParallelStorageBuilders;
+	private WayProcessingPipeline wayPipeline;
 
 	public GraphProcessContext(RouteProfileConfiguration config) throws Exception {
 		bbox = config.getExtent();
@@ -48,6 +53,9 @@ public class GraphProcessContext {
 			if (storageBuilders != null && !storageBuilders.isEmpty()) {
 				arrStorageBuilders = new GraphStorageBuilder[storageBuilders.size()];
 				arrStorageBuilders = storageBuilders.toArray(arrStorageBuilders);
+
+				if (config.getWayProcessingThreads() > 0)
+					initWayPipeline(config.getWayProcessingThreads());
 			}
 		}
 
@@ -61,6 +69,25 @@ public class GraphProcessContext {
 		}
 	}
 
+	private void initWayPipeline(int threads) {
+		List<GraphStorageBuilder> inlineBuilders = new ArrayList<>();
+		List<ParallelGraphStorageBuilder<?>> parallelBuilders = new ArrayList<>();
+		for (GraphStorageBuilder builder : storageBuilders) {
+			if (builder instanceof ParallelGraphStorageBuilder)
+				parallelBuilders.add((ParallelGraphStorageBuilder<?>) builder);
+			else
+				inlineBuilders.add(builder);
+		}
+
+		if (parallelBuilders.isEmpty())
+			return;
+
+		arrInlineStorageBuilders = inlineBuilders.toArray(new GraphStorageBuilder[0]);
+		arrParallelStorageBuilders = parallelBuilders.toArray(new ParallelGraphStorageBuilder<?>[0]);
+		wayPipeline = new WayProcessingPipeline(parallelBuilders, threads);
+		LOGGER.info("Processing ways of " + parallelBuilders.size() + " storage builders on " + threads + " threads");
+	}
+
 	public void init(GraphHopper gh) {
 		if (graphBuilders != null && !graphBuilders.isEmpty()) {
 			for(GraphBuilder builder : graphBuilders) {
@@ -79,6 +106,9 @@ public class GraphProcessContext {
 	}
 
 	public void processWay(ReaderWay way)  {
+		if (wayPipeline != null)
+			wayPipeline.skipWay();
+
 		try {
 			if (arrStorageBuilders != null) {
 				int nStorages = arrStorageBuilders.length;
@@ -117,12 +147,23 @@ public class GraphProcessContext {
 	 * @param nodeTags  Tags for nodes found on the way
 	 */
 	public void processWay(ReaderWay way, Coordinate[] coords, HashMap<Integer, HashMap<String, String>> nodeTags) {
+		if (wayPipeline != null) {
+			// the edges of the way are queued until the parallel builders are done with it
+			wayPipeline.submitWay(way.getId(), coords);
+			processWay(arrInlineStorageBuilders, way, coords, nodeTags);
+			return;
+		}
+
+		processWay(arrStorageBuilders, way, coords, nodeTags);
+	}
+
+	private void processWay(GraphStorageBuilder[] builders, ReaderWay way, Coordinate[] coords, HashMap<Integer, HashMap<String, String>> nodeTags) {
 		try {
-			if (arrStorageBuilders != null) {
-				int nStorages = arrStorageBuilders.length;
+			if (builders != null) {
+				int nStorages = builders.length;
 				if (nStorages > 0) {
 					for (int i = 0; i < nStorages; ++i) {
-						arrStorageBuilders[i].processWay(way, coords, nodeTags);
+						builders[i].processWay(way, coords, nodeTags);
 					}
 				}
 			}
@@ -132,6 +173,18 @@ public class GraphProcessContext {
 	}
 
 	public void processEdge(ReaderWay way, EdgeIteratorState edge) {
+		if (wayPipeline != null) {
+			for (GraphStorageBuilder builder : arrInlineStorageBuilders)
+				builder.processEdge(way, edge);
+			if (wayPipeline.hasCurrentWay()) {
+				wayPipeline.processEdge(edge.getEdge(), null);
+			} else {
+				for (GraphStorageBuilder builder : arrParallelStorageBuilders)
+					builder.processEdge(way, edge);
+			}
+			return;
+		}
+
 		if (arrStorageBuilders != null) {
 			int nStorages = arrStorageBuilders.length;
 			if (nStorages > 0) {
@@ -159,10 +212,23 @@ public class GraphProcessContext {
 	}
 
 	public void processEdge(ReaderWay way, EdgeIteratorState edge, Coordinate[] coords) {
-		if(arrStorageBuilders != null) {
-			int nStorages = arrStorageBuilders.length;
+		if (wayPipeline != null) {
+			processEdge(arrInlineStorageBuilders, way, edge, coords);
+			if (wayPipeline.hasCurrentWay())
+				wayPipeline.processEdge(edge.getEdge(), coords);
+			else
+				processEdge(arrParallelStorageBuilders, way, edge, coords);
+			return;
+		}
+
+		processEdge(arrStorageBuilders, way, edge, coords);
+	}
+
+	private static void processEdge(GraphStorageBuilder[] builders, ReaderWay way, EdgeIteratorState edge, Coordinate[] coords) {
+		if(builders != null) {
+			int nStorages = builders.length;
 			for(int i=0; i<nStorages; i++) {
-				arrStorageBuilders[i].processEdge(way, edge, coords);
+				builders[i].processEdge(way, edge, coords);
 			}
 		}
 	}
@@ -200,6 +266,9 @@ public class GraphProcessContext {
 	}
 
 	public void finish() {
+		if (wayPipeline != null)
+			wayPipeline.finish();
+
 		if (arrStorageBuilders != null) {
 			int nStorages = arrStorageBuilders.length;
 			if (nStorages > 0) {
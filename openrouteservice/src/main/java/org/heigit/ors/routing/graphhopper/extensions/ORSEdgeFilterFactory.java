@@ -43,7 +43,7 @@ public class ORSEdgeFilterFactory implements EdgeFilterFactory {
         
             /* Avoid areas */
             if (params.hasObj("avoid_areas")) {
-                edgeFilters.add(new AvoidAreasEdgeFilter((Polygon[]) params.getObj("avoid_areas")));
+                edgeFilters.add(new AvoidAreasEdgeFilter((Polygon[]) params.getObj("avoid_areas"), gs));
             }
     
             /* Heavy vehicle filter */
@@ -28,6 +28,7 @@ import com.graphhopper.routing.template.ViaRoutingTemplate;
 import com.graphhopper.routing.util.*;
 import com.graphhopper.routing.weighting.TurnWeighting;
 import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
 import com.graphhopper.storage.CHProfile;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.index.QueryResult;
@@ -38,6 +39,10 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LineString;
 import org.heigit.ors.mapmatching.RouteSegmentInfo;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MultiTreeMetricsExtractor;
+import org.heigit.ors.matrix.ShortcutMetricsCache;
 import org.heigit.ors.routing.RoutingProfileCategory;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreAlgoFactoryDecorator;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreLMAlgoFactoryDecorator;
@@ -47,6 +52,7 @@ import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.AvoidBorde
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.AvoidFeaturesCoreEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.HeavyVehicleCoreEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.WheelchairCoreEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.storages.ShortcutMetricsStorage;
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
 import org.heigit.ors.util.CoordTools;
 import org.slf4j.Logger;
@@ -55,6 +61,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 
 import static com.graphhopper.routing.weighting.TurnWeighting.INFINITE_U_TURN_COSTS;
@@ -76,6 +83,11 @@ public class ORSGraphHopper extends GraphHopper {
 
 	private final CoreLMAlgoFactoryDecorator coreLMFactoryDecorator = new CoreLMAlgoFactoryDecorator();
 
+	private final Map<String, ShortcutMetricsCache> shortcutMetricsCaches = new ConcurrentHashMap<>();
+
+	private boolean shortcutMetricsEnabled = false;
+	private final Map<CHProfile, ShortcutMetricsStorage> shortcutMetricsStorages = new LinkedHashMap<>();
+
 	public ORSGraphHopper(GraphProcessContext procCntx) {
 		processContext = procCntx;
 		forDesktop();
@@ -97,9 +109,18 @@ public class ORSGraphHopper extends GraphHopper {
 		GraphHopper ret = super.init(args);
 		minNetworkSize = args.getInt("prepare.min_network_size", minNetworkSize);
 		minOneWayNetworkSize = args.getInt("prepare.min_one_way_network_size", minOneWayNetworkSize);
+		shortcutMetricsEnabled = args.getBool(Parameters.CH.PREPARE + "shortcut_metrics", shortcutMetricsEnabled);
 		return ret;
 	}
 
+	@Override
+	public void close() {
+		for (ShortcutMetricsStorage storage : shortcutMetricsStorages.values())
+			storage.close();
+		shortcutMetricsStorages.clear();
+		super.close();
+	}
+
 	@Override
 	protected void cleanUp() {
 		if (LOGGER.isInfoEnabled())
@@ -470,6 +491,23 @@ public class ORSGraphHopper extends GraphHopper {
     }
 
 
+	/**
+	 * Returns the cache of unpacked shortcut metrics of the given CH profile, creating it on first access.
+	 */
+	public ShortcutMetricsCache getShortcutMetricsCache(String chProfile, int capacity) {
+		return shortcutMetricsCaches.computeIfAbsent(chProfile, k -> new ShortcutMetricsCache(k, capacity));
+	}
+
+	public Map<String, ShortcutMetricsCache> getShortcutMetricsCaches() {
+		return Collections.unmodifiableMap(shortcutMetricsCaches);
+	}
+
+	public void clearShortcutMetricsCaches() {
+		for (Map.Entry<String, ShortcutMetricsCache> entry : shortcutMetricsCaches.entrySet())
+			LOGGER.info("Clearing shortcut metrics cache of " + entry.getKey() + " (" + entry.getValue() + ")");
+		shortcutMetricsCaches.clear();
+	}
+
     public HashMap<Integer, Long> getTmcGraphEdges() {
         return tmcEdges;
     }
@@ -485,6 +523,9 @@ public class ORSGraphHopper extends GraphHopper {
 	public void postProcessing() {
 		super.postProcessing();
 
+		if (shortcutMetricsEnabled && isCHEnabled())
+			loadOrPrepareShortcutMetrics();
+
 		GraphHopperStorage gs = getGraphHopperStorage();
 
 		EncodingManager encodingManager = getEncodingManager();
@@ -532,6 +573,44 @@ public class ORSGraphHopper extends GraphHopper {
 	}
 
 
+	/**
+	 * Loads the precomputed shortcut metrics of all CH profiles or creates them if they do not exist yet.
+	 */
+	protected void loadOrPrepareShortcutMetrics() {
+		GraphHopperStorage gs = getGraphHopperStorage();
+
+		for (PrepareContractionHierarchies prepare : getCHFactoryDecorator().getPreparations()) {
+			CHProfile chProfile = prepare.getCHProfile();
+			CHGraph chGraph = gs.getCHGraph(chProfile);
+			ShortcutMetricsStorage storage = new ShortcutMetricsStorage(gs.getDirectory(), chProfile);
+
+			if (!storage.loadExisting(chGraph, gs.getEdges())) {
+				ensureWriteAccess();
+				StopWatch sw = new StopWatch().start();
+				Weighting weighting = chProfile.getWeighting();
+				MultiTreeMetricsExtractor extractor = new MultiTreeMetricsExtractor(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE,
+						chGraph, weighting.getFlagEncoder(), weighting, DistanceUnit.METERS);
+				storage.build(chGraph, gs.getEdges(), extractor::calcShortcutMetrics);
+				storage.flush();
+				if (LOGGER.isInfoEnabled())
+					LOGGER.info(String.format("Prepared shortcut metrics for %s in %s s", chProfile, sw.stop().getSeconds()));
+			}
+
+			shortcutMetricsStorages.put(chProfile, storage);
+		}
+	}
+
+	/**
+	 * Returns the precomputed shortcut metrics of the given CH graph or null if they are not available.
+	 */
+	public ShortcutMetricsStorage getShortcutMetricsStorage(CHGraph chGraph) {
+		for (Map.Entry<CHProfile, ShortcutMetricsStorage> entry : shortcutMetricsStorages.entrySet()) {
+			if (getGraphHopperStorage().getCHGraph(entry.getKey()) == chGraph)
+				return entry.getValue();
+		}
+		return null;
+	}
+
 	/**
 	 * Enables or disables core calculation.
 	 */
@@ -23,6 +23,7 @@ import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.shapes.GHPoint;
 import com.vividsolutions.jts.geom.Coordinate;
 import org.apache.log4j.Logger;
+import org.heigit.ors.routing.graphhopper.extensions.reader.NodeTagsStore;
 import org.heigit.ors.routing.graphhopper.extensions.reader.osmfeatureprocessors.OSMFeatureFilter;
 import org.heigit.ors.routing.graphhopper.extensions.reader.osmfeatureprocessors.WheelchairWayFilter;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.BordersGraphStorageBuilder;
@@ -42,7 +43,7 @@ public class ORSOSMReader extends OSMReader {
 	private boolean processNodeTags;
 	private OSMDataReaderContext readerCntx;
 
-	private HashMap<Long, HashMap<String, String>> nodeTags = new HashMap<>();
+	private NodeTagsStore nodeTags;
 
 	private boolean processGeom = false;
 	private boolean processSimpleGeom = false;
@@ -50,8 +51,6 @@ public class ORSOSMReader extends OSMReader {
 
 	private List<OSMFeatureFilter> filtersToApply = new ArrayList<>();
 
-	private HashSet<String> extraTagKeys;
-
 	public ORSOSMReader(GraphHopperStorage storage, GraphProcessContext procCntx) {
 		super(storage);
 
@@ -60,7 +59,7 @@ public class ORSOSMReader extends OSMReader {
 		this.readerCntx = new OSMDataReaderContext(this);
 
 		initNodeTagsToStore(new HashSet<>(Arrays.asList("maxheight", "maxweight", "maxweight:hgv", "maxwidth", "maxlength", "maxlength:hgv", "maxaxleload")));
-		extraTagKeys = new HashSet<>();
+		Set<String> extraTagKeys = new HashSet<>();
 		// Look if we should do border processing - if so then we have to process the geometry
 		for(GraphStorageBuilder b : this.procCntx.getStorageBuilders()) {
 			if ( b instanceof BordersGraphStorageBuilder) {
@@ -93,6 +92,9 @@ public class ORSOSMReader extends OSMReader {
 				extraTagKeys.add("motorcycle");
 			}
 		}
+
+		if (processNodeTags)
+			nodeTags = new NodeTagsStore(extraTagKeys);
 	}
 
 	@Override
@@ -110,19 +112,8 @@ public class ORSOSMReader extends OSMReader {
 		// way and if it has some properties that could affect routing, these properties need to be stored so that they
 		// can be accessed when it comes to using ways
 		if(processNodeTags && node.hasTags()) {
-			// Check each node and store the tags that are required
-			HashMap<String, String> tagValues = new HashMap<>();
-			Set<String> nodeKeys = node.getTags().keySet();
-			for(String key : nodeKeys) {
-				if(extraTagKeys.contains(key)) {
-					tagValues.put(key, node.getTag(key));
-				}
-			}
-
-			// Now if we have tag data, we need to store it
-			if(tagValues.size() > 0) {
-				nodeTags.put(node.getId(), tagValues);
-			}
+			// Store the tags that are required, if there are any
+			nodeTags.put(node.getId(), node.getTags());
 		}
 		return node;
 	}
@@ -170,11 +161,13 @@ public class ORSOSMReader extends OSMReader {
 	 */
 	@Override
 	public void onProcessWay(ReaderWay way) {
+		// The tags and the geometry are only allocated if there is anything to pass on, which is not the case for
+		// most ways
+		HashMap<Integer, HashMap<String,String>> tags = null;
+		Coordinate[] coords = null;
+		int coordsCount = 0;
 
-		HashMap<Integer, HashMap<String,String>> tags = new HashMap<>();
-		ArrayList<Coordinate> coords = new ArrayList<>();
-
-		if(processNodeTags) {
+		if(processNodeTags && !nodeTags.isEmpty()) {
 			// If we are processing the node tags then we need to obtain the tags for nodes that are on the way. We
 			// should store the internal node id though rather than the osm node as during the edge processing, we
 			// do not know the osm node id
@@ -186,12 +179,13 @@ public class ORSOSMReader extends OSMReader {
 			for(int i=0; i<size; i++) {
 				// find the node
 				long id = osmNodeIds.get(i);
-				// replace the osm id with the internal id
-				int internalId = getInternalNodeIdOfOsmNode(id);
-				HashMap<String, String> tagsForNode = nodeTags.get(id);
+				HashMap<String, String> tagsForNode = nodeTags.getTags(id);
 
 				if(tagsForNode != null) {
-					tags.put(internalId, nodeTags.get(id));
+					if (tags == null)
+						tags = new HashMap<>();
+					// replace the osm id with the internal id
+					tags.put(getInternalNodeIdOfOsmNode(id), tagsForNode);
 				}
 			}
 		}
@@ -199,50 +193,44 @@ public class ORSOSMReader extends OSMReader {
 		if(processGeom || processSimpleGeom) {
 			// We need to pass the geometry of the way aswell as the ReaderWay object
 			// This is slower so should only be done when needed
-
-			// First we need to generate the geometry
-			LongArrayList osmNodeIds = new LongArrayList();
 			LongArrayList allOsmNodes = way.getNodes();
+			int nodesCount = allOsmNodes.size();
 
-			if(allOsmNodes.size() > 1) {
-				if (processSimpleGeom) {
-					// We only want the start and end nodes
-					osmNodeIds.add(allOsmNodes.get(0));
-					osmNodeIds.add(allOsmNodes.get(allOsmNodes.size()-1));
-				} else {
-					// Process all nodes
-					osmNodeIds = allOsmNodes;
-				}
-			}
+			if(nodesCount > 1) {
+				// With the simple geometry we only want the start and end nodes, otherwise all nodes are processed
+				int count = processSimpleGeom ? 2 : nodesCount;
+				coords = new Coordinate[count];
 
-			if(osmNodeIds.size() > 1) {
-
-				for (int i=0; i<osmNodeIds.size(); i++) {
-					int id = getNodeMap().get(osmNodeIds.get(i));
+				for (int i=0; i<count; i++) {
+					long osmNodeId = allOsmNodes.get(processSimpleGeom && i == 1 ? nodesCount - 1 : i);
+					int id = getNodeMap().get(osmNodeId);
 					try {
 						double lat = getLatitudeOfNode(id, true);
 						double lon = getLongitudeOfNode(id, true);
 						// Add the point to the line
 						// Check that we have a tower node
 						if (!(lat == 0 || lon == 0 || Double.isNaN(lat) || Double.isNaN(lon))) {
-							coords.add(new Coordinate(lon, lat));
+							coords[coordsCount++] = new Coordinate(lon, lat);
 						}
 					} catch (Exception e) {
-						LOGGER.error("Could not process node " + osmNodeIds.get(i) );
+						LOGGER.error("Could not process node " + osmNodeId);
 					}
 				}
 			}
-
 		}
 
-		if(tags.size() > 0 || coords.size() > 1) {
+		if(tags != null || coordsCount > 1) {
 			// Use an overloaded method that allows the passing of parameters from this reader
-			procCntx.processWay(way, coords.toArray(new Coordinate[coords.size()]), tags);
+			procCntx.processWay(way, coords == null ? new Coordinate[0] : trim(coords, coordsCount), tags == null ? new HashMap<>() : tags);
 		} else {
 			procCntx.processWay(way);
 		}
 	}
 
+	private static Coordinate[] trim(Coordinate[] coords, int count) {
+		return count == coords.length ? coords : Arrays.copyOf(coords, count);
+	}
+
 	/* The following two methods are not ideal, but due to a preprocessing stage of GH they are required if you want
 	 * the geometry of the whole way. */
 
@@ -408,6 +396,11 @@ public class ORSOSMReader extends OSMReader {
 
 	@Override
 	protected void finishedReading() {
+		if (nodeTags != null) {
+			LOGGER.info("Stored tags of " + nodeTags.getNodeCount() + " nodes with " + nodeTags.getDistinctValueCount()
+					+ " distinct values in " + nodeTags.getMemoryUsage() + " MB");
+			nodeTags.clear();
+		}
 		super.finishedReading();
 		procCntx.finish();
 	}
@@ -0,0 +1,176 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.ParallelGraphStorageBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Computes the results of {@link ParallelGraphStorageBuilder}s for the ways read during import on a pool of worker
+ * threads while the reader continues with the following ways. The edges created for a way are queued together with
+ * its pending results and passed to the builders on the reader thread once the results are available, strictly in
+ * the order in which the ways were submitted, so that the storages are only written by the reader thread.
+ * <p>
+ * The number of ways waiting for their results is bounded; the reader blocks on the oldest way when the bound is
+ * reached.
+ */
+public class WayProcessingPipeline {
+	private static final Logger LOGGER = Logger.getLogger(WayProcessingPipeline.class.getName());
+	private static final int PENDING_WAYS_PER_THREAD = 256;
+
+	private final ParallelGraphStorageBuilder<?>[] builders;
+	private final ExecutorService executor;
+	private final int maxPendingWays;
+	private final ArrayDeque<PendingWay> pendingWays = new ArrayDeque<>();
+	private PendingWay currentWay;
+
+	public WayProcessingPipeline(List<? extends ParallelGraphStorageBuilder<?>> builders, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one thread is required, got " + threads);
+
+		this.builders = builders.toArray(new ParallelGraphStorageBuilder<?>[0]);
+		this.maxPendingWays = threads * PENDING_WAYS_PER_THREAD;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "way-processing-" + threadCount.incrementAndGet());
+			// do not keep the application alive if an import fails before the pipeline is finished
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Submits the computation of the results of a way. The edges passed to {@link #processEdge(int, Coordinate[])}
+	 * until the next call of this method or {@link #skipWay()} belong to this way.
+	 *
+	 * @param wayId		The OSM id of the way, only used for logging
+	 * @param coords	Coordinates of the way
+	 */
+	public void submitWay(long wayId, Coordinate[] coords) {
+		currentWay = null;
+		applyResults(false);
+
+		PendingWay way = new PendingWay(wayId, executor.submit(() -> prepareWay(coords)));
+		pendingWays.add(way);
+		currentWay = way;
+	}
+
+	/**
+	 * Marks the following edges as belonging to a way which has not been submitted.
+	 */
+	public void skipWay() {
+		currentWay = null;
+	}
+
+	/**
+	 * Returns whether the edges currently processed belong to a submitted way.
+	 */
+	public boolean hasCurrentWay() {
+		return currentWay != null;
+	}
+
+	/**
+	 * Queues an edge of the current way, see {@link #hasCurrentWay()}.
+	 *
+	 * @param edge		The id of the edge
+	 * @param coords	Coordinates of the base and adjacent node of the edge, may be null
+	 */
+	public void processEdge(int edge, Coordinate[] coords) {
+		if (currentWay == null)
+			throw new IllegalStateException("No way has been submitted for the edge " + edge);
+
+		currentWay.edges.add(edge);
+		currentWay.edgeCoords.add(coords);
+	}
+
+	/**
+	 * Waits for all submitted ways, passes their results to the builders and stops the worker threads.
+	 */
+	public void finish() {
+		currentWay = null;
+		try {
+			applyResults(true);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Object[] prepareWay(Coordinate[] coords) {
+		Object[] results = new Object[builders.length];
+		for (int i = 0; i < builders.length; i++)
+			results[i] = builders[i].prepareWay(coords);
+		return results;
+	}
+
+	private void applyResults(boolean all) {
+		while (!pendingWays.isEmpty()) {
+			PendingWay way = pendingWays.peek();
+			if (way == currentWay || !(all || way.results.isDone() || pendingWays.size() >= maxPendingWays))
+				return;
+
+			pendingWays.poll();
+			apply(way);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void apply(PendingWay way) {
+		Object[] results;
+		try {
+			results = way.results.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the results of way " + way.wayId, ex);
+		} catch (ExecutionException ex) {
+			LOGGER.warning(ex.getCause() + ". Way id = " + way.wayId);
+			return;
+		}
+
+		int nEdges = way.edges.size();
+		for (int i = 0; i < builders.length; i++) {
+			ParallelGraphStorageBuilder<Object> builder = (ParallelGraphStorageBuilder<Object>) builders[i];
+			for (int j = 0; j < nEdges; j++) {
+				try {
+					builder.processEdge(results[i], way.edges.get(j), way.edgeCoords.get(j));
+				} catch (Exception ex) {
+					LOGGER.warning(ex.getMessage() + ". Way id = " + way.wayId);
+				}
+			}
+		}
+	}
+
+	private static class PendingWay {
+		private final long wayId;
+		private final Future<Object[]> results;
+		private final IntArrayList edges = new IntArrayList(4);
+		private final List<Coordinate[]> edgeCoords = new ArrayList<>(4);
+
+		PendingWay(long wayId, Future<Object[]> results) {
+			this.wayId = wayId;
+			this.results = results;
+		}
+	}
+}
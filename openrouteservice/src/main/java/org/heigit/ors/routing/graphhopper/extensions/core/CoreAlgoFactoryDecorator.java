@@ -58,6 +58,7 @@ public class CoreAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorato
     private int preparationNeighborUpdates = -1;
     private int preparationContractedNodes = -1;
     private double preparationLogMessages = -1;
+    private int preparationContractionThreads = 1;
 
     public CoreAlgoFactoryDecorator() {
         setPreparationThreads(1);
@@ -95,6 +96,7 @@ public class CoreAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorato
         setPreparationNeighborUpdates(args.getInt(Core.PREPARE + "updates.neighbor", getPreparationNeighborUpdates()));
         setPreparationContractedNodes(args.getInt(Core.PREPARE + "contracted_nodes", getPreparationContractedNodes()));
         setPreparationLogMessages(args.getDouble(Core.PREPARE + "log_messages", getPreparationLogMessages()));
+        setPreparationContractionThreads(args.getInt(Core.PREPARE + "contraction_threads", getPreparationContractionThreads()));
     }
 
     public int getPreparationPeriodicUpdates() {
@@ -106,6 +108,19 @@ public class CoreAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorato
         return this;
     }
 
+    public int getPreparationContractionThreads() {
+        return preparationContractionThreads;
+    }
+
+    /**
+     * Sets the number of threads used to contract the nodes of a single core, see
+     * {@link PrepareCore#setContractionThreads(int)}. Default is 1.
+     */
+    public CoreAlgoFactoryDecorator setPreparationContractionThreads(int preparationContractionThreads) {
+        this.preparationContractionThreads = preparationContractionThreads;
+        return this;
+    }
+
     public int getPreparationContractedNodes() {
         return preparationContractedNodes;
     }
@@ -323,7 +338,8 @@ public class CoreAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorato
         tmpPrepareCore.setPeriodicUpdates(preparationPeriodicUpdates).
                 setLazyUpdates(preparationLazyUpdates).
                 setNeighborUpdates(preparationNeighborUpdates).
-                setLogMessages(preparationLogMessages);
+                setLogMessages(preparationLogMessages).
+                setContractionThreads(preparationContractionThreads);
         return tmpPrepareCore;
     }
 }
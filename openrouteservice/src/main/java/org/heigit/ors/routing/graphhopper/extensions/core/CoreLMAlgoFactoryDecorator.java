@@ -69,6 +69,7 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
     private final List<String> lmSuggestionsLocations = new ArrayList<>(5);
     private int preparationThreads;
     private ExecutorService threadPool;
+    private int landmarkThreads = 1;
     private boolean logDetails = false;
     private CoreLMOptions coreLMOptions = new CoreLMOptions();
 
@@ -84,6 +85,7 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
         activeLandmarkCount = args.getInt(CoreLandmark.ACTIVE_COUNT, Math.min(4, landmarkCount));
         logDetails = args.getBool(CoreLandmark.PREPARE + "log_details", false);
         minNodes = args.getInt(CoreLandmark.PREPARE + "min_network_size", -1);
+        landmarkThreads = args.getInt(CoreLandmark.PREPARE + "landmark_threads", landmarkThreads);
 
         for (String loc : args.get(CoreLandmark.PREPARE + "suggestions_location", "").split(",")) {
             if (!loc.trim().isEmpty())
@@ -311,7 +313,7 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
 
                 PrepareCoreLandmarks tmpPrepareLM = new PrepareCoreLandmarks(ghStorage.getDirectory(), ghStorage, coreNodeIdMap, weighting, edgeFilterSequence,
                         landmarkCount, activeLandmarkCount).setLandmarkSuggestions(lmSuggestions)
-                        .setMaximumWeight(maximumWeight).setLogDetails(logDetails);
+                        .setMaximumWeight(maximumWeight).setLandmarkThreads(landmarkThreads).setLogDetails(logDetails);
                 if (minNodes > 1)
                     tmpPrepareLM.setMinimumNodes(minNodes);
                 preparations.add(tmpPrepareLM);
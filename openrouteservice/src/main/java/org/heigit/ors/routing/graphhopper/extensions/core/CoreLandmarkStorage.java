@@ -41,6 +41,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -83,6 +87,8 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
     private boolean logDetails = false;
     private LMEdgeFilterSequence landmarksFilter;
     private int count = 0;
+    private int landmarkThreads = 1;
+    private ForkJoinPool landmarkPool;
 
     private Map<Integer, Integer> coreNodeIdMap;
     /**
@@ -188,10 +194,7 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         long maxBytes = (long) core.getCoreNodes() * lmRowLength;
         this.landmarkWeightDA.create(2000);
         this.landmarkWeightDA.ensureCapacity(maxBytes);
-
-        for (long pointer = 0; pointer < maxBytes; pointer += 2) {
-            landmarkWeightDA.setShort(pointer, (short) SHORT_INFINITY);
-        }
+        fillLandmarkWeights(maxBytes);
 
         String additionalInfo = "";
         // guess the factor
@@ -250,19 +253,28 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         CHEdgeExplorer tmpExplorer = this.core.createEdgeExplorer(new CoreAndRequireBothDirectionsEdgeFilter(encoder));
 
         int nodes = 0;
-        for (IntArrayList subnetworkIds : graphComponents) {
-            nodes += subnetworkIds.size();
-            if (subnetworkIds.size() < minimumNodes)
-                continue;
-
-            int index = subnetworkIds.size() - 1;
-            // ensure start node is reachable from both sides and no subnetwork is associated
-            for (; index >= 0; index--) {
-                int nextStartNode = subnetworkIds.get(index);
-                if (subnetworks[coreNodeIdMap.get(nextStartNode)] == UNSET_SUBNETWORK
-                    && GHUtility.count(tmpExplorer.setBaseNode(nextStartNode)) > 0
-                    && createLandmarksForSubnetwork(nextStartNode, subnetworks, blockedEdges))
-                    break;
+        if (landmarkThreads > 1)
+            landmarkPool = new ForkJoinPool(landmarkThreads);
+        try {
+            for (IntArrayList subnetworkIds : graphComponents) {
+                nodes += subnetworkIds.size();
+                if (subnetworkIds.size() < minimumNodes)
+                    continue;
+
+                int index = subnetworkIds.size() - 1;
+                // ensure start node is reachable from both sides and no subnetwork is associated
+                for (; index >= 0; index--) {
+                    int nextStartNode = subnetworkIds.get(index);
+                    if (subnetworks[coreNodeIdMap.get(nextStartNode)] == UNSET_SUBNETWORK
+                        && GHUtility.count(tmpExplorer.setBaseNode(nextStartNode)) > 0
+                        && createLandmarksForSubnetwork(nextStartNode, subnetworks, blockedEdges))
+                        break;
+                }
+            }
+        } finally {
+            if (landmarkPool != null) {
+                landmarkPool.shutdown();
+                landmarkPool = null;
             }
         }
 
@@ -382,43 +394,106 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         }
 
         // 2) calculate weights for all landmarks -> 'from' and 'to' weight
-        for (int lmIdx = 0; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new RuntimeException("Thread was interrupted");
+        // the searches of the first landmark assign the subnetwork, which may fail, so they are run upfront
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Thread was interrupted");
+        }
+        if (createLandmarkWeights(0, tmpLandmarkNodeIds[0], subnetworks, subnetworkId, blockedEdges))
+            return false;
+
+        if (landmarkPool == null) {
+            for (int lmIdx = 1; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new RuntimeException("Thread was interrupted");
+                }
+                createLandmarkWeights(lmIdx, tmpLandmarkNodeIds[lmIdx], null, subnetworkId, blockedEdges);
             }
-            int lmNodeId = tmpLandmarkNodeIds[lmIdx];
-            CoreLandmarkExplorer explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
-            explorer.initFrom(lmNodeId, 0);
-            EdgeFilterSequence coreEdgeFilter = new EdgeFilterSequence();
-            coreEdgeFilter.add(new CoreAndBlockedEdgesFilter(encoder, false, true, blockedEdges));
-            coreEdgeFilter.add(landmarksFilter);
-            explorer.setFilter(coreEdgeFilter);
-            explorer.runAlgo(true, coreEdgeFilter);
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, fromOffset);
+        } else {
+            createLandmarkWeightsConcurrently(tmpLandmarkNodeIds, subnetworkId, blockedEdges);
+        }
 
-            // set subnetwork id to all explored nodes, but do this only for the first landmark
-            if (lmIdx == 0 && explorer.setSubnetworks(subnetworks, subnetworkId))
-                return false;
+        // TODO (Peter TODO) set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
+        landmarkIDs.add(tmpLandmarkNodeIds);
+        return true;
+    }
 
-            explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
-            explorer.initTo(lmNodeId, 0);
-            EdgeFilterSequence coreEdgeFilterBWD = new EdgeFilterSequence();
-            coreEdgeFilterBWD.add(new CoreAndBlockedEdgesFilter(encoder, true, false, blockedEdges));
-            coreEdgeFilterBWD.add(landmarksFilter);
-            explorer.setFilter(coreEdgeFilterBWD);
-            explorer.runAlgo(false, coreEdgeFilterBWD);
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, toOffset);
+    /**
+     * Runs the forward and backward search of the landmark at the given index and stores their weights in the
+     * landmark's columns of the weight storage. The searches of different landmarks only write to disjoint positions
+     * and can therefore run concurrently, provided that no subnetworks are passed.
+     *
+     * @param subnetworks if not null, the subnetwork id is assigned to all explored nodes
+     * @return true if assigning the subnetwork id failed
+     */
+    private boolean createLandmarkWeights(int lmIdx, int lmNodeId, byte[] subnetworks, int subnetworkId, IntHashSet blockedEdges) {
+        StopWatch sw = new StopWatch().start();
 
-            if (lmIdx == 0 && explorer.setSubnetworks(subnetworks, subnetworkId))
-                return false;
+        CoreLandmarkExplorer explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
+        explorer.initFrom(lmNodeId, 0);
+        EdgeFilterSequence coreEdgeFilter = new EdgeFilterSequence();
+        coreEdgeFilter.add(new CoreAndBlockedEdgesFilter(encoder, false, true, blockedEdges));
+        coreEdgeFilter.add(landmarksFilter);
+        explorer.setFilter(coreEdgeFilter);
+        explorer.runAlgo(true, coreEdgeFilter);
+        explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, fromOffset);
 
-            if (logDetails && lmIdx % logOffset == 0 && LOGGER.isInfoEnabled())
-                LOGGER.info(String.format("Set landmarks weights [%s]. Progress %d%%", lmWeighting, (int) (100.0 * lmIdx / tmpLandmarkNodeIds.length)));
+        if (subnetworks != null && explorer.setSubnetworks(subnetworks, subnetworkId))
+            return true;
+
+        explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
+        explorer.initTo(lmNodeId, 0);
+        EdgeFilterSequence coreEdgeFilterBWD = new EdgeFilterSequence();
+        coreEdgeFilterBWD.add(new CoreAndBlockedEdgesFilter(encoder, true, false, blockedEdges));
+        coreEdgeFilterBWD.add(landmarksFilter);
+        explorer.setFilter(coreEdgeFilterBWD);
+        explorer.runAlgo(false, coreEdgeFilterBWD);
+        explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, toOffset);
+
+        if (subnetworks != null && explorer.setSubnetworks(subnetworks, subnetworkId))
+            return true;
+
+        if (logDetails && LOGGER.isInfoEnabled())
+            LOGGER.info(String.format("Set weights of landmark %d of subnetwork %d [%s] in %ss", lmIdx, subnetworkId, lmWeighting, sw.stop().getSeconds()));
+
+        return false;
+    }
+
+    /**
+     * Computes the weights of all but the first landmark on the landmark pool.
+     */
+    private void createLandmarkWeightsConcurrently(int[] lmNodeIds, int subnetworkId, IntHashSet blockedEdges) {
+        List<Callable<Boolean>> tasks = new ArrayList<>(lmNodeIds.length - 1);
+        for (int lmIdx = 1; lmIdx < lmNodeIds.length; lmIdx++) {
+            final int idx = lmIdx;
+            tasks.add(() -> createLandmarkWeights(idx, lmNodeIds[idx], null, subnetworkId, blockedEdges));
         }
 
-        // TODO (Peter TODO) set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
-        landmarkIDs.add(tmpLandmarkNodeIds);
-        return true;
+        try {
+            for (Future<Boolean> future : landmarkPool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Initializes the weights of all landmarks with {@link #SHORT_INFINITY}. As every byte of an infinite weight is
+     * 0xFF, the storage is filled segment by segment instead of short by short.
+     */
+    private void fillLandmarkWeights(long maxBytes) {
+        int chunkSize = (int) Math.min(landmarkWeightDA.getSegmentSize(), Math.max(maxBytes, 2));
+        byte[] chunk = new byte[chunkSize];
+        Arrays.fill(chunk, (byte) 0xFF);
+
+        for (long pointer = 0; pointer < maxBytes; pointer += chunkSize) {
+            landmarkWeightDA.setBytes(pointer, chunk, (int) Math.min(chunkSize, maxBytes - pointer));
+        }
     }
 
     @Override
@@ -476,6 +551,13 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         return this;
     }
 
+    /**
+     * Sets the number of threads used to compute the weights of the landmarks of one subnetwork. Default is 1.
+     */
+    public void setLandmarkThreads(int landmarkThreads) {
+        this.landmarkThreads = Math.max(1, landmarkThreads);
+    }
+
     /**
      * By default do not log many details.
      */
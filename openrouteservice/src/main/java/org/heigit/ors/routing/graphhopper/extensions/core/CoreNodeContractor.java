@@ -24,8 +24,10 @@ import com.graphhopper.storage.*;
 import com.graphhopper.util.*;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +44,7 @@ class CoreNodeContractor {
     // todo: so far node contraction can only be done for node-based graph traversal
     private final CHProfile chProfile;
     private final DataAccess originalEdges;
+    private final boolean ownsOriginalEdges;
     private final Map<Shortcut, Shortcut> shortcuts = new HashMap<>();
     private final AddShortcutHandler addScHandler = new AddShortcutHandler();
     private final CalcShortcutHandler calcScHandler = new CalcShortcutHandler();
@@ -68,6 +71,28 @@ class CoreNodeContractor {
         this.chProfile = chProfile;
         originalEdges = dir.find("original_edges_" + AbstractWeighting.weightingToFileName(chProfile.getWeighting()));
         originalEdges.create(1000);
+        ownsOriginalEdges = true;
+    }
+
+    private CoreNodeContractor(CoreNodeContractor parent) {
+        this.ghStorage = parent.ghStorage;
+        this.prepareGraph = parent.prepareGraph;
+        this.prepareWeighting = new PreparationWeighting(parent.chProfile.getWeighting());
+        this.chProfile = parent.chProfile;
+        this.restrictionFilter = parent.restrictionFilter;
+        originalEdges = parent.originalEdges;
+        ownsOriginalEdges = false;
+    }
+
+    /**
+     * Creates a contractor which shares the graph and the original edge counts with this one, but has its own
+     * explorers and witness search. Workers only read the graph, so several of them can search shortcuts via
+     * {@link #searchShortcuts(int)} concurrently; the shortcuts have to be added by this contractor.
+     */
+    CoreNodeContractor createWorker() {
+        CoreNodeContractor worker = new CoreNodeContractor(this);
+        worker.initFromGraph();
+        return worker;
     }
 
     void initFromGraph() {
@@ -85,7 +110,8 @@ class CoreNodeContractor {
 
     void close() {
         prepareAlgo.close();
-        originalEdges.close();
+        if (ownsOriginalEdges)
+            originalEdges.close();
     }
 
     void setRestrictionFilter(EdgeFilter filter){
@@ -103,6 +129,24 @@ class CoreNodeContractor {
         return degree;
     }
 
+    /**
+     * Searches the shortcuts required to contract the node without changing the graph.
+     */
+    NodeShortcuts searchShortcuts(int node) {
+        long degree = findShortcuts(addScHandler.setNode(node));
+        return new NodeShortcuts(degree, new ArrayList<>(shortcuts.keySet()));
+    }
+
+    /**
+     * Adds the shortcuts found by {@link #searchShortcuts(int)} to the graph.
+     *
+     * @return the degree of the contracted node
+     */
+    long addShortcuts(NodeShortcuts nodeShortcuts) {
+        addedShortcutsCount += addShortcuts(nodeShortcuts.shortcuts);
+        return nodeShortcuts.degree;
+    }
+
     CalcShortcutsResult calcShortcutCount(int node) {
         findShortcuts(calcScHandler.setNode(node));
         return calcScHandler.calcShortcutsResult;
@@ -270,8 +314,10 @@ class CoreNodeContractor {
         if (edgeId < 0)
             return 1;
 
+        // the capacity is not extended on reads, as workers may read concurrently; counts beyond it are not set yet
         long tmp = (long) edgeId * 4;
-        originalEdges.ensureCapacity(tmp + 4);
+        if (tmp + 4 > originalEdges.getCapacity())
+            return 0;
         return originalEdges.getInt(tmp);
     }
 
@@ -447,6 +493,16 @@ class CoreNodeContractor {
         }
     }
 
+    static class NodeShortcuts {
+        final long degree;
+        final List<Shortcut> shortcuts;
+
+        NodeShortcuts(long degree, List<Shortcut> shortcuts) {
+            this.degree = degree;
+            this.shortcuts = shortcuts;
+        }
+    }
+
     static class CalcShortcutsResult {
         int originalEdgesCount;
         int shortcutsCount;
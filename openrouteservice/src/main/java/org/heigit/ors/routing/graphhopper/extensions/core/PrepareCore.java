@@ -13,6 +13,7 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.core;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.graphhopper.coll.GHTreeMapComposed;
 import com.graphhopper.routing.*;
 import com.graphhopper.routing.ch.PreparationWeighting;
@@ -23,6 +24,12 @@ import com.graphhopper.util.*;
 import org.apache.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
 
 import static com.graphhopper.util.Parameters.Algorithms.ASTAR_BI;
 import static com.graphhopper.util.Parameters.Algorithms.DIJKSTRA_BI;
@@ -49,6 +56,8 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
     private final Weighting weighting;
     private final Directory dir;
     private CHEdgeExplorer restrictionExplorer;
+    private EdgeFilter allFilter;
+    private EdgeFilter accessWithLevelFilter;
 
     private CHEdgeExplorer vehicleAllExplorer;
     private CHEdgeExplorer vehicleAllTmpExplorer;
@@ -69,10 +78,18 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
     private double periodTime;
     private double lazyTime;
     private double neighborTime;
+    private double batchTime;
+    private double searchTime;
+    private double mergeTime;
 
     private CoreNodeContractor nodeContractor;
+    private int contractionThreads = 1;
+    private ForkJoinPool contractionPool;
+    private final List<ContractionWorker> workers = new ArrayList<>();
 
     private static final int RESTRICTION_PRIORITY = Integer.MAX_VALUE;
+    // number of nodes per thread which are contracted concurrently in one batch
+    private static final int BATCH_NODES_PER_THREAD = 64;
 
     public PrepareCore(Directory dir, GraphHopperStorage ghStorage, CHGraph chGraph, EdgeFilter restrictionFilter) {
         this.ghStorage = ghStorage;
@@ -157,6 +174,19 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
         return this;
     }
 
+    /**
+     * Sets the number of threads used to contract the nodes. With more than one thread, batches of non-adjacent
+     * nodes with the lowest priorities are contracted concurrently, and the priorities of their neighbors are updated
+     * after every batch instead of applying periodic and lazy updates.
+     */
+    public PrepareCore setContractionThreads(int contractionThreads) {
+        if (contractionThreads < 1)
+            throw new IllegalArgumentException("contractionThreads has to be at least 1");
+
+        this.contractionThreads = contractionThreads;
+        return this;
+    }
+
     @Override
     public void doSpecificWork() {
         if (prepareWeighting == null)
@@ -167,7 +197,10 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
         initFromGraph();
         if (!prepareNodes())
             return;
-        contractNodes();
+        if (contractionThreads > 1)
+            contractNodesConcurrently();
+        else
+            contractNodes();
     }
 
     boolean prepareNodes() {
@@ -270,31 +303,13 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
 
             //We have worked through all nodes that are not associated with restrictions. Now we can stop the contraction.
             if (oldPriorities[polledNode] == RESTRICTION_PRIORITY) {
-                //Set the number of core nodes in the storage for use in other places
-                prepareGraph.setCoreNodes(sortedNodes.getSize() + 1);
-                while (!sortedNodes.isEmpty()) {
-                    CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(polledNode);
-                    while (iter.next()) {
-                        if (prepareGraph.getLevel(iter.getAdjNode()) == maxLevel) continue;
-                        prepareGraph.disconnect(vehicleAllTmpExplorer, iter);
-                    }
-                    polledNode = sortedNodes.pollKey();
-                }
+                finishCore(polledNode);
                 break;
             }
 
             if (sortedNodes.getSize() < nodesToAvoidContract) {
                 // skipped nodes are already set to maxLevel
-                prepareGraph.setCoreNodes(sortedNodes.getSize() + 1);
-                //Disconnect all shortcuts that lead out of the core
-                while (!sortedNodes.isEmpty()) {
-                    CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(polledNode);
-                    while (iter.next()) {
-                        if (prepareGraph.getLevel(iter.getAdjNode()) == maxLevel) continue;
-                        prepareGraph.disconnect(vehicleAllTmpExplorer, iter);
-                    }
-                    polledNode = sortedNodes.pollKey();
-                }
+                finishCore(polledNode);
                 break;
             }
 
@@ -367,6 +382,264 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
 
 
 
+    /**
+     * Contracts batches of independent nodes concurrently, see {@link #setContractionThreads(int)}. The shortcuts of
+     * a batch are searched by one {@link ContractionWorker} per thread and then added to the graph one node after the
+     * other, so that the graph is only modified by the calling thread.
+     */
+    void contractNodesConcurrently() {
+        meanDegree = (double)prepareGraph.getAllEdges().length() / prepareGraph.getNodes();
+        int level = 1;
+        long counter = 0;
+        long nextLog = 0;
+        int batches = 0;
+        int initSize = sortedNodes.getSize();
+        long logSize = Math.round(Math.max(10, (double)sortedNodes.getSize() / 100 * logMessagesPercentage));
+        if (logMessagesPercentage == 0)
+            logSize = Integer.MAX_VALUE;
+
+        long nodesToAvoidContract = Math.round((100 - nodesContractedPercentage) / 100 * (sortedNodes.getSize() - restrictedNodes))  + restrictedNodes ;
+        boolean neighborUpdate = neighborUpdatePercentage != 0;
+        int batchCapacity = contractionThreads * BATCH_NODES_PER_THREAD;
+        boolean[] marked = new boolean[prepareGraph.getNodes()];
+
+        for (int i = 0; i < contractionThreads; i++)
+            workers.add(new ContractionWorker());
+        contractionPool = new ForkJoinPool(contractionThreads);
+
+        StopWatch batchSW = new StopWatch();
+        StopWatch searchSW = new StopWatch();
+        StopWatch mergeSW = new StopWatch();
+        StopWatch neighborSW = new StopWatch();
+        try {
+            while (!sortedNodes.isEmpty()) {
+                if (counter >= nextLog) {
+                    collectDijkstraTime();
+                    batchTime += batchSW.getSeconds();
+                    searchTime += searchSW.getSeconds();
+                    mergeTime += mergeSW.getSeconds();
+                    neighborTime += neighborSW.getSeconds();
+
+                    LOGGER.info(Helper.nf(counter) + ", batches:" + batches
+                            + ", nodes: " + Helper.nf(sortedNodes.getSize())
+                            + ", shortcuts:" + Helper.nf(nodeContractor.getAddedShortcutsCount())
+                            + ", dijkstras:" + Helper.nf(getDijkstraCount())
+                            + ", " + getTimesAsString()
+                            + ", meanDegree:" + (long) meanDegree
+                            + ", algo:" + workers.get(0).contractor.getPrepareAlgoMemoryUsage()
+                            + ", " + Helper.getMemInfo());
+
+                    batchSW = new StopWatch();
+                    searchSW = new StopWatch();
+                    mergeSW = new StopWatch();
+                    neighborSW = new StopWatch();
+                    nextLog = counter + logSize;
+                }
+
+                batchSW.start();
+                IntArrayList batch = selectBatch(batchCapacity, sortedNodes.getSize() - nodesToAvoidContract, marked);
+                batchSW.stop();
+
+                // only restricted nodes or the nodes which should not be contracted are left
+                if (batch.isEmpty()) {
+                    finishCore(sortedNodes.pollKey());
+                    break;
+                }
+
+                // the nodes of a batch are not adjacent, so assigning their levels upfront only excludes them from the
+                // witness searches of each other, which at most leads to additional shortcuts
+                for (int i = 0; i < batch.size(); i++)
+                    prepareGraph.setLevel(batch.get(i), level++);
+
+                searchSW.start();
+                CoreNodeContractor.NodeShortcuts[] nodeShortcuts = new CoreNodeContractor.NodeShortcuts[batch.size()];
+                runConcurrently(batch.size(), (worker, i) -> {
+                    worker.contractor.setMaxVisitedNodes(getMaxVisitedNodesEstimate());
+                    nodeShortcuts[i] = worker.contractor.searchShortcuts(batch.get(i));
+                });
+                searchSW.stop();
+
+                mergeSW.start();
+                for (CoreNodeContractor.NodeShortcuts shortcuts : nodeShortcuts) {
+                    long degree = nodeContractor.addShortcuts(shortcuts);
+                    meanDegree = (meanDegree * 2 + degree) / 3;
+                }
+                mergeSW.stop();
+
+                neighborSW.start();
+                updateNeighbors(batch, neighborUpdate, marked);
+                neighborSW.stop();
+
+                counter += batch.size();
+                batches++;
+            }
+        } finally {
+            contractionPool.shutdown();
+            contractionPool = null;
+        }
+
+        close();
+
+        collectDijkstraTime();
+        batchTime += batchSW.getSeconds();
+        searchTime += searchSW.getSeconds();
+        mergeTime += mergeSW.getSeconds();
+        neighborTime += neighborSW.getSeconds();
+        LOGGER.info("took:" + (int) allSW.stop().getSeconds()
+                + ", new shortcuts: " + Helper.nf(nodeContractor.getAddedShortcutsCount())
+                + ", " + prepareWeighting
+                + ", dijkstras:" + getDijkstraCount()
+                + ", " + getTimesAsString()
+                + ", meanDegree:" + (long) meanDegree
+                + ", initSize:" + initSize
+                + ", threads:" + contractionThreads
+                + ", batches:" + batches
+                + ", neighbor:" + neighborUpdatePercentage
+                + ", " + Helper.getMemInfo());
+    }
+
+    /**
+     * Polls up to {@code capacity} nodes with the lowest priorities of which no two are adjacent. Candidates adjacent
+     * to an already selected node are put back. Restricted nodes are never selected.
+     *
+     * @param contractible the number of nodes which may still be contracted
+     */
+    private IntArrayList selectBatch(int capacity, long contractible, boolean[] marked) {
+        IntArrayList batch = new IntArrayList(capacity);
+        IntArrayList skipped = new IntArrayList();
+        IntArrayList markedNodes = new IntArrayList();
+        long candidates = Math.min(2L * capacity, contractible);
+
+        for (long i = 0; i < candidates && batch.size() < capacity && !sortedNodes.isEmpty(); i++) {
+            int node = sortedNodes.pollKey();
+            if (oldPriorities[node] == RESTRICTION_PRIORITY) {
+                skipped.add(node);
+                break;
+            }
+
+            if (marked[node]) {
+                skipped.add(node);
+                continue;
+            }
+
+            batch.add(node);
+            marked[node] = true;
+            markedNodes.add(node);
+            CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(node);
+            while (iter.next()) {
+                int adjNode = iter.getAdjNode();
+                if (!marked[adjNode]) {
+                    marked[adjNode] = true;
+                    markedNodes.add(adjNode);
+                }
+            }
+        }
+
+        for (int i = 0; i < skipped.size(); i++)
+            sortedNodes.insert(skipped.get(i), oldPriorities[skipped.get(i)]);
+        for (int i = 0; i < markedNodes.size(); i++)
+            marked[markedNodes.get(i)] = false;
+
+        return batch;
+    }
+
+    /**
+     * Disconnects the contracted nodes of a batch from their uncontracted neighbors and recalculates the priorities
+     * of these neighbors concurrently.
+     */
+    private void updateNeighbors(IntArrayList batch, boolean neighborUpdate, boolean[] marked) {
+        IntArrayList neighbors = new IntArrayList();
+        for (int i = 0; i < batch.size(); i++) {
+            CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(batch.get(i));
+            while (iter.next()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new RuntimeException("Thread was interrupted");
+                }
+
+                int nn = iter.getAdjNode();
+                if (prepareGraph.getLevel(nn) != maxLevel)
+                    continue;
+
+                if (neighborUpdate && !marked[nn] && rand.nextInt(100) < neighborUpdatePercentage) {
+                    marked[nn] = true;
+                    neighbors.add(nn);
+                }
+
+                // Hendrik: PHAST algorithm does not work properly with removed shortcuts
+                prepareGraph.disconnect(vehicleAllTmpExplorer, iter);
+            }
+        }
+
+        int[] priorities = new int[neighbors.size()];
+        runConcurrently(neighbors.size(), (worker, i) -> priorities[i] = calculatePriority(neighbors.get(i), worker));
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            int nn = neighbors.get(i);
+            marked[nn] = false;
+            int oldPrio = oldPriorities[nn];
+            oldPriorities[nn] = priorities[i];
+            if (priorities[i] != oldPrio)
+                sortedNodes.update(nn, oldPrio, priorities[i]);
+        }
+    }
+
+    /**
+     * Runs the task for all indices below {@code size} on the contraction pool, every thread using its own worker.
+     */
+    private void runConcurrently(int size, ObjIntConsumer<ContractionWorker> task) {
+        if (size == 0)
+            return;
+
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Object>> tasks = new ArrayList<>(workers.size());
+        for (ContractionWorker worker : workers) {
+            tasks.add(() -> {
+                for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement())
+                    task.accept(worker, i);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Object> future : contractionPool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Sets the number of core nodes, i.e. the polled node and all remaining ones, and disconnects their edges
+     * leading out of the core.
+     */
+    private void finishCore(int polledNode) {
+        //Set the number of core nodes in the storage for use in other places
+        prepareGraph.setCoreNodes(sortedNodes.getSize() + 1);
+        while (!sortedNodes.isEmpty()) {
+            CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(polledNode);
+            while (iter.next()) {
+                if (prepareGraph.getLevel(iter.getAdjNode()) == maxLevel) continue;
+                prepareGraph.disconnect(vehicleAllTmpExplorer, iter);
+            }
+            polledNode = sortedNodes.pollKey();
+        }
+    }
+
+    private void collectDijkstraTime() {
+        dijkstraTime += nodeContractor.getDijkstraSeconds();
+        nodeContractor.resetDijkstraTime();
+        for (ContractionWorker worker : workers) {
+            dijkstraTime += worker.contractor.getDijkstraSeconds();
+            worker.contractor.resetDijkstraTime();
+        }
+    }
+
     public double getLazyTime() {
         return lazyTime;
     }
@@ -383,6 +656,28 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
         return neighborTime;
     }
 
+    /**
+     * Time spent selecting the batches of the concurrent contraction.
+     */
+    public double getBatchTime() {
+        return batchTime;
+    }
+
+    /**
+     * Wall-clock time of the concurrent shortcut searches. The time of the witness searches of all threads is
+     * included in {@link #getDijkstraTime()}.
+     */
+    public double getSearchTime() {
+        return searchTime;
+    }
+
+    /**
+     * Time spent adding the shortcuts found by the concurrent searches to the graph.
+     */
+    public double getMergeTime() {
+        return mergeTime;
+    }
+
     public Weighting getWeighting() {
         return chProfile.getWeighting();
     }
@@ -392,8 +687,12 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
     }
 
     private String getTimesAsString() {
-        return "t(dijk):" + Helper.round2(dijkstraTime) + ", t(period):" + Helper.round2(periodTime) + ", t(lazy):"
+        String times = "t(dijk):" + Helper.round2(dijkstraTime) + ", t(period):" + Helper.round2(periodTime) + ", t(lazy):"
                 + Helper.round2(lazyTime) + ", t(neighbor):" + Helper.round2(neighborTime);
+        if (contractionThreads > 1)
+            times += ", t(batch):" + Helper.round2(batchTime) + ", t(search):" + Helper.round2(searchTime)
+                    + ", t(merge):" + Helper.round2(mergeTime);
+        return times;
     }
 
 
@@ -404,8 +703,14 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
      * lead to a slowish or even endless loop.
      */
     int calculatePriority(int v) {
+        return calculatePriority(v, nodeContractor, restrictionExplorer, calcPrioAllExplorer);
+    }
 
+    private int calculatePriority(int v, ContractionWorker worker) {
+        return calculatePriority(v, worker.contractor, worker.restrictionExplorer, worker.calcPrioAllExplorer);
+    }
 
+    private int calculatePriority(int v, CoreNodeContractor contractor, CHEdgeExplorer restrictionExplorer, CHEdgeExplorer calcPrioAllExplorer) {
         // set the priority of a node that is next to a restricted edge to a HIGH value
         CHEdgeIterator restrictionIterator = restrictionExplorer.setBaseNode(v);
         while (restrictionIterator.next()) {
@@ -413,8 +718,8 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
             if (!restrictionFilter.accept(restrictionIterator))
                 return RESTRICTION_PRIORITY;
         }
-        nodeContractor.setMaxVisitedNodes(getMaxVisitedNodesEstimate());
-        CoreNodeContractor.CalcShortcutsResult calcShortcutsResult = nodeContractor.calcShortcutCount(v);
+        contractor.setMaxVisitedNodes(getMaxVisitedNodesEstimate());
+        CoreNodeContractor.CalcShortcutsResult calcShortcutsResult = contractor.calcShortcutCount(v);
 
         // # huge influence: the bigger the less shortcuts gets created and the faster is the preparation
         //
@@ -466,10 +771,10 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
     PrepareCore initFromGraph() {
         ghStorage.freeze();
         FlagEncoder prepareFlagEncoder = prepareWeighting.getFlagEncoder();
-        final EdgeFilter allFilter = DefaultEdgeFilter.allEdges(prepareFlagEncoder);
+        allFilter = DefaultEdgeFilter.allEdges(prepareFlagEncoder);
 
         // filter by vehicle and level number
-        final EdgeFilter accessWithLevelFilter = new LevelEdgeFilter(prepareGraph) {
+        accessWithLevelFilter = new LevelEdgeFilter(prepareGraph) {
             @Override
             public final boolean accept(EdgeIteratorState edgeState) {
                 if (!super.accept(edgeState))
@@ -539,12 +844,17 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
 
     public void close() {
         nodeContractor.close();
+        for (ContractionWorker worker : workers)
+            worker.contractor.close();
         sortedNodes = null;
         oldPriorities = null;
     }
 
     public long getDijkstraCount() {
-        return nodeContractor.getDijkstraCount();
+        long count = nodeContractor.getDijkstraCount();
+        for (ContractionWorker worker : workers)
+            count += worker.contractor.getDijkstraCount();
+        return count;
     }
 
     public int getShortcuts() {
@@ -557,4 +867,19 @@ public class PrepareCore extends AbstractAlgoPreparation implements RoutingAlgor
         // the node contraction order and requires re-optimizing the parameters of the graph contraction
         return (int) meanDegree * 100;
     }
+
+    /**
+     * Contractor and explorers used by one thread of the concurrent contraction.
+     */
+    private class ContractionWorker {
+        private final CoreNodeContractor contractor;
+        private final CHEdgeExplorer restrictionExplorer;
+        private final CHEdgeExplorer calcPrioAllExplorer;
+
+        ContractionWorker() {
+            contractor = nodeContractor.createWorker();
+            restrictionExplorer = prepareGraph.createEdgeExplorer(allFilter);
+            calcPrioAllExplorer = prepareGraph.createEdgeExplorer(accessWithLevelFilter);
+        }
+    }
 }
@@ -106,6 +106,14 @@ public class PrepareCoreLandmarks extends AbstractAlgoPreparation {
         lms.setMinimumNodes(nodes);
     }
 
+    /**
+     * @see CoreLandmarkStorage#setLandmarkThreads(int)
+     */
+    public PrepareCoreLandmarks setLandmarkThreads(int landmarkThreads) {
+        lms.setLandmarkThreads(landmarkThreads);
+        return this;
+    }
+
     public PrepareCoreLandmarks setLogDetails(boolean logDetails) {
         lms.setLogDetails(logDetails);
         return this;
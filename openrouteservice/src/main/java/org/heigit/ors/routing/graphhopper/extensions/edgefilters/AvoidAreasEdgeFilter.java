@@ -13,300 +13,132 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.edgefilters;
 
+import com.carrotsearch.hppc.IntByteHashMap;
 import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.PointList;
 import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
 
-import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AvoidAreasEdgeFilter implements EdgeFilter {
-
-	private Envelope env; 
-	private Polygon[] polys;
-	private DefaultCoordinateSequence coordSequence;
+	private static final byte ACCEPTED = 1;
+	private static final byte REJECTED = 2;
+	private static final int MAX_BUFFERED_SIZE = 64;
+
+	private Envelope env;
+	private STRtree tree;
+	private final Envelope edgeEnv = new Envelope();
+	private final List<PreparedGeometry> candidates = new ArrayList<>();
+	private final IntByteHashMap verdicts = new IntByteHashMap();
+	private final int baseEdgesCount;
+	private final Coordinate[][] coordBuffers = new Coordinate[MAX_BUFFERED_SIZE + 1][];
 	private GeometryFactory geomFactory = new GeometryFactory();
-	
+
 	/**
-	 * Creates an edges filter which accepts both direction of the specified vehicle.
+	 * Creates an edges filter which accepts both direction of the specified vehicle. The polygons are prepared and
+	 * indexed in an {@link STRtree}, so that only the polygons whose envelope intersects an edge are tested.
 	 */
-	public AvoidAreasEdgeFilter(Polygon[] polys)
+	public AvoidAreasEdgeFilter(Polygon[] polys, GraphHopperStorage graphStorage)
 	{
-		this.polys = polys;
+		baseEdgesCount = graphStorage.getAllEdges().length();
 
 		if (polys != null && polys.length > 0)
 		{
-			double minX = Double.MAX_VALUE;
-			double minY = Double.MAX_VALUE;
-			double maxX = Double.MIN_VALUE;
-			double maxY = Double.MIN_VALUE;
+			env = new Envelope();
+			tree = new STRtree();
 
-			for (int i = 0; i < polys.length; i++) {
-				Polygon poly = polys[i];
+			for (Polygon poly : polys) {
 				Envelope internal = poly.getEnvelopeInternal();
-				if (internal.getMinX() < minX)
-					minX = internal.getMinX();
-				if (internal.getMinY() < minY)
-					minY = internal.getMinY();
-				if (internal.getMaxX() > maxX)
-					maxX = internal.getMaxX();
-				if (internal.getMaxY() > maxY)
-					maxY = internal.getMaxY();
+				env.expandToInclude(internal);
+				tree.insert(internal, PreparedGeometryFactory.prepare(poly));
 			}
 
-			env = new Envelope(minX, maxX, minY, maxY);
-
-			coordSequence = new DefaultCoordinateSequence(new Coordinate[1], 1);
+			tree.build();
 		}
 	}
 
+	/**
+	 * The verdicts of the edges of the graph are cached per edge id, so the filter must only be used for a single
+	 * request. Virtual edges are always tested, as their ids are reused with another geometry by every lookup, e.g.
+	 * when a round trip is retried.
+	 */
 	@Override
 	public final boolean accept(EdgeIteratorState iter ) {
 		if (env == null)
 			return true;
 
-		boolean inEnv = false;
+		int edgeId = iter.getEdge();
+		if (edgeId >= baseEdgesCount)
+			return !isAvoided(iter);
+
+		byte verdict = verdicts.get(edgeId);
+		if (verdict == 0) {
+			verdict = isAvoided(iter) ? REJECTED : ACCEPTED;
+			verdicts.put(edgeId, verdict);
+		}
+
+		return verdict == ACCEPTED;
+	}
+
+	private boolean isAvoided(EdgeIteratorState iter) {
 		//   PointList pl = iter.fetchWayGeometry(2); // does not work
 		PointList pl = iter.fetchWayGeometry(3);
 		int size = pl.getSize();
 
-		double eMinX = Double.MAX_VALUE;
-		double eMinY = Double.MAX_VALUE;
-		double eMaxX = Double.MIN_VALUE;
-		double eMaxY = Double.MIN_VALUE;
+		edgeEnv.setToNull();
+		for (int j = 0; j < size; j++)
+			edgeEnv.expandToInclude(pl.getLon(j), pl.getLat(j));
 
-		for (int j = 0; j < pl.getSize(); j++)
-		{
-			double x = pl.getLon(j);
-			double y = pl.getLat(j);
-			if (env.contains(x, y))
-			{
-				inEnv = true;
-				break;
-			}
+		if (!env.intersects(edgeEnv))
+			return false;
 
-			if (x < eMinX)
-				eMinX = x;
-			if (y < eMinY)
-				eMinY = y;
-			if (x > eMaxX)
-				eMaxX = x;
-			if (y > eMaxY)
-				eMaxY = y;
-		}
+		candidates.clear();
+		tree.query(edgeEnv, item -> candidates.add((PreparedGeometry) item));
 
-		if (inEnv || !(eMinX > env.getMaxX() || eMaxX < env.getMinX() || eMinY > env.getMaxY() || eMaxY < env.getMinY()))
-		{
-			// We have to reset the coordinate sequence else for some reason the envelopes for the edge are wrong
-			coordSequence = new DefaultCoordinateSequence(new Coordinate[1], 1);
-			if (size >= 2)
-			{
-				// resize sequence if needed
-				coordSequence.resize(size);
-
-				for (int j = 0; j < size; j++)
-				{
-					double x = pl.getLon(j);
-					double y = pl.getLat(j);
-					Coordinate c =  coordSequence.getCoordinate(j);
+		if (candidates.isEmpty())
+			return false;
 
-					if (c == null)
-					{
-						c = new Coordinate(x, y);
-						coordSequence.setCoordinate(j, c);
-					}
-					else
-					{
-						c.x = x;
-						c.y = y;
-					}
-				}
+		if (size < 2)
+			return true;
 
-				LineString ls = geomFactory.createLineString(coordSequence);
+		LineString ls = geomFactory.createLineString(getCoordinates(pl));
 
-				for (int i = 0; i < polys.length; i++)
-				{
-					Polygon poly = polys[i];
-					if (poly.contains(ls) || ls.crosses(poly))
-					{
-						return false;
-					}
-				}
-			}
-			else
-			{
-				return false;
-			}
+		for (PreparedGeometry poly : candidates)
+		{
+			if (poly.contains(ls) || poly.crosses(ls))
+				return true;
 		}
-		return true;
+
+		return false;
 	}
 
 	/**
-	 * The CoordinateSequence implementation that Geometries use by default. In
-	 * this implementation, Coordinates returned by #toArray and #get are live --
-	 * parties that change them are actually changing the
-	 * DefaultCoordinateSequence's underlying data.
-	 *
-	 * @version 1.7
+	 * Copies the points into a coordinate array. Arrays of up to {@link #MAX_BUFFERED_SIZE} coordinates are reused, as
+	 * the line strings built from them are not kept beyond a single test.
 	 */
-	static class DefaultCoordinateSequence implements CoordinateSequence, Serializable
-	{
-		//With contributions from Markus Schaber [schabios@logi-track.com] 2004-03-26
-		private static final long serialVersionUID = -915438501601840650L;
-		private Coordinate[] coordinates;
-		private int size;
-		/**
-		 * Constructs a DefaultCoordinateSequence based on the given array (the
-		 * array is not copied).
-		 *
-		 * @param coordinates the coordinate array that will be referenced.
-		 */
-		public DefaultCoordinateSequence(Coordinate[] coordinates, int size) {
-			if (coordinates == null)
-			{
-				throw new IllegalArgumentException("Null coordinate");
-			}
-			this.coordinates = coordinates;
-			this.size = size;
-		}
-
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#getDimension()
-		 */
-		public int getDimension() { return 3; }
-		/**
-		 * Get the Coordinate with index i.
-		 *
-		 * @param i
-		 * the index of the coordinate
-		 * @return the requested Coordinate instance
-		 */
-		public Coordinate getCoordinate(int i) {
-			return coordinates[i];
-		}
-
-		public void setCoordinate(int i, Coordinate c) {
-			coordinates[i] = c;
-		}
-
-		/**
-		 * Get a copy of the Coordinate with index i.
-		 *
-		 * @param i the index of the coordinate
-		 * @return a copy of the requested Coordinate
-		 */
-		public Coordinate getCoordinateCopy(int i) {
-			return new Coordinate(coordinates[i]);
-		}
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#getX(int)
-		 */
-		public void getCoordinate(int index, Coordinate coord) {
-			coord.x = coordinates[index].x;
-			coord.y = coordinates[index].y;
-		}
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#getX(int)
-		 */
-		public double getX(int index) {
-			return coordinates[index].x;
-		}
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#getY(int)
-		 */
-		public double getY(int index) {
-			return coordinates[index].y;
-		}
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#getOrdinate(int, int)
-		 */
-		public double getOrdinate(int index, int ordinateIndex)
-		{
-			switch (ordinateIndex) {
-				case CoordinateSequence.X: return coordinates[index].x;
-				case CoordinateSequence.Y: return coordinates[index].y;
-				case CoordinateSequence.Z: return coordinates[index].z;
-				default: break;
-			}
-			return Double.NaN;
-		}
-		/**
-		 * @see com.vividsolutions.jts.geom.CoordinateSequence#setOrdinate(int, int, double)
-		 */
-		public void setOrdinate(int index, int ordinateIndex, double value) {
-			switch (ordinateIndex) {
-				case CoordinateSequence.X: coordinates[index].x = value; break;
-				case CoordinateSequence.Y: coordinates[index].y = value; break;
-				case CoordinateSequence.Z: coordinates[index].z = value; break;
-				default: break;
-			}
-		}
-		/**
-		 * Creates a deep copy of the Object
-		 *
-		 * @return The deep copy
-		 */
-		public Object clone() {
-			Coordinate[] cloneCoordinates = new Coordinate[size()];
-			for (int i = 0; i < coordinates.length; i++) {
-				cloneCoordinates[i] = (Coordinate) coordinates[i].clone();
-			}
-			return new DefaultCoordinateSequence(cloneCoordinates, size);
-		}
+	private Coordinate[] getCoordinates(PointList pl) {
+		int size = pl.getSize();
+		Coordinate[] coords = size <= MAX_BUFFERED_SIZE ? coordBuffers[size] : null;
 
-		/**
-		 * Returns the size of the coordinate sequence
-		 *
-		 * @return the number of coordinates
-		 */
-		public int size() {
-			return size;
+		if (coords == null) {
+			coords = new Coordinate[size];
+			for (int j = 0; j < size; j++)
+				coords[j] = new Coordinate();
+			if (size <= MAX_BUFFERED_SIZE)
+				coordBuffers[size] = coords;
 		}
 
-		public void resize(int size)
-		{
-			if (size > this.size)
-			{
-				coordinates = new Coordinate[size];
-			}
-
-			this.size = size;
+		for (int j = 0; j < size; j++) {
+			coords[j].x = pl.getLon(j);
+			coords[j].y = pl.getLat(j);
 		}
 
-		/**
-		 * This method exposes the internal Array of Coordinate Objects
-		 *
-		 * @return the Coordinate[] array.
-		 */
-		public Coordinate[] toCoordinateArray() {
-			return coordinates;
-		}
-		public Envelope expandEnvelope(Envelope env)
-		{
-			for (int i = 0; i < coordinates.length; i++ ) {
-				env.expandToInclude(coordinates[i]);
-			}
-			return env;
-		}
-		/**
-		 * Returns the string Representation of the coordinate array
-		 *
-		 * @return The string
-		 */
-		public String toString() {
-			if (coordinates.length > 0) {
-				StringBuilder strBuf = new StringBuilder(17 * coordinates.length);
-				strBuf.append('(');
-				strBuf.append(coordinates[0]);
-				for (int i = 1; i < coordinates.length; i++) {
-					strBuf.append(", ");
-					strBuf.append(coordinates[i]);
-				}
-				strBuf.append(')');
-				return strBuf.toString();
-			} else {
-				return "()";
-			}
-		}
+		return coords;
 	}
 }
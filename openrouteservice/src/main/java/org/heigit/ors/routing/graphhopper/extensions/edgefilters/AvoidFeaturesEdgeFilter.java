@@ -30,8 +30,13 @@ public class AvoidFeaturesEdgeFilter implements EdgeFilter {
 	private TollwayExtractor tollwayExtractor;
 	private int avoidFeatureType;
 	private int profileCategory;
+	// verdict of the filter for an edge, indexed by the way category of the edge
+	private final byte[] verdicts = new byte[256];
 
 	private static final int NOT_TOLLWAYS = ~AvoidFeatureFlags.TOLLWAYS;
+	private static final byte ACCEPT = 0;
+	private static final byte REJECT = 1;
+	private static final byte CHECK_TOLLWAY = 2;
 
 	public AvoidFeaturesEdgeFilter(int profileType, RouteSearchParameters searchParams, GraphStorage graphStorage) throws Exception {
 		this.buffer = new byte[10];
@@ -47,31 +52,34 @@ public class AvoidFeaturesEdgeFilter implements EdgeFilter {
 		TollwaysGraphStorage extTollways = GraphStorageUtils.getGraphExtension(graphStorage, TollwaysGraphStorage.class);
 		if (extTollways != null)
 			tollwayExtractor = new TollwayExtractor(extTollways, searchParams.getProfileType(), searchParams.getProfileParameters());
+
+		for (int edgeFeatType = 0; edgeFeatType < verdicts.length; edgeFeatType++) {
+			int avoidEdgeFeatureType = avoidFeatureType & edgeFeatType;
+
+			if (avoidEdgeFeatureType == 0)
+				verdicts[edgeFeatType] = ACCEPT;
+			else if ((avoidEdgeFeatureType & NOT_TOLLWAYS) != 0)
+				// restrictions other than tollways are present
+				verdicts[edgeFeatType] = REJECT;
+			else
+				verdicts[edgeFeatType] = tollwayExtractor != null ? CHECK_TOLLWAY : ACCEPT;
+		}
 	}
 
 	@Override
 	public final boolean accept(EdgeIteratorState iter) {
-		if (avoidFeatureType != 0) {
-			int edge = iter.getEdge();
-			int edgeFeatType = storage.getEdgeValue(edge, buffer);
-
-			if (edgeFeatType != 0) {
-				int avoidEdgeFeatureType = avoidFeatureType & edgeFeatType;
-
-				if (avoidEdgeFeatureType != 0) {
-
-					if ((avoidEdgeFeatureType & NOT_TOLLWAYS) != 0) {
-						// restrictions other than tollways are present
-						return false;
-					}
-					else if (tollwayExtractor != null) {
-						// false when there is a toll for the given profile
-						return tollwayExtractor.getValue(edge) == 0;
-					}
-
-				}
-			}
-		}
-		return true;
+		if (avoidFeatureType == 0)
+			return true;
+
+		int edge = iter.getEdge();
+		byte verdict = verdicts[storage.getEdgeValue(edge, buffer)];
+
+		if (verdict == ACCEPT)
+			return true;
+		if (verdict == REJECT)
+			return false;
+
+		// false when there is a toll for the given profile
+		return tollwayExtractor.getValue(edge) == 0;
 	}
 }
@@ -21,14 +21,15 @@ import org.heigit.ors.routing.AvoidFeatureFlags;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
 import org.heigit.ors.routing.graphhopper.extensions.storages.WayCategoryGraphStorage;
 
+/**
+ * The filter is shared by concurrently running core landmark searches and contraction threads, so it must not keep any state between calls.
+ */
 public class AvoidFeaturesCoreEdgeFilter implements EdgeFilter {
-	private byte[] buffer;
 	private WayCategoryGraphStorage storage;
 	private int avoidFeatures;
 	private static final String TYPE = "avoid_features";
 
 	public AvoidFeaturesCoreEdgeFilter(GraphStorage graphStorage, int profileCategory) {
-		buffer = new byte[10];
 		avoidFeatures = AvoidFeatureFlags.getProfileFlags(profileCategory);
 		storage = GraphStorageUtils.getGraphExtension(graphStorage, WayCategoryGraphStorage.class);
 	}
@@ -42,7 +43,7 @@ public class AvoidFeaturesCoreEdgeFilter implements EdgeFilter {
 	public final boolean accept(EdgeIteratorState iter) {
 		if(iter instanceof CHEdgeIterator && ((CHEdgeIterator)iter).isShortcut())
 			return true;
-		return (storage.getEdgeValue(iter.getEdge(), buffer) & avoidFeatures) == 0;
+		return (storage.getEdgeValue(iter.getEdge()) & avoidFeatures) == 0;
 	}
 
 	public String getType() {
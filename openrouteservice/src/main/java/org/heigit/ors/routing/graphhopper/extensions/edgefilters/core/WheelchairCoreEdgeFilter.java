@@ -20,21 +20,21 @@ import org.heigit.ors.routing.graphhopper.extensions.WheelchairAttributes;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
 import org.heigit.ors.routing.graphhopper.extensions.storages.WheelchairAttributesGraphStorage;
 
+/**
+ * The filter is shared by the threads of the concurrent core contraction, so it must not keep any state between calls.
+ */
 public final class WheelchairCoreEdgeFilter implements EdgeFilter {
-	private byte[] buffer;
 	private WheelchairAttributesGraphStorage storage;
-	private WheelchairAttributes attributes;
 
 	public WheelchairCoreEdgeFilter(GraphStorage graphStorage) {
-        buffer = new byte[WheelchairAttributesGraphStorage.BYTE_COUNT];
-		attributes = new WheelchairAttributes();
 		storage = GraphStorageUtils.getGraphExtension(graphStorage, WheelchairAttributesGraphStorage.class);
 	}
 
 	@Override
 	public final boolean accept(EdgeIteratorState iter) {
 
-		storage.getEdgeValues(iter.getEdge(), attributes, buffer);
+		WheelchairAttributes attributes = new WheelchairAttributes();
+		storage.getEdgeValues(iter.getEdge(), attributes, new byte[WheelchairAttributesGraphStorage.BYTE_COUNT]);
 
 		return !attributes.hasValues();
 
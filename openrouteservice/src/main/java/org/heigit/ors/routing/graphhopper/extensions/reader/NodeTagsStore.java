@@ -0,0 +1,171 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing.graphhopper.extensions.reader;
+
+import com.graphhopper.coll.GHLongIntBTree;
+import com.graphhopper.coll.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact store of selected OSM node tags during import. The tags of all nodes are kept in one flat {@code int}
+ * array, a node is looked up by its OSM id through a {@link GHLongIntBTree}. Every tag is encoded in one entry: the
+ * index of its key in the fixed set of keys passed to the constructor in the upper bits and the id of its value in a
+ * dictionary of all distinct values in the lower bits. The first entry of a node holds its number of tags.
+ */
+public class NodeTagsStore {
+	public static final int NO_NODE = -1;
+
+	private static final int VALUE_BITS = 24;
+	private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+	private static final int MAX_KEYS = 1 << (31 - VALUE_BITS);
+
+	private final String[] keys;
+	private final Map<String, Integer> keyIndices = new HashMap<>();
+	private final Map<String, Integer> valueIds = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+	private final LongIntMap nodeOffsets = new GHLongIntBTree(200);
+
+	private int[] entries = new int[1024];
+	private int size;
+
+	public NodeTagsStore(Collection<String> keys) {
+		if (keys.size() > MAX_KEYS)
+			throw new IllegalArgumentException("At most " + MAX_KEYS + " keys can be stored, got " + keys.size());
+
+		this.keys = keys.toArray(new String[0]);
+		for (int i = 0; i < this.keys.length; i++)
+			keyIndices.put(this.keys[i], i);
+	}
+
+	/**
+	 * Stores the tags of the node with one of the keys of this store and returns whether there was any.
+	 */
+	public boolean put(long nodeId, Map<String, Object> tags) {
+		int offset = size;
+		int count = 0;
+
+		for (Map.Entry<String, Object> tag : tags.entrySet()) {
+			Integer keyIndex = keyIndices.get(tag.getKey());
+			if (keyIndex == null || tag.getValue() == null)
+				continue;
+
+			if (count == 0)
+				ensureCapacity(offset + 1 + keys.length);
+			count++;
+			entries[offset + count] = (keyIndex << VALUE_BITS) | getValueId(tag.getValue().toString());
+		}
+
+		if (count == 0)
+			return false;
+
+		entries[offset] = count;
+		size = offset + 1 + count;
+		nodeOffsets.put(nodeId, offset);
+
+		return true;
+	}
+
+	/**
+	 * Returns the offset of the tags of the node for {@link #getTagCount(int)}, {@link #getKey(int, int)} and
+	 * {@link #getValue(int, int)}, or {@link #NO_NODE} if no tags are stored for it.
+	 */
+	public int getOffset(long nodeId) {
+		int offset = nodeOffsets.get(nodeId);
+		return offset < 0 ? NO_NODE : offset;
+	}
+
+	public int getTagCount(int offset) {
+		return entries[offset];
+	}
+
+	public String getKey(int offset, int tag) {
+		return keys[entries[offset + 1 + tag] >>> VALUE_BITS];
+	}
+
+	public String getValue(int offset, int tag) {
+		return values.get(entries[offset + 1 + tag] & VALUE_MASK);
+	}
+
+	/**
+	 * Returns a new map of the tags of the node, or null if no tags are stored for it.
+	 */
+	public HashMap<String, String> getTags(long nodeId) {
+		int offset = getOffset(nodeId);
+		if (offset == NO_NODE)
+			return null;
+
+		int count = getTagCount(offset);
+		HashMap<String, String> tags = new HashMap<>(count * 2);
+		for (int i = 0; i < count; i++)
+			tags.put(getKey(offset, i), getValue(offset, i));
+
+		return tags;
+	}
+
+	public boolean isEmpty() {
+		return nodeOffsets.getSize() == 0;
+	}
+
+	/**
+	 * Returns the number of nodes with stored tags.
+	 */
+	public long getNodeCount() {
+		return nodeOffsets.getSize();
+	}
+
+	public int getDistinctValueCount() {
+		return values.size();
+	}
+
+	/**
+	 * Returns the approximate memory used by the node index and the tag entries in MB, without the value dictionary.
+	 */
+	public int getMemoryUsage() {
+		return nodeOffsets.getMemoryUsage() + (int) Math.round(entries.length * 4d / (1 << 20));
+	}
+
+	/**
+	 * Releases the memory of all stored tags.
+	 */
+	public void clear() {
+		nodeOffsets.clear();
+		valueIds.clear();
+		values.clear();
+		entries = new int[0];
+		size = 0;
+	}
+
+	private int getValueId(String value) {
+		Integer id = valueIds.get(value);
+		if (id == null) {
+			if (values.size() > VALUE_MASK)
+				throw new IllegalStateException("More than " + (VALUE_MASK + 1) + " distinct node tag values");
+			id = values.size();
+			values.add(value);
+			valueIds.put(value, id);
+		}
+		return id;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > entries.length)
+			entries = Arrays.copyOf(entries, Math.max(capacity, entries.length + (entries.length >> 1)));
+	}
+}
@@ -0,0 +1,407 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing.graphhopper.extensions.reader;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Values of OSM ways read from a CSV file with the way id in the first and the value in the second column, such as
+ * the green and noise indices. The first line of the file is a header, the columns are separated by {@code ;} if the
+ * header contains one and by {@code ,} otherwise. If a way is listed several times, its last value is kept.
+ * <p>
+ * The file is parsed from a memory mapped buffer into an array of way ids sorted for binary search and an array of
+ * the corresponding values. The parsed arrays can be written to a binary cache file next to the CSV file, which is
+ * mapped instead of parsing the CSV file again as long as the size and modification time of the CSV file match.
+ */
+public class WayValuesTable {
+	private static final Logger LOGGER = Logger.getLogger(WayValuesTable.class.getName());
+
+	public static final String CACHE_FILE_EXTENSION = ".bin";
+	public static final String PARAM_KEY_FILE_PATH = "filepath";
+	public static final String PARAM_KEY_BINARY_CACHE = "binary_cache";
+
+	private static final int CACHE_MAGIC = 0x4F525357;
+	private static final int CACHE_VERSION = 1;
+	private static final int CACHE_HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+	private static final long MAX_WINDOW_SIZE = 1L << 30;
+	private static final int MAX_FAST_DIGITS = 18;
+	private static final double[] POWERS_OF_TEN = new double[MAX_FAST_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	private final long[] ids;
+	private final float[] values;
+	private final float min;
+	private final float max;
+
+	private WayValuesTable(long[] ids, float[] values) {
+		this.ids = ids;
+		this.values = values;
+
+		float minValue = Float.NaN;
+		float maxValue = Float.NaN;
+		for (float value : values) {
+			if (Float.isNaN(value))
+				continue;
+			if (Float.isNaN(minValue) || value < minValue)
+				minValue = value;
+			if (Float.isNaN(maxValue) || value > maxValue)
+				maxValue = value;
+		}
+		this.min = minValue;
+		this.max = maxValue;
+	}
+
+	/**
+	 * Reads the values from the CSV file given by the parameters of a graph storage builder. The binary cache is used
+	 * unless the {@code binary_cache} parameter is {@code false}.
+	 *
+	 * @param parameters	Parameters of the storage builder
+	 */
+	public static WayValuesTable load(Map<String, String> parameters) throws IOException {
+		String useCache = parameters.get(PARAM_KEY_BINARY_CACHE);
+		return load(parameters.get(PARAM_KEY_FILE_PATH), useCache == null || Boolean.parseBoolean(useCache));
+	}
+
+	/**
+	 * Reads the values from the CSV file.
+	 *
+	 * @param csvFile	Path of the CSV file
+	 * @param useCache	Whether to use the binary cache file next to the CSV file, which is written after parsing if it
+	 *                 	is missing or outdated
+	 */
+	public static WayValuesTable load(String csvFile, boolean useCache) throws IOException {
+		File csv = new File(csvFile);
+		if (!csv.isFile())
+			throw new IOException("The file " + csvFile + " does not exist");
+
+		File cache = new File(csvFile + CACHE_FILE_EXTENSION);
+		if (useCache && cache.isFile()) {
+			WayValuesTable table = readCache(cache, csv);
+			if (table != null)
+				return table;
+		}
+
+		WayValuesTable table = readCsv(csv);
+		if (useCache) {
+			try {
+				table.writeCache(cache, csv);
+			} catch (IOException ex) {
+				LOGGER.warn("Could not write the cache file " + cache + ": " + ex.getMessage());
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the value of the way, or {@link Float#NaN} if the way is not listed.
+	 */
+	public float get(long wayId) {
+		int index = Arrays.binarySearch(ids, wayId);
+		return index < 0 ? Float.NaN : values[index];
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the smallest value, or {@link Float#NaN} if there is none.
+	 */
+	public float getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the largest value, or {@link Float#NaN} if there is none.
+	 */
+	public float getMax() {
+		return max;
+	}
+
+	private static WayValuesTable readCsv(File csv) throws IOException {
+		CsvParser parser = new CsvParser();
+
+		try (FileChannel channel = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+
+			// files larger than a mapped buffer can hold are parsed in windows starting at a line
+			while (position < size) {
+				long length = Math.min(MAX_WINDOW_SIZE, size - position);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int end = (int) length;
+				int lineStart = 0;
+
+				for (int i = 0; i < end; i++) {
+					if (buffer.get(i) == '\n') {
+						parser.parseLine(buffer, lineStart, i);
+						lineStart = i + 1;
+					}
+				}
+
+				if (position + length == size) {
+					if (lineStart < end)
+						parser.parseLine(buffer, lineStart, end);
+					position = size;
+				} else {
+					if (lineStart == 0)
+						throw new IOException("Line at byte " + position + " of " + csv + " is too long");
+					position += lineStart;
+				}
+			}
+		}
+
+		return parser.createTable();
+	}
+
+	private static WayValuesTable readCache(File cache, File csv) {
+		try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < CACHE_HEADER_SIZE || size > Integer.MAX_VALUE)
+				return null;
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != CACHE_MAGIC || buffer.getInt() != CACHE_VERSION
+					|| buffer.getLong() != csv.length() || buffer.getLong() != csv.lastModified())
+				return null;
+
+			int count = buffer.getInt();
+			if (size != CACHE_HEADER_SIZE + count * 12L)
+				return null;
+
+			long[] ids = new long[count];
+			float[] values = new float[count];
+			buffer.asLongBuffer().get(ids);
+			buffer.position(buffer.position() + count * 8);
+			buffer.asFloatBuffer().get(values);
+
+			return new WayValuesTable(ids, values);
+		} catch (IOException ex) {
+			LOGGER.warn("Could not read the cache file " + cache + ": " + ex.getMessage());
+			return null;
+		}
+	}
+
+	private void writeCache(File cache, File csv) throws IOException {
+		if (CACHE_HEADER_SIZE + ids.length * 12L > Integer.MAX_VALUE)
+			return;
+
+		File tmp = new File(cache.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeInt(CACHE_MAGIC);
+			out.writeInt(CACHE_VERSION);
+			out.writeLong(csv.length());
+			out.writeLong(csv.lastModified());
+			out.writeInt(ids.length);
+			for (long id : ids)
+				out.writeLong(id);
+			for (float value : values)
+				out.writeFloat(value);
+		}
+		Files.move(tmp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static class CsvParser {
+		private long[] ids = new long[1024];
+		private float[] values = new float[1024];
+		private int size;
+		private boolean header = true;
+		private byte separator = ',';
+		private boolean sorted = true;
+
+		void parseLine(MappedByteBuffer buffer, int start, int end) {
+			if (end > start && buffer.get(end - 1) == '\r')
+				end--;
+
+			if (header) {
+				header = false;
+				for (int i = start; i < end; i++) {
+					if (buffer.get(i) == ';') {
+						separator = ';';
+						break;
+					}
+				}
+				return;
+			}
+
+			int pos = start;
+			while (pos < end && buffer.get(pos) != separator)
+				pos++;
+			if (pos == start || pos == end)
+				return;
+
+			int idStart = trimStart(buffer, start, pos);
+			int idEnd = trimEnd(buffer, idStart, pos);
+			int valueStart = trimStart(buffer, pos + 1, end);
+			int valueEnd = trimEnd(buffer, valueStart, end);
+			if (idStart == idEnd || valueStart == valueEnd)
+				return;
+
+			add(parseLong(buffer, idStart, idEnd), parseFloat(buffer, valueStart, valueEnd));
+		}
+
+		private void add(long id, float value) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			if (size > 0 && id <= ids[size - 1])
+				sorted = false;
+
+			ids[size] = id;
+			values[size] = value;
+			size++;
+		}
+
+		WayValuesTable createTable() {
+			if (!sorted)
+				sort();
+
+			// keep the last value of duplicate ids, which are adjacent after the stable sort
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if (count > 0 && ids[count - 1] == ids[i]) {
+					values[count - 1] = values[i];
+				} else {
+					ids[count] = ids[i];
+					values[count] = values[i];
+					count++;
+				}
+			}
+
+			return new WayValuesTable(Arrays.copyOf(ids, count), Arrays.copyOf(values, count));
+		}
+
+		/**
+		 * Bottom-up merge sort of both arrays by id, which keeps the order of duplicate ids.
+		 */
+		private void sort() {
+			long[] srcIds = ids;
+			float[] srcValues = values;
+			long[] dstIds = new long[size];
+			float[] dstValues = new float[size];
+
+			for (int width = 1; width < size; width *= 2) {
+				for (int left = 0; left < size; left += 2 * width) {
+					int mid = Math.min(left + width, size);
+					int right = Math.min(left + 2 * width, size);
+					int i = left;
+					int j = mid;
+					for (int k = left; k < right; k++) {
+						if (i < mid && (j >= right || srcIds[i] <= srcIds[j])) {
+							dstIds[k] = srcIds[i];
+							dstValues[k] = srcValues[i++];
+						} else {
+							dstIds[k] = srcIds[j];
+							dstValues[k] = srcValues[j++];
+						}
+					}
+				}
+
+				long[] tmpIds = srcIds;
+				srcIds = dstIds;
+				dstIds = tmpIds;
+				float[] tmpValues = srcValues;
+				srcValues = dstValues;
+				dstValues = tmpValues;
+			}
+
+			ids = srcIds;
+			values = srcValues;
+		}
+
+		private static int trimStart(MappedByteBuffer buffer, int start, int end) {
+			while (start < end && buffer.get(start) <= ' ')
+				start++;
+			return start;
+		}
+
+		private static int trimEnd(MappedByteBuffer buffer, int start, int end) {
+			while (end > start && buffer.get(end - 1) <= ' ')
+				end--;
+			return end;
+		}
+
+		private static long parseLong(MappedByteBuffer buffer, int start, int end) {
+			boolean negative = buffer.get(start) == '-';
+			int pos = negative || buffer.get(start) == '+' ? start + 1 : start;
+			if (pos == end || end - pos > MAX_FAST_DIGITS)
+				return Long.parseLong(toString(buffer, start, end));
+
+			long result = 0;
+			for (; pos < end; pos++) {
+				int digit = buffer.get(pos) - '0';
+				if (digit < 0 || digit > 9)
+					throw new NumberFormatException("For input string: \"" + toString(buffer, start, end) + "\"");
+				result = result * 10 + digit;
+			}
+			return negative ? -result : result;
+		}
+
+		private static float parseFloat(MappedByteBuffer buffer, int start, int end) {
+			boolean negative = buffer.get(start) == '-';
+			int pos = negative || buffer.get(start) == '+' ? start + 1 : start;
+			long mantissa = 0;
+			int digits = 0;
+			int fractionDigits = -1;
+
+			for (; pos < end; pos++) {
+				byte c = buffer.get(pos);
+				if (c == '.' && fractionDigits < 0) {
+					fractionDigits = 0;
+				} else if (c >= '0' && c <= '9' && digits < MAX_FAST_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+					digits++;
+					if (fractionDigits >= 0)
+						fractionDigits++;
+				} else {
+					// exponents, special values and long numbers
+					return (float) Double.parseDouble(toString(buffer, start, end));
+				}
+			}
+
+			if (digits == 0)
+				return (float) Double.parseDouble(toString(buffer, start, end));
+
+			double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+			return (float) (negative ? -value : value);
+		}
+
+		private static String toString(MappedByteBuffer buffer, int start, int end) {
+			byte[] bytes = new byte[end - start];
+			for (int i = start; i < end; i++)
+				bytes[i - start] = buffer.get(i);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
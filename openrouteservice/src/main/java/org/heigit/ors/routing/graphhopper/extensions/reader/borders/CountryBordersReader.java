@@ -14,7 +14,9 @@
 package org.heigit.ors.routing.graphhopper.extensions.reader.borders;
 
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.strtree.STRtree;
 import org.heigit.ors.geojson.GeometryJSON;
 import org.heigit.ors.util.CSVUtility;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
@@ -46,6 +48,7 @@ public class CountryBordersReader {
     private HashMap<String, Integer> isoCodes = new HashMap<>();
 
     private HashMap<Long, CountryBordersHierarchy> hierarchies = new HashMap<>();
+    private volatile STRtree polygonIndex;
 
     private static CountryBordersReader currentInstance = null;
 
@@ -100,6 +103,7 @@ public class CountryBordersReader {
     public void addHierarchy(Long id, CountryBordersHierarchy hierarchy) {
         if(!hierarchies.containsKey(id)) {
             hierarchies.put(id, hierarchy);
+            polygonIndex = null;
         }
     }
 
@@ -266,18 +270,9 @@ public class CountryBordersReader {
      */
     public CountryBordersPolygon[] getCountry(Coordinate c) {
         ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while(it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry)it.next();
-            CountryBordersHierarchy h =  pair.getValue();
-            if(h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for(CountryBordersPolygon cp : ps) {
-                    if(cp.inBbox(c) && cp.inArea(c)) {
-                        countries.add(cp);
-                    }
-                }
+        for(IndexEntry entry : queryIndex(c)) {
+            if(entry.polygon.inArea(c)) {
+                countries.add(entry.polygon);
             }
         }
 
@@ -294,23 +289,65 @@ public class CountryBordersReader {
      * @return      An array of CountryBorderPolygons that the point is within the geometry of.
      */
     public CountryBordersPolygon[] getCandidateCountry(Coordinate c) {
-        ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while(it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry)it.next();
-            CountryBordersHierarchy h =  pair.getValue();
-            if(h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for(CountryBordersPolygon cp : ps) {
-                    if(cp.inBbox(c)) {
-                        countries.add(cp);
+        List<IndexEntry> entries = queryIndex(c);
+        CountryBordersPolygon[] countries = new CountryBordersPolygon[entries.size()];
+        for(int i = 0; i < countries.length; i++) {
+            countries[i] = entries.get(i).polygon;
+        }
+
+        return countries;
+    }
+
+    /**
+     * Look up the polygons whose bounding box, and the bounding box of whose hierarchy, contain the given point. The
+     * polygons are returned in the order of the hierarchies and of the polygons within them.
+     *
+     * @param c     The point to lookup
+     * @return      The index entries of the candidate polygons
+     */
+    private List<IndexEntry> queryIndex(Coordinate c) {
+        ArrayList<IndexEntry> entries = new ArrayList<>();
+        if(Double.isNaN(c.x) || Double.isNaN(c.y))
+            return entries;
+
+        for(Object item : getPolygonIndex().query(new Envelope(c))) {
+            IndexEntry entry = (IndexEntry) item;
+            if(entry.hierarchy.inBbox(c) && entry.polygon.inBbox(c)) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingInt(entry -> entry.order));
+
+        return entries;
+    }
+
+    /**
+     * Get the spatial index over the envelopes of all country polygons, building it on first use. Once built, the
+     * index is only read and so can be queried from several threads.
+     *
+     * @return      The STR-tree of the country polygons
+     */
+    private STRtree getPolygonIndex() {
+        STRtree index = polygonIndex;
+        if(index == null) {
+            synchronized (this) {
+                index = polygonIndex;
+                if(index == null) {
+                    index = new STRtree();
+                    int order = 0;
+                    for(CountryBordersHierarchy h : hierarchies.values()) {
+                        for(CountryBordersPolygon cp : h.getPolygons()) {
+                            double[] bbox = cp.getBBox();
+                            index.insert(new Envelope(bbox[0], bbox[1], bbox[2], bbox[3]), new IndexEntry(order++, h, cp));
+                        }
                     }
+                    index.build();
+                    polygonIndex = index;
                 }
             }
         }
 
-        return countries.toArray(new CountryBordersPolygon[countries.size()]);
+        return index;
     }
 
     /**
@@ -444,6 +481,21 @@ public class CountryBordersReader {
         }
     }
 
+    /**
+     * Entry of the polygon index, ordered like the hierarchies and the polygons within them.
+     */
+    private static class IndexEntry {
+        private final int order;
+        private final CountryBordersHierarchy hierarchy;
+        private final CountryBordersPolygon polygon;
+
+        IndexEntry(int order, CountryBordersHierarchy hierarchy, CountryBordersPolygon polygon) {
+            this.order = order;
+            this.hierarchy = hierarchy;
+            this.polygon = polygon;
+        }
+    }
+
     /**
      * Holder class for storing information about a country read from the ids csv.
      */
@@ -50,6 +50,13 @@ public class GreenIndexGraphStorage implements GraphExtension {
         orsEdges.ensureCapacity(((long) edgeId + 1) * edgeEntryBytes);
     }
 
+    /**
+     * Reads the green level of an edge without a buffer, so that it can be called by several threads at once.
+     */
+    public int getEdgeValue(int edgeId) {
+        return orsEdges.getByte((long) edgeId * edgeEntryBytes + EF_GREENINDEX);
+    }
+
     public int getEdgeValue(int edgeId, byte[] buffer) {
         // TODO this needs further checking when implementing the Weighting classes/functions
         long edgePointer = (long) edgeId * edgeEntryBytes;
@@ -113,6 +113,20 @@ public class HillIndexGraphStorage implements GraphExtension {
 		}
 	}
 
+	/**
+	 * Reads the hill index of an edge without a buffer, so that it can be called by several threads at once.
+	 */
+	public int getEdgeValue(int edgeId, boolean reverse) {
+		long edgePointer = (long) edgeId * edgeEntryBytes;
+
+		if (maxHillIndex <= 15) {
+			int value = orsEdges.getByte(edgePointer + efHillIndex) & 0xFF;
+			return reverse ? (value >> 4) & 0xF : value & 0xF;
+		} else {
+			return orsEdges.getByte(edgePointer + efHillIndex + (reverse ? 1 : 0));
+		}
+	}
+
 	public int getEdgeValue(int edgeId, boolean reverse, byte[] buffer) {
 		long edgePointer = (long) edgeId * edgeEntryBytes;
 
@@ -0,0 +1,215 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import java.util.Arrays;
+
+import com.graphhopper.coll.GHIntIntHashMap;
+import com.graphhopper.util.EdgeIterator;
+
+/**
+ * Primitive counterpart of {@link MultiTreeSPEntry}/{@link MultiTreeSPEntryItem}. Every visited node is assigned
+ * a slot and the per-tree weights, edges, parents and update flags of that node are stored in flat arrays at
+ * {@code slot * numTrees + tree}. Parents are referenced by slot, {@link #NO_SLOT} marks a missing parent.
+ */
+public class MultiTreeSPStore {
+	public static final int NO_SLOT = -1;
+
+	private final int numTrees;
+	private final GHIntIntHashMap nodeToSlot;
+	private int size;
+
+	private int[] adjNodes;
+	private boolean[] visited;
+	private double[] totalWeights;
+
+	private double[] weights;
+	private int[] edges;
+	private int[] parents;
+	private boolean[] updates;
+
+	public MultiTreeSPStore(int numTrees, int initialCapacity) {
+		this.numTrees = numTrees;
+		initialCapacity = Math.max(initialCapacity, 16);
+		nodeToSlot = new GHIntIntHashMap(initialCapacity);
+
+		adjNodes = new int[initialCapacity];
+		visited = new boolean[initialCapacity];
+		totalWeights = new double[initialCapacity];
+
+		int itemsCapacity = initialCapacity * numTrees;
+		weights = new double[itemsCapacity];
+		edges = new int[itemsCapacity];
+		parents = new int[itemsCapacity];
+		updates = new boolean[itemsCapacity];
+	}
+
+	public int getNumTrees() {
+		return numTrees;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		nodeToSlot.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the slot of the given node or {@link #NO_SLOT} if the node has not been visited.
+	 */
+	public int getSlot(int node) {
+		return nodeToSlot.getOrDefault(node, NO_SLOT);
+	}
+
+	/**
+	 * Creates a slot for the node with all trees unreached, i.e. infinite weight, no edge and no parent.
+	 */
+	public int createSlot(int node) {
+		ensureCapacity(size + 1);
+
+		int slot = size++;
+		nodeToSlot.put(node, slot);
+		adjNodes[slot] = node;
+		visited[slot] = false;
+		totalWeights[slot] = 0.0;
+
+		int offset = slot * numTrees;
+		Arrays.fill(weights, offset, offset + numTrees, Double.POSITIVE_INFINITY);
+		Arrays.fill(edges, offset, offset + numTrees, EdgeIterator.NO_EDGE);
+		Arrays.fill(parents, offset, offset + numTrees, NO_SLOT);
+		Arrays.fill(updates, offset, offset + numTrees, false);
+
+		return slot;
+	}
+
+	/**
+	 * Creates a slot for the node reached via the given edge from the parent slot, which corresponds to
+	 * {@link MultiTreeSPEntry#MultiTreeSPEntry(int, int, double, boolean, MultiTreeSPEntry, int)}.
+	 */
+	public int createSlot(int node, int edge, double edgeWeight, boolean updated, int parent) {
+		int slot = createSlot(node);
+		int offset = slot * numTrees;
+		int parentOffset = parent * numTrees;
+		double total = 0.0;
+
+		for (int i = 0; i < numTrees; ++i) {
+			double entryWeight = weights[parentOffset + i];
+			if (entryWeight == Double.POSITIVE_INFINITY)
+				continue;
+
+			double weight = edgeWeight + entryWeight;
+			weights[offset + i] = weight;
+			edges[offset + i] = edge;
+			parents[offset + i] = parent;
+			updates[offset + i] = updated;
+			total += weight;
+		}
+
+		totalWeights[slot] = total;
+
+		return slot;
+	}
+
+	public int getAdjNode(int slot) {
+		return adjNodes[slot];
+	}
+
+	public boolean isVisited(int slot) {
+		return visited[slot];
+	}
+
+	public void setVisited(int slot, boolean value) {
+		visited[slot] = value;
+	}
+
+	public double getTotalWeight(int slot) {
+		return totalWeights[slot];
+	}
+
+	public double getWeight(int slot, int tree) {
+		return weights[slot * numTrees + tree];
+	}
+
+	public void setWeight(int slot, int tree, double weight) {
+		weights[slot * numTrees + tree] = weight;
+	}
+
+	public int getEdge(int slot, int tree) {
+		return edges[slot * numTrees + tree];
+	}
+
+	public int getParent(int slot, int tree) {
+		return parents[slot * numTrees + tree];
+	}
+
+	public boolean isUpdate(int slot, int tree) {
+		return updates[slot * numTrees + tree];
+	}
+
+	public void setUpdate(int slot, int tree, boolean value) {
+		updates[slot * numTrees + tree] = value;
+	}
+
+	public void resetUpdate(int slot, boolean value) {
+		int offset = slot * numTrees;
+		Arrays.fill(updates, offset, offset + numTrees, value);
+	}
+
+	/**
+	 * Sets weight, edge and parent of a tree and flags it as updated.
+	 */
+	public void set(int slot, int tree, double weight, int edge, int parent) {
+		int index = slot * numTrees + tree;
+		weights[index] = weight;
+		edges[index] = edge;
+		parents[index] = parent;
+		updates[index] = true;
+	}
+
+	/**
+	 * Recalculates the sum of all finite tree weights of the slot, which is used as its queue priority.
+	 */
+	public double updateTotalWeight(int slot) {
+		int offset = slot * numTrees;
+		double total = 0.0;
+
+		for (int i = offset; i < offset + numTrees; i++) {
+			if (weights[i] != Double.POSITIVE_INFINITY)
+				total += weights[i];
+		}
+
+		totalWeights[slot] = total;
+
+		return total;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= adjNodes.length)
+			return;
+
+		int newCapacity = Math.max(capacity, adjNodes.length * 2);
+		adjNodes = Arrays.copyOf(adjNodes, newCapacity);
+		visited = Arrays.copyOf(visited, newCapacity);
+		totalWeights = Arrays.copyOf(totalWeights, newCapacity);
+
+		int itemsCapacity = newCapacity * numTrees;
+		weights = Arrays.copyOf(weights, itemsCapacity);
+		edges = Arrays.copyOf(edges, itemsCapacity);
+		parents = Arrays.copyOf(parents, itemsCapacity);
+		updates = Arrays.copyOf(updates, itemsCapacity);
+	}
+}
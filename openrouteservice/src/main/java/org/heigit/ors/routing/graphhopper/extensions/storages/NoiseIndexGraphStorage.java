@@ -54,6 +54,13 @@ public class NoiseIndexGraphStorage implements GraphExtension {
         orsEdges.ensureCapacity(((long) edgeId + 1) * edgeEntryBytes);
     }
 
+    /**
+     * Reads the noise level of an edge without a buffer, so that it can be called by several threads at once.
+     */
+    public int getEdgeValue(int edgeId) {
+        return orsEdges.getByte((long) edgeId * edgeEntryBytes + efNoiseindex);
+    }
+
     public int getEdgeValue(int edgeId, byte[] buffer) {
     	
         long edgePointer = (long) edgeId * edgeEntryBytes;
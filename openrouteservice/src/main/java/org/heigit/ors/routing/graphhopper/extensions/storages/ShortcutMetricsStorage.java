@@ -0,0 +1,130 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.CHProfile;
+import com.graphhopper.storage.DAType;
+import com.graphhopper.storage.DataAccess;
+import com.graphhopper.storage.Directory;
+import com.graphhopper.util.CHEdgeIteratorState;
+
+/**
+ * Stores the unpacked distance and travel time of every shortcut of one CH graph, so that matrix computations do
+ * not need to expand shortcuts recursively. Shortcuts are addressed by their edge id; the travel time is stored for
+ * both unpacking directions. The storage is written once after the CH preparation and memory mapped on load.
+ */
+public class ShortcutMetricsStorage {
+	private static final int ENTRY_BYTES = 12;
+	private static final int EF_DISTANCE = 0;
+	private static final int EF_TIME = 4;
+	private static final int EF_TIME_REVERSE = 8;
+
+	/**
+	 * Calculates the metrics of a shortcut in the orientation given by its base and adjacent node.
+	 */
+	public interface ShortcutMetricsCalculator {
+		/**
+		 * @param result receives the distance in meters at index 0 and the travel time in seconds at index 1
+		 */
+		void calcShortcutMetrics(CHEdgeIteratorState shortcut, double[] result);
+	}
+
+	private final Directory dir;
+	private final String name;
+	private DataAccess shortcuts;
+	private int baseEdges;
+	private int shortcutsCount;
+
+	public ShortcutMetricsStorage(Directory dir, CHProfile chProfile) {
+		this.dir = dir;
+		name = "shortcut_metrics_" + chProfile.toFileName();
+	}
+
+	/**
+	 * Memory maps an existing storage. Returns false if there is none or if it does not match the given CH graph.
+	 */
+	public boolean loadExisting(CHGraph chGraph, int baseEdges) {
+		shortcuts = dir.find(name, DAType.MMAP_RO);
+
+		if (shortcuts.loadExisting() && shortcuts.getHeader(0) == ENTRY_BYTES && shortcuts.getHeader(4) == baseEdges
+				&& baseEdges + shortcuts.getHeader(8) == chGraph.getEdges()) {
+			this.baseEdges = baseEdges;
+			shortcutsCount = shortcuts.getHeader(8);
+			return true;
+		}
+
+		dir.remove(shortcuts);
+		shortcuts = null;
+		return false;
+	}
+
+	public void build(CHGraph chGraph, int baseEdges, ShortcutMetricsCalculator calculator) {
+		this.baseEdges = baseEdges;
+		shortcutsCount = chGraph.getEdges() - baseEdges;
+		shortcuts = dir.find(name);
+		shortcuts.create((long) Math.max(shortcutsCount, 1) * ENTRY_BYTES);
+
+		double[] metrics = new double[2];
+
+		for (int i = 0; i < shortcutsCount; i++) {
+			int edgeId = baseEdges + i;
+			long pointer = (long) i * ENTRY_BYTES;
+
+			CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(edgeId, Integer.MIN_VALUE);
+			int baseNode = edgeState.getBaseNode();
+			int adjNode = edgeState.getAdjNode();
+
+			// the unpacking direction depends on which of both nodes has the higher level
+			calculator.calcShortcutMetrics(chGraph.getEdgeIteratorState(edgeId, adjNode), metrics);
+			boolean reverse = chGraph.getLevel(baseNode) > chGraph.getLevel(adjNode);
+			shortcuts.setInt(pointer + EF_DISTANCE, Float.floatToRawIntBits((float) metrics[0]));
+			shortcuts.setInt(pointer + (reverse ? EF_TIME_REVERSE : EF_TIME), (int) Math.round(metrics[1] * 1000));
+
+			calculator.calcShortcutMetrics(chGraph.getEdgeIteratorState(edgeId, baseNode), metrics);
+			shortcuts.setInt(pointer + (reverse ? EF_TIME : EF_TIME_REVERSE), (int) Math.round(metrics[1] * 1000));
+		}
+	}
+
+	public void flush() {
+		shortcuts.setHeader(0, ENTRY_BYTES);
+		shortcuts.setHeader(4, baseEdges);
+		shortcuts.setHeader(8, shortcutsCount);
+		shortcuts.flush();
+	}
+
+	public void close() {
+		shortcuts.close();
+	}
+
+	public boolean contains(int edgeId) {
+		return edgeId >= baseEdges && edgeId < baseEdges + shortcutsCount;
+	}
+
+	/**
+	 * Returns the unpacked distance of the shortcut in meters.
+	 */
+	public double getDistance(int edgeId) {
+		return Float.intBitsToFloat(shortcuts.getInt((long) (edgeId - baseEdges) * ENTRY_BYTES + EF_DISTANCE));
+	}
+
+	/**
+	 * Returns the unpacked travel time of the shortcut in seconds.
+	 *
+	 * @param reverse true if the shortcut is unpacked from the node with the higher level
+	 */
+	public double getTime(int edgeId, boolean reverse) {
+		return shortcuts.getInt((long) (edgeId - baseEdges) * ENTRY_BYTES + (reverse ? EF_TIME_REVERSE : EF_TIME)) / 1000.0;
+	}
+}
@@ -27,6 +27,8 @@ public class TollwaysGraphStorage implements GraphExtension {
 	protected int edgeEntryBytes;
 	protected int edgesCount; 
 	private byte[] byteValue;
+	private boolean inMemory;
+	private byte[] edgeValues;
 
 	public TollwaysGraphStorage()  {
 		efTollways = nextBlockEntryIndex (1);
@@ -62,6 +64,8 @@ public class TollwaysGraphStorage implements GraphExtension {
 		edges.setHeader(0, edgeEntryBytes);
 		edges.setHeader(4, edgesCount);
 		edges.flush();
+		if (inMemory)
+			loadEdgeValues();
 	}
 
 	public void close() {
@@ -82,9 +86,35 @@ public class TollwaysGraphStorage implements GraphExtension {
 
 		edgeEntryBytes = edges.getHeader(0);
 		edgesCount = edges.getHeader(4);
+		if (inMemory)
+			loadEdgeValues();
 		return true;
 	}
 
+	/**
+	 * Keeps a copy of the edge values in a byte array on the heap, which is filled when the storage is loaded or
+	 * flushed. Reading from the array avoids the segment lookup of the DataAccess on every edge.
+	 */
+	public void setInMemory(boolean inMemory) {
+		this.inMemory = inMemory;
+	}
+
+	private void loadEdgeValues() {
+		long entries = edges.getCapacity() / edgeEntryBytes;
+		byte[] values = new byte[(int) Math.min(entries, Integer.MAX_VALUE)];
+		int chunkEdges = Math.max(1, edges.getSegmentSize() / edgeEntryBytes);
+		byte[] chunk = new byte[chunkEdges * edgeEntryBytes];
+
+		for (int edge = 0; edge < values.length; edge += chunkEdges) {
+			int count = Math.min(chunkEdges, values.length - edge);
+			edges.getBytes((long) edge * edgeEntryBytes, chunk, count * edgeEntryBytes);
+			for (int i = 0; i < count; i++)
+				values[edge + i] = chunk[i * edgeEntryBytes + efTollways];
+		}
+
+		edgeValues = values;
+	}
+
 	void ensureEdgesIndex(int edgeIndex) {
 		edges.ensureCapacity(((long) edgeIndex + 1) * edgeEntryBytes);
 	}
@@ -92,6 +122,7 @@ public class TollwaysGraphStorage implements GraphExtension {
 	public void setEdgeValue(int edgeId, int value) {
 		edgesCount++;
 		ensureEdgesIndex(edgeId);
+		edgeValues = null;
  
 		byteValue[0] = (byte) value;
 
@@ -99,6 +130,10 @@ public class TollwaysGraphStorage implements GraphExtension {
 	}
 
 	public int getEdgeValue(int edgeId) {
+		byte[] values = edgeValues;
+		if (values != null && edgeId < values.length)
+			return values[edgeId] & 0xFF;
+
 		edges.getBytes((long) edgeId * edgeEntryBytes + efTollways, byteValue, 1);
 		
 		return byteValue[0] & 0xFF;
@@ -28,6 +28,8 @@ public class WayCategoryGraphStorage implements GraphExtension {
 	protected int edgesCount; // number of edges with custom values
 
 	private byte[] byteValues;
+	private boolean inMemory;
+	private byte[] edgeValues;
 
 	public WayCategoryGraphStorage() {
 		efWaytype = 0;
@@ -57,6 +59,8 @@ public class WayCategoryGraphStorage implements GraphExtension {
 		orsEdges.setHeader(0, edgeEntryBytes);
 		orsEdges.setHeader(1 * 4, edgesCount);
 		orsEdges.flush();
+		if (inMemory)
+			loadEdgeValues();
 	}
 
 	public void close() {
@@ -77,9 +81,35 @@ public class WayCategoryGraphStorage implements GraphExtension {
 
 		edgeEntryBytes = orsEdges.getHeader(0);
 		edgesCount = orsEdges.getHeader(4);
+		if (inMemory)
+			loadEdgeValues();
 		return true;
 	}
 
+	/**
+	 * Keeps a copy of the edge values in a byte array on the heap, which is filled when the storage is loaded or
+	 * flushed. Reading from the array avoids the segment lookup of the DataAccess on every edge.
+	 */
+	public void setInMemory(boolean inMemory) {
+		this.inMemory = inMemory;
+	}
+
+	private void loadEdgeValues() {
+		long entries = orsEdges.getCapacity() / edgeEntryBytes;
+		byte[] values = new byte[(int) Math.min(entries, Integer.MAX_VALUE)];
+		int chunkEdges = Math.max(1, orsEdges.getSegmentSize() / edgeEntryBytes);
+		byte[] chunk = new byte[chunkEdges * edgeEntryBytes];
+
+		for (int edge = 0; edge < values.length; edge += chunkEdges) {
+			int count = Math.min(chunkEdges, values.length - edge);
+			orsEdges.getBytes((long) edge * edgeEntryBytes, chunk, count * edgeEntryBytes);
+			for (int i = 0; i < count; i++)
+				values[edge + i] = chunk[i * edgeEntryBytes + efWaytype];
+		}
+
+		edgeValues = values;
+	}
+
 	void ensureEdgesIndex(int edgeIndex) {
 		orsEdges.ensureCapacity(((long) edgeIndex + 1) * edgeEntryBytes);
 	}
@@ -87,6 +117,7 @@ public class WayCategoryGraphStorage implements GraphExtension {
 	public void setEdgeValue(int edgeId, int wayType) {
 		edgesCount++;
 		ensureEdgesIndex(edgeId);
+		edgeValues = null;
 
 		// add entry
 		long edgePointer = (long) edgeId * edgeEntryBytes;
@@ -94,7 +125,22 @@ public class WayCategoryGraphStorage implements GraphExtension {
 		orsEdges.setBytes(edgePointer + efWaytype, byteValues, 1);
 	}
 
+	/**
+	 * Reads the value of an edge without a buffer, so that it can be called by several threads at once.
+	 */
+	public int getEdgeValue(int edgeId) {
+		byte[] values = edgeValues;
+		if (values != null && edgeId < values.length)
+			return values[edgeId] & 0xff;
+
+		return orsEdges.getByte((long) edgeId * edgeEntryBytes + efWaytype) & 0xff;
+	}
+
 	public int getEdgeValue(int edgeId, byte[] buffer) {
+		byte[] values = edgeValues;
+		if (values != null && edgeId < values.length)
+			return values[edgeId] & 0xff;
+
 		long edgePointer = (long) edgeId * edgeEntryBytes;
 		orsEdges.getBytes(edgePointer + efWaytype, buffer, 1);
 		
@@ -35,7 +35,7 @@ import java.util.MissingResourceException;
  *
  * @author Adam Rousell
  */
-public class BordersGraphStorageBuilder extends AbstractGraphStorageBuilder {
+public class BordersGraphStorageBuilder extends AbstractGraphStorageBuilder implements ParallelGraphStorageBuilder<String[]> {
     static final Logger LOGGER = Logger.getLogger(BordersGraphStorageBuilder.class.getName());
 
     private static final String PARAM_KEY_BOUNDARIES = "boundaries";
@@ -129,17 +129,36 @@ public class BordersGraphStorageBuilder extends AbstractGraphStorageBuilder {
         // if we don't have the reader object, then we can't do anything
         if (cbReader != null) {
             String[] countries = findBorderCrossing(coords);
-            // If we find that the length of countries is more than one, then it does cross a border
-            if (countries.length > 1 && !countries[0].equals(countries[1])) {
-                way.setTag(TAG_KEY_COUNTRY1, countries[0]);
-                way.setTag(TAG_KEY_COUNTRY2, countries[1]);
-            } else if (countries.length == 1){
-                way.setTag(TAG_KEY_COUNTRY1, countries[0]);
-                way.setTag(TAG_KEY_COUNTRY2, countries[0]);
+            String startVal = getStartCountry(countries);
+            if (startVal != null) {
+                way.setTag(TAG_KEY_COUNTRY1, startVal);
+                way.setTag(TAG_KEY_COUNTRY2, getEndCountry(countries));
             }
         }
     }
 
+    /**
+     * Determine the countries of a way on a worker thread of the way processing pipeline.
+     *
+     * @param coords    Coordinates of the way
+     * @return          The countries found by {@link #findBorderCrossing(Coordinate[])}, or null without a reader
+     */
+    @Override
+    public String[] prepareWay(Coordinate[] coords) {
+        return cbReader != null ? findBorderCrossing(coords) : null;
+    }
+
+    // If we find that the length of countries is more than one, then it does cross a border
+    private static String getStartCountry(String[] countries) {
+        if (countries == null || countries.length == 0 || (countries.length > 1 && countries[0].equals(countries[1])))
+            return null;
+        return countries[0];
+    }
+
+    private static String getEndCountry(String[] countries) {
+        return countries.length > 1 ? countries[1] : countries[0];
+    }
+
      /**
      * Method to process the edge and store it in the graph.<br/><br/>
      * <p>
@@ -151,30 +170,111 @@ public class BordersGraphStorageBuilder extends AbstractGraphStorageBuilder {
      */
      @Override
      public void processEdge(ReaderWay way, EdgeIteratorState edge) {
-         // Make sure we actually have the storage initialised - if there were errors accessing the data then this could be the case
-         if (storage != null) {
-             // If there is no border crossing then we set the edge value to be 0
-
-             // First get the start and end countries - if they are equal, then there is no crossing
-             String startVal = way.getTag(TAG_KEY_COUNTRY1);
-             String endVal = way.getTag(TAG_KEY_COUNTRY2);
-             short type = BordersGraphStorage.NO_BORDER;
-             short start = 0;
-             short end = 0;
-             try {
-                 start = Short.parseShort(cbReader.getId(startVal));
-                 end = Short.parseShort(cbReader.getId(endVal));
-             } catch (Exception ignore) {
-                 // do nothing
-             } finally {
-                 if (start != end) {
-                     type = (cbReader.isOpen(cbReader.getEngName(startVal), cbReader.getEngName(endVal))) ? (short) 2 : (short) 1;
-                 }
-                 storage.setEdgeValue(edge.getEdge(), type, start, end);
-             }
-         }
+         processEdge(way, edge, null);
      }
 
+    /**
+     * Method to process the edge and store it in the graph.<br/><br/>
+     * <p>
+     * In addition to {@link #processEdge(ReaderWay, EdgeIteratorState)}, the countries of the base and adjacent node
+     * of an edge belonging to a way that crosses a border are resolved from the given coordinates, so that the start
+     * and end country stored for the edge are those of the edge itself rather than those of the whole way.
+     *
+     * @param way       The OSM way obtained from the OSM reader. This way corresponds to the edge to be processed
+     * @param edge      The graph edge to be process
+     * @param coords    Coordinates of the base and adjacent node of the edge, may be null
+     */
+    @Override
+    public void processEdge(ReaderWay way, EdgeIteratorState edge, Coordinate[] coords) {
+        setEdgeValue(edge.getEdge(), way.getTag(TAG_KEY_COUNTRY1), way.getTag(TAG_KEY_COUNTRY2), coords);
+    }
+
+    /**
+     * Method to store the edge of a way whose countries were determined by {@link #prepareWay(Coordinate[])}, which
+     * is equivalent to {@link #processEdge(ReaderWay, EdgeIteratorState, Coordinate[])} after the way has been
+     * processed.
+     *
+     * @param countries The countries of the way
+     * @param edge      The id of the graph edge to be processed
+     * @param coords    Coordinates of the base and adjacent node of the edge, may be null
+     */
+    @Override
+    public void processEdge(String[] countries, int edge, Coordinate[] coords) {
+        String startVal = getStartCountry(countries);
+        setEdgeValue(edge, startVal, startVal != null ? getEndCountry(countries) : null, coords);
+    }
+
+    private void setEdgeValue(int edge, String startVal, String endVal, Coordinate[] coords) {
+        // Make sure we actually have the storage initialised - if there were errors accessing the data then this could be the case
+        if (storage != null) {
+            // If there is no border crossing then we set the edge value to be 0
+
+            // First get the start and end countries - if they are equal, then there is no crossing
+            short type = BordersGraphStorage.NO_BORDER;
+            short start = 0;
+            short end = 0;
+            try {
+                start = Short.parseShort(cbReader.getId(startVal));
+                end = Short.parseShort(cbReader.getId(endVal));
+            } catch (Exception ignore) {
+                // do nothing
+            } finally {
+                if (start != end) {
+                    type = (cbReader.isOpen(cbReader.getEngName(startVal), cbReader.getEngName(endVal))) ? (short) 2 : (short) 1;
+
+                    if (coords != null && coords.length == 2) {
+                        short edgeStart = findEdgeCountry(coords[0], startVal, endVal);
+                        short edgeEnd = findEdgeCountry(coords[1], startVal, endVal);
+                        if (edgeStart != 0)
+                            start = edgeStart;
+                        if (edgeEnd != 0)
+                            end = edgeEnd;
+                        // both nodes of the edge lie in the same country, so the edge itself does not cross the border
+                        if (start == end)
+                            type = BordersGraphStorage.NO_BORDER;
+                    }
+                }
+                storage.setEdgeValue(edge, type, start, end);
+            }
+        }
+    }
+
+    /**
+     * Determine which of the two countries crossed by a way the given node of one of its edges lies in. Only the
+     * polygons of these two countries are tested, so the lookup is only performed for the few edges of border
+     * crossing ways.
+     *
+     * @param c         Coordinate of the node
+     * @param country1  Name of the first country crossed by the way
+     * @param country2  Name of the second country crossed by the way
+     * @return          The id of the country the node lies in, or 0 if it cannot be determined
+     */
+    private short findEdgeCountry(Coordinate c, String country1, String country2) {
+        if (c == null || Double.isNaN(c.x) || Double.isNaN(c.y))
+            return 0;
+
+        for (CountryBordersPolygon cbp : cbReader.getCandidateCountry(c)) {
+            String name = cbp.getName();
+            if ((name.equals(country1) || name.equals(country2)) && cbp.inArea(c)) {
+                return parseCountryId(name);
+            }
+        }
+
+        // A node that is in neither country can only be in international territory
+        if (CountryBordersReader.INTERNATIONAL_NAME.equals(country1) || CountryBordersReader.INTERNATIONAL_NAME.equals(country2))
+            return parseCountryId(CountryBordersReader.INTERNATIONAL_NAME);
+
+        return 0;
+    }
+
+    private short parseCountryId(String name) {
+        try {
+            return Short.parseShort(cbReader.getId(name));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     /**
      * Method identifying the name of the extension which is used in various building processes
      *
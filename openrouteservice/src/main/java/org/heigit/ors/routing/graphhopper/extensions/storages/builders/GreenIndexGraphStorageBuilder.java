@@ -17,16 +17,11 @@ import com.graphhopper.GraphHopper;
 import com.graphhopper.reader.ReaderWay;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
-import com.graphhopper.util.Helper;
 import org.apache.log4j.Logger;
+import org.heigit.ors.routing.graphhopper.extensions.reader.WayValuesTable;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphStorage;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Created by lliu on 13/03/2017.
@@ -35,19 +30,18 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
     private static final Logger LOGGER = Logger.getLogger(GreenIndexGraphStorageBuilder.class.getName());
 
     private GreenIndexGraphStorage storage;
-    private Map<Long, Double> greenIndices = new HashMap<>();
+    private WayValuesTable greenIndices;
     private static final int TOTAL_LEVEL = 64;
     private static final int DEFAULT_LEVEL = TOTAL_LEVEL - 1;
-    private Map<Byte, SlotRange> slots = new HashMap<>(TOTAL_LEVEL);
+    private double min;
+    private double step;
 
     @Override
     public GraphExtension init(GraphHopper graphhopper) throws Exception {
         if (storage != null)
             throw new Exception("GraphStorageBuilder has been already initialized.");
 
-        // TODO Check if the _greenIndexFile exists
-        String csvFile = parameters.get("filepath");
-        readGreenIndicesFromCSV(csvFile);
+        readGreenIndicesFromCSV();
         prepareGreenIndexSlots();
         storage = new GreenIndexGraphStorage();
 
@@ -55,50 +49,25 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
     }
 
     private void prepareGreenIndexSlots() {
-        double max = Collections.max(greenIndices.values());
-        double min = Collections.min(greenIndices.values());
-        double step = (max - min) / TOTAL_LEVEL;
+        if (greenIndices.size() == 0) {
+            LOGGER.warn("No green indices found, all edges are assigned the default level");
+            return;
+        }
         // Divide the range of raw green index values into TOTAL_LEVEL,
         // then map the raw value to [0..TOTAL_LEVEL - 1]
-        for (byte i = 0; i < TOTAL_LEVEL; i++) {
-            slots.put(i, new SlotRange(min + i * step, min + (i + 1) * step));
-        }
+        min = greenIndices.getMin();
+        step = (greenIndices.getMax() - min) / TOTAL_LEVEL;
     }
 
-    private void readGreenIndicesFromCSV(String csvFile) throws IOException {
-        try (BufferedReader csvBuffer = new BufferedReader(new FileReader(csvFile))) {
-            String row;
-            // Jump the header line
-            row = csvBuffer.readLine();
-            char separator = row.contains(";") ? ';': ',';
-            String[] rowValues = new String[2];
-            
-            while ((row = csvBuffer.readLine()) != null)  {
-                if (!parseCSVrow(row, separator, rowValues)) 
-                	continue;
-                
-                greenIndices.put(Long.parseLong(rowValues[0]), Double.parseDouble(rowValues[1]));
-            }
+    private void readGreenIndicesFromCSV() throws IOException {
+        try {
+            greenIndices = WayValuesTable.load(parameters);
         } catch (IOException openFileEx) {
             LOGGER.error(openFileEx.getStackTrace());
             throw openFileEx;
         }
     }
 
-    private boolean parseCSVrow(String row, char separator,  String[] rowValues) {
-        if (Helper.isEmpty(row))
-        	return false;
-        
-        int pos = row.indexOf(separator);
-        if (pos > 0) {
-        	rowValues[0] = row.substring(0, pos).trim();
-        	rowValues[1] = row.substring(pos+1, row.length()).trim();
-        	// read, check and push "osm_id" and "ungreen_factor" values
-            return !Helper.isEmpty(rowValues[0]) && !Helper.isEmpty(rowValues[1]);
-        }
-       	return false;
-    }
-
     @Override
     public void processWay(ReaderWay way) {
         // do nothing
@@ -109,36 +78,21 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
         storage.setEdgeValue(edge.getEdge(), calcGreenIndex(way.getId()));
     }
 
-    private class SlotRange {
-        double left = 0.0;
-        double right = 0.0;
-
-        SlotRange(double l, double r) {
-            this.left = l;
-            this.right = r;
-        }
-
-        boolean within(double val) {
-            // check if the @val falls in [left, right] range
-            return (val >= left) && (val <= right);
-        }
-    }
-
-    private byte calcGreenIndex(long id) {
-        Double gi = greenIndices.get(id);
+    byte calcGreenIndex(long id) {
+        float gi = greenIndices.get(id);
 
         // No such @id key in the _greenIndices, or the value of it is null
         // We set its green level to TOTAL_LEVEL/2 indicating the middle value for such cases
         // TODO this DEFAULT_LEVEL should be put in the app.config file and
         // injected back in the code
-        if (gi == null)
+        if (Float.isNaN(gi))
             return (byte) (DEFAULT_LEVEL);
+        if (step == 0)
+            return 0;
 
-        for (Map.Entry<Byte, SlotRange> s : slots.entrySet()) {
-            if (s.getValue().within(gi))
-                return s.getKey();
-        }
-        return (byte) (DEFAULT_LEVEL);
+        // the level of the slot (min + level * step, min + (level + 1) * step], the minimum belongs to the first one
+        int level = (int) Math.ceil((gi - min) / step) - 1;
+        return (byte) Math.max(0, Math.min(level, TOTAL_LEVEL - 1));
     }
 
     @Override
@@ -0,0 +1,44 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * A {@link GraphStorageBuilder} whose work on a way only depends on the geometry of the way. If a profile is imported
+ * with way processing threads, {@link #prepareWay(Coordinate[])} is called on a worker thread while the reader
+ * continues with the following ways, and the result is passed to {@link #processEdge(Object, int, Coordinate[])} for
+ * every edge of the way on the reader thread, in the order in which the ways were read. Otherwise the builder is
+ * called through {@link #processWay} and {@link #processEdge} as any other builder.
+ *
+ * @param <T> The type of the result of a way
+ */
+public interface ParallelGraphStorageBuilder<T> extends GraphStorageBuilder {
+	/**
+	 * Computes the result of a way. It is called concurrently for different ways, so it must neither modify the
+	 * builder nor access the way, whose tags are still changed by the reader.
+	 *
+	 * @param coords	Coordinates of the way
+	 */
+	T prepareWay(Coordinate[] coords);
+
+	/**
+	 * Stores the result of a way for one of its edges.
+	 *
+	 * @param result	The result of {@link #prepareWay(Coordinate[])} for the way of the edge
+	 * @param edge		The id of the edge
+	 * @param coords	Coordinates of the base and adjacent node of the edge, may be null
+	 */
+	void processEdge(T result, int edge, Coordinate[] coords);
+}
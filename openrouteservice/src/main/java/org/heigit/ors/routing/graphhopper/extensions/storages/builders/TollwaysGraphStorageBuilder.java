@@ -41,6 +41,8 @@ public class TollwaysGraphStorageBuilder extends AbstractGraphStorageBuilder
 			throw new Exception("GraphStorageBuilder has been already initialized.");
 
 		storage = new TollwaysGraphStorage();
+		if (parameters != null && parameters.containsKey("in_memory"))
+			storage.setInMemory(Boolean.parseBoolean(parameters.get("in_memory")));
 
 		return storage;
 	}
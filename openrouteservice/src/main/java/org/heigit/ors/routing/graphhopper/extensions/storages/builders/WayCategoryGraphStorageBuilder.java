@@ -40,6 +40,8 @@ public class WayCategoryGraphStorageBuilder extends AbstractGraphStorageBuilder
 			throw new Exception("GraphStorageBuilder has been already initialized.");
 		
 		storage = new WayCategoryGraphStorage();
+		if (parameters != null && parameters.containsKey("in_memory"))
+			storage.setInMemory(Boolean.parseBoolean(parameters.get("in_memory")));
 		
 		return storage;
 	}
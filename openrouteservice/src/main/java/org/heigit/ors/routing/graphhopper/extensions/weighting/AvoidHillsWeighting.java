@@ -28,7 +28,6 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.HillIndexGraphStor
  */
 public class AvoidHillsWeighting extends FastestWeighting {
 	private HillIndexGraphStorage gsHillIndex;
-	private byte[] buffer;
 	private double maxSteepness = -1;
 	                                         //0     1   2    3    4    5    6    7    8    9   10    11   12   13    14    15
 	private static final double[] PENALTY_FACTOR = {1.0, 1.0, 1.1, 1.5, 1.7, 1.8, 2.0, 2.2, 2.4, 2.6, 2.8, 3.2, 3.5, 3.7, 3.9, 4.2};
@@ -36,7 +35,6 @@ public class AvoidHillsWeighting extends FastestWeighting {
 
     public AvoidHillsWeighting(FlagEncoder encoder, PMap map, GraphStorage graphStorage) {
         super(encoder, map);
-        buffer = new byte[1];
         this.maxSteepness = map.getDouble("steepness_maximum", -1);
         gsHillIndex = GraphStorageUtils.getGraphExtension(graphStorage, HillIndexGraphStorage.class);
     }
@@ -45,7 +43,7 @@ public class AvoidHillsWeighting extends FastestWeighting {
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
     	if (gsHillIndex != null) {
     		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
-    		int hillIndex = gsHillIndex.getEdgeValue(edgeState.getEdge(), revert, buffer);
+    		int hillIndex = gsHillIndex.getEdgeValue(edgeState.getEdge(), revert);
 
     		if (maxSteepness > 0 && hillIndex > maxSteepness)
     			return 100;
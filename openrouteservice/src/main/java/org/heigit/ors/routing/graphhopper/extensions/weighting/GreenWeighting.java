@@ -27,7 +27,6 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphSto
  */
 public class GreenWeighting extends FastestWeighting {
     private GreenIndexGraphStorage gsGreenIndex;
-    private byte[] buffer = new byte[1];
     private double[] factors = new double[TOTAL_LEVEL];
 
     private static final int TOTAL_LEVEL = 64;
@@ -58,7 +57,7 @@ public class GreenWeighting extends FastestWeighting {
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
         if (gsGreenIndex != null) {
-            int greenLevel = gsGreenIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+            int greenLevel = gsGreenIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState));
             return factors[greenLevel];
         }
 
@@ -24,12 +24,10 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.NoiseIndexGraphSto
 
 public class QuietWeighting extends FastestWeighting {
     private NoiseIndexGraphStorage gsNoiseIndex;
-    private byte[] buffer;
     private double weightingFactor = 1;
 
     public QuietWeighting(FlagEncoder encoder, PMap map, GraphStorage graphStorage) {
         super(encoder, map);
-        buffer = new byte[1];
         gsNoiseIndex = GraphStorageUtils.getGraphExtension(graphStorage, NoiseIndexGraphStorage.class);
         weightingFactor = map.getDouble("factor", 1);
     }
@@ -50,7 +48,7 @@ public class QuietWeighting extends FastestWeighting {
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
         if (gsNoiseIndex != null) {
-            int noiseLevel = gsNoiseIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+            int noiseLevel = gsNoiseIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState));
             return calcNoiseWeightFactor(noiseLevel);
         }
 
@@ -25,7 +25,6 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.HillIndexGraphStor
 public class SteepnessDifficultyWeighting extends FastestWeighting {
     
 	private HillIndexGraphStorage gsHillIndex;
-	private byte[] buffer;
 	private double[] difficultyWeights;
 	private static final double[][] BIKE_DIFFICULTY_MATRIX;
 
@@ -161,7 +160,6 @@ public class SteepnessDifficultyWeighting extends FastestWeighting {
 
     public SteepnessDifficultyWeighting(FlagEncoder encoder, PMap map, GraphStorage graphStorage) {
         super(encoder, map);
-        buffer = new byte[1];
 	    int difficultyLevel = map.getInt("level", -1);
         gsHillIndex = GraphStorageUtils.getGraphExtension(graphStorage, HillIndexGraphStorage.class);
         if (gsHillIndex != null && difficultyLevel >= 0) {
@@ -173,7 +171,7 @@ public class SteepnessDifficultyWeighting extends FastestWeighting {
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId ) {
     	if (gsHillIndex != null) {
     		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
-    		int hillIndex = gsHillIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), revert, buffer);
+    		int hillIndex = gsHillIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), revert);
 
     		if (difficultyWeights != null)
     			return difficultyWeights[hillIndex];
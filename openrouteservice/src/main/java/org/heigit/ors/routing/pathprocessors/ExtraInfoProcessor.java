@@ -14,6 +14,7 @@
 package org.heigit.ors.routing.pathprocessors;
 
 import com.graphhopper.routing.EdgeIteratorStateHelper;
+import com.graphhopper.routing.VirtualEdgeIteratorState;
 import com.graphhopper.routing.util.AbstractFlagEncoder;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.util.PathProcessor;
@@ -364,22 +365,22 @@ public class ExtraInfoProcessor implements PathProcessor {
 	public void processPathEdge(EdgeIteratorState edge, PointList geom) {
 		double dist = edge.getDistance();
 
-		// TODO Add extra info for crossed countries
-		if (extCountryTraversalInfo != null && countryBordersReader != null) {
-			short country1 = extCountryTraversalInfo.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edge), BordersGraphStorage.Property.START);
-			short country2 = extCountryTraversalInfo.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edge), BordersGraphStorage.Property.END);
-			// This check will correct the countries of an edge if the starting coordinate of the route lies in a different country than the start of the edge.
-			if (country1 != country2 && geom.getSize() > 0) {
-				Coordinate coordinate = new Coordinate();
-				coordinate.x = geom.getLon(0);
-				coordinate.y = geom.getLat(0);
-				CountryBordersPolygon[] countries = countryBordersReader.getCountry(coordinate);
+		if (extCountryTraversalInfo != null) {
+			// The countries of both nodes of an edge are resolved at import, so the country of the first point of the
+			// traversed geometry is the stored start or end country, depending on the direction of travel
+			int originalEdge = EdgeIteratorStateHelper.getOriginalEdge(edge);
+			short country = extCountryTraversalInfo.getEdgeValue(originalEdge, edge.get(EdgeIteratorState.REVERSE_STATE) ? BordersGraphStorage.Property.END : BordersGraphStorage.Property.START);
+			// A virtual edge created for the start or end of the route may begin somewhere along a crossing edge, so its
+			// first point can lie in the other country than the node the stored value refers to
+			if (edge instanceof VirtualEdgeIteratorState && countryBordersReader != null && geom.getSize() > 0
+					&& extCountryTraversalInfo.getEdgeValue(originalEdge, BordersGraphStorage.Property.TYPE) != BordersGraphStorage.NO_BORDER) {
+				CountryBordersPolygon[] countries = countryBordersReader.getCountry(new Coordinate(geom.getLon(0), geom.getLat(0)));
 				if (countries.length >= 1) {
-					country1 = Short.parseShort(countryBordersReader.getId(countryBordersReader.getCountry(coordinate)[0].getName()));
+					country = Short.parseShort(countryBordersReader.getId(countries[0].getName()));
 				}
 			}
-			if (countryTraversalInfoBuilder != null && country1 != 0) {
-				countryTraversalInfoBuilder.addSegment(country1, country1, geom, dist);
+			if (countryTraversalInfoBuilder != null && country != 0) {
+				countryTraversalInfoBuilder.addSegment(country, country, geom, dist);
 			}
 		}
 
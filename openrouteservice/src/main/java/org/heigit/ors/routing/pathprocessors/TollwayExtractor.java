@@ -24,12 +24,17 @@ public class TollwayExtractor {
 	private VehicleParameters vehicleParams;
 	private int profileType;
 	private TollwaysGraphStorage storage;
+	// whether a stored tollway value is a toll for the configured vehicle, indexed by the value
+	private final byte[] tollValues = new byte[256];
 
 	public TollwayExtractor(TollwaysGraphStorage storage, int profileType, ProfileParameters vehicleParams) {
 		this.storage = storage;
 		this.profileType = profileType;
 		if (vehicleParams instanceof VehicleParameters)
 			this.vehicleParams = (VehicleParameters) vehicleParams;
+
+		for (int value = 0; value < tollValues.length; value++)
+			tollValues[value] = (byte) calcValue(value);
 	}
 	/**
 	 * return if a way is a tollway for the configured vehicle.
@@ -38,8 +43,10 @@ public class TollwayExtractor {
 	 * @see HeavyVehicleAttributes
 	 */
 	public int getValue(int edgeId) {
-		int value = storage.getEdgeValue(edgeId);
+		return tollValues[storage.getEdgeValue(edgeId)];
+	}
 
+	private int calcValue(int value) {
 		switch (value) {
 			// toll=no
 			case TollwayType.NONE:
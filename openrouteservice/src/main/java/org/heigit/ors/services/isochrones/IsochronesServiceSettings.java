@@ -35,6 +35,11 @@ public class IsochronesServiceSettings {
 	private static Map<Integer, Integer> profileMaxRangeTimes;
 	private static int maximumIntervals = 1;
 	private static boolean allowComputeArea = true;
+	private static int threads = 1;
+	private static int maximumThreadsPerRequest = 2;
+	private static boolean incrementalConcaveHull = false;
+	private static String calcMethod = "concaveballs";
+	private static Map<Integer, String> profileCalcMethods;
 	private static Map<String, StatisticsProviderConfiguration> statsProviders;
 	private static String attribution = "";
 
@@ -79,6 +84,24 @@ public class IsochronesServiceSettings {
 		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "allow_compute_area");
 		if (value != null)
 			allowComputeArea = Boolean.parseBoolean(value);
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "threads");
+		if (value != null)
+			threads = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "maximum_threads_per_request");
+		if (value != null)
+			maximumThreadsPerRequest = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "incremental_concave_hull");
+		if (value != null)
+			incrementalConcaveHull = Boolean.parseBoolean(value);
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "calc_method");
+		if (value != null)
+			calcMethod = value;
+		else {
+			List<? extends ConfigObject> params = AppConfig.getGlobal().getObjectList(SERVICE_NAME_ISOCHRONES, "calc_method");
+			profileCalcMethods = getStringParameters(params);
+			if (profileCalcMethods.containsKey(-1))
+				calcMethod = profileCalcMethods.get(-1);
+		}
 
 		statsProviders = new HashMap<>();
 
@@ -135,6 +158,24 @@ public class IsochronesServiceSettings {
 		return result;
 	}
 
+	private static Map<Integer, String> getStringParameters(List<? extends ConfigObject> params) {
+		Map<Integer, String> result = new HashMap<>();
+
+		for(ConfigObject cfgObj : params) {
+			if (cfgObj.containsKey("profiles") && cfgObj.containsKey("value")) {
+				String[] profiles = cfgObj.toConfig().getString("profiles").split(",");
+				for (String profileStr : profiles) {
+					profileStr = profileStr.trim();
+					Integer profile = ("any".equalsIgnoreCase(profileStr)) ? -1 : RoutingProfileType.getFromString(profileStr);
+					if (profile != RoutingProfileType.UNKNOWN)
+						result.put(profile, cfgObj.toConfig().getString("value"));
+				}
+			}
+		}
+
+		return result;
+	}
+
 	public static boolean getEnabled() {
 		return enabled;
 	}
@@ -164,6 +205,27 @@ public class IsochronesServiceSettings {
 		return res;
 	}
 
+	public static int getThreads() {
+		return threads;
+	}
+
+	public static int getMaximumThreadsPerRequest() {
+		return maximumThreadsPerRequest;
+	}
+
+	public static boolean getIncrementalConcaveHull() {
+		return incrementalConcaveHull;
+	}
+
+	/**
+	 * Returns the isochrone calculation method used for the profile if the request does not specify one.
+	 */
+	public static String getCalcMethod(int profileType) {
+		if (profileCalcMethods != null && profileCalcMethods.containsKey(profileType))
+			return profileCalcMethods.get(profileType);
+		return calcMethod;
+	}
+
 	public static int getMaximumIntervals()	{
 		return maximumIntervals;
 	}
@@ -23,8 +23,14 @@ public class MatrixServiceSettings {
 	private static boolean allowResolveLocations = true;
 	private static String attribution = "";
 	private static boolean enabled = true;
+	private static String rphastEngine = "indexed";
+	private static int rphastThreads = 1;
+	private static int rphastBlockSize = 64;
+	private static int dijkstraThreads = 1;
+	private static int shortcutCacheSize = 100000;
 
 	public static final String PARAM_MATRIX = "matrix";
+	public static final String RPHAST_ENGINE_LEGACY = "legacy";
 
 	static  {
 		String value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "enabled");
@@ -48,6 +54,21 @@ public class MatrixServiceSettings {
 		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "attribution");
 		if (value != null)
 			attribution = value;
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "rphast_engine");
+		if (value != null)
+			rphastEngine = value;
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "rphast_threads");
+		if (value != null)
+			rphastThreads = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "rphast_block_size");
+		if (value != null)
+			rphastBlockSize = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "dijkstra_threads");
+		if (value != null)
+			dijkstraThreads = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "shortcut_cache_size");
+		if (value != null)
+			shortcutCacheSize = Math.max(0, Integer.parseInt(value));
 	}
 
 	private MatrixServiceSettings() {}
@@ -75,4 +96,24 @@ public class MatrixServiceSettings {
 	public static String getAttribution() {
 		return attribution;
 	}
+
+	public static String getRPHASTEngine() {
+		return rphastEngine;
+	}
+
+	public static int getRPHASTThreads() {
+		return rphastThreads;
+	}
+
+	public static int getRPHASTBlockSize() {
+		return rphastBlockSize;
+	}
+
+	public static int getDijkstraThreads() {
+		return dijkstraThreads;
+	}
+
+	public static int getShortcutCacheSize() {
+		return shortcutCacheSize;
+	}
 }
@@ -20,6 +20,7 @@ import org.heigit.ors.common.StatusCode;
 import org.heigit.ors.config.AppConfig;
 import org.heigit.ors.exceptions.ParameterOutOfRangeException;
 import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.io.JsonMatrixTableWriter;
 import org.heigit.ors.matrix.*;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingProfileType;
@@ -31,9 +32,11 @@ import org.heigit.ors.util.DistanceUnitUtil;
 import org.heigit.ors.util.FormatUtility;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.Writer;
 
 public class JsonMatrixRequestProcessor extends AbstractHttpRequestProcessor {
 	public JsonMatrixRequestProcessor(HttpServletRequest request) throws Exception {
@@ -66,18 +69,29 @@ public class JsonMatrixRequestProcessor extends AbstractHttpRequestProcessor {
 	}
 	
 	private void writeResponse(HttpServletResponse response, MatrixRequest request, MatrixResult mtxResult) throws Exception {
-		JSONObject jResp = new JSONObject(true);
-		
-		if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.DISTANCE))
-			jResp.put("distances", createTable(mtxResult.getTable(MatrixMetricsType.DISTANCE), request.getSources().length, request.getDestinations().length));
-		if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.DURATION))
-			jResp.put("durations", createTable(mtxResult.getTable(MatrixMetricsType.DURATION), request.getSources().length, request.getDestinations().length));
-		if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.WEIGHT))
-			jResp.put("weights", createTable(mtxResult.getTable(MatrixMetricsType.WEIGHT), request.getSources().length, request.getDestinations().length));
-
-		jResp.put("destinations", createLocations(mtxResult.getDestinations(), request.getResolveLocations()));
-		jResp.put("sources", createLocations(mtxResult.getSources(), request.getResolveLocations()));
-		
+		int rows = request.getSources().length;
+		int clms = request.getDestinations().length;
+
+		try (Writer out = ServletUtility.createWriter(response, "application/json", ServletUtility.KEY_UTF_8, StatusCode.OK)) {
+			JSONWriter jWriter = new JSONWriter(out);
+			jWriter.object();
+
+			if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.DISTANCE))
+				writeTable(jWriter, "distances", mtxResult.getTable(MatrixMetricsType.DISTANCE), rows, clms);
+			if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.DURATION))
+				writeTable(jWriter, "durations", mtxResult.getTable(MatrixMetricsType.DURATION), rows, clms);
+			if (MatrixMetricsType.isSet(request.getMetrics(), MatrixMetricsType.WEIGHT))
+				writeTable(jWriter, "weights", mtxResult.getTable(MatrixMetricsType.WEIGHT), rows, clms);
+
+			jWriter.key("destinations").value(createLocations(mtxResult.getDestinations(), request.getResolveLocations()));
+			jWriter.key("sources").value(createLocations(mtxResult.getSources(), request.getResolveLocations()));
+			jWriter.key("info").value(createInfo(request));
+
+			jWriter.endObject();
+		}
+	}
+
+	private JSONObject createInfo(MatrixRequest request) {
 		JSONObject jInfo = new JSONObject(true);
 		jInfo.put("service", "matrix");
 		jInfo.put("engine", AppInfo.getEngineInfo());
@@ -104,9 +118,13 @@ public class JsonMatrixRequestProcessor extends AbstractHttpRequestProcessor {
 			jQuery.put("id", request.getId());
 
 		jInfo.put("query", jQuery);
-		jResp.put("info", jInfo);
-		
-		ServletUtility.write(response, jResp);
+
+		return jInfo;
+	}
+
+	private void writeTable(JSONWriter jWriter, String name, float[] values, int rows, int clms) {
+		jWriter.key(name);
+		JsonMatrixTableWriter.write(jWriter, values, rows, clms);
 	}
 	
 	private JSONArray createLocations(ResolvedLocation[] locations, boolean includeLocationNames)
@@ -139,31 +157,4 @@ public class JsonMatrixRequestProcessor extends AbstractHttpRequestProcessor {
 		
 		return jLocations;
 	}
-	
-	private JSONArray createTable(float[] values, int rows, int clms)
-	{
-		JSONArray jMatrix = new JSONArray(rows);
-		
-		int rowOffset = 0;
-		float value = 0;
-		
-		for (int i = 0; i < rows; ++i)
-		{
-			JSONArray jRow = new JSONArray(clms);
-			rowOffset = i*clms;
-			
-			for (int j = 0; j < clms; ++j)
-			{
-				value = values[rowOffset + j];
-				if (value == -1)
-					jRow.put(JSONObject.NULL);
-				else
-					jRow.put(FormatUtility.roundToDecimals(value, 2));
-			}
-
-			jMatrix.put(jRow);
-		}
-
-		return jMatrix;
-	}
 }
@@ -15,6 +15,7 @@ package org.heigit.ors.services.routing.requestprocessors;
 
 import com.graphhopper.util.Helper;
 
+import org.heigit.ors.common.StatusCode;
 import org.heigit.ors.exceptions.EmptyElementException;
 
 
@@ -23,7 +24,8 @@ import org.heigit.ors.routing.RouteResult;
 import org.heigit.ors.routing.RoutingErrorCodes;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingRequest;
-import org.heigit.ors.globalresponseprocessor.GlobalResponseProcessor;
+import org.heigit.ors.globalresponseprocessor.geojson.GeoJsonResponseWriter;
+import org.heigit.ors.globalresponseprocessor.gpx.GpxResponseWriter;
 import org.heigit.ors.services.routing.requestprocessors.json.JsonRoutingResponseWriter;
 import org.heigit.ors.servlet.http.AbstractHttpRequestProcessor;
 import org.heigit.ors.servlet.util.ServletUtility;
@@ -33,6 +35,7 @@ import org.json.JSONObject;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.Writer;
 
 /**
  * This class Processes a {@link HttpServletResponse} to the desired route output.
@@ -71,8 +74,6 @@ public class RoutingRequestProcessor extends AbstractHttpRequestProcessor {
         // Get the routing Request to send it to the calculation function
         RoutingRequest rreq = RoutingRequestParser.parseFromRequestParams(request);
         JSONObject json = null;
-        JSONObject geojson = null;
-        String gpx;
         String respFormat = request.getParameter(KEY_FORMAT);
         rreq.setResponseFormat(respFormat);
         String geometryFormat = rreq.getGeometryFormat();
@@ -89,11 +90,10 @@ public class RoutingRequestProcessor extends AbstractHttpRequestProcessor {
                 rreq.setGeometryFormat(KEY_GEOJSON);
             }
             RouteResult[] result = RoutingProfileManager.getInstance().computeRoute(rreq);
-            geojson = new GlobalResponseProcessor(rreq, result).toGeoJson();
-            if (geojson != null) {
-                ServletUtility.write(response, geojson, "UTF-8");
-            } else {
+            if (result.length == 0)
                 throw new EmptyElementException(RoutingErrorCodes.EMPTY_ELEMENT, "GeoJSON was empty and therefore could not be exported.");
+            try (Writer out = ServletUtility.createWriter(response, "application/json", ServletUtility.KEY_UTF_8, StatusCode.OK)) {
+                GeoJsonResponseWriter.write(rreq, result, out);
             }
 
 
@@ -104,11 +104,10 @@ public class RoutingRequestProcessor extends AbstractHttpRequestProcessor {
                 rreq.setGeometryFormat(KEY_GEOJSON);
             }
             RouteResult[] result = RoutingProfileManager.getInstance().computeRoute(rreq);
-            gpx = new GlobalResponseProcessor(rreq, result).toGPX();
-            if (gpx != null) {
-                ServletUtility.write(response, gpx);
-            } else {
+            if (result.length == 0)
                 throw new EmptyElementException(RoutingErrorCodes.EMPTY_ELEMENT, "GPX was empty and therefore could not be created.");
+            try (Writer out = ServletUtility.createWriter(response, "application/xml", ServletUtility.KEY_UTF_8, StatusCode.OK)) {
+                GpxResponseWriter.write(rreq, result, out);
             }
         } else {
             throw new ParameterValueException(2003, KEY_FORMAT, request.getParameter(KEY_FORMAT).toLowerCase());
@@ -46,9 +46,17 @@ public class JsonRoutingResponseWriter {
 	private JsonRoutingResponseWriter() {}
 
 	public static JSONObject toJson(RoutingRequest request, RouteResult[] routeResult) throws StatusCodeException {
+		return toJson(request, routeResult, true);
+	}
+
+	/**
+	 * Creates the JSON response of the routes. If {@code writeGeometry} is false, the geometries are left out of the
+	 * routes for writers that serialize them on their own, everything else is the same.
+	 */
+	public static JSONObject toJson(RoutingRequest request, RouteResult[] routeResult, boolean writeGeometry) throws StatusCodeException {
 		JSONObject jResp = new JSONObject(true, 1);
 		BBox bbox = new BBox(0, 0, 0, 0);
-		JSONArray jRoutes = toJsonArray(request, routeResult, bbox);
+		JSONArray jRoutes = toJsonArray(request, routeResult, bbox, writeGeometry);
 		jResp.put("routes", jRoutes);
 
 
@@ -109,6 +117,10 @@ public class JsonRoutingResponseWriter {
 	}
 
 	public static JSONArray toJsonArray(RoutingRequest request, RouteResult[] routeResult, BBox bbox) throws StatusCodeException {
+		return toJsonArray(request, routeResult, bbox, true);
+	}
+
+	public static JSONArray toJsonArray(RoutingRequest request, RouteResult[] routeResult, BBox bbox, boolean writeGeometry) throws StatusCodeException {
 		StringBuilder buffer = new StringBuilder();
 		// *************** routes ***************
 
@@ -155,10 +167,12 @@ public class JsonRoutingResponseWriter {
 			jRoute.put("summary", jSummary);
 
 			if (request.getIncludeGeometry()) {
-				if (request.getGeometryFormat() != null)
-					jRoute.put("geometry_format", request.getGeometryFormat());
+				if (writeGeometry) {
+					if (request.getGeometryFormat() != null)
+						jRoute.put("geometry_format", request.getGeometryFormat());
 
-				jRoute.put("geometry", getGeometry(route.getGeometry(), request.getIncludeElevation(), request.getGeometryFormat(), buffer));
+					jRoute.put("geometry", getGeometry(route.getGeometry(), request.getIncludeElevation(), request.getGeometryFormat(), buffer));
+				}
 
 				if (request.getIncludeInstructions() && !route.getSegments().isEmpty()) {
 					int nSegments = route.getSegments().size();
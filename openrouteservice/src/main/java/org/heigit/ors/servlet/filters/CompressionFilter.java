@@ -14,6 +14,12 @@
 package org.heigit.ors.servlet.filters;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -24,29 +30,142 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.log4j.Logger;
+import org.meteogroup.jbrotli.Brotli;
+import org.meteogroup.jbrotli.io.BrotliOutputStream;
+import org.meteogroup.jbrotli.libloader.BrotliLibraryLoader;
+
+/**
+ * Compresses responses with the first encoding of the configured {@code encodings} that is accepted by the client.
+ * Responses smaller than {@code min_size} bytes are sent uncompressed. The init parameters {@code compression_level}
+ * (gzip and deflate, 1-9) and {@code brotli_quality} (0-11) trade compression ratio for speed.
+ */
 public class CompressionFilter implements Filter {
+	private static final Logger LOGGER = Logger.getLogger(CompressionFilter.class.getName());
+
+	private static final String PARAM_ENCODINGS = "encodings";
+	private static final String PARAM_MIN_SIZE = "min_size";
+	private static final String PARAM_COMPRESSION_LEVEL = "compression_level";
+	private static final String PARAM_BROTLI_QUALITY = "brotli_quality";
+	private static final int BUFFER_SIZE = 8192;
+	private static final int BROTLI_WINDOW_BITS = 22;
+	private static final int BROTLI_BLOCK_BITS = 0; // chosen by the encoder
+
+	private String[] encodings = { ContentEncodingType.BROTLI, ContentEncodingType.GZIP, ContentEncodingType.DEFLATE };
+	private int minSize = 1024;
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+	private Brotli.Parameter brotliParameter;
+
 	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
 		if (req instanceof HttpServletRequest) {
 			HttpServletRequest request = (HttpServletRequest) req;
 			HttpServletResponse response = (HttpServletResponse) res;
-			String acceptEncoding = request.getHeader("accept-encoding");
-			
-			if (acceptEncoding != null) {
-				if(acceptEncoding.indexOf(ContentEncodingType.GZIP) != -1) {
-					GZIPResponseWrapper wrappedResponse = new GZIPResponseWrapper(response);
-					chain.doFilter(req, wrappedResponse);
-					wrappedResponse.finishResponse();
-					return;
-				} else if (acceptEncoding.indexOf(ContentEncodingType.DEFLATE) != -1) {
-                   // not implemented
-				}
+			String encoding = selectEncoding(request.getHeader("accept-encoding"));
+
+			if (encoding != null) {
+				CompressionResponseWrapper wrappedResponse = new CompressionResponseWrapper(response, this, encoding);
+				chain.doFilter(req, wrappedResponse);
+				wrappedResponse.finishResponse();
+				return;
 			}
 			chain.doFilter(req, res);
 		}
 	}
 
+	/**
+	 * Returns the first configured encoding which is listed in the Accept-Encoding header without a quality of 0, or
+	 * null if the response should not be compressed.
+	 */
+	String selectEncoding(String acceptEncoding) {
+		if (acceptEncoding == null)
+			return null;
+
+		String[] accepted = acceptEncoding.toLowerCase(Locale.ROOT).split(",");
+		for (String encoding : encodings) {
+			for (String value : accepted) {
+				String[] parts = value.split(";");
+				if (parts[0].trim().equals(encoding) && !isZeroQuality(parts))
+					return encoding;
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean isZeroQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String param = parts[i].trim();
+			if (param.startsWith("q=")) {
+				try {
+					return Double.parseDouble(param.substring(2)) == 0;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	OutputStream createCompressedStream(String encoding, OutputStream out) throws IOException {
+		switch (encoding) {
+			case ContentEncodingType.BROTLI:
+				return new BrotliOutputStream(out, brotliParameter);
+			case ContentEncodingType.DEFLATE:
+				return new DeflaterOutputStream(out, new Deflater(compressionLevel), BUFFER_SIZE, true) {
+					@Override
+					public void close() throws IOException {
+						super.close();
+						def.end();
+					}
+				};
+			default:
+				return new GZIPOutputStream(out, BUFFER_SIZE, true) {
+					{
+						def.setLevel(compressionLevel);
+					}
+				};
+		}
+	}
+
+	int getMinSize() {
+		return minSize;
+	}
+
 	public void init(FilterConfig filterConfig) {
-		// nothing to do
+		String value = filterConfig.getInitParameter(PARAM_MIN_SIZE);
+		if (value != null)
+			minSize = Math.max(0, Integer.parseInt(value.trim()));
+
+		value = filterConfig.getInitParameter(PARAM_COMPRESSION_LEVEL);
+		if (value != null)
+			compressionLevel = Integer.parseInt(value.trim());
+
+		int brotliQuality = 5;
+		value = filterConfig.getInitParameter(PARAM_BROTLI_QUALITY);
+		if (value != null)
+			brotliQuality = Integer.parseInt(value.trim());
+
+		value = filterConfig.getInitParameter(PARAM_ENCODINGS);
+		if (value != null)
+			encodings = value.toLowerCase(Locale.ROOT).replace(" ", "").split(",");
+
+		for (String encoding : encodings) {
+			if (ContentEncodingType.BROTLI.equals(encoding)) {
+				try {
+					BrotliLibraryLoader.loadBrotli();
+					brotliParameter = new Brotli.Parameter(Brotli.Mode.TEXT, brotliQuality, BROTLI_WINDOW_BITS, BROTLI_BLOCK_BITS);
+				} catch (Throwable e) { // NOSONAR the native library is not available for every platform
+					LOGGER.warn("Brotli compression is disabled, the native library could not be loaded: " + e.getMessage());
+					encodings = removeEncoding(encodings, ContentEncodingType.BROTLI);
+				}
+				break;
+			}
+		}
+	}
+
+	private static String[] removeEncoding(String[] encodings, String encoding) {
+		return Arrays.stream(encodings).filter(e -> !e.equals(encoding)).toArray(String[]::new);
 	}
 
 	public void destroy() {
@@ -0,0 +1,128 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.servlet.filters;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Output stream of a {@link CompressionResponseWrapper}. The first bytes of the response are kept until the minimum
+ * size of the {@link CompressionFilter} is reached; from then on everything is compressed straight to the output
+ * stream of the response. Responses which are closed before reaching the minimum size are sent uncompressed.
+ */
+class CompressionResponseStream extends ServletOutputStream {
+	private final HttpServletResponse servletResponse;
+	private final CompressionFilter filter;
+	private final String encoding;
+	private final byte[] buffer;
+	private int count = 0;
+	private OutputStream compressedStream = null;
+	private boolean closed = false;
+
+	public CompressionResponseStream(HttpServletResponse response, CompressionFilter filter, String encoding) {
+		super();
+
+		this.servletResponse = response;
+		this.filter = filter;
+		this.encoding = encoding;
+		this.buffer = new byte[filter.getMinSize()];
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			throw new IOException("This output stream has already been closed");
+
+		closed = true;
+
+		if (compressedStream != null) {
+			compressedStream.close();
+		} else {
+			servletResponse.setContentLength(count);
+			ServletOutputStream servletOutputStream = servletResponse.getOutputStream();
+			servletOutputStream.write(buffer, 0, count);
+			servletOutputStream.close();
+		}
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed)
+			throw new IOException("Cannot flush a closed output stream");
+
+		// as long as it is not known whether the response will be compressed, there is nothing to flush
+		if (compressedStream != null)
+			compressedStream.flush();
+	}
+
+	public void write(int b) throws IOException {
+		if (closed)
+			throw new IOException("Cannot write to a closed output stream");
+
+		if (compressedStream == null && count < buffer.length)
+			buffer[count++] = (byte) b;
+		else
+			startCompression().write(b);
+	}
+
+	@Override
+	public void write(byte[] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed)
+			throw new IOException("Cannot write to a closed output stream");
+
+		if (compressedStream == null && count + len <= buffer.length) {
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		} else {
+			startCompression().write(b, off, len);
+		}
+	}
+
+	private OutputStream startCompression() throws IOException {
+		if (compressedStream == null) {
+			servletResponse.addHeader("Content-Encoding", encoding);
+			compressedStream = filter.createCompressedStream(encoding, servletResponse.getOutputStream());
+			compressedStream.write(buffer, 0, count);
+		}
+
+		return compressedStream;
+	}
+
+	public void reset() {
+		// nothing to do
+	}
+
+	@Override
+	public boolean isReady() {
+		return false;
+	}
+
+	@Override
+	public void setWriteListener(WriteListener arg0) {
+		// nothing to do
+	}
+}
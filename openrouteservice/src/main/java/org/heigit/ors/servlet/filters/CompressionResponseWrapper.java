@@ -22,18 +22,24 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
-class GZIPResponseWrapper extends HttpServletResponseWrapper {
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
+	private static final String CONTENT_LENGTH = "Content-Length";
+
 	protected HttpServletResponse origResponse;
-	protected GZIPResponseStream responseStream = null;
+	protected CompressionFilter filter;
+	protected String encoding;
+	protected CompressionResponseStream responseStream = null;
 	protected PrintWriter writer = null;
 
-	public GZIPResponseWrapper(HttpServletResponse response) {
+	public CompressionResponseWrapper(HttpServletResponse response, CompressionFilter filter, String encoding) {
 		super(response);
 		origResponse = response;
+		this.filter = filter;
+		this.encoding = encoding;
 	}
 
-	public GZIPResponseStream createOutputStream() throws IOException {
-		return new GZIPResponseStream(origResponse);
+	public CompressionResponseStream createOutputStream() {
+		return new CompressionResponseStream(origResponse, filter, encoding);
 	}
 
 	public void finishResponse() {
@@ -77,6 +83,30 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	}
 
 	public void setContentLength(int length) {
-		// nothing to do
+		// the length is only known once the response is complete
+	}
+
+	public void setContentLengthLong(long length) {
+		// the length is only known once the response is complete
+	}
+
+	public void setHeader(String name, String value) {
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+			super.setHeader(name, value);
+	}
+
+	public void setIntHeader(String name, int value) {
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+			super.setIntHeader(name, value);
+	}
+
+	public void addHeader(String name, String value) {
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+			super.addHeader(name, value);
+	}
+
+	public void addIntHeader(String name, int value) {
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+			super.addIntHeader(name, value);
 	}
 }
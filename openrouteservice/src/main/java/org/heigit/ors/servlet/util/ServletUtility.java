@@ -20,13 +20,17 @@ import org.json.JSONObject;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 public class ServletUtility {
 
 	public static final String KEY_UTF_8 = "UTF-8";
+	private static final int WRITER_BUFFER_SIZE = 64 * 1024;
 
 	private ServletUtility() {}
 
@@ -51,17 +55,36 @@ public class ServletUtility {
 	}
 
 	public static void write(HttpServletResponse response, JSONObject json, String encoding) throws IOException {
-		byte[] bytes = json.toString().getBytes(encoding);
-		write(response, bytes, "application/json", encoding);
+		write(response, json, encoding, StatusCode.OK);
 	}
 
 	public static void write(HttpServletResponse response, JSONObject json, int statusCode) throws IOException {
 		write(response, json, KEY_UTF_8, statusCode);
 	}
 
+	/**
+	 * Writes the JSON object directly to the output stream of the response instead of serializing it to a string first.
+	 */
 	public static void write(HttpServletResponse response, JSONObject json, String encoding, int statusCode) throws IOException {
-		byte[] bytes = json.toString().getBytes(encoding);
-		write(response, bytes, "application/json", encoding, statusCode);
+		try (Writer writer = createWriter(response, "application/json", encoding, statusCode)) {
+			json.write(writer);
+		}
+	}
+
+	/**
+	 * Sets the headers of a response whose length is not known in advance and returns a buffered writer over its
+	 * output stream. The writer has to be closed by the caller once the content is written.
+	 */
+	public static Writer createWriter(HttpServletResponse response, String contentType, String encoding, int statusCode) throws IOException {
+		response.setHeader("Content-Type", contentType);
+		response.setCharacterEncoding(encoding);
+		response.setContentType(contentType);
+		response.addHeader("Vary", "Accept-Encoding");
+
+		if (statusCode != StatusCode.OK)
+			response.setStatus(statusCode);
+
+		return new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), encoding), WRITER_BUFFER_SIZE);
 	}
 
 	public static void write(HttpServletResponse response, byte[] bytes, String contentType) throws IOException {
@@ -0,0 +1,122 @@
+package org.heigit.ors.api.responses.matrix.binary;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.api.requests.common.APIEnums;
+import org.heigit.ors.api.requests.matrix.MatrixRequest;
+import org.heigit.ors.api.requests.matrix.MatrixRequestEnums;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class BinaryMatrixResponseTest {
+    private BinaryMatrixResponse binaryResponse;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("ors_app_config", "target/test-classes/app.config.test");
+
+        ResolvedLocation[] sources = new ResolvedLocation[] {
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 1.5),
+                null
+        };
+        ResolvedLocation[] destinations = new ResolvedLocation[] {
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.687872, 49.420318), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0)
+        };
+
+        MatrixResult matrixResult = new MatrixResult(sources, destinations);
+        matrixResult.setTable(MatrixMetricsType.DURATION, new float[]{0, 1.25f, 2, -1, -1, -1});
+        matrixResult.setTable(MatrixMetricsType.DISTANCE, new float[]{10, 11, 12, -1, -1, -1});
+
+        MatrixRequest request = new MatrixRequest(new Double[][]{{8.681495, 49.41461}, {8.686507, 49.41943}});
+        request.setProfile(APIEnums.Profile.DRIVING_CAR);
+        request.setMetrics(new MatrixRequestEnums.Metrics[]{MatrixRequestEnums.Metrics.DISTANCE, MatrixRequestEnums.Metrics.DURATION});
+
+        binaryResponse = new BinaryMatrixResponse(matrixResult, request);
+    }
+
+    @Test
+    public void write() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        binaryResponse.write(out);
+
+        Assert.assertEquals(binaryResponse.getLength(), out.size());
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals('O', buffer.get());
+        Assert.assertEquals('R', buffer.get());
+        Assert.assertEquals('S', buffer.get());
+        Assert.assertEquals('M', buffer.get());
+        Assert.assertEquals(BinaryMatrixResponse.FORMAT_VERSION, buffer.getInt());
+        Assert.assertEquals(2, buffer.getInt());
+        Assert.assertEquals(3, buffer.getInt());
+        Assert.assertEquals(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE, buffer.getInt());
+        Assert.assertEquals(0, buffer.getInt());
+
+        // destinations come first
+        Assert.assertEquals(8.686507, buffer.getDouble(), 0);
+        Assert.assertEquals(49.41943, buffer.getDouble(), 0);
+        Assert.assertEquals(0.0, buffer.getDouble(), 0);
+
+        // first source, the second one could not be resolved
+        buffer.position(24 + 3 * 24);
+        Assert.assertEquals(8.681495, buffer.getDouble(), 0);
+        Assert.assertEquals(49.41461, buffer.getDouble(), 0);
+        Assert.assertEquals(1.5, buffer.getDouble(), 0);
+        Assert.assertTrue(Double.isNaN(buffer.getDouble()));
+
+        // durations followed by distances
+        buffer.position(24 + 5 * 24);
+        Assert.assertEquals(1.25f, buffer.getFloat(buffer.position() + 4), 0);
+        Assert.assertEquals(-1f, buffer.getFloat(buffer.position() + 3 * 4), 0);
+        Assert.assertEquals(12f, buffer.getFloat(buffer.position() + 8 * 4), 0);
+    }
+
+    @Test
+    public void padsTablesOfOddSize() throws Exception {
+        ResolvedLocation[] sources = new ResolvedLocation[] {
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0)
+        };
+        ResolvedLocation[] destinations = new ResolvedLocation[] {
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.687872, 49.420318), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0)
+        };
+
+        MatrixResult matrixResult = new MatrixResult(sources, destinations);
+        matrixResult.setTable(MatrixMetricsType.DURATION, new float[]{1, 2, 3});
+        matrixResult.setTable(MatrixMetricsType.DISTANCE, new float[]{10, 20, 30});
+
+        MatrixRequest request = new MatrixRequest(new Double[][]{{8.681495, 49.41461}, {8.686507, 49.41943}});
+        request.setProfile(APIEnums.Profile.DRIVING_CAR);
+        request.setMetrics(new MatrixRequestEnums.Metrics[]{MatrixRequestEnums.Metrics.DISTANCE, MatrixRequestEnums.Metrics.DURATION});
+
+        BinaryMatrixResponse response = new BinaryMatrixResponse(matrixResult, request);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.write(out);
+
+        // 24 bytes header, 4 locations of 24 bytes and two tables of 3 values padded from 12 to 16 bytes
+        int durationsOffset = 24 + 4 * 24;
+        int distancesOffset = durationsOffset + 16;
+        Assert.assertEquals(distancesOffset + 16, out.size());
+        Assert.assertEquals(response.getLength(), out.size());
+        Assert.assertEquals(0, durationsOffset % 8);
+        Assert.assertEquals(0, distancesOffset % 8);
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(1f, buffer.getFloat(durationsOffset), 0);
+        Assert.assertEquals(3f, buffer.getFloat(durationsOffset + 2 * 4), 0);
+        Assert.assertEquals(0, buffer.getInt(durationsOffset + 3 * 4));
+        Assert.assertEquals(10f, buffer.getFloat(distancesOffset), 0);
+        Assert.assertEquals(30f, buffer.getFloat(distancesOffset + 2 * 4), 0);
+        Assert.assertEquals(0, buffer.getInt(distancesOffset + 3 * 4));
+    }
+}
@@ -1,5 +1,7 @@
 package org.heigit.ors.api.responses.matrix.json;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vividsolutions.jts.geom.Coordinate;
 import org.heigit.ors.api.requests.common.APIEnums;
 import org.heigit.ors.api.requests.matrix.MatrixRequest;
@@ -101,6 +103,18 @@ public class JSONIndividualMatrixResponseTest {
         Assert.assertNull(durationsMatrixResponse.getDistances());
     }
 
+    @Test
+    public void serializeTables() throws Exception {
+        durationsMatrixResponse.setDurations(new Double[][]{{0.0, 1.234, null},{3.0, 4.0, 5.0}});
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(durationsMatrixResponse));
+
+        Assert.assertFalse(json.has("distances"));
+        Assert.assertEquals(2, json.get("durations").size());
+        Assert.assertEquals(1.23, json.get("durations").get(0).get(1).asDouble(), 0);
+        Assert.assertTrue(json.get("durations").get(0).get(2).isNull());
+        Assert.assertEquals(5.0, json.get("durations").get(1).get(2).asDouble(), 0);
+    }
+
     @Test
     public void getDurations() {
         Assert.assertEquals(3, durationsMatrixResponse.getDurations().length);
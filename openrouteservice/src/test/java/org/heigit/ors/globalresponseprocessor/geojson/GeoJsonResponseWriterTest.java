@@ -25,13 +25,23 @@
 
 package org.heigit.ors.globalresponseprocessor.geojson;
 
+import com.graphhopper.PathWrapper;
+import com.graphhopper.util.DistanceUnit;
+import com.graphhopper.util.PointList;
+import com.graphhopper.util.shapes.BBox;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LineString;
 import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.heigit.ors.geojson.GeometryJSON;
+import org.heigit.ors.routing.RouteResult;
+import org.heigit.ors.routing.RouteSegment;
+import org.heigit.ors.routing.RouteStep;
+import org.heigit.ors.routing.RoutingRequest;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.opengis.feature.simple.SimpleFeature;
@@ -39,6 +49,7 @@ import org.opengis.feature.simple.SimpleFeatureType;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -131,4 +142,54 @@ public class GeoJsonResponseWriterTest {
         JSONObject resultJSON = GeoJsonResponseWriter.addProperties(defaultFeatureCollection, featurePropertiesMap, defaultFeatureCollectionProperties);
         JSONAssert.assertEquals(expectedJSON, resultJSON, JSONCompareMode.NON_EXTENSIBLE);
     }
-}
\ No newline at end of file
+
+    /**
+     * This method tests the write() function and makes sure that the route geometry and properties are written as a FeatureCollection.
+     *
+     * @throws Exception If something goes wrong, the function will raise an {@link Exception}.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        RoutingRequest request = new RoutingRequest();
+        request.setCoordinates(new Coordinate[] {new Coordinate(8.681495, 49.41461), new Coordinate(8.687872, 49.420318)});
+        request.setGeometryFormat("geojson");
+        request.setIncludeElevation(true);
+
+        PointList points = new PointList(3, true);
+        points.add(49.41461, 8.6814951234, 104.3);
+        points.add(49.417, 8.684, 108.0);
+        points.add(49.420318, 8.687872, 111.5);
+        RouteResult route = new RouteResult(0);
+        route.addPointsToGeometry(points, false, true);
+
+        RouteSegment segment = new RouteSegment(new PathWrapper(), DistanceUnit.METERS);
+        RouteStep step = new RouteStep();
+        step.setWayPoints(new int[] {0, 2});
+        step.setInstruction("Head north");
+        segment.addStep(step);
+        route.addSegment(segment);
+        route.getSummary().setDistance(850.2);
+        route.getSummary().setBBox(new BBox(8.681495, 8.687872, 49.41461, 49.420318));
+
+        StringWriter writer = new StringWriter();
+        GeoJsonResponseWriter.write(request, new RouteResult[] {route}, writer);
+        JSONObject resultJSON = new JSONObject(writer.toString());
+
+        Assert.assertEquals("FeatureCollection", resultJSON.getString("type"));
+        Assert.assertTrue(resultJSON.has("bbox"));
+        Assert.assertTrue(resultJSON.has("info"));
+        Assert.assertFalse(resultJSON.has(GeoJsonResponseWriter.KEY_ROUTES));
+
+        JSONObject feature = resultJSON.getJSONArray(GeoJsonResponseWriter.KEY_FEATURES).getJSONObject(0);
+        Assert.assertEquals("Feature", feature.getString("type"));
+        Assert.assertEquals("LineString", feature.getJSONObject("geometry").getString("type"));
+        JSONAssert.assertEquals(GeometryJSON.toJSON(route.getGeometry(), true), feature.getJSONObject("geometry").getJSONArray("coordinates"), JSONCompareMode.STRICT);
+
+        JSONObject properties = feature.getJSONObject(GeoJsonResponseWriter.KEY_PROPERTIES);
+        Assert.assertEquals(850.2, properties.getJSONArray("summary").getJSONObject(0).getDouble("distance"), 1e-9);
+        Assert.assertEquals(1, properties.getJSONArray("segments").length());
+        Assert.assertTrue(properties.has("bbox"));
+        Assert.assertFalse(properties.has("geometry"));
+        Assert.assertFalse(properties.has("elevation"));
+    }
+}
@@ -0,0 +1,78 @@
+package org.heigit.ors.globalresponseprocessor.gpx;
+
+import org.heigit.ors.routing.RouteResult;
+import org.heigit.ors.routing.RoutingRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares streaming the GPX of a long route with elevation and instructions by
+ * {@link GpxResponseWriter#write(RoutingRequest, RouteResult[], Writer)} with building and marshalling the JAXB beans.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main GpxResponseWriterBenchmark}, adding
+ * {@code -prof gc} shows the allocations of both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GpxResponseWriterBenchmark {
+    @Param({"50000"})
+    private int points;
+
+    private RoutingRequest request;
+    private RouteResult[] routes;
+
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty("ors_app_config", "target/test-classes/app.config.test");
+        request = GpxResponseWriterTest.createRequest(true, true);
+        routes = new RouteResult[] {GpxResponseWriterTest.createRoute(points)};
+    }
+
+    @Benchmark
+    public long streaming() throws Exception {
+        CountingWriter writer = new CountingWriter();
+        GpxResponseWriter.write(request, routes, writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long beans() throws Exception {
+        CountingWriter writer = new CountingWriter();
+        writer.write(GpxResponseWriter.createGpx(request, routes, new Date()).build());
+        return writer.count;
+    }
+
+    /**
+     * Discards the output like a response stream would, without keeping the document in memory.
+     */
+    private static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str) {
+            count += str.length();
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
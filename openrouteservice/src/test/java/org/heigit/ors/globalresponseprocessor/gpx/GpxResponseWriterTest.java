@@ -0,0 +1,95 @@
+package org.heigit.ors.globalresponseprocessor.gpx;
+
+import com.graphhopper.PathWrapper;
+import com.graphhopper.util.DistanceUnit;
+import com.graphhopper.util.PointList;
+import com.graphhopper.util.shapes.BBox;
+import org.heigit.ors.routing.*;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Date;
+
+public class GpxResponseWriterTest {
+    @BeforeClass
+    public static void setUp() {
+        System.setProperty("ors_app_config", "target/test-classes/app.config.test");
+    }
+
+    static RoutingRequest createRequest(boolean includeElevation, boolean includeInstructions) {
+        RoutingRequest request = new RoutingRequest();
+        request.setIncludeElevation(includeElevation);
+        request.setIncludeInstructions(includeInstructions);
+        request.setLanguage("en");
+        request.setUnits(DistanceUnit.METERS);
+        return request;
+    }
+
+    /**
+     * Creates a route along a parallel with an instruction every ten points.
+     */
+    static RouteResult createRoute(int points) throws Exception {
+        PointList pointList = new PointList(points, true);
+        for (int i = 0; i < points; i++)
+            pointList.add(49.41 + (i % 7) * 1e-5, 8.68 + i * 1e-5, 110.5 + i % 13);
+
+        RouteResult route = new RouteResult(0);
+        route.addPointsToGeometry(pointList, false, true);
+
+        RouteSegment segment = new RouteSegment(new PathWrapper(), DistanceUnit.METERS);
+        for (int start = 0; start < points - 1; start += 10) {
+            RouteStep step = new RouteStep();
+            step.setWayPoints(new int[] {start, Math.min(start + 10, points - 1)});
+            step.setName("Street " + start);
+            step.setInstruction("Turn left onto Street " + start + " & continue");
+            step.setDistance(12.3);
+            step.setDuration(4.5);
+            step.setType(start % 8);
+            segment.addStep(step);
+        }
+        RouteStep arrival = new RouteStep();
+        arrival.setWayPoints(new int[] {points - 1, points - 1});
+        arrival.setName("-");
+        arrival.setInstruction("Arrive at your destination");
+        arrival.setType(10);
+        segment.addStep(arrival);
+        route.addSegment(segment);
+
+        RouteSummary summary = route.getSummary();
+        summary.setDistance(1234.5);
+        summary.setDuration(321.0);
+        summary.setAscent(12.0);
+        summary.setDescent(7.0);
+        summary.setAverageSpeed(13.8);
+        summary.setBBox(new BBox(8.68, 8.68 + points * 1e-5, 49.41, 49.41 + 6e-5));
+
+        return route;
+    }
+
+    private void assertSameAsBeans(RoutingRequest request, RouteResult[] routes) throws Exception {
+        Date date = new Date();
+        StringWriter writer = new StringWriter();
+        GpxResponseWriter.write(request, routes, writer, date);
+
+        Assert.assertEquals(GpxResponseWriter.createGpx(request, routes, date).build(), writer.toString());
+    }
+
+    @Test
+    public void writeSameAsBeans() throws Exception {
+        RouteResult[] routes = new RouteResult[] {createRoute(35)};
+
+        assertSameAsBeans(createRequest(true, true), routes);
+        assertSameAsBeans(createRequest(false, true), routes);
+        assertSameAsBeans(createRequest(false, false), routes);
+    }
+
+    @Test
+    public void formatDecimal() {
+        Assert.assertEquals("8.681495", GpxResponseWriter.formatDecimal(8.681495));
+        Assert.assertEquals("0.0", GpxResponseWriter.formatDecimal(-0.0));
+        Assert.assertEquals("0.000010", GpxResponseWriter.formatDecimal(1e-5));
+        Assert.assertEquals("12000000", GpxResponseWriter.formatDecimal(1.2e7));
+    }
+}
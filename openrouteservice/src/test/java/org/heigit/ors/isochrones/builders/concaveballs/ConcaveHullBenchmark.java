@@ -0,0 +1,153 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.SPTEntry;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.heigit.ors.routing.RouteSearchContext;
+import org.heigit.ors.routing.graphhopper.extensions.AccessibilityMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building one concave hull per range with the incremental concave hull in
+ * {@link ConcaveBallsIsochroneMapBuilder}. The accessibility map is the shortest path tree of a grid shaped road
+ * network from its center, where road speeds vary randomly, and is passed through the whole builder.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main ConcaveHullBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcaveHullBenchmark {
+    private static final double CELL = 0.001;
+
+    @Param({"100", "200"})
+    private int gridSize;
+
+    @Param({"1", "10"})
+    private int rangesCount;
+
+    private GraphHopperStorage graph;
+    private RouteSearchContext searchContext;
+    private AccessibilityMap edgeMap;
+    private IsochroneSearchParameters parameters;
+
+    @Setup
+    public void setup() {
+        CarFlagEncoder encoder = new CarFlagEncoder();
+        graph = new GraphBuilder(EncodingManager.create(encoder)).create();
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int node = row * gridSize + col;
+                nodeAccess.setNode(node, 49.0 + row * CELL, 8.0 + col * CELL);
+                if (col > 0)
+                    graph.edge(node - 1, node, 111 * Math.cos(Math.toRadians(49)), true);
+                if (row > 0)
+                    graph.edge(node - gridSize, node, 111, true);
+            }
+        }
+        searchContext = new RouteSearchContext(new GraphHopper().setGraphHopperStorage(graph), encoder);
+
+        int center = (gridSize / 2) * gridSize + gridSize / 2;
+        edgeMap = new AccessibilityMap(buildShortestPathTree(center), null);
+
+        // the largest range stays within the grid in every direction
+        double maxRange = Double.MAX_VALUE;
+        for (IntObjectCursor<SPTEntry> cursor : edgeMap.getMap()) {
+            SPTEntry entry = cursor.value;
+            int row = entry.adjNode / gridSize;
+            int col = entry.adjNode % gridSize;
+            if (row == 0 || col == 0 || row == gridSize - 1 || col == gridSize - 1)
+                maxRange = Math.min(maxRange, entry.weight);
+        }
+
+        double[] ranges = new double[rangesCount];
+        for (int i = 0; i < rangesCount; i++)
+            ranges[i] = 0.9 * maxRange * (i + 1) / rangesCount;
+        parameters = new IsochroneSearchParameters(0, new Coordinate(nodeAccess.getLon(center), nodeAccess.getLat(center)), ranges);
+    }
+
+    /**
+     * Dijkstra from the given node with road speeds between 10 and 20 m/s, keyed by node like the isochrone search.
+     */
+    private IntObjectMap<SPTEntry> buildShortestPathTree(int start) {
+        Random random = new Random(42);
+        double[] speeds = new double[graph.getAllEdges().length()];
+        for (int i = 0; i < speeds.length; i++)
+            speeds[i] = 10 + 10 * random.nextDouble();
+
+        IntObjectMap<SPTEntry> map = new GHIntObjectHashMap<>(graph.getNodes());
+        SPTEntry root = new SPTEntry(EdgeIterator.NO_EDGE, start, 0);
+        root.originalEdge = EdgeIterator.NO_EDGE;
+        map.put(start, root);
+
+        PriorityQueue<SPTEntry> queue = new PriorityQueue<>();
+        queue.add(root);
+        EdgeExplorer explorer = graph.createEdgeExplorer();
+        boolean[] settled = new boolean[graph.getNodes()];
+        while (!queue.isEmpty()) {
+            SPTEntry current = queue.poll();
+            if (settled[current.adjNode])
+                continue;
+            settled[current.adjNode] = true;
+
+            EdgeIterator iter = explorer.setBaseNode(current.adjNode);
+            while (iter.next()) {
+                int adjNode = iter.getAdjNode();
+                double weight = current.weight + iter.getDistance() / speeds[iter.getEdge()];
+                SPTEntry entry = map.get(adjNode);
+                if (settled[adjNode] || (entry != null && entry.weight <= weight))
+                    continue;
+
+                entry = new SPTEntry(iter.getEdge(), adjNode, weight);
+                entry.originalEdge = iter.getEdge();
+                entry.parent = current;
+                map.put(adjNode, entry);
+                queue.add(entry);
+            }
+        }
+
+        return map;
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.close();
+    }
+
+    private void compute(boolean incremental, Blackhole blackhole) {
+        ConcaveBallsIsochroneMapBuilder builder = new ConcaveBallsIsochroneMapBuilder();
+        builder.initialize(searchContext);
+        builder.setIncremental(incremental);
+        blackhole.consume(builder.compute(parameters, edgeMap));
+    }
+
+    @Benchmark
+    public void concaveHullPerRange(Blackhole blackhole) {
+        compute(false, blackhole);
+    }
+
+    @Benchmark
+    public void incrementalConcaveHull(Blackhole blackhole) {
+        compute(true, blackhole);
+    }
+}
@@ -0,0 +1,89 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncrementalConcaveHullTest {
+    private static IncrementalConcaveHull createGrid(GeometryFactory factory) {
+        IncrementalConcaveHull hull = new IncrementalConcaveHull(factory, 0.0005);
+        for (int x = -20; x <= 20; x++) {
+            for (int y = -20; y <= 20; y++)
+                hull.addPoint(x * 0.001, y * 0.001, Math.abs(x) + Math.abs(y));
+        }
+        hull.triangulate();
+        return hull;
+    }
+
+    @Test
+    public void hullsOfIncreasingRangesAreNested() {
+        GeometryFactory factory = new GeometryFactory();
+        IncrementalConcaveHull hull = createGrid(factory);
+
+        Polygon inner = hull.getHull(10, 0.01);
+        Polygon outer = hull.getHull(20, 0.01);
+
+        Assert.assertNotNull(inner);
+        Assert.assertNotNull(outer);
+        Assert.assertTrue(inner.getArea() < outer.getArea());
+        Assert.assertTrue(outer.buffer(1e-9).contains(inner));
+
+        Point center = factory.createPoint(new Coordinate(0, 0));
+        Assert.assertTrue(inner.contains(center));
+    }
+
+    @Test
+    public void thinsPointsPerCell() {
+        IncrementalConcaveHull hull = new IncrementalConcaveHull(new GeometryFactory(), 0.01);
+        hull.addPoint(0.001, 0.001, 5);
+        hull.addPoint(0.002, 0.002, 3);
+        hull.addPoint(0.015, 0.001, 1);
+
+        Assert.assertEquals(2, hull.getPointsCount());
+    }
+
+    @Test
+    public void returnsNullWithoutTriangles() {
+        IncrementalConcaveHull hull = createGrid(new GeometryFactory());
+
+        Assert.assertNull(hull.getHull(-1, 0.01));
+    }
+
+    @Test
+    public void getHullsKeepsPreviousHulls() {
+        IncrementalConcaveHull hull = createGrid(new GeometryFactory());
+
+        Polygon[] hulls = hull.getHulls(new double[] { 10, 20, 30 }, new double[] { 0.01, 0.01, 0.01 });
+
+        Assert.assertEquals(3, hulls.length);
+        for (int i = 1; i < hulls.length; i++)
+            Assert.assertTrue(hulls[i].buffer(1e-9).contains(hulls[i - 1]));
+    }
+
+    @Test
+    public void keepsTrianglesWithLongEdgesInsideTheHull() {
+        GeometryFactory factory = new GeometryFactory();
+        IncrementalConcaveHull hull = new IncrementalConcaveHull(factory, 0.0005);
+
+        // two dense clusters connected by a sparse row of points
+        for (int x = 10; x <= 20; x++) {
+            for (int y = -5; y <= 5; y++) {
+                hull.addPoint(-x * 0.001, y * 0.001, 0);
+                hull.addPoint(x * 0.001, y * 0.001, 0);
+            }
+        }
+        for (int x = -9; x <= 9; x += 3)
+            hull.addPoint(x * 0.001, 0, 0);
+        hull.triangulate();
+
+        Polygon polygon = hull.getHull(1, 0.002);
+
+        Assert.assertNotNull(polygon);
+        Assert.assertTrue(polygon.isValid());
+        Assert.assertTrue(polygon.contains(factory.createPoint(new Coordinate(-0.015, 0))));
+        Assert.assertTrue(polygon.contains(factory.createPoint(new Coordinate(0.015, 0))));
+    }
+}
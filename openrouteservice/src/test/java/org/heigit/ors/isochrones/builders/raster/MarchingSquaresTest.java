@@ -0,0 +1,48 @@
+package org.heigit.ors.isochrones.builders.raster;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MarchingSquaresTest {
+    private static CostRaster createCone() {
+        CostRaster raster = new CostRaster(0, 0, 1, 1, 41, 41);
+        for (int x = 0; x < 41; x++) {
+            for (int y = 0; y < 41; y++)
+                raster.setMinCost(x + 0.5, y + 0.5, Math.sqrt((x - 20) * (x - 20) + (y - 20) * (y - 20)));
+        }
+        return raster;
+    }
+
+    @Test
+    public void contoursOfConeAreNestedCircles() {
+        GeometryFactory factory = new GeometryFactory();
+        Polygon[] contours = new MarchingSquares(createCone(), factory).computeContours(new double[] { 5, 10 });
+
+        Assert.assertEquals(2, contours.length);
+        Assert.assertEquals(Math.PI * 25, contours[0].getArea(), 5);
+        Assert.assertEquals(Math.PI * 100, contours[1].getArea(), 10);
+        Assert.assertTrue(contours[1].contains(contours[0]));
+        Assert.assertTrue(contours[0].contains(factory.createPoint(new Coordinate(20.5, 20.5))));
+    }
+
+    @Test
+    public void returnsNullForUnreachedLevel() {
+        Polygon[] contours = new MarchingSquares(createCone(), new GeometryFactory()).computeContours(new double[] { -1 });
+
+        Assert.assertNull(contours[0]);
+    }
+
+    @Test
+    public void dilationSpreadsMinimumCost() {
+        CostRaster raster = new CostRaster(0, 0, 1, 1, 5, 5);
+        raster.setMinCost(2.5, 2.5, 3);
+        raster.dilate(1);
+
+        Assert.assertEquals(3, raster.getCost(1, 1), 0);
+        Assert.assertEquals(3, raster.getCost(3, 3), 0);
+        Assert.assertTrue(Float.isInfinite(raster.getCost(0, 0)));
+    }
+}
@@ -0,0 +1,67 @@
+package org.heigit.ors.isochrones.builders.raster;
+
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.SPTEntry;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.routing.graphhopper.extensions.AccessibilityMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RasterIsochroneMapBuilderTest {
+    private static GraphHopperStorage createGraph() {
+        GraphHopperStorage graph = new GraphBuilder(EncodingManager.create(new CarFlagEncoder())).create();
+        graph.getNodeAccess().setNode(0, 49.41, 8.68);
+        graph.getNodeAccess().setNode(1, 49.42, 8.69);
+        graph.edge(0, 1, 1300, true);
+        return graph;
+    }
+
+    private static SPTEntry createEntry(int edge, int adjNode, double weight, SPTEntry parent) {
+        SPTEntry entry = new SPTEntry(edge, adjNode, weight);
+        entry.originalEdge = edge;
+        entry.parent = parent;
+        return entry;
+    }
+
+    @Test
+    public void startWithoutReachableEdges() {
+        GraphHopperStorage graph = createGraph();
+        SPTEntry start = createEntry(EdgeIterator.NO_EDGE, 0, 0, null);
+        IntObjectMap<SPTEntry> map = new IntObjectHashMap<>();
+        map.put(0, start);
+
+        Assert.assertNull(RasterIsochroneMapBuilder.rasterize(graph, new AccessibilityMap(map, start), 600, 2));
+    }
+
+    @Test
+    public void edgesBeyondMaximumCostAreIgnored() {
+        GraphHopperStorage graph = createGraph();
+        EdgeIteratorState edge = graph.getEdgeIteratorState(0, 1);
+        SPTEntry start = createEntry(EdgeIterator.NO_EDGE, 0, 700, null);
+        SPTEntry end = createEntry(edge.getEdge(), 1, 800, start);
+        IntObjectMap<SPTEntry> map = new IntObjectHashMap<>();
+        map.put(0, start);
+        map.put(1, end);
+
+        Assert.assertNull(RasterIsochroneMapBuilder.rasterize(graph, new AccessibilityMap(map, start), 600, 2));
+    }
+
+    @Test
+    public void rasterizesReachableEdge() {
+        GraphHopperStorage graph = createGraph();
+        EdgeIteratorState edge = graph.getEdgeIteratorState(0, 1);
+        SPTEntry start = createEntry(EdgeIterator.NO_EDGE, 0, 0, null);
+        SPTEntry end = createEntry(edge.getEdge(), 1, 100, start);
+        IntObjectMap<SPTEntry> map = new IntObjectHashMap<>();
+        map.put(0, start);
+        map.put(1, end);
+
+        Assert.assertNotNull(RasterIsochroneMapBuilder.rasterize(graph, new AccessibilityMap(map, start), 600, 2));
+    }
+}
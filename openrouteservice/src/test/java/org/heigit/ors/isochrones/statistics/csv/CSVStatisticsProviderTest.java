@@ -0,0 +1,71 @@
+package org.heigit.ors.isochrones.statistics.csv;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.heigit.ors.isochrones.Isochrone;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CSVStatisticsProviderTest {
+    private static File file;
+    private static CSVStatisticsProvider provider;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        file = File.createTempFile("population", ".csv");
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("lon,lat,total_pop");
+            for (int x = 0; x < 100; x++) {
+                for (int y = 0; y < 100; y++)
+                    writer.println((x * 0.01 + 0.005) + "," + (y * 0.01 + 0.005) + ",2");
+            }
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("file", file.getAbsolutePath());
+        provider = new CSVStatisticsProvider();
+        provider.init(parameters);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        provider.close();
+        file.delete();
+    }
+
+    private static Isochrone createIsochrone(double minLon, double minLat, double maxLon, double maxLat) {
+        GeometryFactory factory = new GeometryFactory();
+        return new Isochrone(factory.toGeometry(new Envelope(minLon, maxLon, minLat, maxLat)), 0, 0);
+    }
+
+    @Test
+    public void sumsValuesOfCellsWithinIsochrone() throws Exception {
+        double[] res = provider.getStatistics(createIsochrone(0.1, 0.1, 0.2, 0.3), new String[] { "total_pop" });
+
+        Assert.assertEquals(10 * 20 * 2, res[0], 0);
+    }
+
+    @Test
+    public void computesBatchesInOrder() throws Exception {
+        double[][] res = provider.getStatistics(Arrays.asList(createIsochrone(0, 0, 0.1, 0.1), createIsochrone(2, 2, 3, 3)), new String[] { "total_pop" });
+
+        Assert.assertEquals(2, res.length);
+        Assert.assertEquals(10 * 10 * 2, res[0][0], 0);
+        Assert.assertEquals(0, res[1][0], 0);
+    }
+
+    @Test
+    public void returnsZeroForUnknownProperty() throws Exception {
+        double[] res = provider.getStatistics(createIsochrone(0, 0, 1, 1), new String[] { "unknown" });
+
+        Assert.assertEquals(0, res[0], 0);
+    }
+}
@@ -0,0 +1,57 @@
+package org.heigit.ors.matrix;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShortcutMetricsCacheTest {
+    @Test
+    public void keysDistinguishDirection() {
+        Assert.assertNotEquals(ShortcutMetricsCache.createKey(10, false), ShortcutMetricsCache.createKey(10, true));
+        Assert.assertNotEquals(ShortcutMetricsCache.createKey(10, true), ShortcutMetricsCache.createKey(11, false));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        ShortcutMetricsCache cache = new ShortcutMetricsCache("test", 10);
+        long key = ShortcutMetricsCache.createKey(5, false);
+
+        Assert.assertNull(cache.get(key));
+        cache.put(key, new ShortcutMetricsCache.Entry(100.0, 10.0, 12.0));
+
+        ShortcutMetricsCache.Entry entry = cache.get(key);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(100.0, entry.getDistance(), 0.0);
+        Assert.assertEquals(10.0, entry.getTime(), 0.0);
+        Assert.assertEquals(12.0, entry.getWeight(), 0.0);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        // the other direction of the same shortcut is a different entry
+        Assert.assertNull(cache.get(ShortcutMetricsCache.createKey(5, true)));
+        for (int i = 0; i < 3; i++)
+            Assert.assertSame(entry, cache.get(key));
+        Assert.assertEquals(4, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(4.0 / 6.0, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void doesNotGrowBeyondCapacity() {
+        ShortcutMetricsCache cache = new ShortcutMetricsCache("test", 2);
+        for (int i = 0; i < 5; i++)
+            cache.put(ShortcutMetricsCache.createKey(i, false), new ShortcutMetricsCache.Entry(i, i, i));
+
+        Assert.assertEquals(2, cache.size());
+
+        Assert.assertNotNull(cache.get(ShortcutMetricsCache.createKey(0, false)));
+        Assert.assertNull(cache.get(ShortcutMetricsCache.createKey(4, false)));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(0, cache.getMisses());
+        Assert.assertEquals(0, cache.getHitRatio(), 0);
+    }
+}
@@ -0,0 +1,92 @@
+package org.heigit.ors.matrix.algorithms.dijkstra;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.PMap;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphStorage;
+import org.heigit.ors.routing.graphhopper.extensions.weighting.GreenWeighting;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DijkstraMatrixAlgorithmTest {
+    private static final int GRID_SIZE = 20;
+    private static final int LOCATIONS = 40;
+    private static final int METRICS = MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
+
+    private final CarFlagEncoder encoder = new CarFlagEncoder();
+    private GraphHopperStorage graph;
+    private Weighting weighting;
+
+    @Before
+    public void setUp() {
+        GreenIndexGraphStorage greenStorage = new GreenIndexGraphStorage();
+        graph = new GraphHopperStorage(new RAMDirectory(), EncodingManager.create(encoder), false, greenStorage);
+        graph.create(1000);
+
+        Random random = new Random(42);
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int node = row * GRID_SIZE + col;
+                if (col + 1 < GRID_SIZE)
+                    addEdge(greenStorage, random, node, node + 1);
+                if (row + 1 < GRID_SIZE)
+                    addEdge(greenStorage, random, node, node + GRID_SIZE);
+            }
+        }
+
+        // the green weighting reads the storage for every edge, from all workers at once
+        weighting = new GreenWeighting(encoder, new PMap().put("factor", 1), graph);
+    }
+
+    private void addEdge(GreenIndexGraphStorage greenStorage, Random random, int from, int to) {
+        EdgeIteratorState edge = graph.edge(from, to, 10 + random.nextInt(1000), true);
+        greenStorage.setEdgeValue(edge.getEdge(), (byte) random.nextInt(64));
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    private MatrixResult compute(int threads) throws Exception {
+        MatrixRequest req = new MatrixRequest();
+        req.setMetrics(METRICS);
+
+        MatrixLocations sources = new MatrixLocations(LOCATIONS);
+        MatrixLocations destinations = new MatrixLocations(LOCATIONS);
+        Random random = new Random(7);
+        for (int i = 0; i < LOCATIONS; i++) {
+            sources.setData(i, random.nextInt(GRID_SIZE * GRID_SIZE), null);
+            destinations.setData(i, random.nextInt(GRID_SIZE * GRID_SIZE), null);
+        }
+
+        DijkstraMatrixAlgorithm algorithm = new DijkstraMatrixAlgorithm();
+        algorithm.init(req, null, graph, encoder, weighting);
+        algorithm.setThreads(threads);
+        return algorithm.compute(sources, destinations, METRICS);
+    }
+
+    @Test
+    public void testParallelMatchesSingleThreaded() throws Exception {
+        MatrixResult expected = compute(1);
+
+        for (int run = 0; run < 5; run++) {
+            MatrixResult result = compute(4);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 0);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 0);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), result.getTable(MatrixMetricsType.DURATION), 0);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.heigit.ors.matrix.algorithms.rphast;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.CHProfile;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RPHASTIndexedMatrixAlgorithmTest {
+    private static final int GRID_SIZE = 10;
+    private static final int METRICS = MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
+
+    private final CarFlagEncoder encoder = new CarFlagEncoder();
+    private GraphHopperStorage graph;
+    private CHGraph chGraph;
+    private GraphHopper graphHopper;
+    private Weighting weighting;
+
+    @Before
+    public void setUp() {
+        weighting = new FastestWeighting(encoder);
+        CHProfile chProfile = CHProfile.nodeBased(weighting);
+        List<CHProfile> chProfiles = new ArrayList<>();
+        chProfiles.add(chProfile);
+        graph = new GraphBuilder(EncodingManager.create(encoder)).setCHProfiles(chProfiles).create();
+
+        Random random = new Random(42);
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int node = row * GRID_SIZE + col;
+                if (col + 1 < GRID_SIZE)
+                    addEdge(random, node, node + 1, random.nextInt(10) > 0);
+                if (row + 1 < GRID_SIZE)
+                    addEdge(random, node, node + GRID_SIZE, random.nextInt(10) > 0);
+            }
+        }
+        // an island which cannot be reached from the grid, with a one-way road into its last node
+        int island = GRID_SIZE * GRID_SIZE;
+        addEdge(random, island, island + 1, true);
+        addEdge(random, island + 1, island + 2, false);
+        graph.freeze();
+
+        PrepareContractionHierarchies prepare = PrepareContractionHierarchies.fromGraphHopperStorage(graph, chProfile);
+        prepare.doWork();
+        chGraph = graph.getCHGraph(chProfile);
+
+        graphHopper = new GraphHopper().setGraphHopperStorage(graph);
+        graphHopper.getCHFactoryDecorator().addCHProfile(chProfile);
+        graphHopper.getCHFactoryDecorator().addPreparation(prepare);
+    }
+
+    private void addEdge(Random random, int from, int to, boolean bothDirections) {
+        EdgeIteratorState edge = graph.edge(from, to, 10 + random.nextInt(1000), bothDirections);
+        edge.set(encoder.getAverageSpeedEnc(), 5 * (2 + random.nextInt(20)));
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    /**
+     * All grid nodes as sources and destinations, followed by the island nodes and a location without a node.
+     */
+    private MatrixLocations createLocations() {
+        int nodes = GRID_SIZE * GRID_SIZE + 3;
+        MatrixLocations locations = new MatrixLocations(nodes + 1);
+        for (int node = 0; node < nodes; node++)
+            locations.setData(node, node, null);
+        locations.setData(nodes, -1, null);
+        return locations;
+    }
+
+    private MatrixResult compute(AbstractMatrixAlgorithm algorithm) throws Exception {
+        MatrixRequest req = new MatrixRequest();
+        req.setMetrics(METRICS);
+        algorithm.init(req, graphHopper, chGraph, encoder, weighting);
+        return algorithm.compute(createLocations(), createLocations(), METRICS);
+    }
+
+    @Test
+    public void testIndexedEngineMatchesLegacyEngine() throws Exception {
+        MatrixResult expected = compute(new RPHASTMatrixAlgorithm());
+        MatrixResult result = compute(new RPHASTIndexedMatrixAlgorithm());
+
+        // the grid cannot reach the island, and the island cannot be left
+        int size = GRID_SIZE * GRID_SIZE + 4;
+        int island = GRID_SIZE * GRID_SIZE;
+        float[] expectedWeights = expected.getTable(MatrixMetricsType.WEIGHT);
+        Assert.assertEquals(-1, expectedWeights[island], 0);
+        Assert.assertEquals(-1, expectedWeights[island * size], 0);
+        Assert.assertEquals(-1, expectedWeights[(island + 2) * size + island], 0);
+        Assert.assertTrue(expectedWeights[island * size + island + 2] > 0);
+
+        Assert.assertArrayEquals(expectedWeights, result.getTable(MatrixMetricsType.WEIGHT), 0);
+        Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 0);
+        Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), result.getTable(MatrixMetricsType.DURATION), 0);
+    }
+
+    private MatrixResult compute(int threads, int blockSize) throws Exception {
+        RPHASTIndexedMatrixAlgorithm algorithm = new RPHASTIndexedMatrixAlgorithm();
+        algorithm.setThreads(threads);
+        algorithm.setBlockSize(blockSize);
+        return compute(algorithm);
+    }
+
+    @Test
+    public void testSourceBlocksMatchSingleThreaded() throws Exception {
+        MatrixResult expected = compute(1, 8);
+
+        // more than a dozen blocks of sources, some of which contain the island or the location without a node
+        for (int run = 0; run < 5; run++) {
+            MatrixResult result = compute(4, 8);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 0);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 0);
+            Assert.assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), result.getTable(MatrixMetricsType.DURATION), 0);
+        }
+    }
+}
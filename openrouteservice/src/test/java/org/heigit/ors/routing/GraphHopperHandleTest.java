@@ -0,0 +1,61 @@
+package org.heigit.ors.routing;
+
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GraphHopperHandleTest {
+    private int closed;
+
+    private GraphHopperHandle createHandle() {
+        return new GraphHopperHandle(new ORSGraphHopper() {
+            @Override
+            public void close() {
+                closed++;
+            }
+        });
+    }
+
+    @Test
+    public void closeWhenLastReaderReleases() {
+        GraphHopperHandle handle = createHandle();
+
+        Assert.assertTrue(handle.tryAcquire());
+        Assert.assertTrue(handle.tryAcquire());
+
+        // the profile replaces the graph while two requests are still running on it
+        handle.release();
+        Assert.assertFalse(handle.isClosed());
+
+        handle.release();
+        Assert.assertEquals(0, closed);
+
+        handle.release();
+        Assert.assertTrue(handle.isClosed());
+        Assert.assertEquals(1, closed);
+    }
+
+    @Test
+    public void noAcquireAfterClose() {
+        GraphHopperHandle handle = createHandle();
+        handle.release();
+
+        Assert.assertFalse(handle.tryAcquire());
+        Assert.assertEquals(1, closed);
+    }
+
+    @Test
+    public void releaseAfterCloseFails() {
+        GraphHopperHandle handle = createHandle();
+        handle.release();
+
+        try {
+            handle.release();
+            Assert.fail("a released graph must not be released again");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertTrue(handle.isClosed());
+        Assert.assertEquals(1, closed);
+    }
+}
@@ -0,0 +1,60 @@
+package org.heigit.ors.routing;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class GraphVersionsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createVersion(File root, String name, boolean complete) throws Exception {
+        File dir = new File(root, name);
+        Assert.assertTrue(dir.mkdirs());
+        if (complete)
+            Assert.assertTrue(new File(dir, GraphVersions.STAMP_FILE).createNewFile());
+        return dir;
+    }
+
+    @Test
+    public void resolveNewestCompleteVersion() throws Exception {
+        File root = folder.getRoot();
+        createVersion(root, "v1", true);
+        File v2 = createVersion(root, "v2", true);
+        createVersion(root, "v3", false);
+
+        Assert.assertEquals(v2.getPath(), GraphVersions.resolve(root.getPath()));
+        Assert.assertEquals(new File(root, "v4").getPath(), GraphVersions.createNext(root.getPath()));
+    }
+
+    @Test
+    public void resolveGraphOfOldLayout() throws Exception {
+        File root = folder.getRoot();
+        Assert.assertEquals(new File(root, "v1").getPath(), GraphVersions.resolve(root.getPath()));
+
+        Assert.assertTrue(new File(root, GraphVersions.STAMP_FILE).createNewFile());
+        createVersion(root, "v1", false);
+        Assert.assertEquals(root.getPath(), GraphVersions.resolve(root.getPath()));
+    }
+
+    @Test
+    public void removeObsoleteVersions() throws Exception {
+        File root = folder.getRoot();
+        Assert.assertTrue(new File(root, "nodes").createNewFile());
+        Assert.assertTrue(new File(root, GraphVersions.STAMP_FILE).createNewFile());
+        File v1 = createVersion(root, "v1", true);
+        File v2 = createVersion(root, "v2", true);
+        File other = createVersion(root, "elevation", false);
+
+        GraphVersions.removeObsolete(root.getPath(), v2.getPath());
+
+        Assert.assertFalse(v1.exists());
+        Assert.assertTrue(v2.exists());
+        Assert.assertTrue(other.exists());
+        Assert.assertFalse(new File(root, "nodes").exists());
+        Assert.assertFalse(new File(root, GraphVersions.STAMP_FILE).exists());
+    }
+}
@@ -0,0 +1,64 @@
+package org.heigit.ors.routing.algorithms;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedMinHeapTest {
+    @Test
+    public void pollReturnsElementsOrderedByKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.update(3, 30.0);
+        heap.update(1, 10.0);
+        heap.update(7, 70.0);
+        heap.update(2, 20.0);
+
+        Assert.assertEquals(4, heap.size());
+        Assert.assertEquals(1, heap.poll());
+        Assert.assertEquals(2, heap.poll());
+        Assert.assertEquals(3, heap.poll());
+        Assert.assertEquals(7, heap.poll());
+        Assert.assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void updateChangesKeyOfQueuedElement() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.update(0, 5.0);
+        heap.update(1, 6.0);
+        heap.update(2, 7.0);
+
+        heap.update(2, 1.0);
+        Assert.assertEquals(3, heap.size());
+        Assert.assertEquals(1.0, heap.peekKey(), 0.0);
+
+        heap.update(2, 10.0);
+        Assert.assertEquals(0, heap.poll());
+        Assert.assertEquals(1, heap.poll());
+        Assert.assertEquals(2, heap.poll());
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        IndexedMinHeap heap = new IndexedMinHeap(1);
+        for (int i = 0; i < 1000; i++)
+            heap.update(5000 - i, i);
+
+        Assert.assertTrue(heap.contains(4500));
+        Assert.assertFalse(heap.contains(10000));
+        for (int i = 0; i < 1000; i++)
+            Assert.assertEquals(5000 - i, heap.poll());
+    }
+
+    @Test
+    public void clearRemovesAllElements() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.update(1, 1.0);
+        heap.update(2, 2.0);
+        heap.clear();
+
+        Assert.assertTrue(heap.isEmpty());
+        Assert.assertFalse(heap.contains(1));
+        heap.update(1, 3.0);
+        Assert.assertEquals(1, heap.poll());
+    }
+}
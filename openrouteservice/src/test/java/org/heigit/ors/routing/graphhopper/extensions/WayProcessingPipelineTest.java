@@ -0,0 +1,109 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.storage.GraphExtension;
+import com.graphhopper.util.EdgeIteratorState;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.AbstractGraphStorageBuilder;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.ParallelGraphStorageBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WayProcessingPipelineTest {
+    private static final int WAYS = 200;
+
+    /**
+     * Returns the number of coordinates of a way as its result, with varying delays so that the results
+     * are completed out of order.
+     */
+    private static class CountingBuilder extends AbstractGraphStorageBuilder implements ParallelGraphStorageBuilder<Integer> {
+        private final List<int[]> edges = new ArrayList<>();
+
+        @Override
+        public Integer prepareWay(Coordinate[] coords) {
+            try {
+                Thread.sleep(coords.length % 3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return coords.length;
+        }
+
+        @Override
+        public void processEdge(Integer result, int edge, Coordinate[] coords) {
+            edges.add(new int[] {edge, result});
+        }
+
+        @Override
+        public GraphExtension init(GraphHopper graphhopper) {
+            return null;
+        }
+
+        @Override
+        public void processWay(ReaderWay way) {
+        }
+
+        @Override
+        public void processEdge(ReaderWay way, EdgeIteratorState edge) {
+        }
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+    }
+
+    @Test
+    public void testResultsAreAppliedInWayOrder() {
+        CountingBuilder builder = new CountingBuilder();
+        WayProcessingPipeline pipeline = new WayProcessingPipeline(Collections.singletonList(builder), 4);
+
+        List<int[]> expected = new ArrayList<>();
+        int edge = 0;
+        for (int i = 0; i < WAYS; i++) {
+            pipeline.submitWay(i, new Coordinate[WAYS - i]);
+            Assert.assertTrue(pipeline.hasCurrentWay());
+
+            for (int j = 0; j <= i % 3; j++) {
+                pipeline.processEdge(edge, null);
+                expected.add(new int[] {edge, WAYS - i});
+                edge++;
+            }
+        }
+        pipeline.finish();
+
+        Assert.assertEquals(expected.size(), builder.edges.size());
+        for (int i = 0; i < expected.size(); i++)
+            Assert.assertArrayEquals(expected.get(i), builder.edges.get(i));
+    }
+
+    @Test
+    public void testSkipWay() {
+        CountingBuilder builder = new CountingBuilder();
+        WayProcessingPipeline pipeline = new WayProcessingPipeline(Collections.singletonList(builder), 1);
+
+        pipeline.submitWay(1, new Coordinate[2]);
+        pipeline.processEdge(0, null);
+        pipeline.skipWay();
+        Assert.assertFalse(pipeline.hasCurrentWay());
+        pipeline.finish();
+
+        Assert.assertEquals(1, builder.edges.size());
+        Assert.assertArrayEquals(new int[] {0, 2}, builder.edges.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEdgeWithoutWay() {
+        WayProcessingPipeline pipeline = new WayProcessingPipeline(Collections.singletonList(new CountingBuilder()), 1);
+        try {
+            pipeline.processEdge(0, null);
+        } finally {
+            pipeline.finish();
+        }
+    }
+}
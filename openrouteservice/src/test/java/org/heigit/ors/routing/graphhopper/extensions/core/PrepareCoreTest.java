@@ -21,6 +21,9 @@ import com.graphhopper.routing.weighting.ShortestWeighting;
 import com.graphhopper.routing.weighting.TurnWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.*;
+import com.graphhopper.util.CHEdgeIteratorState;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
 import org.heigit.ors.common.Pair;
 import org.heigit.ors.util.DebugUtility;
 import org.junit.Before;
@@ -120,8 +123,13 @@ public class PrepareCoreTest {
     }
 
     private CHGraph contractGraph(GraphHopperStorage g, CoreTestEdgeFilter restrictedEdges) {
+        return contractGraph(g, restrictedEdges, 1);
+    }
+
+    private CHGraph contractGraph(GraphHopperStorage g, CoreTestEdgeFilter restrictedEdges, int threads) {
         CHGraph lg = g.getCHGraph(new CHProfile(weighting, tMode, TurnWeighting.INFINITE_U_TURN_COSTS, "core"));
         PrepareCore prepare = new PrepareCore(dir, g, lg, restrictedEdges);
+        prepare.setContractionThreads(threads);
 
         // set contraction parameters to prevent test results from changing when algorithm parameters are tweaked
         prepare.setPeriodicUpdates(20);
@@ -380,6 +388,96 @@ public class PrepareCoreTest {
         assertCore(g, new HashSet<>(Arrays.asList(core)));
     }
 
+    @Test
+    public void testComplexRestrictedConcurrent() {
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        restrictedEdges.add(10);
+        restrictedEdges.add(17);
+
+        GraphHopperStorage sequentialGraph = createComplexGraph();
+        CHGraph sequential = contractGraph(sequentialGraph, restrictedEdges, 1);
+        dir = new GHDirectory("", DAType.RAM_INT);
+        CHGraph g = contractGraph(createComplexGraph(), restrictedEdges, 4);
+
+        Integer core[] = {6, 7, 12, 15};
+        assertCore(g, new HashSet<>(Arrays.asList(core)));
+
+        // the shortcuts may differ with the order of contraction, but both hierarchies must answer all queries with
+        // the weights of the shortest paths in the original graph
+        double[][] expected = new double[sequentialGraph.getNodes()][];
+        for (int node = 0; node < expected.length; node++)
+            expected[node] = search(sequentialGraph, node, null);
+
+        double[][] sequentialWeights = queryAllPairs(sequential);
+        double[][] concurrentWeights = queryAllPairs(g);
+        for (int from = 0; from < expected.length; from++) {
+            for (int to = 0; to < expected.length; to++) {
+                assertEquals(expected[from][to], sequentialWeights[from][to], 1e-9);
+                assertEquals(expected[from][to], concurrentWeights[from][to], 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Computes the weights between all pairs of nodes by meeting the upward searches of both nodes, where all edges
+     * between core nodes can be used.
+     */
+    private double[][] queryAllPairs(CHGraph g) {
+        int nodes = g.getNodes();
+        double[][] upward = new double[nodes][];
+        for (int node = 0; node < nodes; node++)
+            upward[node] = search(g, node, g);
+
+        double[][] weights = new double[nodes][nodes];
+        for (int from = 0; from < nodes; from++) {
+            for (int to = 0; to < nodes; to++) {
+                double weight = Double.POSITIVE_INFINITY;
+                for (int node = 0; node < nodes; node++)
+                    weight = Math.min(weight, upward[from][node] + upward[to][node]);
+                weights[from][to] = weight;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Dijkstra on the undirected test graphs. If levels are given, only edges to nodes of the same or a higher level
+     * are relaxed; as the contracted nodes have distinct levels, the same level is only reached within the core.
+     */
+    private double[] search(Graph g, int start, CHGraph levels) {
+        int nodes = g.getNodes();
+        double[] weights = new double[nodes];
+        Arrays.fill(weights, Double.POSITIVE_INFINITY);
+        boolean[] settled = new boolean[nodes];
+        weights[start] = 0;
+
+        EdgeExplorer explorer = g.createEdgeExplorer();
+        while (true) {
+            int node = -1;
+            for (int i = 0; i < nodes; i++) {
+                if (!settled[i] && weights[i] < Double.POSITIVE_INFINITY && (node < 0 || weights[i] < weights[node]))
+                    node = i;
+            }
+            if (node < 0)
+                return weights;
+            settled[node] = true;
+
+            EdgeIterator iter = explorer.setBaseNode(node);
+            while (iter.next()) {
+                int adjNode = iter.getAdjNode();
+                if (levels != null && levels.getLevel(adjNode) < levels.getLevel(node))
+                    continue;
+
+                double weight;
+                if (iter instanceof CHEdgeIteratorState && ((CHEdgeIteratorState) iter).isShortcut())
+                    weight = ((CHEdgeIteratorState) iter).getWeight();
+                else
+                    weight = weighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
+                weights[adjNode] = Math.min(weights[adjNode], weights[node] + weight);
+            }
+        }
+    }
+
     /**
      * Test whether only the core nodes have maximum level
      * @param g the contraction hierarchy Graph
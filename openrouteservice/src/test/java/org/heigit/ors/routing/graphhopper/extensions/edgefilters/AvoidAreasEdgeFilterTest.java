@@ -15,6 +15,7 @@ import org.heigit.ors.routing.graphhopper.extensions.ORSDefaultFlagEncoderFactor
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -25,13 +26,25 @@ public class AvoidAreasEdgeFilterTest {
     private final GraphHopperStorage _graphStorage;
 
     public AvoidAreasEdgeFilterTest() {
-        _graphStorage = new GraphHopperStorage(new GHDirectory("", DAType.RAM_STORE), encoder, false, new GraphExtension.NoOpExtension());
-        _graphStorage.create(3);
+        _graphStorage = createGraphStorage();
 
 
         this._searchParams = new RouteSearchParameters();
     }
 
+    private GraphHopperStorage createGraphStorage() {
+        GraphHopperStorage graphStorage = new GraphHopperStorage(new GHDirectory("", DAType.RAM_STORE), encoder, false, new GraphExtension.NoOpExtension());
+        graphStorage.create(3);
+        return graphStorage;
+    }
+
+    private Polygon createPolygon() {
+        return new GeometryFactory().createPolygon(new Coordinate[]{ new Coordinate(-1,5),
+                new Coordinate(1,5),
+                new Coordinate(1,6),
+                new Coordinate(-1,5)});
+    }
+
     @Test
     public void TestAvoidPolygons() {
         EdgeIteratorState iter1 = _graphStorage.edge(0, 1, 100, true);
@@ -47,8 +60,36 @@ public class AvoidAreasEdgeFilterTest {
                 new Coordinate(1,6),
                 new Coordinate(-1,5)});
 
-        AvoidAreasEdgeFilter filter = new AvoidAreasEdgeFilter(new Polygon[] {poly});
+        AvoidAreasEdgeFilter filter = new AvoidAreasEdgeFilter(new Polygon[] {poly}, _graphStorage);
         assertFalse(filter.accept(iter1));
         assertTrue(filter.accept(iter2));
     }
+
+    @Test
+    public void TestCachesOnlyEdgesOfTheGraph() {
+        EdgeIteratorState edge = _graphStorage.edge(0, 1, 100, true);
+        edge.setWayGeometry(Helper.createPointList(0, 0, -10, 0));
+
+        AvoidAreasEdgeFilter filter = new AvoidAreasEdgeFilter(new Polygon[] {createPolygon()}, _graphStorage);
+        assertTrue(filter.accept(edge));
+
+        // the verdict of an edge of the graph is kept for the whole request
+        edge.setWayGeometry(Helper.createPointList(0, 0, 10, 0));
+        assertTrue(filter.accept(edge));
+
+        // edges beyond those of the graph are virtual, and each lookup creates them with the same ids again
+        GraphHopperStorage firstLookup = createGraphStorage();
+        firstLookup.edge(0, 1, 100, true);
+        EdgeIteratorState crossing = firstLookup.edge(0, 2, 100, true);
+        crossing.setWayGeometry(Helper.createPointList(0, 0, 10, 0));
+
+        GraphHopperStorage secondLookup = createGraphStorage();
+        secondLookup.edge(0, 1, 100, true);
+        EdgeIteratorState outside = secondLookup.edge(0, 2, 100, true);
+        outside.setWayGeometry(Helper.createPointList(0, 0, -10, 0));
+
+        assertEquals(crossing.getEdge(), outside.getEdge());
+        assertFalse(filter.accept(crossing));
+        assertTrue(filter.accept(outside));
+    }
 }
@@ -0,0 +1,63 @@
+package org.heigit.ors.routing.graphhopper.extensions.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class NodeTagsStoreTest {
+    private static Map<String, Object> tags(String... keyValues) {
+        Map<String, Object> tags = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2)
+            tags.put(keyValues[i], keyValues[i + 1]);
+        return tags;
+    }
+
+    @Test
+    public void storesOnlySelectedKeys() {
+        NodeTagsStore store = new NodeTagsStore(Arrays.asList("kerb", "kerb:height", "access"));
+
+        Assert.assertFalse(store.put(1L, tags("highway", "crossing")));
+        Assert.assertTrue(store.put(2L, tags("highway", "crossing", "kerb", "lowered", "kerb:height", "0.03")));
+
+        Assert.assertNull(store.getTags(1L));
+        Assert.assertNull(store.getTags(3L));
+        Assert.assertEquals(NodeTagsStore.NO_NODE, store.getOffset(1L));
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("kerb", "lowered");
+        expected.put("kerb:height", "0.03");
+        Assert.assertEquals(expected, store.getTags(2L));
+        Assert.assertEquals(1, store.getNodeCount());
+    }
+
+    @Test
+    public void sharesValuesAndHandlesUnsortedIds() {
+        NodeTagsStore store = new NodeTagsStore(Arrays.asList("kerb", "access"));
+
+        for (long id = 10_000; id > 0; id -= 2)
+            store.put(id * 1_000_000L, tags("kerb", id % 4 == 0 ? "raised" : "lowered", "access", "no"));
+
+        Assert.assertEquals(5_000, store.getNodeCount());
+        Assert.assertEquals(3, store.getDistinctValueCount());
+
+        int offset = store.getOffset(4L * 1_000_000L);
+        Assert.assertEquals(2, store.getTagCount(offset));
+        Assert.assertEquals("raised", store.getTags(4L * 1_000_000L).get("kerb"));
+        Assert.assertEquals("lowered", store.getTags(6L * 1_000_000L).get("kerb"));
+        Assert.assertEquals("no", store.getTags(6L * 1_000_000L).get("access"));
+        Assert.assertNull(store.getTags(5L * 1_000_000L));
+    }
+
+    @Test
+    public void clear() {
+        NodeTagsStore store = new NodeTagsStore(Arrays.asList("kerb"));
+        store.put(1L, tags("kerb", "lowered"));
+        store.clear();
+
+        Assert.assertTrue(store.isEmpty());
+        Assert.assertNull(store.getTags(1L));
+    }
+}
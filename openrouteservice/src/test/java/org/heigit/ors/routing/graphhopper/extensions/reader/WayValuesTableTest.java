@@ -0,0 +1,73 @@
+package org.heigit.ors.routing.graphhopper.extensions.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class WayValuesTableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeCsv(String content) throws IOException {
+        File file = folder.newFile("values.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testReadUnsortedCsv() throws IOException {
+        File csv = writeCsv("osm_id;ungreen_factor\r\n30; 0.5\r\n10;1.25\r\n\r\n20 ;-2\r\n10;3e-1\r\n40;\r\n");
+        WayValuesTable table = WayValuesTable.load(csv.getPath(), false);
+
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(0.3f, table.get(10), 0);
+        Assert.assertEquals(-2f, table.get(20), 0);
+        Assert.assertEquals(0.5f, table.get(30), 0);
+        Assert.assertTrue(Float.isNaN(table.get(40)));
+        Assert.assertEquals(-2f, table.getMin(), 0);
+        Assert.assertEquals(0.5f, table.getMax(), 0);
+        Assert.assertFalse(new File(csv.getPath() + WayValuesTable.CACHE_FILE_EXTENSION).exists());
+    }
+
+    @Test
+    public void testCommaSeparatedWithoutTrailingNewline() throws IOException {
+        File csv = writeCsv("osm_id,noise_level\n1,2\n2,3");
+        WayValuesTable table = WayValuesTable.load(csv.getPath(), false);
+
+        Assert.assertEquals(2, table.size());
+        Assert.assertEquals(2f, table.get(1), 0);
+        Assert.assertEquals(3f, table.get(2), 0);
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        File csv = writeCsv("osm_id,value\n5,1.5\n3,2.5\n");
+        WayValuesTable parsed = WayValuesTable.load(csv.getPath(), true);
+        File cache = new File(csv.getPath() + WayValuesTable.CACHE_FILE_EXTENSION);
+        Assert.assertTrue(cache.isFile());
+
+        WayValuesTable cached = WayValuesTable.load(csv.getPath(), true);
+        Assert.assertEquals(parsed.size(), cached.size());
+        Assert.assertEquals(1.5f, cached.get(5), 0);
+        Assert.assertEquals(2.5f, cached.get(3), 0);
+        Assert.assertEquals(1.5f, cached.getMin(), 0);
+
+        // an outdated cache is replaced
+        Files.write(csv.toPath(), "osm_id,value\n5,4\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(csv.setLastModified(csv.lastModified() + 2000));
+        WayValuesTable updated = WayValuesTable.load(csv.getPath(), true);
+        Assert.assertEquals(1, updated.size());
+        Assert.assertEquals(4f, updated.get(5), 0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidId() throws IOException {
+        WayValuesTable.load(writeCsv("osm_id,value\n1a,2\n").getPath(), false);
+    }
+}
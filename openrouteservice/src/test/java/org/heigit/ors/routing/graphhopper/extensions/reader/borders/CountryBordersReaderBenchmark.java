@@ -0,0 +1,96 @@
+package org.heigit.ors.routing.graphhopper.extensions.reader.borders;
+
+import com.vividsolutions.jts.densify.Densifier;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the countries of points through the STR-tree of the {@link CountryBordersReader} with the
+ * previous linear scan over all hierarchies and polygons testing against the plain boundary geometries. The countries
+ * are a synthetic grid of squares with densified boundaries, one hierarchy per row of the grid.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main CountryBordersReaderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CountryBordersReaderBenchmark {
+    private static final int LOOKUPS = 10_000;
+    private static final double COUNTRY_SIZE = 1.0;
+
+    @Param({"10", "16"})
+    private int gridSize;
+
+    private final GeometryFactory gf = new GeometryFactory();
+    private final List<CountryBordersHierarchy> hierarchies = new ArrayList<>();
+    private CountryBordersReader reader;
+    private Coordinate[] points;
+
+    @Setup
+    public void setup() throws Exception {
+        reader = new CountryBordersReader();
+
+        for (int row = 0; row < gridSize; row++) {
+            CountryBordersHierarchy hierarchy = new CountryBordersHierarchy();
+            for (int col = 0; col < gridSize; col++)
+                hierarchy.add(new CountryBordersPolygon("c" + row + "_" + col, createCountry(col * COUNTRY_SIZE, row * COUNTRY_SIZE)));
+            hierarchies.add(hierarchy);
+            reader.addHierarchy((long) row, hierarchy);
+        }
+
+        Random random = new Random(42);
+        points = new Coordinate[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++)
+            points[i] = new Coordinate(random.nextDouble() * gridSize * COUNTRY_SIZE, random.nextDouble() * gridSize * COUNTRY_SIZE);
+
+        // build the index and prepared geometries outside of the measurement
+        for (Coordinate c : points)
+            reader.getCountry(c);
+    }
+
+    private Geometry createCountry(double minX, double minY) {
+        Coordinate[] shell = new Coordinate[] {
+                new Coordinate(minX, minY),
+                new Coordinate(minX + COUNTRY_SIZE, minY),
+                new Coordinate(minX + COUNTRY_SIZE, minY + COUNTRY_SIZE),
+                new Coordinate(minX, minY + COUNTRY_SIZE),
+                new Coordinate(minX, minY)
+        };
+        // real borders have thousands of vertices
+        return Densifier.densify(gf.createPolygon(shell), COUNTRY_SIZE / 500);
+    }
+
+    @Benchmark
+    public int indexed() {
+        int found = 0;
+        for (Coordinate c : points)
+            found += reader.getCountry(c).length;
+        return found;
+    }
+
+    @Benchmark
+    public int linear() {
+        int found = 0;
+        for (Coordinate c : points) {
+            for (CountryBordersHierarchy h : hierarchies) {
+                if (!h.inBbox(c))
+                    continue;
+                for (CountryBordersPolygon cp : h.getPolygons()) {
+                    if (cp.inBbox(c) && cp.getBoundary().contains(gf.createPoint(c)))
+                        found++;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -107,6 +107,29 @@ public class CountryBordersReaderTest {
         assertEquals("country3", polys[0].getName());
     }
 
+    /**
+     * Test that countries of a hierarchy added after a lookup are found as well
+     */
+    @Test
+    public void TestGetCountryAfterAddingHierarchy() throws Exception {
+        Coordinate c = new Coordinate(5.5, 5.5);
+        assertEquals(0, _reader.getCountry(c).length);
+
+        CountryBordersHierarchy h = new CountryBordersHierarchy();
+        h.add(new CountryBordersPolygon("country5", gf.createPolygon(new Coordinate[] {
+                new Coordinate(5,5),
+                new Coordinate(6,5),
+                new Coordinate(6,6),
+                new Coordinate(5,6),
+                new Coordinate(5,5)
+        })));
+        _reader.addHierarchy(3l, h);
+
+        CountryBordersPolygon[] polys = _reader.getCountry(c);
+        assertEquals(1, polys.length);
+        assertEquals("country5", polys[0].getName());
+    }
+
     /**
      * Test that the correct id is returned for a country of the given local name
      */
@@ -0,0 +1,146 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.CHProfile;
+import com.graphhopper.storage.DAType;
+import com.graphhopper.storage.GHDirectory;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.CHEdgeIteratorState;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MultiTreeMetricsExtractor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ShortcutMetricsStorageTest {
+    private static final int GRID_SIZE = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CarFlagEncoder encoder = new CarFlagEncoder();
+    private final Weighting weighting = new FastestWeighting(encoder);
+    private final CHProfile chProfile = CHProfile.nodeBased(weighting);
+    private GraphHopperStorage graph;
+    private CHGraph chGraph;
+
+    @Before
+    public void setUp() {
+        List<CHProfile> chProfiles = new ArrayList<>();
+        chProfiles.add(chProfile);
+        graph = new GraphBuilder(EncodingManager.create(encoder)).setCHProfiles(chProfiles).create();
+
+        Random random = new Random(42);
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int node = row * GRID_SIZE + col;
+                if (col + 1 < GRID_SIZE)
+                    addEdge(random, node, node + 1);
+                if (row + 1 < GRID_SIZE)
+                    addEdge(random, node, node + GRID_SIZE);
+            }
+        }
+        graph.freeze();
+
+        PrepareContractionHierarchies.fromGraphHopperStorage(graph, chProfile).doWork();
+        chGraph = graph.getCHGraph(chProfile);
+    }
+
+    private void addEdge(Random random, int from, int to) {
+        EdgeIteratorState edge = graph.edge(from, to, 10 + random.nextInt(1000), random.nextInt(10) > 0);
+        edge.set(encoder.getAverageSpeedEnc(), 5 * (2 + random.nextInt(20)));
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    private MultiTreeMetricsExtractor createMetricsExtractor() {
+        return new MultiTreeMetricsExtractor(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE, chGraph, encoder,
+                weighting, DistanceUnit.METERS);
+    }
+
+    /**
+     * Sums the distances of the original edges of the given edge by following the skipped edges of shortcuts.
+     */
+    private double sumDistance(int edgeId) {
+        CHEdgeIteratorState edge = chGraph.getEdgeIteratorState(edgeId, Integer.MIN_VALUE);
+        if (!edge.isShortcut())
+            return edge.getDistance();
+        return sumDistance(edge.getSkippedEdge1()) + sumDistance(edge.getSkippedEdge2());
+    }
+
+    @Test
+    public void testReloadedMetricsMatchUnpacking() {
+        int baseEdges = graph.getEdges();
+        int edges = chGraph.getEdges();
+        Assert.assertTrue(edges > baseEdges);
+
+        String location = folder.getRoot().getAbsolutePath();
+        ShortcutMetricsStorage storage = new ShortcutMetricsStorage(new GHDirectory(location, DAType.RAM_STORE), chProfile);
+        storage.build(chGraph, baseEdges, createMetricsExtractor()::calcShortcutMetrics);
+        storage.flush();
+        storage.close();
+
+        ShortcutMetricsStorage loaded = new ShortcutMetricsStorage(new GHDirectory(location, DAType.RAM_STORE), chProfile);
+        Assert.assertTrue(loaded.loadExisting(chGraph, baseEdges));
+
+        MultiTreeMetricsExtractor extractor = createMetricsExtractor();
+        double[] metrics = new double[2];
+        double totalDistance = 0;
+        double totalLoadedDistance = 0;
+        double totalTime = 0;
+        double totalLoadedTime = 0;
+
+        Assert.assertFalse(loaded.contains(baseEdges - 1));
+        Assert.assertFalse(loaded.contains(edges));
+        for (int edgeId = baseEdges; edgeId < edges; edgeId++) {
+            Assert.assertTrue(loaded.contains(edgeId));
+
+            CHEdgeIteratorState shortcut = chGraph.getEdgeIteratorState(edgeId, Integer.MIN_VALUE);
+            int baseNode = shortcut.getBaseNode();
+            int adjNode = shortcut.getAdjNode();
+            boolean reverse = chGraph.getLevel(baseNode) > chGraph.getLevel(adjNode);
+
+            double distance = sumDistance(edgeId);
+            Assert.assertEquals(distance, loaded.getDistance(edgeId), 1e-3);
+            totalDistance += distance;
+            totalLoadedDistance += loaded.getDistance(edgeId);
+
+            extractor.calcShortcutMetrics(chGraph.getEdgeIteratorState(edgeId, adjNode), metrics);
+            Assert.assertEquals(distance, metrics[0], 1e-6);
+            Assert.assertEquals(metrics[1], loaded.getTime(edgeId, reverse), 1e-3);
+            totalTime += metrics[1];
+            totalLoadedTime += loaded.getTime(edgeId, reverse);
+
+            extractor.calcShortcutMetrics(chGraph.getEdgeIteratorState(edgeId, baseNode), metrics);
+            Assert.assertEquals(metrics[1], loaded.getTime(edgeId, !reverse), 1e-3);
+            totalTime += metrics[1];
+            totalLoadedTime += loaded.getTime(edgeId, !reverse);
+        }
+
+        Assert.assertEquals(totalDistance, totalLoadedDistance, 1e-3 * (edges - baseEdges));
+        Assert.assertEquals(totalTime, totalLoadedTime, 1e-3 * (edges - baseEdges));
+        loaded.close();
+
+        // a storage of another CH graph is rejected
+        ShortcutMetricsStorage mismatch = new ShortcutMetricsStorage(new GHDirectory(location, DAType.RAM_STORE), chProfile);
+        Assert.assertFalse(mismatch.loadExisting(chGraph, baseEdges - 1));
+    }
+}
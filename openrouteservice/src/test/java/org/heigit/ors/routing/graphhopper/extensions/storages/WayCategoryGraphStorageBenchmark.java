@@ -0,0 +1,75 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import com.graphhopper.storage.RAMDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the way categories of edges from the {@link com.graphhopper.storage.DataAccess} of the storage
+ * with reading them from its in-memory copy. The edges are read in random order, like the relaxations of a search
+ * spread over the edge ids of a large extract.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main WayCategoryGraphStorageBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WayCategoryGraphStorageBenchmark {
+    private static final int LOOKUPS = 100_000;
+
+    @Param({"1000000", "20000000"})
+    private int edgesCount;
+
+    private WayCategoryGraphStorage stored;
+    private WayCategoryGraphStorage inMemory;
+    private int[] edges;
+    private final byte[] buffer = new byte[1];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        byte[] values = new byte[edgesCount];
+        // most edges have no category
+        for (int i = 0; i < edgesCount; i++)
+            values[i] = (byte) (random.nextInt(10) == 0 ? 1 << random.nextInt(5) : 0);
+
+        stored = createStorage(values, false);
+        inMemory = createStorage(values, true);
+
+        edges = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++)
+            edges[i] = random.nextInt(edgesCount);
+    }
+
+    private static WayCategoryGraphStorage createStorage(byte[] values, boolean inMemory) {
+        WayCategoryGraphStorage storage = new WayCategoryGraphStorage();
+        storage.setInMemory(inMemory);
+        storage.init(null, new RAMDirectory());
+        storage.create(values.length);
+        for (int i = 0; i < values.length; i++)
+            storage.setEdgeValue(i, values[i]);
+        storage.flush();
+        return storage;
+    }
+
+    @Benchmark
+    public int dataAccess() {
+        int sum = 0;
+        for (int edge : edges)
+            sum += stored.getEdgeValue(edge, buffer);
+        return sum;
+    }
+
+    @Benchmark
+    public int inMemory() {
+        int sum = 0;
+        for (int edge : edges)
+            sum += inMemory.getEdgeValue(edge, buffer);
+        return sum;
+    }
+}
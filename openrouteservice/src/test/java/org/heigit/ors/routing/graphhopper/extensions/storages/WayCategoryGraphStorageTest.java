@@ -0,0 +1,55 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import com.graphhopper.storage.RAMDirectory;
+import org.heigit.ors.routing.AvoidFeatureFlags;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WayCategoryGraphStorageTest {
+    private WayCategoryGraphStorage createStorage(boolean inMemory) {
+        WayCategoryGraphStorage storage = new WayCategoryGraphStorage();
+        storage.setInMemory(inMemory);
+        storage.init(null, new RAMDirectory());
+        storage.create(1);
+        storage.setEdgeValue(0, AvoidFeatureFlags.HIGHWAYS);
+        storage.setEdgeValue(1, AvoidFeatureFlags.TOLLWAYS | AvoidFeatureFlags.FERRIES);
+        storage.setEdgeValue(3, 0xff);
+        storage.flush();
+        return storage;
+    }
+
+    @Test
+    public void TestInMemoryValuesMatchStoredValues() {
+        WayCategoryGraphStorage stored = createStorage(false);
+        WayCategoryGraphStorage inMemory = createStorage(true);
+        byte[] buffer = new byte[1];
+
+        for (int edge = 0; edge < 4; edge++)
+            assertEquals(stored.getEdgeValue(edge, buffer), inMemory.getEdgeValue(edge, buffer));
+
+        assertEquals(AvoidFeatureFlags.TOLLWAYS | AvoidFeatureFlags.FERRIES, inMemory.getEdgeValue(1, buffer));
+        assertEquals(0xff, inMemory.getEdgeValue(3, buffer));
+    }
+
+    @Test
+    public void TestValuesSetAfterFlushAreReturned() {
+        WayCategoryGraphStorage inMemory = createStorage(true);
+        inMemory.setEdgeValue(2, AvoidFeatureFlags.STEPS);
+
+        assertEquals(AvoidFeatureFlags.STEPS, inMemory.getEdgeValue(2, new byte[1]));
+    }
+}
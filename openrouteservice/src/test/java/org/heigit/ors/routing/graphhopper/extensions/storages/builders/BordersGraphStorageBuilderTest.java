@@ -14,11 +14,17 @@
 package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
 
 import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.EdgeIteratorState;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import org.heigit.ors.routing.graphhopper.extensions.reader.borders.CountryBordersHierarchy;
 import org.heigit.ors.routing.graphhopper.extensions.reader.borders.CountryBordersPolygon;
 import org.heigit.ors.routing.graphhopper.extensions.reader.borders.CountryBordersReader;
+import org.heigit.ors.routing.graphhopper.extensions.storages.BordersGraphStorage;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -152,4 +158,36 @@ public class BordersGraphStorageBuilderTest {
         });
         Assert.assertEquals(1, names2.length);
     }
+
+    /**
+     * Test that the countries of the nodes of an edge are stored rather than those of the way it belongs to
+     */
+    @Test
+    public void TestProcessEdge() throws Exception {
+        _cbr.addId("1", "c1", "c1", "C1", "CO1");
+        _cbr.addId("2", "c2", "c2", "C2", "CO2");
+
+        BordersGraphStorageBuilder builder = new BordersGraphStorageBuilder();
+        builder.setBordersBuilder(_cbr);
+        BordersGraphStorage storage = (BordersGraphStorage) builder.init(null);
+        storage.init();
+
+        GraphHopperStorage graph = new GraphBuilder(EncodingManager.create(new CarFlagEncoder())).create();
+        EdgeIteratorState inside = graph.edge(0, 1);
+        EdgeIteratorState crossing = graph.edge(1, 2);
+
+        ReaderWay rw = new ReaderWay(1);
+        rw.setTag("country1", "c1");
+        rw.setTag("country2", "c2");
+
+        builder.processEdge(rw, inside, new Coordinate[] { new Coordinate(0.25, 0.5), new Coordinate(0.5, 0.5) });
+        builder.processEdge(rw, crossing, new Coordinate[] { new Coordinate(0.5, 0.5), new Coordinate(1.5, 0.5) });
+
+        Assert.assertEquals(1, storage.getEdgeValue(inside.getEdge(), BordersGraphStorage.Property.START));
+        Assert.assertEquals(1, storage.getEdgeValue(inside.getEdge(), BordersGraphStorage.Property.END));
+        Assert.assertEquals(BordersGraphStorage.NO_BORDER, storage.getEdgeValue(inside.getEdge(), BordersGraphStorage.Property.TYPE));
+        Assert.assertEquals(1, storage.getEdgeValue(crossing.getEdge(), BordersGraphStorage.Property.START));
+        Assert.assertEquals(2, storage.getEdgeValue(crossing.getEdge(), BordersGraphStorage.Property.END));
+        Assert.assertEquals(BordersGraphStorage.CONTROLLED_BORDER, storage.getEdgeValue(crossing.getEdge(), BordersGraphStorage.Property.TYPE));
+    }
 }
@@ -0,0 +1,61 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import org.heigit.ors.routing.graphhopper.extensions.reader.WayValuesTable;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+public class GreenIndexGraphStorageBuilderTest {
+    private static final double MIN = 10;
+    private static final double MAX = 74;
+    private static final int TOTAL_LEVEL = 64;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The level of the slots [min + i * step, min + (i + 1) * step] as assigned before the levels were computed
+     * arithmetically: the first slot containing the value wins.
+     */
+    private static int slotRangeLevel(double value) {
+        double step = (MAX - MIN) / TOTAL_LEVEL;
+        for (int i = 0; i < TOTAL_LEVEL; i++) {
+            if (value >= MIN + i * step && value <= MIN + (i + 1) * step)
+                return i;
+        }
+        return TOTAL_LEVEL - 1;
+    }
+
+    @Test
+    public void levelsMatchSlotRanges() throws Exception {
+        // the way id is the value times two, so that all slot boundaries and the values between them are listed
+        StringBuilder csv = new StringBuilder("osm_id;ungreen_factor\n");
+        for (int i = (int) MIN * 2; i <= (int) MAX * 2; i++)
+            csv.append(i).append(';').append(i / 2.0).append('\n');
+        File file = folder.newFile("green.csv");
+        Files.write(file.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(WayValuesTable.PARAM_KEY_FILE_PATH, file.getPath());
+        parameters.put(WayValuesTable.PARAM_KEY_BINARY_CACHE, "false");
+        GreenIndexGraphStorageBuilder builder = new GreenIndexGraphStorageBuilder();
+        builder.setParameters(parameters);
+        builder.init(null);
+
+        Assert.assertEquals(0, builder.calcGreenIndex((long) MIN * 2));
+        Assert.assertEquals(4, builder.calcGreenIndex(15 * 2));
+        Assert.assertEquals(5, builder.calcGreenIndex(31));
+        Assert.assertEquals(TOTAL_LEVEL - 1, builder.calcGreenIndex((long) MAX * 2));
+        Assert.assertEquals(TOTAL_LEVEL - 1, builder.calcGreenIndex(1));
+
+        for (int i = (int) MIN * 2; i <= (int) MAX * 2; i++)
+            Assert.assertEquals("value " + i / 2.0, slotRangeLevel(i / 2.0), builder.calcGreenIndex(i));
+    }
+}
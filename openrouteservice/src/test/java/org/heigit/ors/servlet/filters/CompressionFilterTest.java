@@ -0,0 +1,85 @@
+package org.heigit.ors.servlet.filters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class CompressionFilterTest {
+    private final CompressionFilter filter = new CompressionFilter();
+
+    @Test
+    public void selectEncodingByConfiguredOrder() {
+        Assert.assertEquals("br", filter.selectEncoding("gzip, deflate, br"));
+        Assert.assertEquals("gzip", filter.selectEncoding("deflate, gzip"));
+        Assert.assertEquals("deflate", filter.selectEncoding("DEFLATE"));
+        Assert.assertNull(filter.selectEncoding("identity"));
+        Assert.assertNull(filter.selectEncoding(null));
+    }
+
+    @Test
+    public void selectEncodingSkipsZeroQuality() {
+        Assert.assertEquals("gzip", filter.selectEncoding("br;q=0, gzip;q=0.5"));
+        Assert.assertNull(filter.selectEncoding("gzip; q=0.0"));
+    }
+
+    @Test
+    public void compressedStreamsRoundTrip() throws Exception {
+        byte[] data = "{\"routes\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        Assert.assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(compress("gzip", data)))));
+        Assert.assertArrayEquals(data, readAll(new InflaterInputStream(new ByteArrayInputStream(compress("deflate", data)))));
+    }
+
+    @Test
+    public void wrapperDropsContentLength() {
+        // records the names of all headers which reach the wrapped response
+        List<String> headers = new ArrayList<>();
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> {
+                    if (method.getName().endsWith("Header"))
+                        headers.add((String) args[0]);
+                    return null;
+                });
+
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(response, filter, "gzip");
+        wrapper.setHeader("Content-Length", "10");
+        wrapper.setIntHeader("content-length", 10);
+        wrapper.addHeader("Content-Length", "10");
+        wrapper.addIntHeader("CONTENT-LENGTH", 10);
+        wrapper.setContentLength(10);
+        wrapper.setContentLengthLong(10);
+        Assert.assertTrue(headers.isEmpty());
+
+        wrapper.addHeader("Vary", "Accept-Encoding");
+        wrapper.addIntHeader("Age", 0);
+        Assert.assertEquals(2, headers.size());
+    }
+
+    private byte[] compress(String encoding, byte[] data) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream stream = filter.createCompressedStream(encoding, out)) {
+            stream.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int len;
+        while ((len = in.read(buffer)) > 0)
+            out.write(buffer, 0, len);
+        return out.toByteArray();
+    }
+}